@@ -13,6 +13,8 @@ plugins {
     id("org.jetbrains.changelog") version "1.3.1"
     // Gradle Qodana Plugin
     id("org.jetbrains.qodana") version "0.1.13"
+    // JMH benchmarks
+    id("me.champeau.jmh") version "0.6.6"
 }
 
 group = properties("pluginGroup")
@@ -52,6 +54,19 @@ qodana {
     showReport.set(System.getenv("QODANA_SHOW_REPORT")?.toBoolean() ?: false)
 }
 
+// Configure JMH benchmarks for the PSI independent code in "src/jmh" - read more: https://github.com/melix/jmh-gradle-plugin
+// "./gradlew jmh"; results are written as JSON to compare them between builds
+jmh {
+    jmhVersion.set("1.35")
+    // IDE classes are only provided on the test classpath by the Gradle IntelliJ Plugin
+    includeTests.set(true)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(project.file("build/reports/jmh/results.json"))
+}
+
 tasks {
     // Set the JVM compatibility versions
     properties("javaVersion").let {
@@ -111,5 +126,10 @@ tasks {
         useJUnitPlatform {
             includeEngines("junit-vintage")
         }
+
+        // Opt-in for the scaling suite on generated large projects: "-Dsymfony.scaling.tests=true"
+        systemProperty("symfony.scaling.tests", System.getProperty("symfony.scaling.tests", "false"))
+        // Project size for the index throughput report: "-Dsymfony.index.throughput.scale=100"
+        systemProperty("symfony.index.throughput.scale", System.getProperty("symfony.index.throughput.scale", "1"))
     }
 }
@@ -0,0 +1,51 @@
+package fr.adrienbrault.idea.symfony2plugin.benchmark;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.SubscribedEvent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringSetDataExternalizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index values are written on every indexing of a file and read on every index lookup
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExternalizerBenchmark {
+
+    private final ObjectStreamDataExternalizer<SubscribedEvent> objectStreamExternalizer = new ObjectStreamDataExternalizer<>();
+
+    private final SubscribedEvent subscribedEvent = new SubscribedEvent("\\App\\EventSubscriber\\ExceptionSubscriber", "onKernelException", 10, false);
+
+    private final Set<String> strings = new HashSet<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < 100; i++) {
+            strings.add("app.service_" + i);
+        }
+    }
+
+    @Benchmark
+    public SubscribedEvent objectStreamRoundTrip() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        objectStreamExternalizer.save(new DataOutputStream(stream), subscribedEvent);
+
+        return objectStreamExternalizer.read(new DataInputStream(new ByteArrayInputStream(stream.toByteArray())));
+    }
+
+    @Benchmark
+    public Set<String> stringSetRoundTrip() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        StringSetDataExternalizer.INSTANCE.save(new DataOutputStream(stream), strings);
+
+        return StringSetDataExternalizer.INSTANCE.read(new DataInputStream(new ByteArrayInputStream(stream.toByteArray())));
+    }
+}
@@ -0,0 +1,54 @@
+package fr.adrienbrault.idea.symfony2plugin.benchmark;
+
+import fr.adrienbrault.idea.symfony2plugin.util.resource.GlobPattern;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service "resource" / "exclude" globs which "ServiceIndexUtil" matches against every class file of a prototype
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GlobPatternBenchmark {
+
+    private static final String RESOURCE = "/project/src/*";
+    private static final String EXCLUDE = "/project/src/{DependencyInjection,Entity,Tests,Kernel.php,Service/{Foo,Bar}}";
+
+    private GlobPattern resource;
+    private GlobPattern exclude;
+
+    private final List<String> paths = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        resource = GlobPattern.compile(RESOURCE);
+        exclude = GlobPattern.compile(EXCLUDE);
+
+        String[] directories = {"Controller", "Entity", "Service/Foo", "Service/Baz", "Tests", "Command", "EventSubscriber"};
+        for (int i = 0; i < 1000; i++) {
+            paths.add(String.format("/project/src/%s/Class%d.php", directories[i % directories.length], i));
+        }
+
+        paths.add("/project/src/Kernel.php");
+        paths.add("/project/vendor/foo/bar/src/Foo.php");
+    }
+
+    @Benchmark
+    public GlobPattern compile() {
+        return GlobPattern.compile(EXCLUDE);
+    }
+
+    @Benchmark
+    public void matches(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(resource.matches(path) && !exclude.matches(path));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package fr.adrienbrault.idea.symfony2plugin.benchmark;
+
+import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalDefaultDataCollector;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.LocalProfilerDumpParser;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.ReverseFileLineReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local profiler: tail of the "index.csv" and data extraction of a serialized profile
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProfilerBenchmark {
+
+    private File indexCsv;
+
+    private byte[] profile;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            csv.append(String.format("%06x,127.0.0.1,GET,http://127.0.0.1:8000/foo/%d,%d,,200\n", i, i, 1500000000 + i));
+        }
+
+        indexCsv = File.createTempFile("symfony-profiler-index", ".csv");
+        Files.write(indexCsv.toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        // profiles are megabytes of serialized collectors; the interesting parts are somewhere in between
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append(String.format("s:8:\"foo_%04d\";s:3:\"bar\";", i % 10000));
+        }
+
+        content.append("a:2:{s:6:\"_route\";s:9:\"foo_route\";s:11:\"_controller\";s:14:\"Foo::barAction\";}");
+        content.append("s:32:\"template.twig (foo/bar.html.twig)\";");
+
+        for (int i = 0; i < 20000; i++) {
+            content.append(String.format("s:8:\"bar_%04d\";i:%d;", i % 10000, i));
+        }
+
+        profile = content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        indexCsv.delete();
+    }
+
+    @Benchmark
+    public String[] reverseFileLineReader() throws IOException {
+        return new ReverseFileLineReader(indexCsv, "UTF-8", 11).readLines();
+    }
+
+    @Benchmark
+    public String localDefaultDataCollector() throws IOException {
+        LocalDefaultDataCollector collector = new LocalDefaultDataCollector(LocalProfilerDumpParser.parse(new ByteArrayInputStream(profile)));
+        return collector.getRoute() + collector.getController() + collector.getTemplate();
+    }
+}
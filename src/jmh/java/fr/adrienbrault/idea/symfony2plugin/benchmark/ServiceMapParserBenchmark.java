@@ -0,0 +1,53 @@
+package fr.adrienbrault.idea.symfony2plugin.benchmark;
+
+import fr.adrienbrault.idea.symfony2plugin.dic.ServiceMap;
+import fr.adrienbrault.idea.symfony2plugin.dic.ServiceMapParser;
+import org.openjdk.jmh.annotations.*;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled container "var/cache/dev/App_KernelDevDebugContainer.xml" with services and aliases
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServiceMapParserBenchmark {
+
+    @Param({"1000", "10000"})
+    public int services;
+
+    private byte[] content;
+
+    private ServiceMapParser parser;
+
+    @Setup
+    public void setUp() throws ParserConfigurationException {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<container xmlns=\"http://symfony.com/schema/dic/services\">\n  <services>\n");
+
+        for (int i = 0; i < services; i++) {
+            xml.append(String.format("    <service id=\"app.service_%d\" class=\"App\\Service\\Service%d\" public=\"%s\"/>\n", i, i, i % 2 == 0));
+
+            if(i % 10 == 0) {
+                xml.append(String.format("    <service id=\"App\\Service\\Service%dInterface\" alias=\"app.service_%d\"/>\n", i, i));
+            }
+        }
+
+        xml.append("  </services>\n</container>\n");
+
+        content = xml.toString().getBytes(StandardCharsets.UTF_8);
+        parser = new ServiceMapParser();
+    }
+
+    @Benchmark
+    public ServiceMap parse() throws IOException, SAXException {
+        return parser.parse(new ByteArrayInputStream(content));
+    }
+}
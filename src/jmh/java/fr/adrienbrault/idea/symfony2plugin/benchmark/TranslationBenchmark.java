@@ -0,0 +1,59 @@
+package fr.adrienbrault.idea.symfony2plugin.benchmark;
+
+import fr.adrienbrault.idea.symfony2plugin.translation.dict.TranslationUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XLIFF key extraction and placeholder extraction of translation messages
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TranslationBenchmark {
+
+    private static final String[] MESSAGES = {
+        "Hello %name%, you have %count% new messages",
+        "This value should be {{ limit }} or more.",
+        "{count, plural, =0 {no apples} one {one apple} other {# apples}}",
+        "@username and !username said %username",
+        "A plain message without any placeholder at all, but with some length to scan",
+    };
+
+    @Param({"100", "5000"})
+    public int units;
+
+    private byte[] xliff;
+
+    @Setup
+    public void setUp() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<xliff xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" version=\"1.2\">\n  <file source-language=\"en\" datatype=\"plaintext\" original=\"file.ext\">\n    <body>\n");
+
+        for (int i = 0; i < units; i++) {
+            xml.append(String.format("      <trans-unit id=\"%d\" resname=\"app.key_%d\">\n        <source>app.key_%d</source>\n        <target>%s</target>\n      </trans-unit>\n", i, i, i, MESSAGES[i % MESSAGES.length]));
+        }
+
+        xml.append("    </body>\n  </file>\n</xliff>\n");
+
+        xliff = xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Set<String> xliffTranslations() {
+        return TranslationUtil.getXliffTranslations(new ByteArrayInputStream(xliff));
+    }
+
+    @Benchmark
+    public void placeholderFromTranslation(Blackhole blackhole) {
+        for (String message : MESSAGES) {
+            blackhole.consume(TranslationUtil.getPlaceholderFromTranslation(message));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package fr.adrienbrault.idea.symfony2plugin.benchmark;
+
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Template names are normalized on every Twig reference, completion and index lookup
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TwigTemplateNameBenchmark {
+
+    private static final String[] TEMPLATES = {
+        "@App/foo/bar.html.twig",
+        "@!FOSUser/layout.html.twig",
+        "foo/bar.html.twig",
+        "FooBundle:Foo:steps/step_finish.html.twig",
+        "FooBundle:Foo/steps:step_finish.html.twig",
+        "FooBundle\\Foo\\bar.html.twig",
+    };
+
+    @Benchmark
+    public void normalizeTemplateName(Blackhole blackhole) {
+        for (String template : TEMPLATES) {
+            blackhole.consume(TwigUtil.normalizeTemplateName(template));
+        }
+    }
+}
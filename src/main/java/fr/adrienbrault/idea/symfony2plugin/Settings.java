@@ -5,7 +5,10 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.intellij.util.xmlb.annotations.Transient;
 import fr.adrienbrault.idea.symfony2plugin.assistant.reference.MethodParameterSetting;
 import fr.adrienbrault.idea.symfony2plugin.assistant.signature.MethodSignatureSetting;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerFile;
@@ -14,10 +17,9 @@ import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigNamespaceSetting;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
 
 @State(
        name = "Symfony2PluginSettings",
@@ -97,6 +99,16 @@ public class Settings implements PersistentStateComponent<Settings> {
     @Nullable
     public List<MethodSignatureSetting> methodSignatureSettings = new ArrayList<>();
 
+    /**
+     * Public non-static fields are the persisted state
+     */
+    private static final Field[] STATE_FIELDS = Arrays.stream(Settings.class.getFields())
+        .filter(field -> !Modifier.isStatic(field.getModifiers()))
+        .toArray(Field[]::new);
+
+    @NotNull
+    private final StateModificationTracker modificationTracker = new StateModificationTracker();
+
     public static Settings getInstance(Project project) {
         return ServiceManager.getService(project, Settings.class);
     }
@@ -110,5 +122,56 @@ public class Settings implements PersistentStateComponent<Settings> {
     @Override
     public void loadState(@NotNull Settings settings) {
         XmlSerializerUtil.copyBean(settings, this);
+        modificationTracker.incModificationCount();
+    }
+
+    /**
+     * Changes on every settings change which can influence resolving or cached elements.
+     *
+     * Forms, dialogs and project setup are writing the public fields directly, so the tracker is comparing the state itself
+     */
+    @NotNull
+    @Transient
+    public ModificationTracker getModificationTracker() {
+        return modificationTracker;
+    }
+
+    private int getStateHash() {
+        int hash = 1;
+
+        for (Field field : STATE_FIELDS) {
+            try {
+                hash = 31 * hash + Objects.hashCode(field.get(this));
+            } catch (IllegalAccessException ignored) {
+            }
+        }
+
+        return hash;
+    }
+
+    private class StateModificationTracker implements ModificationTracker {
+        @NotNull
+        private final SimpleModificationTracker tracker = new SimpleModificationTracker();
+
+        @Nullable
+        private volatile Integer stateHash;
+
+        @Override
+        public long getModificationCount() {
+            int hash = getStateHash();
+
+            Integer lastHash = this.stateHash;
+            if (lastHash != null && lastHash != hash) {
+                tracker.incModificationCount();
+            }
+
+            this.stateHash = hash;
+
+            return tracker.getModificationCount();
+        }
+
+        private void incModificationCount() {
+            tracker.incModificationCount();
+        }
     }
 }
@@ -0,0 +1,729 @@
+package fr.adrienbrault.idea.symfony2plugin.asset;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.psi.PsiDirectory;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyBundleUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * All files of the web directories "public", "web" and bundle "Resources" folders
+ *
+ * Directories are visited once and then kept in sync with file creation, deletion, move, copy and rename events.
+ * Changing one of the web directories itself drops the web files for a complete rebuild on next access; changing
+ * a bundle "Resources" folder itself only drops and rescans this bundle.
+ *
+ * Files are keyed by their asset name, so prefix and exact lookups never walk the file system:
+ * "build/app.js", "@FooBundle/Resources/public/js/app.js"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class AssetRegistry implements Disposable {
+
+    @NotNull
+    private final Project project;
+
+    @Nullable
+    private volatile WebAssets webAssets;
+
+    @Nullable
+    private volatile BundleAssets bundleAssets;
+
+    public AssetRegistry(@NotNull Project project) {
+        this.project = project;
+
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                AssetRegistry.this.after(events);
+            }
+        });
+    }
+
+    @NotNull
+    public static AssetRegistry getInstance(@NotNull Project project) {
+        return project.getService(AssetRegistry.class);
+    }
+
+    /**
+     * @param extensions "js", "css"; empty for all files
+     */
+    @NotNull
+    public Collection<AssetFile> getWebAssetFiles(@NotNull Collection<String> extensions) {
+        return getWebAssetFiles("", extensions);
+    }
+
+    /**
+     * Web files which asset name starts with the prefix: "build/"
+     */
+    @NotNull
+    public Collection<AssetFile> getWebAssetFiles(@NotNull String prefix, @NotNull Collection<String> extensions) {
+        Collection<AssetFile> files = new ArrayList<>();
+
+        for (AssetRoot root : getWebAssets().roots) {
+            root.collect(prefix, extensions, files);
+        }
+
+        return files;
+    }
+
+    /**
+     * Files inside bundle "Resources" folder: "@FooBundle/Resources/public/foo.js"
+     */
+    @NotNull
+    public Collection<AssetFile> getBundleAssetFiles(@NotNull Collection<String> extensions) {
+        return getBundleAssetFiles("@", extensions);
+    }
+
+    /**
+     * Bundle files which asset name starts with the prefix: "@FooBundle/Resources/public/"
+     */
+    @NotNull
+    public Collection<AssetFile> getBundleAssetFiles(@NotNull String prefix, @NotNull Collection<String> extensions) {
+        Collection<AssetFile> files = new ArrayList<>();
+
+        for (AssetRoot root : getBundleAssets().getRoots()) {
+            root.collect(prefix, extensions, files);
+        }
+
+        return files;
+    }
+
+    /**
+     * Web and bundle files which asset name starts with the prefix; bundle names are matched with or without
+     * their leading "@", as completion lookup strings are without it
+     *
+     * @param prefix "build/", "@FooBundle/Resources/", "FooBundle/"
+     */
+    @NotNull
+    public Collection<AssetFile> getFilesByPrefix(@NotNull String prefix, @NotNull Collection<String> extensions) {
+        Collection<AssetFile> files = getWebAssetFiles(prefix, extensions);
+        files.addAll(getBundleAssetFiles(prefix.startsWith("@") ? prefix : "@" + prefix, extensions));
+        return files;
+    }
+
+    /**
+     * Files with the exact asset name: "build/app.js", "@FooBundle/Resources/public/js/app.js"
+     */
+    @NotNull
+    public Collection<VirtualFile> resolve(@NotNull String assetName) {
+        Collection<VirtualFile> files = new HashSet<>();
+
+        for (AssetRoot root : getRoots(assetName)) {
+            VirtualFile file = root.resolve(assetName);
+            if (file != null) {
+                files.add(file);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Directories with the exact asset name, if they contain any file: "build", "@FooBundle/Resources/public/js"
+     */
+    @NotNull
+    public Collection<VirtualFile> resolveDirectory(@NotNull String assetName) {
+        Collection<VirtualFile> directories = new HashSet<>();
+
+        for (AssetRoot root : getRoots(assetName)) {
+            VirtualFile directory = root.resolveDirectory(assetName);
+            if (directory != null) {
+                directories.add(directory);
+            }
+        }
+
+        return directories;
+    }
+
+    /**
+     * Existing web directories: "public", "web" and configured one
+     */
+    @NotNull
+    public Collection<VirtualFile> getWebDirectories() {
+        Collection<VirtualFile> directories = new ArrayList<>();
+
+        for (AssetRoot root : getWebAssets().roots) {
+            directories.add(root.directory);
+        }
+
+        return directories;
+    }
+
+    @NotNull
+    private Collection<AssetRoot> getRoots(@NotNull String assetName) {
+        return assetName.startsWith("@") ? getBundleAssets().getRoots() : getWebAssets().roots;
+    }
+
+    @NotNull
+    private WebAssets getWebAssets() {
+        WebAssets webAssets = this.webAssets;
+
+        String directoryToWeb = StringUtils.defaultString(Settings.getInstance(project).directoryToWeb);
+        if (webAssets == null || !webAssets.directoryToWeb.equals(directoryToWeb)) {
+            this.webAssets = webAssets = createWebAssets(directoryToWeb);
+        }
+
+        return webAssets;
+    }
+
+    @NotNull
+    private WebAssets createWebAssets(@NotNull String directoryToWeb) {
+        Set<String> paths = new HashSet<>();
+
+        // custom config
+        if (StringUtils.isNotBlank(directoryToWeb)) {
+            paths.add(directoryToWeb);
+        }
+
+        paths.add("public"); // latest Symfony structure
+        paths.add("web"); // old Symfony structure
+
+        VirtualFile projectDir = ProjectUtil.getProjectDir(project);
+
+        Collection<String> rootPaths = new HashSet<>();
+        Map<String, AssetRoot> roots = new HashMap<>();
+
+        for (String path : paths) {
+            rootPaths.add(projectDir.getPath() + "/" + StringUtils.strip(path, "/"));
+
+            VirtualFile directory = VfsUtil.findRelativeFile(projectDir, path.split("/"));
+            if (directory == null || roots.containsKey(directory.getPath())) {
+                continue;
+            }
+
+            AssetRoot root = new AssetRoot(directory, directory, AssetEnum.Position.Web, "");
+            root.addRecursively(directory);
+            roots.put(directory.getPath(), root);
+        }
+
+        return new WebAssets(directoryToWeb, rootPaths, roots.values());
+    }
+
+    /**
+     * The bundle list follows the PHP structure; already visited bundles are taken over as long as their folder
+     * is untouched, so a PHP change never visits any bundle directory again
+     */
+    @NotNull
+    private BundleAssets getBundleAssets() {
+        BundleAssets bundleAssets = this.bundleAssets;
+
+        long stubModificationCount = FileIndexCaches.getStubModificationTracker(project).getModificationCount();
+        if (bundleAssets == null || bundleAssets.stubModificationCount != stubModificationCount) {
+            this.bundleAssets = bundleAssets = createBundleAssets(stubModificationCount, bundleAssets);
+        }
+
+        return bundleAssets;
+    }
+
+    @NotNull
+    private BundleAssets createBundleAssets(long stubModificationCount, @Nullable BundleAssets previous) {
+        Map<String, BundleResource> resources = new HashMap<>();
+
+        for (SymfonyBundle bundle : new SymfonyBundleUtil(project).getBundles()) {
+            PsiDirectory bundleDirectory = bundle.getDirectory();
+            if (bundleDirectory == null) {
+                continue;
+            }
+
+            BundleResource resource = new BundleResource(bundleDirectory.getVirtualFile(), '@' + bundle.getName() + "/");
+            resources.putIfAbsent(resource.getKey(), resource);
+        }
+
+        BundleAssets bundleAssets = new BundleAssets(stubModificationCount, resources);
+
+        if (previous != null) {
+            previous.roots.forEach((key, root) -> {
+                if (resources.containsKey(key)) {
+                    bundleAssets.roots.put(key, root);
+                }
+            });
+        }
+
+        return bundleAssets;
+    }
+
+    private void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+            if (event instanceof VFileContentChangeEvent) {
+                continue;
+            }
+
+            WebAssets webAssets = this.webAssets;
+            if (webAssets != null && webAssets.update(event) == null) {
+                this.webAssets = null;
+            }
+
+            BundleAssets bundleAssets = this.bundleAssets;
+            if (bundleAssets != null) {
+                bundleAssets.update(event);
+            }
+        }
+    }
+
+    /**
+     * Source and target path; "getPath" is not the target for every event
+     */
+    @NotNull
+    private static Collection<String> getPaths(@NotNull VFileEvent event) {
+        if (event instanceof VFileMoveEvent) {
+            return Arrays.asList(((VFileMoveEvent) event).getOldPath(), ((VFileMoveEvent) event).getNewPath());
+        }
+
+        if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+            return Arrays.asList(((VFilePropertyChangeEvent) event).getOldPath(), ((VFilePropertyChangeEvent) event).getNewPath());
+        }
+
+        if (event instanceof VFileCopyEvent) {
+            return Collections.singletonList(getCopyTargetPath((VFileCopyEvent) event));
+        }
+
+        return Collections.singletonList(event.getPath());
+    }
+
+    @NotNull
+    private static String getCopyTargetPath(@NotNull VFileCopyEvent event) {
+        return event.getNewParent().getPath() + "/" + event.getNewChildName();
+    }
+
+    private static boolean isAncestor(@NotNull String ancestor, @NotNull String path) {
+        return path.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
+    @Override
+    public void dispose() {
+        this.webAssets = null;
+        this.bundleAssets = null;
+    }
+
+    /**
+     * Applies file events to the roots they belong to
+     */
+    private abstract static class AssetRoots {
+        /**
+         * @return "true" for an applied change, "false" for unrelated events and "null" if a rebuild is needed
+         */
+        @Nullable
+        Boolean update(@NotNull VFileEvent event) {
+            if (event instanceof VFileMoveEvent) {
+                return move(((VFileMoveEvent) event).getOldPath(), ((VFileMoveEvent) event).getNewPath(), event.getFile());
+            }
+
+            if (event instanceof VFilePropertyChangeEvent) {
+                VFilePropertyChangeEvent propertyChangeEvent = (VFilePropertyChangeEvent) event;
+                if (!propertyChangeEvent.isRename()) {
+                    return false;
+                }
+
+                return move(propertyChangeEvent.getOldPath(), propertyChangeEvent.getNewPath(), event.getFile());
+            }
+
+            if (event instanceof VFileCopyEvent) {
+                VFileCopyEvent copyEvent = (VFileCopyEvent) event;
+                return add(getCopyTargetPath(copyEvent), copyEvent.getNewParent().findChild(copyEvent.getNewChildName()));
+            }
+
+            if (event instanceof VFileCreateEvent) {
+                return add(event.getPath(), event.getFile());
+            }
+
+            if (event instanceof VFileDeleteEvent) {
+                return remove(event.getPath());
+            }
+
+            return false;
+        }
+
+        /**
+         * Root itself or one of its parents
+         */
+        abstract boolean isRootPath(@NotNull String path);
+
+        @Nullable
+        abstract AssetRoot findRoot(@NotNull String path);
+
+        /**
+         * Moving a file from outside into a root is only an addition and the other way round a removal
+         */
+        @Nullable
+        private Boolean move(@NotNull String oldPath, @NotNull String newPath, @Nullable VirtualFile file) {
+            Boolean removed = remove(oldPath);
+            if (removed == null) {
+                return null;
+            }
+
+            Boolean added = add(newPath, file);
+            if (added == null) {
+                return null;
+            }
+
+            return removed || added;
+        }
+
+        @Nullable
+        private Boolean add(@NotNull String path, @Nullable VirtualFile file) {
+            if (isRootPath(path)) {
+                return null;
+            }
+
+            AssetRoot root = findRoot(path);
+            if (root == null) {
+                return false;
+            }
+
+            if (file == null) {
+                return null;
+            }
+
+            root.addRecursively(file);
+            return true;
+        }
+
+        @Nullable
+        private Boolean remove(@NotNull String path) {
+            if (isRootPath(path)) {
+                return null;
+            }
+
+            AssetRoot root = findRoot(path);
+            if (root == null) {
+                return false;
+            }
+
+            root.remove(path);
+            return true;
+        }
+    }
+
+    private static class WebAssets extends AssetRoots {
+        @NotNull
+        private final String directoryToWeb;
+
+        /**
+         * Possible root paths; also not existing ones to detect their creation
+         */
+        @NotNull
+        private final Collection<String> rootPaths;
+
+        @NotNull
+        private final Collection<AssetRoot> roots;
+
+        WebAssets(@NotNull String directoryToWeb, @NotNull Collection<String> rootPaths, @NotNull Collection<AssetRoot> roots) {
+            this.directoryToWeb = directoryToWeb;
+            this.rootPaths = rootPaths;
+            this.roots = roots;
+        }
+
+        @Override
+        boolean isRootPath(@NotNull String path) {
+            return rootPaths.stream().anyMatch(rootPath -> isAncestor(path, rootPath));
+        }
+
+        @Nullable
+        @Override
+        AssetRoot findRoot(@NotNull String path) {
+            for (AssetRoot root : roots) {
+                if (isAncestor(root.path, path)) {
+                    return root;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * "Resources" folder of a bundle; the folder may not exist yet
+     */
+    private static class BundleResource {
+        @NotNull
+        private final VirtualFile bundleDirectory;
+
+        @NotNull
+        private final String prefix;
+
+        @NotNull
+        private final String path;
+
+        BundleResource(@NotNull VirtualFile bundleDirectory, @NotNull String prefix) {
+            this.bundleDirectory = bundleDirectory;
+            this.prefix = prefix;
+            this.path = bundleDirectory.getPath() + "/Resources";
+        }
+
+        /**
+         * Same bundle name in the same folder can share visited files
+         */
+        @NotNull
+        String getKey() {
+            return prefix + path;
+        }
+
+        @Nullable
+        AssetRoot createRoot() {
+            VirtualFile resourceDirectory = bundleDirectory.isValid() ? bundleDirectory.findChild("Resources") : null;
+            if (resourceDirectory == null) {
+                return null;
+            }
+
+            AssetRoot root = new AssetRoot(bundleDirectory, resourceDirectory, AssetEnum.Position.Bundle, prefix);
+            root.addRecursively(resourceDirectory);
+            return root;
+        }
+    }
+
+    private static class BundleAssets extends AssetRoots {
+        private final long stubModificationCount;
+
+        @NotNull
+        private final Map<String, BundleResource> resources;
+
+        /**
+         * Visited bundles; a bundle is removed when its "Resources" folder itself changes and visited again on next access
+         */
+        @NotNull
+        private final Map<String, AssetRoot> roots = new ConcurrentHashMap<>();
+
+        BundleAssets(long stubModificationCount, @NotNull Map<String, BundleResource> resources) {
+            this.stubModificationCount = stubModificationCount;
+            this.resources = resources;
+        }
+
+        @NotNull
+        Collection<AssetRoot> getRoots() {
+            Collection<AssetRoot> assetRoots = new ArrayList<>();
+
+            for (Map.Entry<String, BundleResource> entry : resources.entrySet()) {
+                AssetRoot root = roots.get(entry.getKey());
+
+                if (root == null) {
+                    root = entry.getValue().createRoot();
+                    if (root == null) {
+                        continue;
+                    }
+
+                    roots.put(entry.getKey(), root);
+                }
+
+                assetRoots.add(root);
+            }
+
+            return assetRoots;
+        }
+
+        @Nullable
+        @Override
+        Boolean update(@NotNull VFileEvent event) {
+            for (String path : getPaths(event)) {
+                resources.forEach((key, resource) -> {
+                    if (isAncestor(path, resource.path)) {
+                        roots.remove(key);
+                    }
+                });
+            }
+
+            return super.update(event);
+        }
+
+        /**
+         * Changed "Resources" folders are already dropped
+         */
+        @Override
+        boolean isRootPath(@NotNull String path) {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        AssetRoot findRoot(@NotNull String path) {
+            for (AssetRoot root : roots.values()) {
+                if (isAncestor(root.path, path)) {
+                    return root;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private static class AssetRoot {
+        /**
+         * Asset names are relative to this directory
+         */
+        @NotNull
+        private final VirtualFile directory;
+
+        /**
+         * Visited directory; equal to "directory" for web folders and the "Resources" folder for bundles
+         */
+        @NotNull
+        private final String path;
+
+        @NotNull
+        private final AssetEnum.Position position;
+
+        /**
+         * Asset name prefix: "" for web and "@FooBundle/" for bundles
+         */
+        @NotNull
+        private final String prefix;
+
+        /**
+         * Relative path => file; "build/app.js"
+         */
+        @NotNull
+        private final ConcurrentSkipListMap<String, VirtualFile> files = new ConcurrentSkipListMap<>();
+
+        /**
+         * Extension => relative path => file
+         */
+        @NotNull
+        private final Map<String, ConcurrentSkipListMap<String, VirtualFile>> extensions = new ConcurrentHashMap<>();
+
+        AssetRoot(@NotNull VirtualFile directory, @NotNull VirtualFile visitedDirectory, @NotNull AssetEnum.Position position, @NotNull String prefix) {
+            this.directory = directory;
+            this.path = visitedDirectory.getPath();
+            this.position = position;
+            this.prefix = prefix;
+        }
+
+        /**
+         * Files which asset name starts with the given prefix
+         */
+        void collect(@NotNull String assetPrefix, @NotNull Collection<String> extensions, @NotNull Collection<AssetFile> result) {
+            String relativePrefix;
+            if (assetPrefix.startsWith(prefix)) {
+                relativePrefix = assetPrefix.substring(prefix.length());
+            } else if (prefix.startsWith(assetPrefix)) {
+                relativePrefix = "";
+            } else {
+                return;
+            }
+
+            if (extensions.isEmpty()) {
+                subMap(this.files, relativePrefix).values().forEach(file -> result.add(createAssetFile(file)));
+                return;
+            }
+
+            for (String extension : extensions) {
+                ConcurrentSkipListMap<String, VirtualFile> extensionFiles = this.extensions.get(extension);
+                if (extensionFiles != null) {
+                    subMap(extensionFiles, relativePrefix).values().forEach(file -> result.add(createAssetFile(file)));
+                }
+            }
+        }
+
+        @Nullable
+        VirtualFile resolve(@NotNull String assetName) {
+            String relativePath = getRelativePath(assetName);
+            return relativePath != null ? files.get(relativePath) : null;
+        }
+
+        /**
+         * Walk up from the first file below the directory; no file system lookup needed
+         */
+        @Nullable
+        VirtualFile resolveDirectory(@NotNull String assetName) {
+            String relativePath = getRelativePath(StringUtils.stripEnd(assetName, "/"));
+            if (relativePath == null) {
+                return null;
+            }
+
+            Map.Entry<String, VirtualFile> first = subMap(files, relativePath.isEmpty() ? "" : relativePath + "/").firstEntry();
+            if (first == null) {
+                return null;
+            }
+
+            String directoryPath = relativePath.isEmpty() ? directory.getPath() : directory.getPath() + "/" + relativePath;
+            for (VirtualFile parent = first.getValue().getParent(); parent != null; parent = parent.getParent()) {
+                if (parent.getPath().equals(directoryPath)) {
+                    return parent;
+                }
+            }
+
+            return null;
+        }
+
+        @Nullable
+        private String getRelativePath(@NotNull String assetName) {
+            return assetName.startsWith(prefix) ? assetName.substring(prefix.length()) : null;
+        }
+
+        @NotNull
+        private AssetFile createAssetFile(@NotNull VirtualFile file) {
+            return position == AssetEnum.Position.Bundle
+                ? new AssetFile(file, position, directory, prefix)
+                : new AssetFile(file, position, directory);
+        }
+
+        void addRecursively(@NotNull VirtualFile virtualFile) {
+            VfsUtil.visitChildrenRecursively(virtualFile, new VirtualFileVisitor<VirtualFile>() {
+                @Override
+                public boolean visitFile(@NotNull VirtualFile file) {
+                    if (!file.isDirectory()) {
+                        add(file);
+                    }
+
+                    return super.visitFile(file);
+                }
+            });
+        }
+
+        private void add(@NotNull VirtualFile virtualFile) {
+            String relativePath = VfsUtil.getRelativePath(virtualFile, directory, '/');
+            if (relativePath == null) {
+                return;
+            }
+
+            files.put(relativePath, virtualFile);
+
+            String extension = virtualFile.getExtension();
+            if (extension != null) {
+                extensions.computeIfAbsent(extension, s -> new ConcurrentSkipListMap<>()).put(relativePath, virtualFile);
+            }
+        }
+
+        /**
+         * File or directory path inside this root
+         */
+        void remove(@NotNull String path) {
+            String relativePath = path.substring(directory.getPath().length() + 1);
+
+            removeFrom(files, relativePath);
+
+            for (ConcurrentSkipListMap<String, VirtualFile> extensionFiles : extensions.values()) {
+                removeFrom(extensionFiles, relativePath);
+            }
+        }
+
+        @NotNull
+        private static NavigableMap<String, VirtualFile> subMap(@NotNull ConcurrentSkipListMap<String, VirtualFile> files, @NotNull String relativePrefix) {
+            if (relativePrefix.isEmpty()) {
+                return files;
+            }
+
+            return files.subMap(relativePrefix, true, relativePrefix + Character.MAX_VALUE, false);
+        }
+
+        private static void removeFrom(@NotNull ConcurrentSkipListMap<String, VirtualFile> files, @NotNull String relativePath) {
+            files.remove(relativePath);
+            subMap(files, relativePath + "/").clear();
+        }
+    }
+}
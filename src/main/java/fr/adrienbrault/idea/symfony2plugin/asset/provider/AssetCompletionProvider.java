@@ -5,6 +5,7 @@ import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
 import com.intellij.util.PlatformIcons;
 import com.intellij.util.ProcessingContext;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
@@ -13,6 +14,7 @@ import fr.adrienbrault.idea.symfony2plugin.asset.AssetDirectoryReader;
 import fr.adrienbrault.idea.symfony2plugin.asset.AssetFile;
 import fr.adrienbrault.idea.symfony2plugin.twig.assets.TwigNamedAssetsServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
+import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -40,7 +42,7 @@ public class AssetCompletionProvider extends CompletionProvider<CompletionParame
             return;
         }
 
-        for (AssetFile assetFile : assetParser.getAssetFiles(project)) {
+        for (AssetFile assetFile : assetParser.getAssetFiles(project, getTypedDirectory(parameters))) {
             resultSet.addElement(new AssetLookupElement(assetFile, project));
         }
 
@@ -51,4 +53,21 @@ public class AssetCompletionProvider extends CompletionProvider<CompletionParame
             }
         }
     }
+
+    /**
+     * Already typed directory of the asset name, so that only files below it are collected: "build/ap<caret>" => "build/"
+     */
+    @NotNull
+    public static String getTypedDirectory(@NotNull CompletionParameters parameters) {
+        PsiElement position = parameters.getPosition();
+
+        int length = parameters.getOffset() - position.getTextRange().getStartOffset();
+        if(length <= 0 || length > position.getTextLength()) {
+            return "";
+        }
+
+        String typed = StringUtils.stripStart(position.getText().substring(0, length), "'\"");
+
+        return typed.substring(0, typed.lastIndexOf('/') + 1);
+    }
 }
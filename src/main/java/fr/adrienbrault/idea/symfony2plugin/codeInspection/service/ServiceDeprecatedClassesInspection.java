@@ -170,7 +170,7 @@ public class ServiceDeprecatedClassesInspection extends LocalInspectionTool {
             }
 
             MethodReference methodReference = PsiElementUtils.getMethodReferenceWithFirstStringParameter((StringLiteralExpression) psiElement);
-            if (methodReference == null || !PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, ServiceContainerUtil.SERVICE_GET_SIGNATURES)) {
+            if (methodReference == null || !PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, ServiceContainerUtil.SERVICE_GET_SIGNATURE_TABLE)) {
                 super.visitElement(psiElement);
                 return;
             }
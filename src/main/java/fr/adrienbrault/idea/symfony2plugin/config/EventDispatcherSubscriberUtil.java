@@ -5,7 +5,6 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.*;
@@ -15,19 +14,20 @@ import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
-import com.jetbrains.php.lang.parser.PhpElementTypes;
 import com.jetbrains.php.lang.psi.PhpFile;
 import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.config.dic.EventDispatcherSubscribedEvent;
 import fr.adrienbrault.idea.symfony2plugin.dic.XmlEventParser;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.DispatcherEvent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.SubscribedEvent;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventAnnotationStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.EventSubscriberUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
@@ -44,156 +44,146 @@ import java.util.*;
  */
 public class EventDispatcherSubscriberUtil {
 
-    private static final Key<CachedValue<Collection<EventDispatcherSubscribedEvent>>> EVENT_SUBSCRIBERS = new Key<>("SYMFONY_EVENT_SUBSCRIBERS");
+    private static final Key<CachedValue<Map<String, Collection<EventDispatcherSubscribedEvent>>>> EVENT_SUBSCRIBERS = new Key<>("SYMFONY_EVENT_SUBSCRIBERS");
     private static final Key<CachedValue<Set<String>>> EVENT_ANNOTATIONS = new Key<>("SYMFONY_EVENT_ANNOTATIONS");
 
     @NotNull
     public static Collection<EventDispatcherSubscribedEvent> getSubscribedEvents(final @NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        Collection<EventDispatcherSubscribedEvent> events = new ArrayList<>();
+
+        for (Collection<EventDispatcherSubscribedEvent> items : getSubscribedEventsMap(project).values()) {
+            events.addAll(items);
+        }
+
+        return events;
+    }
+
+    /**
+     * Event name mapped to its subscribers; index values are maintained per file, so only resolving class constants
+     * is left for query time which depends on the stub index of PhpStorm
+     */
+    @NotNull
+    private static Map<String, Collection<EventDispatcherSubscribedEvent>> getSubscribedEventsMap(final @NotNull Project project) {
+        return CacheStatistics.getCachedValue(
             project,
             EVENT_SUBSCRIBERS,
-            () -> CachedValueProvider.Result.create(getSubscribedEventsProxy(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(
+                getSubscribedEventsProxy(project),
+                FileIndexCaches.getModificationTrackerForIndexId(project, EventSubscriberStubIndex.KEY),
+                FileIndexCaches.getStubModificationTracker(project)
+            )
         );
     }
 
     @NotNull
-    private static Collection<EventDispatcherSubscribedEvent> getSubscribedEventsProxy(@NotNull Project project) {
-
-        Collection<EventDispatcherSubscribedEvent> events = new ArrayList<>();
+    private static Map<String, Collection<EventDispatcherSubscribedEvent>> getSubscribedEventsProxy(@NotNull Project project) {
+        Map<String, Collection<EventDispatcherSubscribedEvent>> events = new HashMap<>();
 
         // http://symfony.com/doc/current/components/event_dispatcher/introduction.html
-        PhpIndex phpIndex = PhpIndex.getInstance(project);
-        Collection<PhpClass> phpClasses = phpIndex.getAllSubclasses("\\Symfony\\Component\\EventDispatcher\\EventSubscriberInterface");
+        FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
 
-        for(PhpClass phpClass: phpClasses) {
+        // declaring class => itself and all subclasses inheriting "getSubscribedEvents"
+        Map<String, Collection<String>> subscriberClasses = new HashMap<>();
 
-            if(PhpElementsUtil.isTestClass(phpClass)) {
-                continue;
-            }
+        for (String key : fileBasedIndex.getAllKeys(EventSubscriberStubIndex.KEY, project)) {
+            for (ArrayList<SubscribedEvent> subscribedEvents : fileBasedIndex.getValues(EventSubscriberStubIndex.KEY, key, scope)) {
+                for (SubscribedEvent subscribedEvent : subscribedEvents) {
+                    String fqnClassName = subscribedEvent.getFqnClassName();
+                    if(fqnClassName == null) {
+                        continue;
+                    }
 
-            Method method = phpClass.findMethodByName("getSubscribedEvents");
-            if(method != null) {
-                PhpReturn phpReturn = PsiTreeUtil.findChildOfType(method, PhpReturn.class);
-                if(phpReturn != null) {
-                    attachSubscriberEventNames(events, phpClass, phpReturn);
-                }
-            }
-        }
+                    String eventName = key;
+                    String signature = null;
 
-       return events;
-    }
+                    if(subscribedEvent.isConstant()) {
+                        // [FOO::BAR => 'method']
+                        eventName = getClassConstantValue(project, key);
+                        if(eventName == null) {
+                            continue;
+                        }
 
-    private static void attachSubscriberEventNames(@NotNull Collection<EventDispatcherSubscribedEvent> events, @NotNull PhpClass phpClass, @NotNull PhpReturn phpReturn) {
+                        signature = "#K#C" + key.replace("::", ".");
+                    }
+
+                    for (String subscriberClass : subscriberClasses.computeIfAbsent(fqnClassName, s -> getSubscriberClasses(project, s))) {
+                        EventDispatcherSubscribedEvent event = signature != null
+                            ? new EventDispatcherSubscribedEvent(eventName, subscriberClass, subscribedEvent.getMethodName(), signature)
+                            : new EventDispatcherSubscribedEvent(eventName, subscriberClass, subscribedEvent.getMethodName());
 
-        PhpPsiElement array = phpReturn.getFirstPsiChild();
-        if(!(array instanceof ArrayCreationExpression)) {
-            return;
+                        events.computeIfAbsent(event.getStringValue(), s -> new ArrayList<>())
+                            .add(event.setPriority(subscribedEvent.getPriority()));
+                    }
+                }
+            }
         }
 
-        String presentableFQN = phpClass.getPresentableFQN();
+        return events;
+    }
 
-        Iterable<ArrayHashElement> arrayHashElements = ((ArrayCreationExpression) array).getHashElements();
-        for(ArrayHashElement arrayHashElement: arrayHashElements) {
-            PsiElement arrayKey = arrayHashElement.getKey();
+    /**
+     * Class declaring "getSubscribedEvents" and its subclasses which are not overwriting it;
+     * only real "EventSubscriberInterface" implementations which are no test classes
+     */
+    @NotNull
+    private static Collection<String> getSubscriberClasses(@NotNull Project project, @NotNull String fqnClassName) {
+        Collection<String> classes = new LinkedHashSet<>();
 
-            PsiElement value = null;
-            // get method name
-            // @TODO: support multiple method names, currently we only use method name if type hint, so first item helps for now
-            Collection<PsiElement> subscriberMethods = getSubscriberMethods(arrayHashElement);
-            if(subscriberMethods.size() > 0) {
-                value = subscriberMethods.iterator().next();
+        for (PhpClass phpClass : PhpElementsUtil.getClassesInterface(project, fqnClassName)) {
+            if(isSubscriberClass(phpClass)) {
+                classes.add(phpClass.getPresentableFQN());
             }
 
-            if(arrayKey instanceof StringLiteralExpression) {
-
-                // ['doh' => 'method']
-                events.add(new EventDispatcherSubscribedEvent(
-                    ((StringLiteralExpression) arrayKey).getContents(),
-                    presentableFQN,
-                    PhpElementsUtil.getStringValue(value)
-                ));
-
-            } else if(arrayKey instanceof PhpReference) {
-                String resolvedString = PhpElementsUtil.getStringValue(arrayKey);
-                if(resolvedString != null) {
-
-                    // [FOO::BAR => 'method']
-                    events.add(new EventDispatcherSubscribedEvent(
-                        resolvedString,
-                        presentableFQN,
-                        PhpElementsUtil.getStringValue(value),
-                        ((PhpReference) arrayKey).getSignature())
-                    );
+            for (PhpClass subClass : PhpIndex.getInstance(project).getAllSubclasses(phpClass.getFQN())) {
+                // overwriting subclasses are indexed on their own
+                Method method = subClass.findMethodByName("getSubscribedEvents");
+                PhpClass containingClass = method != null ? method.getContainingClass() : null;
+                if(containingClass == null || !phpClass.getFQN().equalsIgnoreCase(containingClass.getFQN())) {
+                    continue;
                 }
 
+                if(isSubscriberClass(subClass)) {
+                    classes.add(subClass.getPresentableFQN());
+                }
             }
-
         }
 
+        return classes;
+    }
+
+    private static boolean isSubscriberClass(@NotNull PhpClass phpClass) {
+        return !PhpElementsUtil.isTestClass(phpClass)
+            && PhpElementsUtil.isInstanceOf(phpClass, "\\Symfony\\Component\\EventDispatcher\\EventSubscriberInterface");
     }
 
     /**
-     * Extract method name for subscribe
-     *
-     * 'pre.foo1' => 'foo'
-     * 'pre.foo1' => ['onStoreOrder', 0]
-     * 'pre.foo2' => [['onStoreOrder', 0]]
+     * "\Foo\Events::BAR" => "foo.bar"
      */
-    @NotNull
-    private static Collection<PsiElement> getSubscriberMethods(@NotNull ArrayHashElement arrayHashElement) {
-
-        // support string, constants and array values
-        PhpPsiElement value = arrayHashElement.getValue();
-        if(value == null) {
-            return Collections.emptySet();
+    @Nullable
+    private static String getClassConstantValue(@NotNull Project project, @NotNull String constant) {
+        int separator = constant.lastIndexOf("::");
+        if(separator < 0) {
+            return null;
         }
 
-        // 'pre.foo' => [...]
-        if(!(value instanceof ArrayCreationExpression)) {
-            return new ArrayList<>(Collections.singletonList(value));
+        PhpClass phpClass = PhpElementsUtil.getClassInterface(project, constant.substring(0, separator));
+        if(phpClass == null) {
+            return null;
         }
 
-        Collection<PsiElement> psiElements = new HashSet<>();
-
-        // 'pre.foo' => [<caret>]
-        PsiElement firstChild = value.getFirstPsiChild();
-        if(firstChild != null && firstChild.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE) {
-            PhpPsiElement firstPsiChild = ((PhpPsiElement) firstChild).getFirstPsiChild();
-            if(firstPsiChild instanceof StringLiteralExpression) {
-                // 'pre.foo' => ['method']
-                psiElements.add(firstPsiChild);
-            } else if(firstPsiChild instanceof ArrayCreationExpression) {
-
-                // 'pre.foo' => [['method', ...], ['method2', ...]]
-                for (PsiElement psiElement : PsiElementUtils.getChildrenOfTypeAsList(firstPsiChild, PlatformPatterns.psiElement().withElementType(PhpElementTypes.ARRAY_VALUE))) {
-                    if(!(psiElement instanceof PhpPsiElement)) {
-                        continue;
-                    }
-
-                    PhpPsiElement prioValue = ((PhpPsiElement) psiElement).getFirstPsiChild();
-                    if(prioValue instanceof StringLiteralExpression) {
-                        psiElements.add(prioValue);
-                    }
-                }
-            }
+        Field field = phpClass.findFieldByName(constant.substring(separator + 2), true);
+        if(field == null) {
+            return null;
         }
 
-        return psiElements;
+        return PhpElementsUtil.getStringValue(field);
     }
 
     @NotNull
     public static Collection<EventDispatcherSubscribedEvent> getSubscribedEvent(@NotNull Project project, @NotNull String eventName) {
-
-        List<EventDispatcherSubscribedEvent> events = new ArrayList<>();
-
-        for(EventDispatcherSubscribedEvent event: getSubscribedEvents(project)) {
-            if(event.getStringValue().equals(eventName)) {
-                events.add(event);
-            }
-        }
-
-        return events;
+        Collection<EventDispatcherSubscribedEvent> events = getSubscribedEventsMap(project).get(eventName);
+        return events != null ? new ArrayList<>(events) : Collections.emptyList();
     }
 
     @NotNull
@@ -166,12 +166,8 @@ public class ServiceLineMarkerProvider implements LineMarkerProvider {
         }
 
         Collection<PsiFile> psiFiles = new ArrayList<>();
-        // @TODO: use DoctrineMetadataUtil, for single resolve; we have collecting overhead here
-        for(DoctrineModel doctrineModel: EntityHelper.getModelClasses(psiElement.getProject())) {
+        for(DoctrineModel doctrineModel: EntityHelper.getModelsForClass((PhpClass) phpClassContext)) {
             PhpClass phpClass = doctrineModel.getPhpClass();
-            if(!PhpElementsUtil.isEqualClassName(phpClass, (PhpClass) phpClassContext)) {
-                continue;
-            }
 
             PsiFile psiFile = EntityHelper.getModelConfigFile(phpClass);
 
@@ -259,17 +255,17 @@ public class ServiceLineMarkerProvider implements LineMarkerProvider {
      */
     private void validatorClassMarker(PsiElement psiElement, Collection<? super LineMarkerInfo<?>> results) {
         PsiElement phpClassContext = psiElement.getContext();
-        if(!(phpClassContext instanceof PhpClass) || !PhpElementsUtil.isInstanceOf((PhpClass) phpClassContext, "\\Symfony\\Component\\Validator\\Constraint")) {
+        if(!(phpClassContext instanceof PhpClass)) {
             return;
         }
 
-        // class in same namespace
+        // class in same namespace; index lookup first, so we only need to visit the class hierarchy on a match
         String className = ((PhpClass) phpClassContext).getFQN() + "Validator";
         Collection<PhpClass> phpClasses = new ArrayList<>(PhpElementsUtil.getClassesInterface(psiElement.getProject(), className));
 
         // @TODO: validateBy alias
 
-        if(phpClasses.size() == 0) {
+        if(phpClasses.size() == 0 || !PhpElementsUtil.isInstanceOf((PhpClass) phpClassContext, "\\Symfony\\Component\\Validator\\Constraint")) {
             return;
         }
 
@@ -285,7 +281,7 @@ public class ServiceLineMarkerProvider implements LineMarkerProvider {
      */
     private void constraintValidatorClassMarker(PsiElement psiElement, Collection<? super LineMarkerInfo<?>> results) {
         PsiElement phpClass = psiElement.getContext();
-        if(!(phpClass instanceof PhpClass) || !PhpElementsUtil.isInstanceOf((PhpClass) phpClass, "Symfony\\Component\\Validator\\ConstraintValidatorInterface")) {
+        if(!(phpClass instanceof PhpClass)) {
             return;
         }
 
@@ -298,7 +294,7 @@ public class ServiceLineMarkerProvider implements LineMarkerProvider {
             PhpElementsUtil.getClassesInterface(psiElement.getProject(), fqn.substring(0, fqn.length() - "Validator".length()))
         );
 
-        if(phpClasses.size() == 0) {
+        if(phpClasses.size() == 0 || !PhpElementsUtil.isInstanceOf((PhpClass) phpClass, "Symfony\\Component\\Validator\\ConstraintValidatorInterface")) {
             return;
         }
 
@@ -44,6 +44,8 @@ public class SymfonyPhpReferenceContributor extends PsiReferenceContributor {
         new MethodMatcher.CallToSignature("Symfony\\Component\\DependencyInjection\\ParameterBag\\ContainerBagInterface", "has"),
     };
 
+    private static final MethodMatcher.CallToSignatureTable CONTAINER_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(CONTAINER_SIGNATURES);
+
     public static MethodMatcher.CallToSignature[] REPOSITORY_SIGNATURES = new MethodMatcher.CallToSignature[] {
         new MethodMatcher.CallToSignature("\\Doctrine\\Common\\Persistence\\ManagerRegistry", "getRepository"),
         new MethodMatcher.CallToSignature("\\Doctrine\\Common\\Persistence\\ObjectManager", "getRepository"),
@@ -66,6 +68,8 @@ public class SymfonyPhpReferenceContributor extends PsiReferenceContributor {
         new MethodMatcher.CallToSignature("\\Doctrine\\ORM\\Cache", "evictCollectionRegion"),
     };
 
+    public static final MethodMatcher.CallToSignatureTable REPOSITORY_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(REPOSITORY_SIGNATURES);
+
     public static MethodMatcher.CallToSignature[] TEMPLATE_SIGNATURES = new MethodMatcher.CallToSignature[] {
         new MethodMatcher.CallToSignature("\\Symfony\\Component\\Templating\\EngineInterface", "render"),
         new MethodMatcher.CallToSignature("\\Symfony\\Component\\Templating\\StreamingEngineInterface", "stream"),
@@ -100,6 +104,8 @@ public class SymfonyPhpReferenceContributor extends PsiReferenceContributor {
         new MethodMatcher.CallToSignature("\\Twig\\Environment", "resolveTemplate"), // @TODO: also "is_array($names)"
     };
 
+    public static final MethodMatcher.CallToSignatureTable TEMPLATE_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(TEMPLATE_SIGNATURES);
+
     @Override
     public void registerReferenceProviders(PsiReferenceRegistrar psiReferenceRegistrar) {
 
@@ -110,7 +116,7 @@ public class SymfonyPhpReferenceContributor extends PsiReferenceContributor {
                 @Override
                 public PsiReference[] getReferencesByElement(@NotNull PsiElement psiElement, @NotNull ProcessingContext processingContext) {
 
-                    if (MethodMatcher.getMatchedSignatureWithDepth(psiElement, CONTAINER_SIGNATURES) == null) {
+                    if (MethodMatcher.getMatchedSignatureWithDepth(psiElement, CONTAINER_SIGNATURE_TABLE) == null) {
                         return new PsiReference[0];
                     }
 
@@ -126,7 +132,7 @@ public class SymfonyPhpReferenceContributor extends PsiReferenceContributor {
                 @Override
                 public PsiReference[] getReferencesByElement(@NotNull PsiElement psiElement, @NotNull ProcessingContext processingContext) {
 
-                    if (MethodMatcher.getMatchedSignatureWithDepth(psiElement, TEMPLATE_SIGNATURES) == null) {
+                    if (MethodMatcher.getMatchedSignatureWithDepth(psiElement, TEMPLATE_SIGNATURE_TABLE) == null) {
                         return new PsiReference[0];
                     }
 
@@ -142,7 +148,7 @@ public class SymfonyPhpReferenceContributor extends PsiReferenceContributor {
                     @Override
                     public PsiReference[] getReferencesByElement(@NotNull PsiElement psiElement, @NotNull ProcessingContext processingContext) {
 
-                        MethodMatcher.MethodMatchParameter methodMatchParameter = MethodMatcher.getMatchedSignatureWithDepth(psiElement, REPOSITORY_SIGNATURES);
+                        MethodMatcher.MethodMatchParameter methodMatchParameter = MethodMatcher.getMatchedSignatureWithDepth(psiElement, REPOSITORY_SIGNATURE_TABLE);
                         if (methodMatchParameter == null) {
                             return new PsiReference[0];
                         }
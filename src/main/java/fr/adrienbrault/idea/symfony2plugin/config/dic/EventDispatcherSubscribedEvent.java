@@ -17,6 +17,9 @@ public class EventDispatcherSubscribedEvent {
     private String signature = null;
     private String type = "EventSubscriber";
 
+    @Nullable
+    private Integer priority = null;
+
     public EventDispatcherSubscribedEvent(@NotNull String stringValue, @NotNull String fqnClassName, @Nullable String methodName) {
         this.stringValue = stringValue;
         this.fqnClassName = fqnClassName;
@@ -54,4 +57,18 @@ public class EventDispatcherSubscribedEvent {
     @Nullable
     public String getMethodName() {
         return methodName;
-    }}
+    }
+
+    /**
+     * 'pre.foo' => ['method', 10]
+     */
+    @Nullable
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public EventDispatcherSubscribedEvent setPriority(@Nullable Integer priority) {
+        this.priority = priority;
+        return this;
+    }
+}
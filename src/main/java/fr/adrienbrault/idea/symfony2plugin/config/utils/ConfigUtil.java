@@ -9,6 +9,7 @@ import com.intellij.psi.util.*;
 import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.util.FilesystemUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
@@ -25,17 +26,17 @@ import java.util.function.Consumer;
 public class ConfigUtil {
 
     private static final Key<CachedValue<Map<String, Collection<String>>>> TREE_SIGNATURE_CACHE = new Key<>("TREE_SIGNATURE_CACHE");
+    private static final Key<CachedValue<Collection<String>>> SYMFONY_CONFIGURATION_TREE_ROOTS = new Key<>("SYMFONY_CONFIGURATION_TREE_ROOTS");
 
     /**
      * Search for all "Symfony\Component\Config\Definition\Builder\TreeBuilder::root" elements
      */
     @NotNull
     public static Map<String, Collection<String>> getTreeSignatures(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             TREE_SIGNATURE_CACHE,
-            () -> CachedValueProvider.Result.create(visitTreeSignatures(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(visitTreeSignatures(project), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
@@ -83,17 +84,28 @@ public class ConfigUtil {
     private static Map<String, Collection<String>> visitTreeSignatures(@NotNull Project project) {
         Map<String, Collection<String>> signatures = new HashMap<>();
 
-        visitTreeSignatures(PhpIndex.getInstance(project).getAllSubclasses("Symfony\\Component\\Config\\Definition\\ConfigurationInterface"), treeVisitor -> {
-            if(!signatures.containsKey(treeVisitor.contents)) {
-                signatures.put(treeVisitor.contents, new HashSet<>());
+        for (PhpClass phpClass : PhpIndex.getInstance(project).getAllSubclasses("Symfony\\Component\\Config\\Definition\\ConfigurationInterface")) {
+            for (String root : getTreeRoots(phpClass)) {
+                signatures.computeIfAbsent(root, s -> new HashSet<>()).add(phpClass.getFQN());
             }
-
-            signatures.get(treeVisitor.contents).add(treeVisitor.phpClass.getFQN());
-        });
+        }
 
         return signatures;
     }
 
+    /**
+     * Root names of a Configuration class; parsed once per class file and not on every global PSI change
+     */
+    @NotNull
+    private static Collection<String> getTreeRoots(@NotNull PhpClass phpClass) {
+        return CachedValuesManager.getCachedValue(phpClass, SYMFONY_CONFIGURATION_TREE_ROOTS, () -> {
+            Collection<String> roots = new HashSet<>();
+            visitTreeSignatures(Collections.singletonList(phpClass), treeVisitor -> roots.add(treeVisitor.contents));
+
+            return CachedValueProvider.Result.create(Collections.unmodifiableCollection(roots), phpClass.getContainingFile());
+        });
+    }
+
     private static void visitTreeSignatures(@NotNull Collection<PhpClass> classes, @NotNull Consumer<TreeVisitor> consumer) {
         for (PhpClass phpClass : classes) {
             Method method = phpClass.findOwnMethodByName("getConfigTreeBuilder");
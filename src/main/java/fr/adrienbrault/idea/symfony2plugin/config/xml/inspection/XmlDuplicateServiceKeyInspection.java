@@ -10,8 +10,10 @@ import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlDocument;
+import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -35,12 +37,28 @@ public class XmlDuplicateServiceKeyInspection extends LocalInspectionTool {
         return new PsiElementVisitor() {
             @Override
             public void visitFile(PsiFile file) {
-                visitRoot(file, holder, "services", "service", "id");
+                visitServices(file, holder);
                 super.visitFile(file);
             }
         };
     }
 
+    /**
+     * Duplicate ids are provided by the shared service model of the file, without walking the "services" tree again
+     */
+    private void visitServices(@NotNull PsiFile psiFile, @NotNull ProblemsHolder holder) {
+        if(!(psiFile instanceof XmlFile)) {
+            return;
+        }
+
+        for (Integer offset : ServiceContainerUtil.getServiceFileModel(psiFile).getDuplicateServiceIdOffsets()) {
+            XmlAttributeValue valueElement = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), XmlAttributeValue.class);
+            if(valueElement != null) {
+                holder.registerProblem(valueElement, "Duplicate Key", ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+            }
+        }
+    }
+
     protected void visitRoot(PsiFile psiFile, @NotNull ProblemsHolder holder, String root, String child, String tagName) {
 
         XmlDocument xmlDocument = PsiTreeUtil.getChildOfType(psiFile, XmlDocument.class);
@@ -0,0 +1,402 @@
+package fr.adrienbrault.idea.symfony2plugin.config.yaml.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.util.AbsoluteFileModificationTracker;
+import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
+import org.apache.commons.lang.StringUtils;
+import org.apache.xerces.dom.CommentImpl;
+import org.apache.xerces.dom.DeferredTextImpl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.*;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable tree of the config reference ".idea/symfony2-config.xml" or the bundled "/symfony2-config.xml"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ConfigReferenceTree {
+
+    private static final Key<CachedValue<ConfigReferenceTree>> SYMFONY_CONFIG_REFERENCE_TREE = new Key<>("SYMFONY_CONFIG_REFERENCE_TREE");
+
+    private static final Pattern COMMENT_VAR = Pattern.compile("^\\s*([\\w_-]+)\\s*:\\s*(.*?)$");
+
+    private static final ConfigReferenceTree EMPTY = new ConfigReferenceTree(Collections.emptyList());
+
+    @Nullable
+    private static volatile ConfigReferenceTree BUNDLED;
+
+    /**
+     * All elements in document order, to find the first element for a given tag
+     */
+    @NotNull
+    private final Map<String, ConfigNode> firstNodes = new HashMap<>();
+
+    @NotNull
+    private final List<LookupElement> rootLookupElements = new ArrayList<>();
+
+    /**
+     * Normalized parent key path to its node; unresolvable paths are stored as empty
+     */
+    @NotNull
+    private final Map<String, Optional<ConfigNode>> pathCache = new ConcurrentHashMap<>();
+
+    private ConfigReferenceTree(@NotNull Collection<ConfigNode> nodes) {
+        for (ConfigNode node : nodes) {
+            firstNodes.putIfAbsent(node.name, node);
+
+            // "//config/*"
+            if(node.parent != null && "config".equals(node.parent.name)) {
+                rootLookupElements.add(LookupElementBuilder.create(getNodeName(node.name)).withIcon(Symfony2Icons.CONFIG_VALUE));
+            }
+        }
+    }
+
+    /**
+     * Project override is invalidated on its file stamp; the bundled reference is only parsed once
+     */
+    @NotNull
+    public static ConfigReferenceTree getInstance(@NotNull Project project) {
+        return CacheStatistics.getCachedValue(project, SYMFONY_CONFIG_REFERENCE_TREE, () -> {
+            VirtualFile projectDir = ProjectUtil.getProjectDir(project);
+
+            ConfigReferenceTree tree = null;
+            Collection<String> files = new ArrayList<>();
+
+            if(projectDir != null) {
+                File file = new File(projectDir.getPath() + "/.idea/symfony2-config.xml");
+                files.add(file.getAbsolutePath());
+
+                if(file.isFile()) {
+                    try (InputStream inputStream = new FileInputStream(file)) {
+                        tree = create(inputStream);
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+
+            if(tree == null) {
+                tree = getBundled();
+            }
+
+            return CachedValueProvider.Result.create(tree, new AbsoluteFileModificationTracker(files));
+        });
+    }
+
+    @NotNull
+    private static ConfigReferenceTree getBundled() {
+        ConfigReferenceTree bundled = BUNDLED;
+        if(bundled != null) {
+            return bundled;
+        }
+
+        try (InputStream inputStream = ConfigReferenceTree.class.getResourceAsStream("/symfony2-config.xml")) {
+            bundled = inputStream != null ? create(inputStream) : null;
+        } catch (IOException ignored) {
+        }
+
+        return BUNDLED = bundled != null ? bundled : EMPTY;
+    }
+
+    @Nullable
+    public static ConfigReferenceTree create(@NotNull InputStream inputStream) {
+        Document document;
+
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(inputStream);
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            return null;
+        }
+
+        List<ConfigNode> nodes = new ArrayList<>();
+        visitElement(document.getDocumentElement(), null, nodes);
+
+        return new ConfigReferenceTree(nodes);
+    }
+
+    /**
+     * Top level configuration keys: children of the "config" nodes
+     */
+    @NotNull
+    public List<LookupElement> getRootLookupElements() {
+        return Collections.unmodifiableList(rootLookupElements);
+    }
+
+    /**
+     * Keys and shortcuts for a normalized parent key path, top most item first: "doctrine", "dbal"
+     */
+    @NotNull
+    public List<LookupElement> getLookupElements(@NotNull List<String> items) {
+        if(items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return pathCache.computeIfAbsent(StringUtils.join(items, "\n"), s -> Optional.ofNullable(getMatchingConfigNode(items)))
+            .map(ConfigNode::getLookupElements)
+            .orElse(Collections.emptyList());
+    }
+
+    @Nullable
+    private ConfigNode getMatchingConfigNode(@NotNull List<String> items) {
+        ConfigNode currentNodeItem = firstNodes.get(items.get(0));
+        if(currentNodeItem == null) {
+            return null;
+        }
+
+        for (int i = 1; i < items.size(); i++) {
+            currentNodeItem = currentNodeItem.getElementByTagNameWithUnPluralize(items.get(i));
+            if(currentNodeItem == null) {
+                return null;
+            }
+
+            // prototype key is user defined: "connections: default:"
+            if(currentNodeItem.prototype) {
+                i++;
+            }
+        }
+
+        return currentNodeItem;
+    }
+
+    private static void visitElement(@NotNull Element element, @Nullable ConfigNode parent, @NotNull List<ConfigNode> nodes) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+
+        NamedNodeMap nodeMap = element.getAttributes();
+        for (int i = 0; i < nodeMap.getLength(); i++) {
+            attributes.put(nodeMap.item(i).getNodeName(), nodeMap.item(i).getTextContent());
+        }
+
+        ConfigNode node = new ConfigNode(element.getNodeName(), parent, isPrototype(element), attributes, getNodeCommentVars(element));
+        nodes.add(node);
+
+        if(parent != null) {
+            parent.children.add(node);
+        }
+
+        NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            if(childNodes.item(i) instanceof Element) {
+                visitElement((Element) childNodes.item(i), node, nodes);
+            }
+        }
+    }
+
+    @NotNull
+    private static String getNodeName(@NotNull String nodeName) {
+        return nodeName.replace("-", "_");
+    }
+
+    private static boolean isPrototype(@NotNull Node node) {
+        Node previousSibling = node.getPreviousSibling();
+        if(previousSibling == null) {
+            return false;
+        }
+
+        // we can have multiple comments similar to docblock to a node
+        // search for prototype
+        Node comment = previousSibling.getPreviousSibling();
+        while (comment instanceof CommentImpl || comment instanceof DeferredTextImpl) {
+            if(comment instanceof CommentImpl) {
+                if(comment.getTextContent().toLowerCase().matches("\\s*prototype.*")) {
+                    return true;
+                }
+            }
+
+            comment = comment.getPreviousSibling();
+        }
+
+        return false;
+    }
+
+    @NotNull
+    private static Map<String, String> getNodeCommentVars(@NotNull Node node) {
+        Map<String, String> comments = new HashMap<>();
+
+        Node previousSibling = node.getPreviousSibling();
+        if(previousSibling == null) {
+            return comments;
+        }
+
+        // get variable decl: "foo: test"
+        Node comment = previousSibling.getPreviousSibling();
+        while (comment instanceof CommentImpl || comment instanceof DeferredTextImpl) {
+            if(comment instanceof CommentImpl) {
+                Matcher matcher = COMMENT_VAR.matcher(StringUtils.trim(comment.getTextContent()));
+                if (matcher.find()) {
+                    comments.put(matcher.group(1).replace("-", "_"), matcher.group(2));
+                }
+            }
+
+            comment = comment.getPreviousSibling();
+        }
+
+        return comments;
+    }
+
+    private static class ConfigNode {
+        @NotNull
+        private final String name;
+
+        @Nullable
+        private final ConfigNode parent;
+
+        private final boolean prototype;
+
+        @NotNull
+        private final Map<String, String> attributes;
+
+        @NotNull
+        private final Map<String, String> commentVars;
+
+        @NotNull
+        private final List<ConfigNode> children = new ArrayList<>();
+
+        @Nullable
+        private volatile List<LookupElement> lookupElements;
+
+        ConfigNode(@NotNull String name, @Nullable ConfigNode parent, boolean prototype, @NotNull Map<String, String> attributes, @NotNull Map<String, String> commentVars) {
+            this.name = name;
+            this.parent = parent;
+            this.prototype = prototype;
+            this.attributes = attributes;
+            this.commentVars = commentVars;
+        }
+
+        /**
+         * Built once on first usage, as they are the same for every keystroke
+         */
+        @NotNull
+        List<LookupElement> getLookupElements() {
+            List<LookupElement> elements = lookupElements;
+            if(elements != null) {
+                return elements;
+            }
+
+            elements = new ArrayList<>();
+            addLookupElements(elements, false);
+
+            // map shortcuts like eg <dbal default-connection="">
+            for (String attributeName : attributes.keySet()) {
+                if(attributeName.startsWith("default-")) {
+                    ConfigNode defaultNode = getElementByTagNameWithUnPluralize(attributeName.substring("default-".length()));
+                    if(defaultNode != null) {
+                        defaultNode.addLookupElements(elements, true);
+                    }
+                }
+            }
+
+            return lookupElements = Collections.unmodifiableList(elements);
+        }
+
+        private void addLookupElements(@NotNull List<LookupElement> elements, boolean isShortcut) {
+            // get config on node attributes
+            attributes.forEach((attributeName, value) -> {
+                String nodeName = getNodeName(attributeName);
+                LookupElementBuilder lookupElementBuilder = LookupElementBuilder.create(nodeName).withIcon(Symfony2Icons.CONFIG_VALUE);
+
+                if(StringUtils.isNotBlank(value)) {
+                    lookupElementBuilder = lookupElementBuilder.withTailText("(" + value + ")", true);
+                }
+
+                if(commentVars.containsKey(nodeName)) {
+                    lookupElementBuilder = lookupElementBuilder.withTypeText(StringUtil.shortenTextWithEllipsis(commentVars.get(nodeName), 100, 0), true);
+                }
+
+                if(isShortcut) {
+                    lookupElementBuilder = lookupElementBuilder.withIcon(Symfony2Icons.CONFIG_VALUE_SHORTCUT);
+                }
+
+                elements.add(lookupElementBuilder);
+            });
+
+            // check for additional child node
+            visitDescendants(node -> {
+                String nodeName = getNodeName(node.name);
+
+                // prototype "connection" must be "connections" so pluralize
+                if(node.prototype) {
+                    nodeName = StringUtil.pluralize(nodeName);
+                }
+
+                LookupElementBuilder lookupElementBuilder = LookupElementBuilder.create(nodeName).withIcon(Symfony2Icons.CONFIG_PROTOTYPE);
+
+                if(node.prototype) {
+                    lookupElementBuilder = lookupElementBuilder.withTypeText("Prototype", true);
+                }
+
+                if(isShortcut) {
+                    lookupElementBuilder = lookupElementBuilder.withIcon(Symfony2Icons.CONFIG_VALUE_SHORTCUT);
+                }
+
+                elements.add(lookupElementBuilder);
+                return true;
+            });
+        }
+
+        @Nullable
+        ConfigNode getElementByTagNameWithUnPluralize(@NotNull String tagName) {
+            ConfigNode node = getFirstDescendant(tagName);
+            if(node != null) {
+                return node;
+            }
+
+            String unpluralize = StringUtil.unpluralize(tagName);
+            if(unpluralize == null) {
+                return null;
+            }
+
+            return getFirstDescendant(unpluralize);
+        }
+
+        @Nullable
+        private ConfigNode getFirstDescendant(@NotNull String tagName) {
+            ConfigNode[] found = new ConfigNode[1];
+
+            visitDescendants(node -> {
+                if(tagName.equals(node.name)) {
+                    found[0] = node;
+                    return false;
+                }
+
+                return true;
+            });
+
+            return found[0];
+        }
+
+        /**
+         * Depth first in document order, same as "getElementsByTagName"
+         */
+        private boolean visitDescendants(@NotNull Predicate<ConfigNode> visitor) {
+            for (ConfigNode child : children) {
+                if(!visitor.test(child) || !child.visitDescendants(visitor)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
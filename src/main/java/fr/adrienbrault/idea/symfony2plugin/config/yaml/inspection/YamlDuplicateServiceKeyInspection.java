@@ -1,11 +1,13 @@
 package fr.adrienbrault.idea.symfony2plugin.config.yaml.inspection;
 
 import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.util.PsiTreeUtil;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.yaml.YAMLUtil;
@@ -31,11 +33,27 @@ public class YamlDuplicateServiceKeyInspection extends LocalInspectionTool {
         return new PsiElementVisitor() {
             @Override
             public void visitFile(PsiFile file) {
-                visitRoot(file, "services", holder);
+                visitServices(file, holder);
             }
         };
     }
 
+    /**
+     * Duplicate ids are provided by the shared service model of the file, without walking the "services" tree again
+     */
+    private void visitServices(@NotNull PsiFile psiFile, @NotNull ProblemsHolder holder) {
+        if(!(psiFile instanceof YAMLFile)) {
+            return;
+        }
+
+        for (Integer offset : ServiceContainerUtil.getServiceFileModel(psiFile).getDuplicateServiceIdOffsets()) {
+            YAMLKeyValue yamlKeyValue = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), YAMLKeyValue.class);
+            if(yamlKeyValue != null && yamlKeyValue.getKey() != null) {
+                holder.registerProblem(yamlKeyValue.getKey(), "Duplicate key", ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+            }
+        }
+    }
+
     protected void visitRoot(PsiFile psiFile, String rootName, @NotNull ProblemsHolder holder) {
         if(!(psiFile instanceof YAMLFile)) {
             return;
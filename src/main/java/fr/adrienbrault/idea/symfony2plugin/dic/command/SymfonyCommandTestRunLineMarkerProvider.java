@@ -7,14 +7,12 @@ import com.intellij.execution.lineMarker.RunLineMarkerContributor;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ObjectUtils;
 import com.jetbrains.php.lang.lexer.PhpTokenTypes;
 import com.jetbrains.php.lang.psi.PhpPsiUtil;
-import com.jetbrains.php.lang.psi.elements.*;
-import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.PhpPsiAttributesUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCommandUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -52,57 +50,6 @@ public class SymfonyCommandTestRunLineMarkerProvider extends RunLineMarkerContri
 
     @Nullable
     public static String getCommandNameFromClass(@NotNull PhpClass phpClass) {
-        if (PhpElementsUtil.isInstanceOf(phpClass, "\\Symfony\\Component\\Console\\Command\\Command")) {
-            // lazy naming:
-            // protected static $defaultName = 'app:create-user'
-            Field defaultName = phpClass.findFieldByName("defaultName", false);
-            if (defaultName != null) {
-                PsiElement defaultValue = defaultName.getDefaultValue();
-                if (defaultValue != null) {
-                    return PhpElementsUtil.getStringValue(defaultValue);
-                }
-            }
-
-            // php attributes:
-            // #[AsCommand('app:create-user')]
-            // #[AsCommand(name: 'app:create-user')]
-            for (PhpAttribute attribute : phpClass.getAttributes("\\Symfony\\Component\\Console\\Attribute\\AsCommand")) {
-                String name = PhpPsiAttributesUtil.getAttributeValueByNameAsStringWithDefaultParameterFallback(attribute, "name");
-                if (name != null) {
-                    return name;
-                }
-            }
-
-            // @TODO: provide tag resolving here
-            // - { name: 'console.command', command: 'app:sunshine' }
-
-            // old style
-            Method method = phpClass.findOwnMethodByName("configure");
-            if(method != null) {
-                PsiElement[] psiElements = PsiTreeUtil.collectElements(method, psiElement ->
-                    psiElement instanceof MethodReference && "setName".equals(((MethodReference) psiElement).getName())
-                );
-
-                for (PsiElement psiElement : psiElements) {
-                    if(!(psiElement instanceof MethodReference)) {
-                        continue;
-                    }
-
-                    PsiElement psiMethodParameter = PsiElementUtils.getMethodParameterPsiElementAt((MethodReference) psiElement, 0);
-                    if(psiMethodParameter == null) {
-                        continue;
-                    }
-
-                    String stringValue = PhpElementsUtil.getStringValue(psiMethodParameter);
-                    if(stringValue == null) {
-                        continue;
-                    }
-
-                    return stringValue;
-                }
-            }
-        }
-
-        return null;
+        return SymfonyCommandUtil.getCommandName(phpClass);
     }
 }
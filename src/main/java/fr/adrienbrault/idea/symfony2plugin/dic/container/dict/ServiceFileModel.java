@@ -0,0 +1,225 @@
+package fr.adrienbrault.idea.symfony2plugin.dic.container.dict;
+
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Immutable service definitions of a single "services.yml", "services.xml" or "services.php" file
+ *
+ * Besides the services, every definition knows its source offsets and its constructor and "calls" arguments,
+ * so inspections, line markers and completion can work on the model instead of walking the services tree.
+ * Offsets are only valid for the file content the model was build for.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceFileModel {
+
+    public static final ServiceFileModel EMPTY = new ServiceFileModel(Collections.emptyList(), Collections.emptyMap(), Collections.emptyList());
+
+    @NotNull
+    final private Collection<ServiceSerializable> services;
+
+    /**
+     * Id element text to the offsets of its id element: yaml key, xml "id" attribute value or php string
+     */
+    @NotNull
+    final private Map<String, List<Integer>> serviceIdOffsets;
+
+    @NotNull
+    final private Collection<Definition> definitions;
+
+    @NotNull
+    final private Map<Integer, Definition> definitionsByOffset = new HashMap<>();
+
+    public ServiceFileModel(@NotNull Collection<ServiceSerializable> services, @NotNull Map<String, List<Integer>> serviceIdOffsets, @NotNull Collection<Definition> definitions) {
+        this.services = Collections.unmodifiableList(new ArrayList<>(services));
+
+        Map<String, List<Integer>> offsets = new LinkedHashMap<>();
+        serviceIdOffsets.forEach((id, integers) -> offsets.put(id, Collections.unmodifiableList(new ArrayList<>(integers))));
+        this.serviceIdOffsets = Collections.unmodifiableMap(offsets);
+
+        this.definitions = Collections.unmodifiableList(new ArrayList<>(definitions));
+        for (Definition definition : this.definitions) {
+            this.definitionsByOffset.putIfAbsent(definition.getOffset(), definition);
+        }
+    }
+
+    /**
+     * Including the pseudo "foo.inner" services of decorations
+     */
+    @NotNull
+    public Collection<ServiceSerializable> getServices() {
+        return services;
+    }
+
+    /**
+     * Definitions in file order; without pseudo decorated services
+     */
+    @NotNull
+    public Collection<Definition> getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * Definition which id element starts at the offset
+     */
+    @Nullable
+    public Definition getDefinition(int offset) {
+        return definitionsByOffset.get(offset);
+    }
+
+    /**
+     * Offsets of all id elements which are defined more than once inside the file; for yaml also "_defaults" and "_instanceof"
+     */
+    @NotNull
+    public Collection<Integer> getDuplicateServiceIdOffsets() {
+        Collection<Integer> offsets = new ArrayList<>();
+
+        for (List<Integer> integers : serviceIdOffsets.values()) {
+            if(integers.size() > 1) {
+                offsets.addAll(integers);
+            }
+        }
+
+        return offsets;
+    }
+
+    /**
+     * One service definition: "foo: { class: Foo }", "<service id="foo"/>", "<prototype namespace="App\"/>"
+     */
+    public static class Definition {
+        @NotNull
+        final private ServiceSerializable service;
+
+        final private int offset;
+
+        @Nullable
+        final private String className;
+
+        final private boolean factory;
+
+        @NotNull
+        final private List<Argument> arguments;
+
+        public Definition(@NotNull ServiceSerializable service, int offset, @Nullable String className, boolean factory, @NotNull List<Argument> arguments) {
+            this.service = service;
+            this.offset = offset;
+            this.className = className;
+            this.factory = factory;
+            this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+        }
+
+        @NotNull
+        public ServiceSerializable getService() {
+            return service;
+        }
+
+        /**
+         * Start of the id element: yaml key, xml "service" or "prototype" tag, php string
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Class as written, "class" or the id for a class like service id; not resolved
+         */
+        @Nullable
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * "factory" arguments are no constructor arguments
+         */
+        public boolean hasFactory() {
+            return factory;
+        }
+
+        /**
+         * Constructor arguments and arguments of "calls"
+         */
+        @NotNull
+        public List<Argument> getArguments() {
+            return arguments;
+        }
+    }
+
+    /**
+     * arguments: ['@foo', '$bar': '@bar']
+     * calls: [[setFoo, ['@foo']]]
+     */
+    public static class Argument {
+        @Nullable
+        final private String method;
+
+        final private int index;
+
+        @Nullable
+        final private String name;
+
+        @Nullable
+        final private String value;
+
+        final private int offset;
+
+        final private int nameOffset;
+
+        public Argument(@Nullable String method, int index, @Nullable String name, @Nullable String value, int offset, int nameOffset) {
+            this.method = method;
+            this.index = index;
+            this.name = name;
+            this.value = value;
+            this.offset = offset;
+            this.nameOffset = nameOffset;
+        }
+
+        /**
+         * "calls" method; null for the constructor
+         */
+        @Nullable
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Position of a sequence argument; -1 for named arguments
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Named argument without "$"
+         */
+        @Nullable
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Scalar value as written: "@foo", "%foo%"; xml service references as "@foo"; null for arrays or mappings
+         */
+        @Nullable
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Start of the scalar value or xml "argument" tag; -1 without a value
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Start of the named argument key "$foo"; -1 for sequence arguments
+         */
+        public int getNameOffset() {
+            return nameOffset;
+        }
+    }
+}
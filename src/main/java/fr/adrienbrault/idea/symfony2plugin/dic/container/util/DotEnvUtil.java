@@ -2,25 +2,20 @@ package fr.adrienbrault.idea.symfony2plugin.dic.container.util;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
-import com.intellij.openapi.util.Pair;
-import com.intellij.openapi.vfs.VfsUtil;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.util.*;
-import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
-import org.apache.commons.lang.StringUtils;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DotEnvIndex;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.yaml.YAMLUtil;
-import org.jetbrains.yaml.psi.*;
+import org.jetbrains.yaml.psi.YAMLFile;
+import org.jetbrains.yaml.psi.YAMLValue;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,13 +25,6 @@ import java.util.regex.Pattern;
 public class DotEnvUtil {
     private static final Key<CachedValue<Set<String>>> DOT_ENV_VARIABLE_CACHE = new Key<>("DOT_ENV_VARIABLE_CACHE");
 
-    /**
-     * case insensitive filenames
-     */
-    private static final String[] DOCKER_FILES = {
-        "Dockerfile", "dockerfile"
-    };
-
     /**
      * Provide targets for "%env(FOOBAR)%"
      *
@@ -61,146 +49,40 @@ public class DotEnvUtil {
         return DotEnvUtil.getEnvironmentVariableTargets(project, parameterName);
     }
 
+    /**
+     * All variable names of the environment index; no psi is build here
+     */
     @NotNull
     public static Collection<String> getEnvironmentVariables(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
-            project,
-            DOT_ENV_VARIABLE_CACHE,
-            () -> {
-                Set<String> items = new HashSet<>();
-
-                DotEnvUtil.visitEnvironment(project, pair ->
-                    items.add(pair.getFirst())
-                );
-
-                return CachedValueProvider.Result.create(items, PsiModificationTracker.MODIFICATION_COUNT);
-            },
-            false
-        );
+        return FileIndexCaches.getIndexKeysCache(project, DOT_ENV_VARIABLE_CACHE, DotEnvIndex.KEY);
     }
 
     @NotNull
     public static Collection<PsiElement> getEnvironmentVariableTargets(@NotNull Project project, @NotNull String environmentVariable) {
         Collection<PsiElement> items = new ArrayList<>();
 
-        DotEnvUtil.visitEnvironment(project, pair -> {
-            if(environmentVariable.equals(pair.getFirst())) {
-                items.add(pair.getSecond());
-            }
-        });
-
-        return items;
-    }
-
-    private static void visitEnvironment(@NotNull Project project, @NotNull Consumer<Pair<String, PsiElement>> consumer) {
-        Set<VirtualFile> files = new HashSet<>(
-            FilenameIndex.getAllFilesByExt(project, "env", GlobalSearchScope.allScope(project))
-        );
-
-        // try to find some env's ;)
-        for (String file : new String[]{".env", ".env.dist", ".env.test", ".env.local"}) {
-            files.addAll(FilenameIndex.getVirtualFilesByName(file, GlobalSearchScope.allScope(project)));
-        }
+        PsiManager psiManager = PsiManager.getInstance(project);
 
-        // search root directory for all ".env*" files
-        VirtualFile projectDir = VfsUtil.findRelativeFile(ProjectUtil.getProjectDir(project));
-        if (projectDir != null) {
-            for (VirtualFile child : projectDir.getChildren()) {
-                if (child.getName().startsWith(".env")) {
-                    files.add(child);
-                }
+        FileBasedIndex.getInstance().processValues(DotEnvIndex.KEY, environmentVariable, null, (virtualFile, offset) -> {
+            PsiFile psiFile = psiManager.findFile(virtualFile);
+            if(psiFile == null) {
+                return true;
             }
-        }
 
-        for (VirtualFile virtualFile : files) {
-            PsiFile file = PsiManager.getInstance(project).findFile(virtualFile);
-            if(file == null) {
-                continue;
-            }
-
-            Properties variables = new Properties();
-            try {
-                variables.load(virtualFile.getInputStream());
-            } catch (IOException e) {
-                continue;
-            }
-
-            for (Map.Entry<Object, Object> variable : variables.entrySet()) {
-                Object key = variable.getKey();
-                if(key instanceof String) {
-                    consumer.accept(Pair.create((String) key, file));
+            // docker-compose: target the value "- FOOBAR=0", "FOOBAR: 0"; all other files the file itself
+            if(psiFile instanceof YAMLFile) {
+                YAMLValue yamlValue = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), YAMLValue.class, false);
+                if(yamlValue != null) {
+                    items.add(yamlValue);
+                    return true;
                 }
             }
-        }
 
-        for (PsiFile psiFile : FilenameIndex.getFilesByName(project, "docker-compose.yml", GlobalSearchScope.allScope(project))) {
-            if(!(psiFile instanceof YAMLFile)) {
-                continue;
-            }
+            items.add(psiFile);
 
-            for (YAMLKeyValue yamlKeyValue : YAMLUtil.getTopLevelKeys((YAMLFile) psiFile)) {
-                if ("services".equals(yamlKeyValue.getKeyText())) {
-                    PsiElement yamlKeyValueLastChild = yamlKeyValue.getLastChild();
-                    if (yamlKeyValueLastChild instanceof YAMLMapping) {
-                        for (YAMLKeyValue keyValue : ((YAMLMapping) yamlKeyValueLastChild).getKeyValues()) {
-                            visitEnvironmentSquenceItems(consumer, keyValue);
-                        }
-                    }
-                }
-
-                visitEnvironmentSquenceItems(consumer, yamlKeyValue);
-            }
-        }
-
-        for (String file : DOCKER_FILES) {
-            for (PsiFile psiFile : FilenameIndex.getFilesByName(project, file, GlobalSearchScope.allScope(project))) {
-                // ENV DOCKERFILE_FOO /bar
-                Matcher matcher = Pattern.compile("ENV\\s+([^\\s]*)\\s+").matcher(psiFile.getText());
-                while(matcher.find()){
-                    consumer.accept(Pair.create(matcher.group(1), psiFile));
-                }
-
-                // ENV ADMIN_USER_DOCKERFILE="mark"
-                // ENV ADMIN_USER_DOCKERFILE ="mark"
-                matcher = Pattern.compile("ENV\\s+([\\w+]*)\\s*=").matcher(psiFile.getText());
-                while(matcher.find()){
-                    consumer.accept(Pair.create(matcher.group(1), psiFile));
-                }
-            }
-        }
-    }
+            return true;
+        }, GlobalSearchScope.allScope(project));
 
-    /**
-     * environment:
-     *   - FOOBAR=0
-     *
-     * environment:
-     *   FOOBAR: 0
-     */
-    private static void visitEnvironmentSquenceItems(@NotNull Consumer<Pair<String, PsiElement>> consumer, @NotNull YAMLKeyValue yamlKeyValue) {
-        YAMLKeyValue environment = YamlHelper.getYamlKeyValue(yamlKeyValue, "environment");
-        if (environment != null) {
-            // FOOBAR=0
-            for (YAMLSequenceItem yamlSequenceItem : YamlHelper.getSequenceItems(environment)) {
-                YAMLValue value = yamlSequenceItem.getValue();
-                if (value instanceof YAMLScalar) {
-                    String textValue = ((YAMLScalar) value).getTextValue();
-                    if (StringUtils.isNotBlank(textValue)) {
-                        String[] split = textValue.split("=");
-                        if (split.length > 1) {
-                            consumer.accept(Pair.create(split[0], value));
-                        }
-                    }
-                }
-            }
-
-            // FOOBAR: 0
-            YAMLMapping childOfType = PsiTreeUtil.getChildOfType(environment, YAMLMapping.class);
-            if (childOfType != null) {
-                for (Map.Entry<String, YAMLValue> entry : YamlHelper.getYamlArrayKeyMap(childOfType).entrySet()) {
-                    consumer.accept(Pair.create(entry.getKey(), entry.getValue()));
-                }
-            }
-        }
+        return items;
     }
 }
@@ -2,6 +2,7 @@ package fr.adrienbrault.idea.symfony2plugin.dic.container.util;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -17,6 +18,7 @@ import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.PhpFile;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.jetbrains.php.refactoring.PhpNamespaceBraceConverter;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.config.xml.XmlHelper;
 import fr.adrienbrault.idea.symfony2plugin.dic.attribute.value.AttributeValueInterface;
 import fr.adrienbrault.idea.symfony2plugin.dic.attribute.value.PhpKeyValueAttributeValue;
@@ -25,10 +27,12 @@ import fr.adrienbrault.idea.symfony2plugin.dic.attribute.value.YamlKeyValueAttri
 import fr.adrienbrault.idea.symfony2plugin.dic.container.SerializableService;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileDefaults;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileModel;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceTypeHint;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.visitor.ServiceConsumer;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceIndexUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerIdUsagesStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.*;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
@@ -40,7 +44,9 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.yaml.YAMLUtil;
 import org.jetbrains.yaml.psi.*;
 
+import java.io.File;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,6 +68,8 @@ public class ServiceContainerUtil {
         new MethodMatcher.CallToSignature("\\Symfony\\Component\\DependencyInjection\\ParameterBag\\ContainerBagInterface", "get"),
     };
 
+    public static final MethodMatcher.CallToSignatureTable SERVICE_GET_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(SERVICE_GET_SIGNATURES);
+
     private static final Key<CachedValue<Collection<String>>> SYMFONY_COMPILED_TIMED_SERVICE_WATCHER = new Key<>("SYMFONY_COMPILED_TIMED_SERVICE_WATCHER");
     private static final Key<CachedValue<Collection<String>>> SYMFONY_COMPILED_SERVICE_WATCHER = new Key<>("SYMFONY_COMPILED_SERVICE_WATCHER");
 
@@ -69,8 +77,50 @@ public class ServiceContainerUtil {
         "debug", "default", "abstract", "inner", "chain", "decorate", "delegat"
     };
 
+    private static final Key<CachedValue<ServiceFileModel>> SYMFONY_SERVICE_FILE_MODEL = new Key<>("SYMFONY_SERVICE_FILE_MODEL");
+
     @NotNull
     public static Collection<ServiceSerializable> getServicesInFile(@NotNull PsiFile psiFile) {
+        return getServicesInFile(psiFile, null);
+    }
+
+    /**
+     * Service model of the file with arguments and offsets, build once per file modification and shared by
+     * inspections, line markers and completion of service definition files
+     */
+    @NotNull
+    public static ServiceFileModel getServiceFileModel(@NotNull PsiFile psiFile) {
+        if(!(psiFile instanceof XmlFile || psiFile instanceof YAMLFile || psiFile instanceof PhpFile)) {
+            return ServiceFileModel.EMPTY;
+        }
+
+        return CachedValuesManager.getCachedValue(psiFile, SYMFONY_SERVICE_FILE_MODEL, () -> {
+            Map<String, List<Integer>> serviceIdOffsets = new LinkedHashMap<>();
+            List<ServiceFileModel.Definition> definitions = new ArrayList<>();
+
+            Collection<ServiceSerializable> services = getServicesInFile(psiFile, (serviceConsumer, service) -> {
+                ServiceFileModel.Definition definition = createDefinition(serviceConsumer, service, serviceIdOffsets);
+                if(definition != null) {
+                    definitions.add(definition);
+                }
+            });
+
+            // not only services: "_defaults" and "_instanceof" must also be unique
+            if(psiFile instanceof YAMLFile) {
+                for (YAMLKeyValue keyValue : YamlHelper.getQualifiedKeyValuesInFile((YAMLFile) psiFile, "services")) {
+                    String keyText = PsiElementUtils.trimQuote(keyValue.getKeyText());
+                    if(StringUtils.isNotBlank(keyText) && keyValue.getKey() != null) {
+                        addServiceIdOffset(serviceIdOffsets, keyText, keyValue.getKey());
+                    }
+                }
+            }
+
+            return CachedValueProvider.Result.create(new ServiceFileModel(services, serviceIdOffsets, definitions), psiFile);
+        });
+    }
+
+    @NotNull
+    private static Collection<ServiceSerializable> getServicesInFile(@NotNull PsiFile psiFile, @Nullable BiConsumer<ServiceConsumer, ServiceSerializable> definitionConsumer) {
         final Collection<ServiceSerializable> services = new ArrayList<>();
 
         if(psiFile instanceof XmlFile) {
@@ -79,23 +129,26 @@ public class ServiceContainerUtil {
                 serializableService.setDecorationInnerName(serviceConsumer.attributes().getString("decoration-inner-name"));
                 serializableService.setIsDeprecated(serviceConsumer.attributes().getBoolean("deprecated"));
 
-                services.add(serializableService);
+                addService(services, serviceConsumer, serializableService, definitionConsumer);
             });
         } else if (psiFile instanceof YAMLFile) {
             visitFile((YAMLFile) psiFile, serviceConsumer -> {
+                PsiElement yamlKeyValue = serviceConsumer.attributes().getPsiElement();
 
                 // alias inline "foo: @bar"
-                PsiElement yamlKeyValue = serviceConsumer.attributes().getPsiElement();
                 if(yamlKeyValue instanceof YAMLKeyValue) {
                     PsiElement value = ((YAMLKeyValue) yamlKeyValue).getValue();
                     if(value instanceof YAMLScalar) {
                         String valueText = ((YAMLScalar) value).getTextValue();
                         if(StringUtils.isNotBlank(valueText) && valueText.startsWith("@") && valueText.length() > 1) {
-                            services.add(
+                            addService(
+                                services,
+                                serviceConsumer,
                                 new SerializableService(serviceConsumer.getServiceId())
                                     .setAlias(valueText.substring(1))
                                     .setIsAutowire(serviceConsumer.getDefaults().isAutowire())
-                                    .setIsPublic(serviceConsumer.getDefaults().isPublic())
+                                    .setIsPublic(serviceConsumer.getDefaults().isPublic()),
+                                definitionConsumer
                             );
                             return;
                         }
@@ -113,13 +166,10 @@ public class ServiceContainerUtil {
                     serializableService.setIsDeprecated(serviceConsumer.attributes().getBoolean("deprecated"));
                 }
 
-                services.add(serializableService);
+                addService(services, serviceConsumer, serializableService, definitionConsumer);
             });
         } else if (psiFile instanceof PhpFile) {
-            visitFile((PhpFile) psiFile, serviceConsumer -> {
-                SerializableService serializableService = createService(serviceConsumer);
-                services.add(serializableService);
-            });
+            visitFile((PhpFile) psiFile, serviceConsumer -> addService(services, serviceConsumer, createService(serviceConsumer), definitionConsumer));
         }
 
         // decorated services
@@ -128,6 +178,162 @@ public class ServiceContainerUtil {
         return services;
     }
 
+    private static void addService(@NotNull Collection<ServiceSerializable> services, @NotNull ServiceConsumer serviceConsumer, @NotNull ServiceSerializable service, @Nullable BiConsumer<ServiceConsumer, ServiceSerializable> definitionConsumer) {
+        services.add(service);
+
+        if(definitionConsumer != null) {
+            definitionConsumer.accept(serviceConsumer, service);
+        }
+    }
+
+    @Nullable
+    private static ServiceFileModel.Definition createDefinition(@NotNull ServiceConsumer serviceConsumer, @NotNull ServiceSerializable service, @NotNull Map<String, List<Integer>> serviceIdOffsets) {
+        PsiElement psiElement = serviceConsumer.getPsiElement();
+
+        if(psiElement instanceof YAMLKeyValue) {
+            PsiElement key = ((YAMLKeyValue) psiElement).getKey();
+            if(key == null) {
+                return null;
+            }
+
+            YAMLValue value = ((YAMLKeyValue) psiElement).getValue();
+            if(!(value instanceof YAMLMapping)) {
+                // Foo\Bar: ~
+                String className = service.getAlias() == null && YamlHelper.isClassServiceId(service.getId()) ? service.getId() : null;
+                return new ServiceFileModel.Definition(service, key.getTextRange().getStartOffset(), className, false, Collections.emptyList());
+            }
+
+            YAMLMapping yamlMapping = (YAMLMapping) value;
+
+            List<ServiceFileModel.Argument> arguments = new ArrayList<>();
+
+            YAMLKeyValue argumentsKeyValue = yamlMapping.getKeyValueByKey("arguments");
+            if(argumentsKeyValue != null) {
+                addYamlArguments(arguments, null, argumentsKeyValue.getValue());
+            }
+
+            // - [ setFoo, [@args_bar] ]
+            YAMLKeyValue callsKeyValue = yamlMapping.getKeyValueByKey("calls");
+            if(callsKeyValue != null && callsKeyValue.getValue() instanceof YAMLSequence) {
+                for (YAMLSequenceItem callItem : ((YAMLSequence) callsKeyValue.getValue()).getItems()) {
+                    if(!(callItem.getValue() instanceof YAMLSequence)) {
+                        continue;
+                    }
+
+                    List<YAMLSequenceItem> methodParameter = ((YAMLSequence) callItem.getValue()).getItems();
+                    if(methodParameter.size() > 1 && methodParameter.get(0).getValue() instanceof YAMLScalar) {
+                        String methodName = ((YAMLScalar) methodParameter.get(0).getValue()).getTextValue();
+                        if(StringUtils.isNotBlank(methodName) && methodParameter.get(1).getValue() instanceof YAMLSequence) {
+                            addYamlArguments(arguments, methodName, methodParameter.get(1).getValue());
+                        }
+                    }
+                }
+            }
+
+            return new ServiceFileModel.Definition(
+                service,
+                key.getTextRange().getStartOffset(),
+                getServiceClassFromServiceMapping(yamlMapping),
+                yamlMapping.getKeyValueByKey("factory") != null,
+                arguments
+            );
+        }
+
+        if(psiElement instanceof XmlTag) {
+            XmlTag xmlTag = (XmlTag) psiElement;
+
+            // "prototype" namespaces are no service ids
+            if("service".equals(xmlTag.getName())) {
+                XmlAttribute id = xmlTag.getAttribute("id");
+                if(id != null && id.getValueElement() != null) {
+                    addServiceIdOffset(serviceIdOffsets, serviceConsumer.getServiceId(), id.getValueElement());
+                }
+            }
+
+            List<ServiceFileModel.Argument> arguments = new ArrayList<>();
+            addXmlArguments(arguments, null, xmlTag);
+
+            for (XmlTag callTag : xmlTag.findSubTags("call")) {
+                String methodName = callTag.getAttributeValue("method");
+                if(StringUtils.isNotBlank(methodName)) {
+                    addXmlArguments(arguments, methodName, callTag);
+                }
+            }
+
+            return new ServiceFileModel.Definition(
+                service,
+                xmlTag.getTextRange().getStartOffset(),
+                service.getClassName(),
+                xmlTag.findFirstSubTag("factory") != null || xmlTag.getAttribute("factory") != null,
+                arguments
+            );
+        }
+
+        addServiceIdOffset(serviceIdOffsets, serviceConsumer.getServiceId(), psiElement);
+
+        return new ServiceFileModel.Definition(service, psiElement.getTextRange().getStartOffset(), service.getClassName(), false, Collections.emptyList());
+    }
+
+    /**
+     * arguments: ['@foo', '@bar']
+     * arguments: { $foo: '@foo' }
+     */
+    private static void addYamlArguments(@NotNull List<ServiceFileModel.Argument> arguments, @Nullable String method, @Nullable YAMLValue yamlValue) {
+        if(yamlValue instanceof YAMLSequence) {
+            List<YAMLSequenceItem> items = ((YAMLSequence) yamlValue).getItems();
+            for (int i = 0; i < items.size(); i++) {
+                YAMLValue value = items.get(i).getValue();
+
+                if(value instanceof YAMLScalar) {
+                    arguments.add(new ServiceFileModel.Argument(method, i, null, ((YAMLScalar) value).getTextValue(), value.getTextRange().getStartOffset(), -1));
+                } else {
+                    arguments.add(new ServiceFileModel.Argument(method, i, null, null, -1, -1));
+                }
+            }
+        } else if(yamlValue instanceof YAMLMapping) {
+            for (YAMLKeyValue keyValue : ((YAMLMapping) yamlValue).getKeyValues()) {
+                String keyText = keyValue.getKeyText();
+                PsiElement key = keyValue.getKey();
+                if(key == null || !keyText.startsWith("$") || keyText.length() < 2) {
+                    continue;
+                }
+
+                YAMLValue value = keyValue.getValue();
+                if(value instanceof YAMLScalar) {
+                    arguments.add(new ServiceFileModel.Argument(method, -1, keyText.substring(1), ((YAMLScalar) value).getTextValue(), value.getTextRange().getStartOffset(), key.getTextRange().getStartOffset()));
+                } else {
+                    arguments.add(new ServiceFileModel.Argument(method, -1, keyText.substring(1), null, -1, key.getTextRange().getStartOffset()));
+                }
+            }
+        }
+    }
+
+    /**
+     * <argument type="service" id="foo"/>
+     * <argument key="$foo">foo</argument>
+     */
+    private static void addXmlArguments(@NotNull List<ServiceFileModel.Argument> arguments, @Nullable String method, @NotNull XmlTag xmlTag) {
+        XmlTag[] argumentTags = xmlTag.findSubTags("argument");
+        for (int i = 0; i < argumentTags.length; i++) {
+            XmlTag argumentTag = argumentTags[i];
+
+            String value = "service".equals(argumentTag.getAttributeValue("type"))
+                ? "@" + StringUtils.defaultString(argumentTag.getAttributeValue("id"))
+                : argumentTag.getValue().getTrimmedText();
+
+            String key = argumentTag.getAttributeValue("key");
+            if(key != null && key.startsWith("$") && key.length() > 1) {
+                arguments.add(new ServiceFileModel.Argument(method, -1, key.substring(1), value, argumentTag.getTextRange().getStartOffset(), argumentTag.getTextRange().getStartOffset()));
+            } else {
+                arguments.add(new ServiceFileModel.Argument(method, i, null, value, argumentTag.getTextRange().getStartOffset(), -1));
+            }
+        }
+    }
+
+    private static void addServiceIdOffset(@NotNull Map<String, List<Integer>> serviceIdOffsets, @NotNull String serviceId, @NotNull PsiElement psiElement) {
+        serviceIdOffsets.computeIfAbsent(serviceId, s -> new ArrayList<>()).add(psiElement.getTextRange().getStartOffset());
+    }
+
     @NotNull
     private static ServiceFileDefaults createDefaults(@NotNull YAMLFile psiFile) {
         YAMLKeyValue yamlKeyValueDefaults = YAMLUtil.getQualifiedKeyInFile(psiFile, "services", "_defaults");
@@ -546,44 +752,6 @@ public class ServiceContainerUtil {
         return null;
     }
 
-    /**
-     * arguments: ['$foobar': '@foo']
-     */
-    public static boolean hasMissingYamlNamedArgumentForInspection(@NotNull PsiElement psiElement, @NotNull ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector) {
-        PsiElement context = psiElement.getContext();
-        if(context instanceof YAMLKeyValue) {
-            // arguments: ['$foobar': '@foo']
-
-            String parameterName = ((YAMLKeyValue) context).getKeyText();
-            if(parameterName.startsWith("$") && parameterName.length() > 1) {
-                PsiElement yamlMapping = context.getParent();
-                if(yamlMapping instanceof YAMLMapping) {
-                    PsiElement yamlKeyValue = yamlMapping.getParent();
-                    if(yamlKeyValue instanceof YAMLKeyValue) {
-                        String keyText = ((YAMLKeyValue) yamlKeyValue).getKeyText();
-                        if(keyText.equals("arguments")) {
-                            YAMLMapping parentMapping = ((YAMLKeyValue) yamlKeyValue).getParentMapping();
-                            if(parentMapping != null) {
-                                String serviceId = getServiceClassFromServiceMapping(parentMapping);
-                                if(StringUtils.isNotBlank(serviceId)) {
-                                    PhpClass serviceClass = ServiceUtil.getResolvedClassDefinition(psiElement.getProject(), serviceId, lazyServiceCollector);
-                                    // class not found don't need a hint
-                                    if (serviceClass == null) {
-                                        return false;
-                                    }
-
-                                    return PhpElementsUtil.getConstructorParameterArgumentByName(serviceClass, StringUtils.stripStart(parameterName, "$")) == null;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return false;
-    }
-
     /**
      * services:
      *  _defaults:
@@ -599,32 +767,49 @@ public class ServiceContainerUtil {
         if (psiFile instanceof YAMLFile) {
             Collection<Pair<Parameter, Integer>> parameters = new HashSet<>();
 
-            // direct service definition
-            for (PhpClass phpClass : YamlHelper.getPhpClassesInYamlFile((YAMLFile) psiFile, new ContainerCollectionResolver.LazyServiceCollector(psiFile.getProject()))) {
-                Method constructor = phpClass.getConstructor();
-                if (constructor == null) {
-                    continue;
+            ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector = new ContainerCollectionResolver.LazyServiceCollector(psiFile.getProject());
+            VirtualFile virtualFile = psiFile.getVirtualFile();
+
+            for (ServiceFileModel.Definition definition : getServiceFileModel(psiFile).getDefinitions()) {
+                ServiceSerializable service = definition.getService();
+
+                // direct service definition
+                Collection<PhpClass> phpClasses = new HashSet<>();
+                if (definition.getClassName() != null) {
+                    PhpClass serviceClass = ServiceUtil.getResolvedClassDefinition(psiFile.getProject(), definition.getClassName(), lazyServiceCollector);
+                    if (serviceClass != null) {
+                        phpClasses.add(serviceClass);
+                    }
                 }
 
-                Parameter @NotNull [] methodParameters = constructor.getParameters();
-                for (int i = 0, methodParametersLength = methodParameters.length; i < methodParametersLength; i++) {
-                    parameters.add(Pair.create(methodParameters[i], i));
+                // My<caret>Class\:
+                //    resource: ...
+                if (virtualFile != null && service.getId().endsWith("\\") && !service.getResource().isEmpty()) {
+                    phpClasses.addAll(getPhpClassFromResources(psiFile.getProject(), service.getId(), virtualFile, service.getResource(), service.getExclude()));
                 }
-            }
 
-            for (YAMLKeyValue taggedService : YamlHelper.getTaggedServices((YAMLFile) psiFile, "controller.service_arguments")) {
-                PsiElement key = taggedService.getKey();
-                if (key == null) {
-                    continue;
+                for (PhpClass phpClass : phpClasses) {
+                    Method constructor = phpClass.getConstructor();
+                    if (constructor == null) {
+                        continue;
+                    }
+
+                    Parameter @NotNull [] methodParameters = constructor.getParameters();
+                    for (int i = 0, methodParametersLength = methodParameters.length; i < methodParametersLength; i++) {
+                        parameters.add(Pair.create(methodParameters[i], i));
+                    }
                 }
 
-                String keyText = key.getText();
-                if (StringUtils.isBlank(keyText)) {
+                if (!service.getTags().contains("controller.service_arguments")) {
                     continue;
                 }
 
                 // App\Controller\ => \App\Controller
-                String namespace = StringUtils.strip(keyText, "\\");
+                String namespace = StringUtils.strip(service.getId(), "\\");
+                if (StringUtils.isBlank(namespace)) {
+                    continue;
+                }
+
                 for (PhpClass phpClass : PhpIndexUtil.getPhpClassInsideNamespace(psiFile.getProject(), "\\" + namespace)) {
                     // find all parameters on public methods; this are possible actions
 
@@ -883,13 +1068,23 @@ public class ServiceContainerUtil {
      * - ...
      */
     public static Collection<String> getContainerFiles(@NotNull Project project) {
-        return CachedValuesManager.getManager(project)
-            .getCachedValue(
-                project,
-                SYMFONY_COMPILED_SERVICE_WATCHER,
-                () -> CachedValueProvider.Result.create(getContainerFilesInner(project), PsiModificationTracker.MODIFICATION_COUNT),
-                false
-            );
+        return CacheStatistics.getCachedValue(
+            project,
+            SYMFONY_COMPILED_SERVICE_WATCHER,
+            () -> CachedValueProvider.Result.create(getContainerFilesInner(project), PsiModificationTracker.MODIFICATION_COUNT)
+        );
+    }
+
+    /**
+     * Changes whenever one of the compiled container files (including extension provided ones) is modified
+     */
+    @NotNull
+    public static ModificationTracker getCompiledContainerModificationTracker(@NotNull Project project) {
+        return new AbsoluteFileModificationTracker(
+            Symfony2ProjectComponent.getContainerFiles(project).stream()
+                .map(File::getAbsolutePath)
+                .collect(Collectors.toList())
+        );
     }
 
     /**
@@ -930,7 +1125,7 @@ public class ServiceContainerUtil {
      * - "app/cache/dev_392373729/appDevDebugProjectContainer.xml"
      */
     private static Collection<String> getContainerFilesInner(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(project, SYMFONY_COMPILED_TIMED_SERVICE_WATCHER, () -> {
+        return CacheStatistics.getCachedValue(project, SYMFONY_COMPILED_TIMED_SERVICE_WATCHER, () -> {
             Set<String> files = new HashSet<>();
 
             VirtualFile baseDir = ProjectUtil.getProjectDir(project);
@@ -970,6 +1165,6 @@ public class ServiceContainerUtil {
             Set<String> cache = files.stream().map(s -> baseDir.getPath() + "/" + s).collect(Collectors.toSet());
 
             return CachedValueProvider.Result.create(Collections.unmodifiableSet(files), new AbsoluteFileModificationTracker(cache));
-        }, false);
+        });
     }
 }
@@ -0,0 +1,224 @@
+package fr.adrienbrault.idea.symfony2plugin.dic.container.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.PsiModificationTracker;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceIndexUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.util.resource.GlobPattern;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * All prototype services "App\: {resource: '../src/*', exclude: '../src/{Entity,Tests}'}" with compiled glob pattern,
+ * stored in a tree of their directory prefix. So finding the services which are including a file is one walk
+ * along the path of the file.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceResourceTree {
+
+    private static final Key<CachedValue<ServiceResourceTree>> SERVICE_RESOURCE_TREE = new Key<>("SYMFONY_SERVICE_RESOURCE_TREE");
+
+    @NotNull
+    private final Node root = new Node();
+
+    private ServiceResourceTree() {
+    }
+
+    @NotNull
+    public static ServiceResourceTree getInstance(@NotNull Project project) {
+        return CacheStatistics.getCachedValue(
+            project,
+            SERVICE_RESOURCE_TREE,
+            () -> CachedValueProvider.Result.create(create(project), PsiModificationTracker.MODIFICATION_COUNT)
+        );
+    }
+
+    @NotNull
+    private static ServiceResourceTree create(@NotNull Project project) {
+        ServiceResourceTree tree = new ServiceResourceTree();
+
+        ContainerCollectionResolver.ServiceCollector serviceCollector = ContainerCollectionResolver.ServiceCollector.create(project);
+
+        for (Map.Entry<String, ContainerService> entry : serviceCollector.getServices().entrySet()) {
+            String serviceId = entry.getKey();
+
+            // "App\"
+            if (!serviceId.endsWith("\\")) {
+                continue;
+            }
+
+            ServiceInterface service = entry.getValue().getService();
+            if (service == null || service.getResource().isEmpty()) {
+                continue;
+            }
+
+            if (serviceCollector.convertClassNameToServices(serviceId).isEmpty()) {
+                continue;
+            }
+
+            // resources are relative to the file which is defining them
+            for (VirtualFile virtualFile : ServiceIndexUtil.findServiceDefinitionFiles(project, serviceId)) {
+                PrototypeService prototype = new PrototypeService(
+                    serviceId,
+                    entry.getValue(),
+                    compile(virtualFile, service.getResource()),
+                    compile(virtualFile, service.getExclude())
+                );
+
+                for (GlobPattern resource : prototype.resources) {
+                    tree.add(resource.getLiteralPrefix(), prototype);
+                }
+            }
+        }
+
+        return tree;
+    }
+
+    /**
+     * Services which are including the given class file
+     *
+     * @param fqn "\App\Foo\Bar" only services of a parent namespace "App\" are matching
+     */
+    @NotNull
+    public Map<String, ContainerService> findServices(@NotNull VirtualFile phpClassFile, @NotNull String fqn) {
+        String className = StringUtils.stripStart(fqn, "\\").toLowerCase();
+        String path = phpClassFile.getPath();
+
+        Map<String, ContainerService> services = new HashMap<>();
+
+        for (PrototypeService prototype : collectCandidates(path)) {
+            if (services.containsKey(prototype.serviceId) || !className.startsWith(prototype.serviceId.toLowerCase())) {
+                continue;
+            }
+
+            if (prototype.matches(path)) {
+                services.put(prototype.serviceId, prototype.containerService);
+            }
+        }
+
+        return services;
+    }
+
+    /**
+     * "../src/Foo/{Foo,Foobar.php}" relative to the given service file
+     */
+    @Nullable
+    public static GlobPattern compile(@NotNull VirtualFile serviceFileAsBase, @NotNull String resource) {
+        String[] split = resource.replace("\\\\", "/").split("/");
+
+        VirtualFile serviceFile = serviceFileAsBase.getParent();
+
+        int start = 0;
+        while (start < split.length && split[start].equals("..")) {
+            if (serviceFile == null) {
+                return null;
+            }
+
+            serviceFile = serviceFile.getParent();
+            start++;
+        }
+
+        if (serviceFile == null) {
+            return null;
+        }
+
+        // ending one wildcard must be *
+        // "src/*" => "src/**"
+        String path = (serviceFile.getPath() + "/" + StringUtils.join(Arrays.copyOfRange(split, start, split.length), "/"))
+            .replaceAll("[^*]([*])$", "**");
+
+        // "src/{Entity,Tests,Kernel.php}"
+        // We must match files also: "src/Entity/Foo.php"
+        if (!path.endsWith("**")) {
+            path += "**";
+        }
+
+        return GlobPattern.compile(path);
+    }
+
+    @NotNull
+    private static List<GlobPattern> compile(@NotNull VirtualFile serviceFileAsBase, @NotNull Collection<String> resources) {
+        List<GlobPattern> patterns = new ArrayList<>();
+
+        for (String resource : resources) {
+            GlobPattern pattern = compile(serviceFileAsBase, resource);
+            if (pattern != null) {
+                patterns.add(pattern);
+            }
+        }
+
+        return patterns;
+    }
+
+    private void add(@NotNull String prefix, @NotNull PrototypeService prototype) {
+        Node node = root;
+
+        for (String segment : prefix.split("/")) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+
+        node.services.add(prototype);
+    }
+
+    @NotNull
+    private Collection<PrototypeService> collectCandidates(@NotNull String path) {
+        Collection<PrototypeService> candidates = new LinkedHashSet<>(root.services);
+
+        Node node = root;
+        for (String segment : path.split("/")) {
+            node = node.children.get(segment);
+            if (node == null) {
+                break;
+            }
+
+            candidates.addAll(node.services);
+        }
+
+        return candidates;
+    }
+
+    private static class Node {
+        @NotNull
+        private final Map<String, Node> children = new HashMap<>();
+
+        @NotNull
+        private final Collection<PrototypeService> services = new ArrayList<>();
+    }
+
+    private static class PrototypeService {
+        @NotNull
+        private final String serviceId;
+
+        @NotNull
+        private final ContainerService containerService;
+
+        @NotNull
+        private final Collection<GlobPattern> resources;
+
+        @NotNull
+        private final Collection<GlobPattern> excludes;
+
+        PrototypeService(@NotNull String serviceId, @NotNull ContainerService containerService, @NotNull Collection<GlobPattern> resources, @NotNull Collection<GlobPattern> excludes) {
+            this.serviceId = serviceId;
+            this.containerService = containerService;
+            this.resources = resources;
+            this.excludes = excludes;
+        }
+
+        boolean matches(@NotNull String path) {
+            return resources.stream().anyMatch(resource -> resource.matches(path))
+                && excludes.stream().noneMatch(exclude -> exclude.matches(path));
+        }
+    }
+}
@@ -48,7 +48,7 @@ public class MissingServiceInspection extends LocalInspectionTool {
             if(element.getLanguage() == PhpLanguage.INSTANCE && element instanceof StringLiteralExpression) {
                 // PHP
                 MethodReference methodReference = PsiElementUtils.getMethodReferenceWithFirstStringParameter((StringLiteralExpression) element);
-                if (methodReference != null && PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, ServiceContainerUtil.SERVICE_GET_SIGNATURES)) {
+                if (methodReference != null && PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, ServiceContainerUtil.SERVICE_GET_SIGNATURE_TABLE)) {
                     String serviceName = PhpElementsUtil.getFirstArgumentStringValue(methodReference);
                     if(StringUtils.isNotBlank(serviceName)) {
                         if(!hasService(serviceName)) {
@@ -5,13 +5,16 @@ import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
-import fr.adrienbrault.idea.symfony2plugin.config.yaml.YamlElementPatternHelper;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileModel;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.yaml.psi.YAMLKeyValue;
-import org.jetbrains.yaml.psi.YAMLMapping;
+import org.jetbrains.yaml.psi.YAMLFile;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -27,35 +30,54 @@ public class ServiceNamedArgumentExistsInspection extends LocalInspectionTool {
 
         return new PsiElementVisitor() {
             @Override
-            public void visitElement(@NotNull PsiElement element) {
-                if (YamlElementPatternHelper.getNamedArgumentPattern().accepts(element)) {
-                    if (isSupportedDefinition(element) && ServiceContainerUtil.hasMissingYamlNamedArgumentForInspection(element, new ContainerCollectionResolver.LazyServiceCollector(element.getProject()))) {
-                        holder.registerProblem(element, INSPECTION_MESSAGE, ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
-                    }
+            public void visitFile(@NotNull PsiFile psiFile) {
+                if (psiFile instanceof YAMLFile) {
+                    visitDefinitions(psiFile, holder);
                 }
-
-                super.visitElement(element);
             }
         };
     }
 
-    private boolean isSupportedDefinition(@NotNull PsiElement element) {
-        PsiElement context = element.getContext();
-
-        if (context instanceof YAMLKeyValue) {
-            // arguments: ['$foobar': '@foo']
-            PsiElement yamlMapping = context.getParent();
-            if (yamlMapping instanceof YAMLMapping) {
-                PsiElement yamlKeyValue = yamlMapping.getParent();
-                if (yamlKeyValue instanceof YAMLKeyValue) {
-                    YAMLMapping parentMapping = ((YAMLKeyValue) yamlKeyValue).getParentMapping();
-                    if (parentMapping != null) {
-                        return parentMapping.getKeyValueByKey("factory") == null;
+    /**
+     * Foo:
+     *   arguments:
+     *     $<caret>: '@foo'
+     */
+    private static void visitDefinitions(@NotNull PsiFile psiFile, @NotNull ProblemsHolder holder) {
+        // shared for the whole file; a new collector for each argument is rebuilding the service map again and again
+        ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector = null;
+
+        for (ServiceFileModel.Definition definition : ServiceContainerUtil.getServiceFileModel(psiFile).getDefinitions()) {
+            // "factory" arguments are no constructor arguments
+            if (definition.hasFactory() || definition.getClassName() == null) {
+                continue;
+            }
+
+            PhpClass serviceClass = null;
+            for (ServiceFileModel.Argument argument : definition.getArguments()) {
+                if (argument.getMethod() != null || argument.getName() == null || argument.getNameOffset() < 0) {
+                    continue;
+                }
+
+                if (serviceClass == null) {
+                    if (lazyServiceCollector == null) {
+                        lazyServiceCollector = new ContainerCollectionResolver.LazyServiceCollector(psiFile.getProject());
+                    }
+
+                    // class not found don't need a hint
+                    serviceClass = ServiceUtil.getResolvedClassDefinition(psiFile.getProject(), definition.getClassName(), lazyServiceCollector);
+                    if (serviceClass == null) {
+                        break;
+                    }
+                }
+
+                if (PhpElementsUtil.getConstructorParameterArgumentByName(serviceClass, argument.getName()) == null) {
+                    PsiElement psiElement = psiFile.findElementAt(argument.getNameOffset());
+                    if (psiElement != null) {
+                        holder.registerProblem(psiElement, INSPECTION_MESSAGE, ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
                     }
                 }
             }
         }
-
-        return true;
     }
 }
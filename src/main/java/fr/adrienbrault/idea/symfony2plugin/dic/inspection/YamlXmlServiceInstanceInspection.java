@@ -5,12 +5,12 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.Parameter;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
-import fr.adrienbrault.idea.symfony2plugin.config.yaml.YamlElementPatternHelper;
-import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceTypeHint;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileModel;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.dic.inspection.intention.YamlSuggestIntentionAction;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
@@ -20,8 +20,7 @@ import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.jetbrains.yaml.psi.YAMLScalar;
+import org.jetbrains.yaml.psi.YAMLFile;
 
 /**
  * foo:
@@ -46,68 +45,68 @@ public class YamlXmlServiceInstanceInspection extends LocalInspectionTool {
         @NotNull
         private final ProblemsHolder holder;
 
-        @Nullable
-        private ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector;
-
         private MyPsiElementVisitor(@NotNull ProblemsHolder holder) {
             this.holder = holder;
         }
 
-        @Override
-        public void visitElement(PsiElement psiElement) {
-            // only match inside service definitions
-            if(YamlHelper.isStringValue(psiElement) && YamlElementPatternHelper.getInsideKeyValue("services").accepts(psiElement)) {
-                visitConstructor(psiElement);
-                visitCall(psiElement);
-            }
-
-            super.visitElement(psiElement);
-        }
-
         /**
-         * class: FooClass
-         * tags:
-         *  - [ setFoo, [@args_bar] ]
+         * foo:
+         *  class: Foo
+         *  arguments: [@<caret>]
+         *  arguments: { $foo: @<caret> }
+         *  calls:
+         *      - [ setFoo, [@<caret>] ]
          */
-        private void visitCall(PsiElement psiElement) {
-            PsiElement yamlScalar = psiElement.getContext();
-            if(!(yamlScalar instanceof YAMLScalar)) {
+        @Override
+        public void visitFile(@NotNull PsiFile psiFile) {
+            if(!(psiFile instanceof YAMLFile)) {
                 return;
             }
 
-            YamlHelper.visitServiceCallArgument((YAMLScalar) yamlScalar, visitor -> {
-                PhpClass serviceClass = ServiceUtil.getResolvedClassDefinition(psiElement.getProject(), visitor.getClassName(), getLazyServiceCollector(psiElement.getProject()));
-                if(serviceClass == null) {
-                    return;
+            Project project = psiFile.getProject();
+            ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector = null;
+
+            for (ServiceFileModel.Definition definition : ServiceContainerUtil.getServiceFileModel(psiFile).getDefinitions()) {
+                if(definition.getClassName() == null || definition.getArguments().isEmpty()) {
+                    continue;
                 }
 
-                Method method = serviceClass.findMethodByName(visitor.getMethod());
-                if (method == null) {
-                    return;
+                if(lazyServiceCollector == null) {
+                    lazyServiceCollector = new ContainerCollectionResolver.LazyServiceCollector(project);
                 }
 
-                YamlXmlServiceInstanceInspection.registerInstanceProblem(psiElement, holder, visitor.getParameterIndex(), method, getLazyServiceCollector(psiElement.getProject()));
-            });
-        }
+                PhpClass serviceClass = ServiceUtil.getResolvedClassDefinition(project, definition.getClassName(), lazyServiceCollector);
+                if(serviceClass == null) {
+                    continue;
+                }
 
-        /**
-         * foo:
-         *  class: Foo
-         *  arguments: [@<caret>]
-         *  arguments:
-         *      - @<caret>
-         */
-        private void visitConstructor(PsiElement psiElement) {
-            ServiceTypeHint methodTypeHint = ServiceContainerUtil.getYamlConstructorTypeHint(psiElement, getLazyServiceCollector(psiElement.getProject()));
-            if(methodTypeHint == null) {
-                return;
-            }
+                for (ServiceFileModel.Argument argument : definition.getArguments()) {
+                    if(argument.getValue() == null || argument.getOffset() < 0) {
+                        continue;
+                    }
 
-            registerInstanceProblem(psiElement, holder, methodTypeHint.getIndex(), methodTypeHint.getMethod(), getLazyServiceCollector(psiElement.getProject()));
-        }
+                    Method method = argument.getMethod() == null
+                        ? serviceClass.getConstructor()
+                        : serviceClass.findMethodByName(argument.getMethod());
+
+                    if(method == null) {
+                        continue;
+                    }
+
+                    int parameterIndex = argument.getName() != null
+                        ? PhpElementsUtil.getFunctionArgumentByName(method, argument.getName())
+                        : argument.getIndex();
 
-        private ContainerCollectionResolver.LazyServiceCollector getLazyServiceCollector(@NotNull Project project) {
-            return this.lazyServiceCollector == null ? this.lazyServiceCollector = new ContainerCollectionResolver.LazyServiceCollector(project) : this.lazyServiceCollector;
+                    if(parameterIndex < 0) {
+                        continue;
+                    }
+
+                    PsiElement psiElement = psiFile.findElementAt(argument.getOffset());
+                    if(psiElement != null && YamlHelper.isStringValue(psiElement)) {
+                        registerInstanceProblem(psiElement, holder, parameterIndex, method, lazyServiceCollector);
+                    }
+                }
+            }
         }
     }
 
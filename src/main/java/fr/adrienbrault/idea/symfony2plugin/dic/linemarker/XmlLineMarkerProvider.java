@@ -5,13 +5,14 @@ import com.intellij.codeInsight.daemon.LineMarkerProvider;
 import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.util.NotNullLazyValue;
-import com.intellij.patterns.XmlPatterns;
-import com.intellij.patterns.XmlTagPattern;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.xml.XmlTag;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.config.xml.XmlHelper;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileModel;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +43,7 @@ public class XmlLineMarkerProvider implements LineMarkerProvider {
         }
 
         LazyDecoratedParentServiceValues lazyDecoratedParentServiceValues = null;
+        ServiceFileModel serviceFileModel = null;
 
         for (PsiElement psiElement : psiElements) {
             if(!XmlHelper.getXmlTagNameLeafStartPattern().accepts(psiElement)) {
@@ -53,28 +55,28 @@ public class XmlLineMarkerProvider implements LineMarkerProvider {
                 continue;
             }
 
-            if (getServiceIdPattern().accepts(xmlTag)) {
+            if(serviceFileModel == null) {
+                serviceFileModel = ServiceContainerUtil.getServiceFileModel(containingFile);
+            }
+
+            ServiceFileModel.Definition definition = serviceFileModel.getDefinition(xmlTag.getTextRange().getStartOffset());
+            if(definition == null) {
+                continue;
+            }
+
+            if ("service".equals(((XmlTag) xmlTag).getName())) {
                 if(lazyDecoratedParentServiceValues == null) {
                     lazyDecoratedParentServiceValues = new LazyDecoratedParentServiceValues(psiElement.getProject());
                 }
 
                 // <services><service id="foo"/></services>
-                visitServiceId(psiElement, (XmlTag) xmlTag, result, lazyDecoratedParentServiceValues);
+                visitServiceId(psiElement, definition.getService(), result, lazyDecoratedParentServiceValues);
 
                 continue;
             }
 
-            if (getPrototypeNamespacePattern().accepts(xmlTag)) {
-                String namespace = ((XmlTag) xmlTag).getAttributeValue("namespace");
-                if (StringUtils.isBlank(namespace)) {
-                    continue;
-                }
-
-                String resource = ((XmlTag) xmlTag).getAttributeValue("resource");
-                if (StringUtils.isBlank(resource)) {
-                    continue;
-                }
-
+            // <prototype namespace="App\" resource="../src/*"/>
+            if (!definition.getService().getResource().isEmpty()) {
                 result.add(NavigationGutterIconBuilder.create(AllIcons.Modules.SourceRoot)
                     .setTargets(NotNullLazyValue.lazy(() -> XmlHelper.getNamespaceResourcesClasses((XmlTag) xmlTag)))
                     .setTooltipText("Navigate to class")
@@ -86,27 +88,24 @@ public class XmlLineMarkerProvider implements LineMarkerProvider {
     /**
      * <service id="foo"/>
      */
-    private void visitServiceId(@NotNull PsiElement leafTarget, @NotNull XmlTag xmlTag, @NotNull Collection<? super LineMarkerInfo<?>> result, @NotNull LazyDecoratedParentServiceValues lazyDecoratedParentServiceValues) {
-        String id = xmlTag.getAttributeValue("id");
-        if(StringUtils.isBlank(id)) {
-            return;
-        }
+    private void visitServiceId(@NotNull PsiElement leafTarget, @NotNull ServiceSerializable service, @NotNull Collection<? super LineMarkerInfo<?>> result, @NotNull LazyDecoratedParentServiceValues lazyDecoratedParentServiceValues) {
+        String id = service.getId();
 
         // <service decorates="foobar" />
-        String decorates = xmlTag.getAttributeValue("decorates");
+        String decorates = service.getDecorates();
         if(decorates != null && StringUtils.isNotBlank(decorates)) {
             result.add(ServiceUtil.getLineMarkerForDecoratesServiceId(leafTarget, ServiceUtil.ServiceLineMarker.DECORATE, decorates));
         }
 
         // <service parent="foobar" />
-        String parent = xmlTag.getAttributeValue("parent");
+        String parent = service.getParent();
         if(parent != null && StringUtils.isNotBlank(parent)) {
             result.add(ServiceUtil.getLineMarkerForDecoratesServiceId(leafTarget, ServiceUtil.ServiceLineMarker.PARENT, parent));
         }
 
         // foreign "decorates" linemarker
         NavigationGutterIconBuilder<PsiElement> lineMarkerDecorates = ServiceUtil.getLineMarkerForDecoratedServiceId(
-            xmlTag.getProject(),
+            leafTarget.getProject(),
             ServiceUtil.ServiceLineMarker.DECORATE,
             lazyDecoratedParentServiceValues.getDecoratedServices(),
             id
@@ -118,7 +117,7 @@ public class XmlLineMarkerProvider implements LineMarkerProvider {
 
         // foreign "parent" linemarker
         NavigationGutterIconBuilder<PsiElement> lineMarkerParent = ServiceUtil.getLineMarkerForDecoratedServiceId(
-            xmlTag.getProject(),
+            leafTarget.getProject(),
             ServiceUtil.ServiceLineMarker.PARENT,
             lazyDecoratedParentServiceValues.getParentServices(),
             id
@@ -128,24 +127,4 @@ public class XmlLineMarkerProvider implements LineMarkerProvider {
             result.add(lineMarkerParent.createLineMarkerInfo(leafTarget));
         }
     }
-
-    /**
-     * <service id="%foo.class%"/>
-     */
-    private static XmlTagPattern.Capture getServiceIdPattern() {
-        return XmlPatterns.xmlTag().withName("service")
-            .withChild(XmlPatterns.xmlAttribute().withName("id")).inside(
-                XmlHelper.getInsideTagPattern("services")
-            ).inFile(XmlHelper.getXmlFilePattern());
-    }
-
-    /**
-     * <prototype namespace="App\" resource="../src/*" exclude="../src/{DependencyInjection,Entity,Tests,Kernel.php}"/>
-     */
-    private static XmlTagPattern.Capture getPrototypeNamespacePattern() {
-        return XmlPatterns.xmlTag().withName("prototype")
-            .withChild(XmlPatterns.xmlAttribute().withName("namespace")).inside(
-                XmlHelper.getInsideTagPattern("services")
-            ).inFile(XmlHelper.getXmlFilePattern());
-    }
 }
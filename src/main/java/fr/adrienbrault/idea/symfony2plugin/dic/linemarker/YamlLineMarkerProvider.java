@@ -7,10 +7,11 @@ import com.intellij.icons.AllIcons;
 import com.intellij.openapi.util.NotNullLazyValue;
 import com.intellij.psi.PsiElement;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
-import fr.adrienbrault.idea.symfony2plugin.config.yaml.YamlElementPatternHelper;
 import fr.adrienbrault.idea.symfony2plugin.config.yaml.YamlGoToDeclarationHandler;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileModel;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -37,15 +38,20 @@ public class YamlLineMarkerProvider implements LineMarkerProvider {
         }
 
         LazyDecoratedParentServiceValues lazyDecoratedServices = null;
-
+        ServiceFileModel serviceFileModel = null;
 
         for (PsiElement psiElement : psiElements) {
             if(psiElement.getNode().getElementType() != YAMLTokenTypes.SCALAR_KEY) {
                 continue;
             }
 
-            PsiElement yamlKeyValue = psiElement.getParent();
-            if(!(yamlKeyValue instanceof YAMLKeyValue) || !YamlElementPatternHelper.getServiceIdKeyValuePattern().accepts(yamlKeyValue)) {
+            if(serviceFileModel == null) {
+                serviceFileModel = ServiceContainerUtil.getServiceFileModel(psiElement.getContainingFile());
+            }
+
+            // services -> service_name
+            ServiceFileModel.Definition definition = serviceFileModel.getDefinition(psiElement.getTextRange().getStartOffset());
+            if(definition == null) {
                 continue;
             }
 
@@ -53,49 +59,46 @@ public class YamlLineMarkerProvider implements LineMarkerProvider {
                 lazyDecoratedServices = new LazyDecoratedParentServiceValues(psiElement.getProject());
             }
 
-            // services -> service_name
-            visitServiceId(psiElement, (YAMLKeyValue) yamlKeyValue, result, lazyDecoratedServices);
+            visitServiceId(psiElement, definition.getService(), result, lazyDecoratedServices);
 
             // services:
             //    App\:
             //        resource: '../src/*'
-            visitServiceIdForResources(psiElement, (YAMLKeyValue) yamlKeyValue, result);
+            visitServiceIdForResources(psiElement, definition.getService(), result);
         }
     }
 
-    private void visitServiceIdForResources(PsiElement leafTarget, YAMLKeyValue yamlKeyValue, @NotNull Collection<? super LineMarkerInfo<?>> result) {
-        String resource = YamlHelper.getYamlKeyValueAsString(yamlKeyValue, "resource");
-        if (resource == null) {
+    private void visitServiceIdForResources(@NotNull PsiElement leafTarget, @NotNull ServiceSerializable service, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        if (service.getResource().isEmpty() || !(leafTarget.getParent() instanceof YAMLKeyValue)) {
             return;
         }
 
+        YAMLKeyValue yamlKeyValue = (YAMLKeyValue) leafTarget.getParent();
+
         result.add(NavigationGutterIconBuilder.create(AllIcons.Modules.SourceRoot)
             .setTargets(NotNullLazyValue.lazy(() -> YamlGoToDeclarationHandler.getClassesForServiceKey(yamlKeyValue)))
             .setTooltipText("Navigate to class")
             .createLineMarkerInfo(leafTarget));
     }
 
-    private void visitServiceId(@NotNull PsiElement leafTarget, @NotNull YAMLKeyValue yamlKeyValue, @NotNull Collection<? super LineMarkerInfo<?>> result, @NotNull LazyDecoratedParentServiceValues lazyDecoratedServices) {
-        String id = yamlKeyValue.getKeyText();
-        if(StringUtils.isBlank(id)) {
-            return;
-        }
+    private void visitServiceId(@NotNull PsiElement leafTarget, @NotNull ServiceSerializable service, @NotNull Collection<? super LineMarkerInfo<?>> result, @NotNull LazyDecoratedParentServiceValues lazyDecoratedServices) {
+        String id = service.getId();
 
         // decorates: foobar
-        String decorates = YamlHelper.getYamlKeyValueAsString(yamlKeyValue, "decorates");
+        String decorates = service.getDecorates();
         if(StringUtils.isNotBlank(decorates)) {
             result.add(ServiceUtil.getLineMarkerForDecoratesServiceId(leafTarget, ServiceUtil.ServiceLineMarker.DECORATE, decorates));
         }
 
         // parent: foobar
-        String parent = YamlHelper.getYamlKeyValueAsString(yamlKeyValue, "parent");
+        String parent = service.getParent();
         if(StringUtils.isNotBlank(parent)) {
             result.add(ServiceUtil.getLineMarkerForDecoratesServiceId(leafTarget, ServiceUtil.ServiceLineMarker.PARENT, parent));
         }
 
         // foreign "decorates" linemarker
         NavigationGutterIconBuilder<PsiElement> decorateLineMarker = ServiceUtil.getLineMarkerForDecoratedServiceId(
-            yamlKeyValue.getProject(),
+            leafTarget.getProject(),
             ServiceUtil.ServiceLineMarker.DECORATE,
             lazyDecoratedServices.getDecoratedServices(),
             id
@@ -107,7 +110,7 @@ public class YamlLineMarkerProvider implements LineMarkerProvider {
 
         // foreign "parent" linemarker
         NavigationGutterIconBuilder<PsiElement> parentLineMarker = ServiceUtil.getLineMarkerForDecoratedServiceId(
-            yamlKeyValue.getProject(),
+            leafTarget.getProject(),
             ServiceUtil.ServiceLineMarker.PARENT,
             lazyDecoratedServices.getDecoratedServices(),
             id
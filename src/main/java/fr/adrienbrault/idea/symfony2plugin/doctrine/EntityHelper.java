@@ -2,16 +2,21 @@ package fr.adrienbrault.idea.symfony2plugin.doctrine;
 
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocComment;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.tags.PhpDocParamTag;
@@ -19,12 +24,20 @@ import com.jetbrains.php.lang.psi.elements.*;
 import de.espend.idea.php.annotation.util.AnnotationUtil;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.component.DocumentNamespacesParser;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.component.EntityNamesServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelField;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelInterface;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelRegistry;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineTypes;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.dict.DoctrineMetadataModel;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.util.DoctrineMetadataUtil;
 import fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProvider;
 import fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProviderParameter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DoctrineMetadataFileStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.*;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
@@ -38,6 +51,7 @@ import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
@@ -55,6 +69,8 @@ public class EntityHelper {
 
     final public static Set<String> RELATIONS = new HashSet<>(Arrays.asList("manytoone", "manytomany", "onetoone", "onetomany"));
 
+    private static final Key<CachedValue<DoctrineModelRegistry>> DOCTRINE_MODEL_REGISTRY = new Key<>("SYMFONY_DOCTRINE_MODEL_REGISTRY");
+
     /**
      * Resolve shortcut and namespaces classes for current phpclass and attached modelname
      */
@@ -82,9 +98,14 @@ public class EntityHelper {
         }
 
         String presentableFQN = phpClass.getPresentableFQN();
-        PhpClass classRepository = DoctrineMetadataUtil.getClassRepository(project, presentableFQN);
-        if(classRepository != null) {
-            return classRepository;
+
+        // metadata files, annotations and attributes
+        String repositoryClass = getModelRegistry(project).getRepositoryClass(presentableFQN);
+        if(repositoryClass != null) {
+            PhpClass classRepository = PhpElementsUtil.getClassInterface(project, repositoryClass);
+            if(classRepository != null) {
+                return classRepository;
+            }
         }
 
         // search on annotations
@@ -559,20 +580,16 @@ public class EntityHelper {
         // MyBundle:Folder\Model -> MyBundle\Entity\Folder\Model
 
         List<DoctrineTypes.Manager> managerList = Arrays.asList(managers);
+        DoctrineModelRegistry modelRegistry = getModelRegistry(project);
 
         // collect entitymanager namespaces on bundle or container file
-        Map<String, String> em = new HashMap<>();
+        Collection<Map<String, String>> namespaces = new ArrayList<>();
         if(managerList.contains(DoctrineTypes.Manager.ORM)) {
-            Map<String, String> entityNameMap = ServiceXmlParserFactory.getInstance(project, EntityNamesServiceParser.class).getEntityNameMap();
-            em.putAll(entityNameMap);
-            em.putAll(EntityHelper.getWeakBundleNamespaces(project, entityNameMap, "Entity"));
+            namespaces.add(modelRegistry.getEntityNamespaces());
         }
 
-        Map<String, String> odm = new HashMap<>();
         if(managerList.contains(DoctrineTypes.Manager.MONGO_DB) || managerList.contains(DoctrineTypes.Manager.COUCH_DB)) {
-            Map<String, String> documentMap = ServiceXmlParserFactory.getInstance(project, DocumentNamespacesParser.class).getNamespaceMap();
-            odm.putAll(documentMap);
-            odm.putAll(EntityHelper.getWeakBundleNamespaces(project, documentMap, "Document"));
+            namespaces.add(modelRegistry.getDocumentNamespaces());
         }
 
         // split bundle and model name
@@ -580,14 +597,23 @@ public class EntityHelper {
         String bundlename = shortcutName.substring(0, firstDirectorySeparatorIndex);
         String entityName = shortcutName.substring(firstDirectorySeparatorIndex + 1);
 
+        // precomputed shortcut of a known model; only valid if its inside the namespace of the requested managers
+        DoctrineModel shortcutModel = modelRegistry.getModelForShortcut(shortcutName);
+
         // conditional find namespace on manager paths
-        for(Map<String, String> map: Arrays.asList(em, odm)) {
+        for(Map<String, String> map: namespaces) {
             String namespace = map.get(bundlename);
             if(namespace == null) {
                 continue;
             }
 
-            PhpClass classInterface = PhpElementsUtil.getClassInterface(project, namespace + "\\" + entityName);
+            String className = namespace + "\\" + entityName;
+            if(shortcutModel != null && org.apache.commons.lang.StringUtils.stripStart(shortcutModel.getPhpClass().getFQN(), "\\").equalsIgnoreCase(org.apache.commons.lang.StringUtils.stripStart(className, "\\"))) {
+                return shortcutModel.getPhpClass();
+            }
+
+            // not collected as model, eg abstract classes or interfaces
+            PhpClass classInterface = PhpElementsUtil.getClassInterface(project, className);
             if(classInterface != null) {
                 return classInterface;
             }
@@ -697,6 +723,71 @@ public class EntityHelper {
      * One PhpClass can have multiple targets and names @TODO: refactor
      */
     public static Collection<DoctrineModel> getModelClasses(final Project project) {
+        return getModelRegistry(project).getModels();
+    }
+
+    /**
+     * Models of the given class without collecting all models of the project
+     */
+    @NotNull
+    public static Collection<DoctrineModel> getModelsForClass(@NotNull PhpClass phpClass) {
+        return getModelRegistry(phpClass.getProject()).getModelsForClass(phpClass.getFQN());
+    }
+
+    /**
+     * Bundle shortcuts, metadata files, annotations / attributes and extension models in one place;
+     * so "getRepository('App:User')" and type providers dont need to scan all bundle namespaces again
+     */
+    @NotNull
+    public static DoctrineModelRegistry getModelRegistry(@NotNull Project project) {
+        return CacheStatistics.getCachedValue(
+            project,
+            DOCTRINE_MODEL_REGISTRY,
+            () -> CachedValueProvider.Result.create(
+                createModelRegistry(project),
+                FileIndexCaches.getStubModificationTracker(project),
+                FileIndexCaches.getModificationTrackerForIndexId(project, DoctrineMetadataFileStubIndex.KEY),
+                ServiceContainerUtil.getCompiledContainerModificationTracker(project)
+            )
+        );
+    }
+
+    @NotNull
+    private static DoctrineModelRegistry createModelRegistry(@NotNull Project project) {
+        Map<String, String> entityNameMap = ServiceXmlParserFactory.getInstance(project, EntityNamesServiceParser.class).getEntityNameMap();
+        Map<String, String> entityNamespaces = new HashMap<>(entityNameMap);
+        entityNamespaces.putAll(EntityHelper.getWeakBundleNamespaces(project, entityNameMap, "Entity"));
+
+        Map<String, String> documentMap = ServiceXmlParserFactory.getInstance(project, DocumentNamespacesParser.class).getNamespaceMap();
+        Map<String, String> documentNamespaces = new HashMap<>(documentMap);
+        documentNamespaces.putAll(EntityHelper.getWeakBundleNamespaces(project, documentMap, "Document"));
+
+        Map<String, String> repositories = new HashMap<>();
+        for (String className : SymfonyProcessors.createResult(project, DoctrineMetadataFileStubIndex.KEY)) {
+            for (DoctrineModelInterface model : FileBasedIndex.getInstance().getValues(DoctrineMetadataFileStubIndex.KEY, className, GlobalSearchScope.allScope(project))) {
+                String repositoryClass = model.getRepositoryClass();
+                if(org.apache.commons.lang.StringUtils.isBlank(repositoryClass)) {
+                    continue;
+                }
+
+                PhpClass phpClass = PhpElementsUtil.getClassInsideNamespaceScope(project, className, repositoryClass);
+                if(phpClass != null) {
+                    repositories.putIfAbsent(org.apache.commons.lang.StringUtils.stripStart(className, "\\"), phpClass.getFQN());
+                }
+            }
+        }
+
+        return new DoctrineModelRegistry(
+            getModelClassesInner(project),
+            entityNamespaces,
+            documentNamespaces,
+            repositories,
+            DoctrineMetadataUtil.getTableDeclarations(project)
+        );
+    }
+
+    @NotNull
+    private static Collection<DoctrineModel> getModelClassesInner(@NotNull Project project) {
 
         HashMap<String, String> shortcutNames = new HashMap<String, String>() {{
             putAll(ServiceXmlParserFactory.getInstance(project, EntityNamesServiceParser.class).getEntityNameMap());
@@ -714,8 +805,14 @@ public class EntityHelper {
 
         // class fqn fallback
         Collection<DoctrineModel> doctrineModels = getModelClasses(project, shortcutNames);
+
+        Set<String> modelClasses = new HashSet<>();
+        for (DoctrineModel doctrineModel : doctrineModels) {
+            modelClasses.add(doctrineModel.getPhpClass().getFQN());
+        }
+
         for (PhpClass phpClass : DoctrineMetadataUtil.getModels(project)) {
-            if(containsDoctrineModelClass(doctrineModels, phpClass)) {
+            if(!modelClasses.add(phpClass.getFQN())) {
                 continue;
             }
 
@@ -724,7 +821,7 @@ public class EntityHelper {
 
         DoctrineModelProviderParameter containerLoaderExtensionParameter = new DoctrineModelProviderParameter(project, new ArrayList<>());
         for(DoctrineModelProvider provider : EntityHelper.MODEL_POINT_NAME.getExtensions()) {
-            for(DoctrineModelProviderParameter.DoctrineModel doctrineModel: provider.collectModels(containerLoaderExtensionParameter)) {
+            for(DoctrineModelProviderParameter.DoctrineModel doctrineModel: ExtensionStatistics.compute(project, DOCTRINE_MODEL_REGISTRY.toString(), provider, p -> p.collectModels(containerLoaderExtensionParameter))) {
                 doctrineModels.add(new DoctrineModel(doctrineModel.getPhpClass(), doctrineModel.getName()));
             }
         }
@@ -732,16 +829,6 @@ public class EntityHelper {
         return doctrineModels;
     }
 
-    private static boolean containsDoctrineModelClass(@NotNull Collection<DoctrineModel> models, @NotNull PhpClass phpClass) {
-        for (DoctrineModel doctrineModel : models) {
-            if(PhpElementsUtil.isEqualClassName(doctrineModel.getPhpClass(), phpClass)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     public static Collection<DoctrineModel> getModelClasses(Project project, Map<String, String> shortcutNames) {
 
         PhpClass repositoryInterface = PhpElementsUtil.getInterface(PhpIndex.getInstance(project), DoctrineTypes.REPOSITORY_INTERFACE);
@@ -13,6 +13,7 @@ import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineEntityLookupEle
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineTypes;
 import fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProvider;
 import fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProviderParameter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import org.jetbrains.annotations.NotNull;
@@ -107,7 +108,7 @@ public class EntityReference extends PsiPolyVariantReferenceBase<PsiElement> {
         Collection<DoctrineModelProviderParameter.DoctrineModel> doctrineModels = new ArrayList<>();
         DoctrineModelProviderParameter containerLoaderExtensionParameter = new DoctrineModelProviderParameter(project, doctrineModels);
         for(DoctrineModelProvider provider : EntityHelper.MODEL_POINT_NAME.getExtensions()) {
-            for(DoctrineModelProviderParameter.DoctrineModel doctrineModel: provider.collectModels(containerLoaderExtensionParameter)) {
+            for(DoctrineModelProviderParameter.DoctrineModel doctrineModel: ExtensionStatistics.compute(project, "EntityReference.getModelLookupElements", provider, p -> p.collectModels(containerLoaderExtensionParameter))) {
                 results.add(new DoctrineEntityLookupElement(doctrineModel.getName(), doctrineModel.getPhpClass(), useClassNameAsLookupString, false));
             }
         }
@@ -11,7 +11,9 @@ import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelInterface;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.util.DoctrineMetadataUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderCache;
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
@@ -75,6 +77,11 @@ public class ObjectManagerFindContextTypeProvider implements PhpTypeProvider4 {
     @Nullable
     @Override
     public PhpType complete(String s, Project project) {
+        return PhpTypeProviderCache.getInstance(project).complete(this.getKey(), s, () -> completeInner(s, project));
+    }
+
+    @Nullable
+    private PhpType completeInner(@NotNull String s, @NotNull Project project) {
         String[] split = s.substring(2).split(String.valueOf(TRIM_KEY));
         if (split.length < 2) {
             return null;
@@ -13,6 +13,7 @@ import com.jetbrains.php.lang.psi.resolve.types.PhpTypeProvider4;
 import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.util.MethodMatcher;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderCache;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -96,6 +97,11 @@ public class ObjectRepositoryResultTypeProvider implements PhpTypeProvider4 {
     @Nullable
     @Override
     public PhpType complete(String s, Project project) {
+        return PhpTypeProviderCache.getInstance(project).complete(this.getKey(), s, () -> completeInner(s, project));
+    }
+
+    @Nullable
+    private PhpType completeInner(@NotNull String s, @NotNull Project project) {
         int endIndex = s.lastIndexOf(TRIM_KEY);
         if(endIndex == -1) {
             return null;
@@ -13,7 +13,9 @@ import com.jetbrains.php.lang.psi.resolve.types.PhpTypeProvider4;
 import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.util.MethodMatcher;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderCache;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderUtil;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
@@ -67,6 +69,11 @@ public class ObjectRepositoryTypeProvider implements PhpTypeProvider4 {
 
     @Override
     public Collection<? extends PhpNamedElement> getBySignature(String expression, Set<String> visited, int depth, Project project) {
+        return PhpTypeProviderCache.getInstance(project).getBySignature(project, this.getKey(), expression, () -> getBySignatureInner(expression, project));
+    }
+
+    @NotNull
+    private Collection<? extends PhpNamedElement> getBySignatureInner(@NotNull String expression, @NotNull Project project) {
         // get back our original call
         int endIndex = expression.lastIndexOf(TRIM_KEY);
         if(endIndex == -1) {
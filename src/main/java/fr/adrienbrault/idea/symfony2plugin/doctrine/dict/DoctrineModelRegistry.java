@@ -0,0 +1,161 @@
+package fr.adrienbrault.idea.symfony2plugin.doctrine.dict;
+
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of all known Doctrine models of a project
+ *
+ * - "FooBundle:Bar" => "\Foo\Entity\Bar"
+ * - "Foo\Entity\Bar" => "\Foo\Repository\BarRepository"
+ * - "bar_table" => "Foo\Entity\Bar" and its metadata file
+ *
+ * Class names as keys are normalized without a leading "\"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class DoctrineModelRegistry {
+
+    @NotNull
+    private final Collection<DoctrineModel> models;
+
+    @NotNull
+    private final Map<String, String> entityNamespaces;
+
+    @NotNull
+    private final Map<String, String> documentNamespaces;
+
+    @NotNull
+    private final Map<String, DoctrineModel> shortcuts;
+
+    @NotNull
+    private final Map<String, String> repositories;
+
+    @NotNull
+    private final Map<String, Pair<String, VirtualFile>> tables;
+
+    @NotNull
+    private final Map<String, Collection<DoctrineModel>> classModels;
+
+    public DoctrineModelRegistry(
+        @NotNull Collection<DoctrineModel> models,
+        @NotNull Map<String, String> entityNamespaces,
+        @NotNull Map<String, String> documentNamespaces,
+        @NotNull Map<String, String> repositories,
+        @NotNull Map<String, Pair<String, VirtualFile>> tables
+    ) {
+        this.models = Collections.unmodifiableCollection(models);
+        this.entityNamespaces = Collections.unmodifiableMap(entityNamespaces);
+        this.documentNamespaces = Collections.unmodifiableMap(documentNamespaces);
+        this.repositories = Collections.unmodifiableMap(repositories);
+        this.tables = Collections.unmodifiableMap(tables);
+
+        Map<String, DoctrineModel> shortcuts = new HashMap<>();
+        for (DoctrineModel model : models) {
+            String repositoryName = model.getRepositoryName();
+            if (repositoryName != null && repositoryName.contains(":")) {
+                shortcuts.putIfAbsent(repositoryName, model);
+            }
+        }
+
+        this.shortcuts = Collections.unmodifiableMap(shortcuts);
+
+        Map<String, Collection<DoctrineModel>> classModels = new HashMap<>();
+        for (DoctrineModel model : models) {
+            classModels.computeIfAbsent(normalizeClassName(model.getPhpClass().getFQN()), s -> new ArrayList<>()).add(model);
+        }
+
+        this.classModels = Collections.unmodifiableMap(classModels);
+    }
+
+    /**
+     * Models with still valid classes; registry is only invalidated on structure changes
+     */
+    @NotNull
+    public Collection<DoctrineModel> getModels() {
+        return models.stream()
+            .filter(model -> model.getPhpClass().isValid())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * All models of the class, one class can be mapped in multiple places; eg by annotation and yaml
+     *
+     * @param className "Foo\Entity\Bar" or "\Foo\Entity\Bar"; case insensitive
+     */
+    @NotNull
+    public Collection<DoctrineModel> getModelsForClass(@NotNull String className) {
+        Collection<DoctrineModel> models = classModels.get(normalizeClassName(className));
+        if (models == null) {
+            return Collections.emptyList();
+        }
+
+        return models.stream()
+            .filter(model -> model.getPhpClass().isValid())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Bundle name => entity namespace; "FooBundle" => "Foo\Entity"
+     */
+    @NotNull
+    public Map<String, String> getEntityNamespaces() {
+        return entityNamespaces;
+    }
+
+    /**
+     * Bundle name => document namespace; "FooBundle" => "Foo\Document"
+     */
+    @NotNull
+    public Map<String, String> getDocumentNamespaces() {
+        return documentNamespaces;
+    }
+
+    /**
+     * @param shortcutName "FooBundle:Bar"
+     * @return "\Foo\Entity\Bar"
+     */
+    @Nullable
+    public String getClassForShortcut(@NotNull String shortcutName) {
+        DoctrineModel model = getModelForShortcut(shortcutName);
+        return model != null ? model.getPhpClass().getFQN() : null;
+    }
+
+    /**
+     * @param shortcutName "FooBundle:Bar"
+     */
+    @Nullable
+    public DoctrineModel getModelForShortcut(@NotNull String shortcutName) {
+        DoctrineModel model = shortcuts.get(shortcutName);
+        return model != null && model.getPhpClass().isValid() ? model : null;
+    }
+
+    /**
+     * @param className "Foo\Entity\Bar" or "\Foo\Entity\Bar"
+     * @return "\Foo\Repository\BarRepository"
+     */
+    @Nullable
+    public String getRepositoryClass(@NotNull String className) {
+        return repositories.get(StringUtils.stripStart(className, "\\"));
+    }
+
+    /**
+     * @return "Foo\Entity\Bar" with the metadata file declaring the table
+     */
+    @Nullable
+    public Pair<String, VirtualFile> getTableDeclaration(@NotNull String table) {
+        return tables.get(table);
+    }
+
+    @NotNull
+    private static String normalizeClassName(@NotNull String className) {
+        return StringUtils.stripStart(className, "\\").toLowerCase();
+    }
+}
@@ -56,7 +56,7 @@ public class DoctrineRepositoryClassConstantIntention extends PsiElementBaseInte
         }
 
         return null != new MethodMatcher.StringParameterMatcher(parent, 0)
-            .withSignature(SymfonyPhpReferenceContributor.REPOSITORY_SIGNATURES)
+            .withSignature(SymfonyPhpReferenceContributor.REPOSITORY_SIGNATURE_TABLE)
             .withSignature("Doctrine\\Persistence\\ObjectManager", "find")
             .withSignature("Doctrine\\Common\\Persistence\\ObjectManager", "find") // @TODO: missing somewhere
             .match();
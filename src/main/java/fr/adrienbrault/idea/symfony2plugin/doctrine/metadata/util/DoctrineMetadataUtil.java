@@ -12,17 +12,18 @@ import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelInterface;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.dict.DoctrineManagerEnum;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.dict.DoctrineMetadataModel;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.driver.*;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.lookup.DoctrineRepositoryLookupElement;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DoctrineMetadataFileStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
@@ -115,7 +116,7 @@ public class DoctrineMetadataUtil {
 
     @NotNull
     public static Collection<VirtualFile> findMetadataForRepositoryClass(final @NotNull Project project, @NotNull String repositoryClass) {
-        Map<String, Collection<String>> cache = CachedValuesManager.getManager(project).getCachedValue(
+        Map<String, Collection<String>> cache = CacheStatistics.getCachedValue(
             project,
             DOCTRINE_REPOSITORY_CACHE,
             () -> {
@@ -139,8 +140,7 @@ public class DoctrineMetadataUtil {
                 }
 
                 return CachedValueProvider.Result.create(repositoryMap, FileIndexCaches.getModificationTrackerForIndexId(project, DoctrineMetadataFileStubIndex.KEY));
-            },
-            false
+            }
         );
 
         repositoryClass = StringUtils.stripStart(repositoryClass,"\\");
@@ -218,8 +218,31 @@ public class DoctrineMetadataUtil {
         return pair;
     }
 
+    /**
+     * Metadata of the file which declares the table; table lookup is precomputed by the model registry
+     */
     @Nullable
     public static DoctrineMetadataModel getMetadataByTable(@NotNull Project project, @NotNull String tableName) {
+        Pair<String, VirtualFile> declaration = EntityHelper.getModelRegistry(project).getTableDeclaration(tableName);
+        if(declaration == null || !declaration.getSecond().isValid()) {
+            return null;
+        }
+
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(declaration.getSecond());
+        if(psiFile == null) {
+            return null;
+        }
+
+        DoctrineMetadataModel metadata = getTableMetadata(project, psiFile, declaration.getFirst());
+        return metadata != null && tableName.equals(metadata.getTable()) ? metadata : null;
+    }
+
+    /**
+     * Table name => model class and the metadata file declaring it; first metadata wins
+     */
+    @NotNull
+    public static Map<String, Pair<String, VirtualFile>> getTableDeclarations(@NotNull Project project) {
+        Map<String, Pair<String, VirtualFile>> tables = new HashMap<>();
 
         for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY)) {
             for (VirtualFile virtualFile : FileBasedIndex.getInstance().getContainingFiles(DoctrineMetadataFileStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
@@ -228,19 +251,27 @@ public class DoctrineMetadataUtil {
                     continue;
                 }
 
-                DoctrineMappingDriverArguments arguments = new DoctrineMappingDriverArguments(project, psiFile, key);
+                DoctrineMetadataModel metadata = getTableMetadata(project, psiFile, key);
+                if(metadata != null) {
+                    tables.putIfAbsent(metadata.getTable(), Pair.create(StringUtils.stripStart(key, "\\"), virtualFile));
+                }
+            }
+        }
 
-                for (DoctrineMappingDriverInterface mappingDriver : MAPPING_DRIVERS) {
-                    DoctrineMetadataModel metadata = mappingDriver.getMetadata(arguments);
-                    if(metadata == null) {
-                        continue;
-                    }
+        return tables;
+    }
 
-                    String table = metadata.getTable();
-                    if(table != null && tableName.equals(table)) {
-                        return metadata;
-                    }
-                }
+    /**
+     * First metadata of the class inside the file which provides a table name
+     */
+    @Nullable
+    private static DoctrineMetadataModel getTableMetadata(@NotNull Project project, @NotNull PsiFile psiFile, @NotNull String className) {
+        DoctrineMappingDriverArguments arguments = new DoctrineMappingDriverArguments(project, psiFile, className);
+
+        for (DoctrineMappingDriverInterface mappingDriver : MAPPING_DRIVERS) {
+            DoctrineMetadataModel metadata = mappingDriver.getMetadata(arguments);
+            if(metadata != null && metadata.getTable() != null) {
+                return metadata;
             }
         }
 
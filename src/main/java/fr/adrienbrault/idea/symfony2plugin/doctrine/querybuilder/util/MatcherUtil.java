@@ -16,6 +16,8 @@ public class MatcherUtil {
         new MethodMatcher.CallToSignature("\\Doctrine\\ORM\\QueryBuilder", "set"),
     };
 
+    private static final MethodMatcher.CallToSignatureTable SELECT_FIELDS_TABLE = MethodMatcher.CallToSignatureTable.create(SELECT_FIELDS);
+
     private static MethodMatcher.CallToSignature[] SELECT_FIELDS_VARIADIC = new MethodMatcher.CallToSignature[] {
         new MethodMatcher.CallToSignature("\\Doctrine\\ORM\\QueryBuilder", "select"),
         new MethodMatcher.CallToSignature("\\Doctrine\\ORM\\QueryBuilder", "addSelect"),
@@ -23,6 +25,8 @@ public class MatcherUtil {
         new MethodMatcher.CallToSignature("\\Doctrine\\ORM\\QueryBuilder", "addGroupBy"),
     };
 
+    private static final MethodMatcher.CallToSignatureTable SELECT_FIELDS_VARIADIC_TABLE = MethodMatcher.CallToSignatureTable.create(SELECT_FIELDS_VARIADIC);
+
     @Nullable
     public static MethodMatcher.MethodMatchParameter matchPropertyField(PsiElement psiElement) {
 
@@ -31,18 +35,18 @@ public class MatcherUtil {
         }
 
         MethodMatcher.MethodMatchParameter methodMatchParameter = new MethodMatcher.StringParameterAnyMatcher(psiElement)
-            .withSignature(SELECT_FIELDS)
+            .withSignature(SELECT_FIELDS_TABLE)
             .match();
 
         if(methodMatchParameter == null) {
             methodMatchParameter = new MethodMatcher.StringParameterAnyMatcher(psiElement)
-                .withSignature(SELECT_FIELDS_VARIADIC)
+                .withSignature(SELECT_FIELDS_VARIADIC_TABLE)
                 .match();
         }
 
         if(methodMatchParameter == null) {
             methodMatchParameter = new MethodMatcher.ArrayParameterMatcher(psiElement, 0)
-                .withSignature(SELECT_FIELDS)
+                .withSignature(SELECT_FIELDS_TABLE)
                 .match();
         }
 
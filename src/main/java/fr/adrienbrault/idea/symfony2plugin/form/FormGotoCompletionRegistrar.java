@@ -50,7 +50,7 @@ public class FormGotoCompletionRegistrar implements GotoCompletionRegistrar {
             }
 
             MethodMatcher.MethodMatchParameter methodMatchParameter = new MethodMatcher.StringParameterMatcher(parent, 1)
-                .withSignature(FormUtil.PHP_FORM_BUILDER_SIGNATURES)
+                .withSignature(FormUtil.PHP_FORM_BUILDER_SIGNATURE_TABLE)
                 .match();
 
             if(methodMatchParameter == null) {
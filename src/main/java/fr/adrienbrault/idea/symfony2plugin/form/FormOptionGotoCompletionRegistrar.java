@@ -68,7 +68,7 @@ public class FormOptionGotoCompletionRegistrar implements GotoCompletionRegistra
                     if(context instanceof MethodReference) {
                         ParameterBag currentIndex = PsiElementUtils.getCurrentParameterIndex(arrayCreationExpression);
                         if(currentIndex != null && currentIndex.getIndex() == 2) {
-                            if (PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) context, FormUtil.PHP_FORM_BUILDER_SIGNATURES)) {
+                            if (PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) context, FormUtil.PHP_FORM_BUILDER_SIGNATURE_TABLE)) {
                                 return getMatchingOption((ParameterList) parameterList, psiElement);
                             }
                         }
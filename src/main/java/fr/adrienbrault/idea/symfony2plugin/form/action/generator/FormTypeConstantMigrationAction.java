@@ -99,7 +99,7 @@ public class FormTypeConstantMigrationAction extends CodeInsightAction {
                 }
 
                 if (null == new MethodMatcher.StringParameterMatcher(element, 1)
-                    .withSignature(FormUtil.PHP_FORM_BUILDER_SIGNATURES)
+                    .withSignature(FormUtil.PHP_FORM_BUILDER_SIGNATURE_TABLE)
                     .match()) {
 
                     super.visitElement(element);
@@ -49,7 +49,7 @@ public class FormStringToClassConstantIntention extends PsiElementBaseIntentionA
         }
 
         return null != new MethodMatcher.StringParameterMatcher(parent, 1)
-            .withSignature(FormUtil.PHP_FORM_BUILDER_SIGNATURES)
+            .withSignature(FormUtil.PHP_FORM_BUILDER_SIGNATURE_TABLE)
             .match();
     }
 
@@ -3,16 +3,25 @@ package fr.adrienbrault.idea.symfony2plugin.form.util;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.*;
 import fr.adrienbrault.idea.symfony2plugin.form.visitor.FormOptionLookupVisitor;
 import fr.adrienbrault.idea.symfony2plugin.form.visitor.FormOptionVisitor;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
@@ -21,6 +30,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +53,14 @@ public class FormOptionsUtil {
         "setAllowedValues", "addAllowedValues", "setAllowedTypes", "addAllowedTypes"
     };
 
+    private static final Key<CachedValue<Map<String, Collection<PhpClass>>>> FORM_TYPE_EXTENSIONS = new Key<>("SYMFONY_FORM_TYPE_EXTENSIONS");
+
+    /**
+     * Resolved option chains of a form type (parents and extensions), see "getFormOptionsCached";
+     * the whole map is dropped with the class structure, so types which are gone are not kept forever
+     */
+    private static final Key<CachedValue<Map<String, CachedValue<Collection<FormOptionVisited>>>>> FORM_OPTIONS_RESOLVED = new Key<>("SYMFONY_FORM_OPTIONS_RESOLVED");
+
     /**
      * Find form extensions extends given form type
      *
@@ -50,24 +69,64 @@ public class FormOptionsUtil {
      */
     @NotNull
     public static Collection<FormClass> getExtendedTypeClasses(@NotNull Project project, @NotNull String... formTypeNames) {
+        Map<String, Collection<PhpClass>> formTypeExtensions = getFormTypeExtensions(project);
 
-        // strip "\"
-        List<String> formTypeNamesList = ContainerUtil.map(Arrays.asList(formTypeNames), s ->
-            StringUtils.stripStart(s, "\\")
-        );
+        // an extension can extend more than one of the given names, eg "form" and "FormType"
+        Set<PhpClass> phpClasses = new LinkedHashSet<>();
+        for (String formTypeName : formTypeNames) {
+            // strip "\"
+            phpClasses.addAll(formTypeExtensions.getOrDefault(StringUtils.stripStart(formTypeName, "\\"), Collections.emptyList()));
+        }
 
         Collection<FormClass> extendedTypeClasses = new ArrayList<>();
-        for(PhpClass phpClass: getFormTypeExtensionClassNames(project)) {
-            for (String formExtendedType : FormUtil.getFormExtendedType(phpClass)) {
-                if(formExtendedType != null && formTypeNamesList.contains(formExtendedType)) {
-                    extendedTypeClasses.add(new FormClass(FormClassEnum.EXTENSION, phpClass, true));
-                }
-            }
+        for (PhpClass phpClass : phpClasses) {
+            extendedTypeClasses.add(new FormClass(FormClassEnum.EXTENSION, phpClass, true));
         }
 
         return extendedTypeClasses;
     }
 
+    /**
+     * Extended form type => form type extension classes
+     *
+     * Cached until the compiled container or the class structure of the project is changing;
+     * extension files itself are also tracked, as "getExtendedType" is located inside a method body
+     */
+    @NotNull
+    private static Map<String, Collection<PhpClass>> getFormTypeExtensions(@NotNull Project project) {
+        return CacheStatistics.getCachedValue(
+            project,
+            FORM_TYPE_EXTENSIONS,
+            () -> {
+                Map<String, Collection<PhpClass>> extensions = new HashMap<>();
+                Collection<Object> dependencies = new ArrayList<>(getFormTypeModificationTrackers(project));
+
+                for (PhpClass phpClass : getFormTypeExtensionClassNames(project)) {
+                    ContainerUtil.addIfNotNull(dependencies, phpClass.getContainingFile());
+
+                    for (String formExtendedType : FormUtil.getFormExtendedType(phpClass)) {
+                        if (formExtendedType != null) {
+                            extensions.computeIfAbsent(formExtendedType, s -> new LinkedHashSet<>()).add(phpClass);
+                        }
+                    }
+                }
+
+                return CachedValueProvider.Result.create(extensions, dependencies.toArray());
+            }
+        );
+    }
+
+    /**
+     * Form types and extension are provided by the class structure of the project and the compiled container
+     */
+    @NotNull
+    private static Collection<ModificationTracker> getFormTypeModificationTrackers(@NotNull Project project) {
+        return Arrays.asList(
+            FileIndexCaches.getStubModificationTracker(project),
+            ServiceContainerUtil.getCompiledContainerModificationTracker(project)
+        );
+    }
+
     @NotNull
     private static Set<PhpClass> getFormTypeExtensionClassNames(@NotNull Project project) {
 
@@ -94,12 +153,27 @@ public class FormOptionsUtil {
 
     @NotNull
     public static Map<String, FormOption> getFormExtensionKeys(@NotNull Project project, @NotNull String... formTypeNames) {
-
-        Collection<FormClass> typeClasses = FormOptionsUtil.getExtendedTypeClasses(project, formTypeNames);
         Map<String, FormOption> extensionClassMap = new HashMap<>();
 
-        for(FormClass extensionClass: typeClasses) {
-            extensionClassMap.putAll(getDefaultOptions(extensionClass.getPhpClass(), extensionClass));
+        Collection<FormOptionVisited> options = getFormOptionsCached(project, "extensions", formTypeNames, dependencies -> {
+            Collection<FormOptionVisited> visited = new ArrayList<>();
+
+            for(FormClass extensionClass: FormOptionsUtil.getExtendedTypeClasses(project, formTypeNames)) {
+                getDefaultOptions(extensionClass.getPhpClass(), extensionClass, new FormOptionCollector(visited), 10, dependencies);
+            }
+
+            return visited;
+        });
+
+        for (FormOptionVisited visited : options) {
+            // append REQUIRED, if we already know this value; other extensions are overwriting
+            FormOption formOption = extensionClassMap.get(visited.option);
+            if(formOption != null && formOption.getFormClass() == visited.formClass) {
+                formOption.addOptionEnum(visited.optionEnum);
+                formOption.addTarget(visited.psiElement);
+            } else {
+                extensionClassMap.put(visited.option, new FormOption(visited.option, visited.formClass, visited.optionEnum, visited.psiElement));
+            }
         }
 
         return extensionClassMap;
@@ -210,25 +284,31 @@ public class FormOptionsUtil {
     }
 
     public static void visitFormOptions(@NotNull Project project, @NotNull String formTypeName, @NotNull FormOptionVisitor visitor) {
-        visitFormOptions(project, formTypeName, new HashMap<>(), new FormUtil.FormTypeCollector(project).collect(), 0, visitor);
+        Collection<FormOptionVisited> options = getFormOptionsCached(project, "options", new String[] {formTypeName}, dependencies -> {
+            Collection<FormOptionVisited> visited = new ArrayList<>();
+            visitFormOptions(project, formTypeName, new HashMap<>(), new FormUtil.FormTypeCollector(project).collect(), 0, new FormOptionCollector(visited), dependencies);
+            return visited;
+        });
+
+        visitCachedFormOptions(options, visitor);
     }
 
-    private static Map<String, String> visitFormOptions(Project project, String formTypeName, HashMap<String, String> defaultValues, FormUtil.FormTypeCollector collector, int depth, @NotNull FormOptionVisitor visitor) {
+    private static Map<String, String> visitFormOptions(Project project, String formTypeName, HashMap<String, String> defaultValues, FormUtil.FormTypeCollector collector, int depth, @NotNull FormOptionVisitor visitor, @NotNull Collection<PsiFile> dependencies) {
 
         PhpClass phpClass = collector.getFormTypeToClass(formTypeName);
         if(phpClass == null) {
             return defaultValues;
         }
 
-        getDefaultOptions(phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor);
+        getDefaultOptions(phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor, 10, dependencies);
         for (FormClass formClass : getExtendedTypeClasses(project, formTypeName)) {
-            getDefaultOptions(formClass.getPhpClass(), new FormClass(FormClassEnum.EXTENSION, formClass.getPhpClass(), false), visitor);
+            getDefaultOptions(formClass.getPhpClass(), new FormClass(FormClassEnum.EXTENSION, formClass.getPhpClass(), false), visitor, 10, dependencies);
         }
 
         // recursive search for parent form types
         if (depth < 10) {
             for (String formParent : FormUtil.getFormParentOfPhpClass(phpClass)) {
-                visitFormOptions(project, formParent, defaultValues, collector, ++depth, visitor);
+                visitFormOptions(project, formParent, defaultValues, collector, ++depth, visitor, dependencies);
             }
         }
 
@@ -236,55 +316,76 @@ public class FormOptionsUtil {
     }
 
     private static void getFormDefaultKeys(@NotNull Project project, @NotNull String formTypeName, @NotNull FormOptionVisitor visitor) {
-        getFormDefaultKeys(formTypeName, new HashMap<>(), new FormUtil.FormTypeCollector(project).collect(), 0, visitor);
+        Collection<FormOptionVisited> options = getFormOptionsCached(project, "defaults", new String[] {formTypeName}, dependencies -> {
+            Collection<FormOptionVisited> visited = new ArrayList<>();
+            getFormDefaultKeys(formTypeName, new HashMap<>(), new FormUtil.FormTypeCollector(project).collect(), 0, new FormOptionCollector(visited), dependencies);
+            return visited;
+        });
+
+        visitCachedFormOptions(options, visitor);
     }
 
-    private static Map<String, String> getFormDefaultKeys(String formTypeName, HashMap<String, String> defaultValues, FormUtil.FormTypeCollector collector, int depth, @NotNull FormOptionVisitor visitor) {
+    private static Map<String, String> getFormDefaultKeys(String formTypeName, HashMap<String, String> defaultValues, FormUtil.FormTypeCollector collector, int depth, @NotNull FormOptionVisitor visitor, @NotNull Collection<PsiFile> dependencies) {
         PhpClass phpClass = collector.getFormTypeToClass(formTypeName);
         if(phpClass == null) {
             return defaultValues;
         }
 
-        getDefaultOptions(phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor);
+        getDefaultOptions(phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor, 10, dependencies);
 
         // recursive search for parent form types
         if (depth < 10) {
             for (String formParent : FormUtil.getFormParentOfPhpClass(phpClass)) {
-                getFormDefaultKeys(formParent, defaultValues, collector, ++depth, visitor);
+                getFormDefaultKeys(formParent, defaultValues, collector, ++depth, visitor, dependencies);
             }
         }
 
         return defaultValues;
     }
 
+    /**
+     * Walking the form type hierarchy with all its parents and extensions is expensive; and option completion
+     * is triggered on every keystroke inside "->add('foo', FooType::class, [...])". So keep the resolved option chain
+     * of a form type until one of the involved class files or the project class structure changes.
+     *
+     * @param scope Different flavors of option resolving for the same form types
+     */
     @NotNull
-    private static Map<String, FormOption> getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass) {
-        final Map<String, FormOption> options = new HashMap<>();
+    private static Collection<FormOptionVisited> getFormOptionsCached(@NotNull Project project, @NotNull String scope, @NotNull String[] formTypeNames, @NotNull Function<Collection<PsiFile>, Collection<FormOptionVisited>> resolver) {
+        Map<String, CachedValue<Collection<FormOptionVisited>>> cache = CacheStatistics.getCachedValue(project, FORM_OPTIONS_RESOLVED, () ->
+            CachedValueProvider.Result.create(new ConcurrentHashMap<String, CachedValue<Collection<FormOptionVisited>>>(), getFormTypeModificationTrackers(project).toArray())
+        );
 
-        getDefaultOptions(phpClass, formClass, (psiElement, option, formClass1, optionEnum) -> {
-            // append REQUIRED, if we already know this value
-            if(options.containsKey(option)) {
-                FormOption formOption = options.get(option);
+        String cacheKey = scope + ":" + StringUtils.join(formTypeNames, "|");
 
-                formOption.addOptionEnum(optionEnum);
-                formOption.addTarget(psiElement);
-            } else {
-                options.put(option, new FormOption(option, formClass1, optionEnum, psiElement));
-            }
-        });
+        return cache.computeIfAbsent(cacheKey, s -> CachedValuesManager.getManager(project).createCachedValue(() -> {
+            Collection<PsiFile> dependencies = new HashSet<>();
+            Collection<FormOptionVisited> options = Collections.unmodifiableCollection(resolver.apply(dependencies));
 
-        return options;
+            Collection<Object> trackers = new ArrayList<>(dependencies);
+
+            // new form types or extensions which are part of the chain
+            trackers.addAll(getFormTypeModificationTrackers(project));
+
+            return CachedValueProvider.Result.create(options, trackers.toArray());
+        }, false)).getValue();
     }
 
-    private static void getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass, @NotNull FormOptionVisitor visitor) {
-        getDefaultOptions(phpClass, formClass, visitor, 10);
+    private static void visitCachedFormOptions(@NotNull Collection<FormOptionVisited> options, @NotNull FormOptionVisitor visitor) {
+        for (FormOptionVisited visited : options) {
+            if (visited.psiElement.isValid()) {
+                visitor.visit(visited.psiElement, visited.option, visited.formClass, visited.optionEnum);
+            }
+        }
     }
 
-    private static void getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass, @NotNull FormOptionVisitor visitor, int depth) {
+    private static void getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass, @NotNull FormOptionVisitor visitor, int depth, @NotNull Collection<PsiFile> dependencies) {
         if(depth-- < 0) {
             return;
         }
 
+        ContainerUtil.addIfNotNull(dependencies, phpClass.getContainingFile());
+
         for(String methodName: FORM_OPTION_METHODS) {
             Method method = phpClass.findMethodByName(methodName);
             if(method == null) {
@@ -337,7 +438,7 @@ public class FormOptionsUtil {
                         PhpClass phpClassInner = ((Method) parentMethod).getContainingClass();
                         if(phpClassInner != null) {
                             // @TODO only use setDefaultOptions, recursive call get setDefaults again
-                            getDefaultOptions(phpClassInner, formClass, visitor, depth);
+                            getDefaultOptions(phpClassInner, formClass, visitor, depth, dependencies);
                         }
                     }
                 }
@@ -468,4 +569,42 @@ public class FormOptionsUtil {
 
         return values;
     }
+
+    /**
+     * Visited option of a form class chain; replayed for every visitor on cache hit
+     */
+    private static class FormOptionVisited {
+        @NotNull
+        private final PsiElement psiElement;
+
+        @NotNull
+        private final String option;
+
+        @NotNull
+        private final FormClass formClass;
+
+        @NotNull
+        private final FormOptionEnum optionEnum;
+
+        private FormOptionVisited(@NotNull PsiElement psiElement, @NotNull String option, @NotNull FormClass formClass, @NotNull FormOptionEnum optionEnum) {
+            this.psiElement = psiElement;
+            this.option = option;
+            this.formClass = formClass;
+            this.optionEnum = optionEnum;
+        }
+    }
+
+    private static class FormOptionCollector implements FormOptionVisitor {
+        @NotNull
+        private final Collection<FormOptionVisited> options;
+
+        private FormOptionCollector(@NotNull Collection<FormOptionVisited> options) {
+            this.options = options;
+        }
+
+        @Override
+        public void visit(@NotNull PsiElement psiElement, @NotNull String option, @NotNull FormClass formClass, @NotNull FormOptionEnum optionEnum) {
+            options.add(new FormOptionVisited(psiElement, option, formClass, optionEnum));
+        }
+    }
 }
@@ -50,6 +50,8 @@ public class FormUtil {
         new MethodMatcher.CallToSignature("\\Symfony\\Component\\Form\\FormInterface", "create")
     };
 
+    public static final MethodMatcher.CallToSignatureTable PHP_FORM_BUILDER_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(PHP_FORM_BUILDER_SIGNATURES);
+
     @Nullable
     public static PhpClass getFormTypeToClass(Project project, @Nullable String formType) {
         return new FormTypeCollector(project).collect().getFormTypeToClass(formType);
@@ -86,7 +88,7 @@ public class FormUtil {
             if (methodReference instanceof MethodReference) {
                 String methodName = ((MethodReference) methodReference).getName();
                 if (methodName != null && (methodName.equals("add") || methodName.equals("create"))) {
-                    return PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) methodReference, FormUtil.PHP_FORM_BUILDER_SIGNATURES);
+                    return PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) methodReference, FormUtil.PHP_FORM_BUILDER_SIGNATURE_TABLE);
                 }
             }
 
@@ -77,7 +77,7 @@ public class PhpFoldingBuilder extends FoldingBuilderEx {
 
         for(StringLiteralExpression stringLiteralExpression: stringLiteralExpressions) {
 
-            if (MethodMatcher.getMatchedSignatureWithDepth(stringLiteralExpression, PhpRouteReferenceContributor.GENERATOR_SIGNATURES) != null) {
+            if (MethodMatcher.getMatchedSignatureWithDepth(stringLiteralExpression, PhpRouteReferenceContributor.GENERATOR_SIGNATURE_TABLE) != null) {
 
                 // cache routes if we need them
                 if(routes == null) {
@@ -108,7 +108,7 @@ public class PhpFoldingBuilder extends FoldingBuilderEx {
 
     private void attachModelShortcuts(List<FoldingDescriptor> descriptors, final StringLiteralExpression stringLiteralExpression) {
 
-        if (MethodMatcher.getMatchedSignatureWithDepth(stringLiteralExpression, SymfonyPhpReferenceContributor.REPOSITORY_SIGNATURES) == null) {
+        if (MethodMatcher.getMatchedSignatureWithDepth(stringLiteralExpression, SymfonyPhpReferenceContributor.REPOSITORY_SIGNATURE_TABLE) == null) {
             return;
         }
 
@@ -136,7 +136,7 @@ public class PhpFoldingBuilder extends FoldingBuilderEx {
 
     private void attachTemplateShortcuts(List<FoldingDescriptor> descriptors, final StringLiteralExpression stringLiteralExpression) {
 
-        if (MethodMatcher.getMatchedSignatureWithDepth(stringLiteralExpression, SymfonyPhpReferenceContributor.TEMPLATE_SIGNATURES) == null) {
+        if (MethodMatcher.getMatchedSignatureWithDepth(stringLiteralExpression, SymfonyPhpReferenceContributor.TEMPLATE_SIGNATURE_TABLE) == null) {
             return;
         }
 
@@ -9,11 +9,11 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.twig.TwigFile;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TwigBlockIndexExtension;
 import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigBlock;
@@ -37,7 +37,7 @@ public class TwigBlockSymbolContributor implements ChooseByNameContributor {
             return new String[0];
         }
 
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             SYMFONY_TWIG_BLOCK_NAMES,
             () -> {
@@ -49,8 +49,7 @@ public class TwigBlockSymbolContributor implements ChooseByNameContributor {
                     .toArray(String[]::new);
 
                 return CachedValueProvider.Result.create(blocks, FileIndexCaches.getModificationTrackerForIndexId(project, TwigBlockIndexExtension.KEY));
-            },
-            false
+            }
         );
     }
 
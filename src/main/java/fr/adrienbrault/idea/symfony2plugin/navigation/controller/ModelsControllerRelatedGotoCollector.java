@@ -25,7 +25,7 @@ public class ModelsControllerRelatedGotoCollector implements ControllerActionGot
         List<PsiElement> uniqueTargets = new ArrayList<>();
 
         for(PsiElement psiElement: parameter.getParameterLists()) {
-            MethodMatcher.MethodMatchParameter matchedSignature = MethodMatcher.getMatchedSignatureWithDepth(psiElement, SymfonyPhpReferenceContributor.REPOSITORY_SIGNATURES);
+            MethodMatcher.MethodMatchParameter matchedSignature = MethodMatcher.getMatchedSignatureWithDepth(psiElement, SymfonyPhpReferenceContributor.REPOSITORY_SIGNATURE_TABLE);
             if (matchedSignature != null) {
                 String resolveString = PhpElementsUtil.getStringValue(psiElement);
                 if(resolveString != null)  {
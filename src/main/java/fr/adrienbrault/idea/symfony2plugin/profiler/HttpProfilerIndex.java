@@ -1,6 +1,10 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.util.Consumer;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
 import fr.adrienbrault.idea.symfony2plugin.profiler.utils.ProfilerUtil;
 import org.apache.commons.lang.StringUtils;
@@ -8,6 +12,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -34,14 +39,38 @@ public class HttpProfilerIndex implements ProfilerIndexInterface {
     @NotNull
     @Override
     public List<ProfilerRequestInterface> getRequests() {
-        String content = ProfilerUtil.getProfilerUrlContent(String.format("%s/%s/empty/search/results?ip=&limit=10", this.url, PROFILER_PATH));
+        String content = getIndexContent();
         if(content == null) {
             return Collections.emptyList();
         }
 
-        return new ArrayList<>(ProfilerUtil.collectHttpDataForRequest(
-            project, ProfilerUtil.createRequestsFromIndexHtml(this.project, content, this.url))
+        // html is parsed into psi; loader is called outside of the ui thread
+        Collection<ProfilerRequestInterface> requests = ApplicationManager.getApplication().runReadAction(
+            (Computable<Collection<ProfilerRequestInterface>>) () -> ProfilerUtil.createRequestsFromIndexHtml(this.project, content, this.url)
         );
+
+        return new ArrayList<>(ProfilerUtil.collectHttpDataForRequest(project, requests));
+    }
+
+    @Override
+    public void processRequests(@NotNull ProgressIndicator indicator, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        String content = getIndexContent();
+        if(content == null) {
+            return;
+        }
+
+        indicator.checkCanceled();
+
+        Collection<ProfilerRequestInterface> requests = ApplicationManager.getApplication().runReadAction(
+            (Computable<Collection<ProfilerRequestInterface>>) () -> ProfilerUtil.createRequestsFromIndexHtml(this.project, content, this.url)
+        );
+
+        ProfilerUtil.processHttpDataForRequest(project, requests, indicator, consumer);
+    }
+
+    @Nullable
+    private String getIndexContent() {
+        return ProfilerUtil.getProfilerUrlContent(String.format("%s/%s/empty/search/results?ip=&limit=10", this.url, PROFILER_PATH));
     }
 
     @Nullable
@@ -1,19 +1,21 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.Consumer;
 import com.intellij.util.containers.ContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalDefaultDataCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalMailCollector;
+import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerDump;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerRequest;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.LocalProfilerDumpParser;
 import fr.adrienbrault.idea.symfony2plugin.profiler.reader.ReverseFileLineReader;
 import fr.adrienbrault.idea.symfony2plugin.profiler.utils.ProfilerUtil;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -41,6 +43,16 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
 
     @NotNull
     public List<ProfilerRequestInterface> getRequests() {
+        return ProfilerUtil.getProfilerRequestCollectorDecorated(createRequestCallables());
+    }
+
+    @Override
+    public void processRequests(@NotNull ProgressIndicator indicator, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        ProfilerUtil.processProfilerRequestCollectorDecorated(createRequestCallables(), indicator, consumer);
+    }
+
+    @NotNull
+    private Collection<Callable<ProfilerRequestInterface>> createRequestCallables() {
         List<String> lines = new ArrayList<>();
 
         try {
@@ -64,7 +76,7 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
             callable.add(new MyProfilerRequestBuilderCallable(split));
         });
 
-        return ProfilerUtil.getProfilerRequestCollectorDecorated(callable, 15);
+        return callable;
     }
 
     @Nullable
@@ -96,25 +108,13 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
     }
 
     @Nullable
-    private String getContentForHash(@NotNull String hash) {
+    private LocalProfilerDump getDumpForHash(@NotNull String hash) {
         File file = this.getFile(hash);
         if(file == null) {
             return  null;
         }
 
-        StringBuilder content = new StringBuilder();
-
-        try {
-            BufferedReader in = new BufferedReader(new FileReader(file));
-            String str;
-            while ((str = in.readLine()) != null) {
-                content.append(str);
-            }
-            in.close();
-        } catch (IOException ignored) {
-        }
-
-        return content.toString();
+        return LocalProfilerDumpParser.getDump(file);
     }
 
     private class MyProfilerRequestBuilderCallable implements Callable<ProfilerRequestInterface> {
@@ -126,15 +126,15 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
 
         @Override
         public ProfilerRequestInterface call() throws Exception {
-            String content = getContentForHash(split[0]);
-            if(content == null) {
+            LocalProfilerDump dump = getDumpForHash(split[0]);
+            if(dump == null) {
                 return new LocalProfilerRequest(split);
             }
 
             return new LocalProfilerRequest(
                 split,
-                new LocalDefaultDataCollector(content),
-                new LocalMailCollector(content)
+                new LocalDefaultDataCollector(dump),
+                new LocalMailCollector(dump)
             );
         }
     }
@@ -1,5 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.Consumer;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -13,6 +15,11 @@ public interface ProfilerIndexInterface {
     @NotNull
     List<ProfilerRequestInterface> getRequests();
 
+    /**
+     * Loads requests in background; consumer is called for every request as soon as its data is available
+     */
+    void processRequests(@NotNull ProgressIndicator indicator, @NotNull Consumer<ProfilerRequestInterface> consumer);
+
     @Nullable
     String getUrlForRequest(@NotNull ProfilerRequestInterface request);
 }
@@ -1,7 +1,13 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.impl.BackgroundableProcessIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.SimpleColoredComponent;
+import com.intellij.util.Consumer;
 import com.jetbrains.php.PhpIcons;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.DefaultDataCollectorInterface;
@@ -12,6 +18,7 @@ import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterfac
 import fr.adrienbrault.idea.symfony2plugin.profiler.factory.ProfilerFactoryUtil;
 import icons.TwigIcons;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
@@ -34,7 +41,18 @@ public class Symfony2WebProfilerForm {
 
     private ProfilerIndexInterface profilerIndex;
 
+    @NotNull
+    private final Project project;
+
+    @Nullable
+    private ProgressIndicator requestsIndicator;
+
+    @Nullable
+    private ProgressIndicator mailsIndicator;
+
     Symfony2WebProfilerForm(@NotNull Project project) {
+        this.project = project;
+
         DefaultListModel listenModel = new DefaultListModel();
         this.list1.setModel(listenModel);
         this.list1.setCellRenderer(new MyLookupCellRenderer());
@@ -106,7 +124,11 @@ public class Symfony2WebProfilerForm {
         DefaultListModel<ProfilerRequestInterface> listModel = (DefaultListModel<ProfilerRequestInterface>) listRequest.getModel();
         listModel.removeAllElements();
 
-        this.profilerIndex.getRequests().forEach(listModel::addElement);
+        if(this.requestsIndicator != null) {
+            this.requestsIndicator.cancel();
+        }
+
+        this.requestsIndicator = loadRequests("Symfony: Loading Profiler Requests", listModel::addElement);
     }
 
     private void renderRequestDetails(@NotNull ProfilerRequestInterface profilerRequest) {
@@ -151,20 +173,44 @@ public class Symfony2WebProfilerForm {
         DefaultListModel<MailMessage> listModel = (DefaultListModel) list1.getModel();
         listModel.removeAllElements();
 
-        for(ProfilerRequestInterface profilerRequest: this.profilerIndex.getRequests()) {
+        if(this.mailsIndicator != null) {
+            this.mailsIndicator.cancel();
+        }
+
+        this.mailsIndicator = loadRequests("Symfony: Loading Profiler Mails", profilerRequest -> {
             MailCollectorInterface collector = profilerRequest.getCollector(MailCollectorInterface.class);
             if(collector == null) {
-                continue;
+                return;
             }
 
-            Collection<MailMessage> messages = collector.getMessages();
+            for(MailMessage message : collector.getMessages()) {
+                listModel.addElement(message);
+            }
+        });
+    }
 
-            if(messages.size() > 0) {
-                for(MailMessage message : messages) {
-                    listModel.addElement(message);
-                }
+    /**
+     * Load requests on the shared profiler executor; every finished request is given to the consumer inside ui thread
+     */
+    @NotNull
+    private ProgressIndicator loadRequests(@NotNull String title, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        Task.Backgroundable task = new Task.Backgroundable(project, title, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+
+                profilerIndex.processRequests(indicator, request -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if(!indicator.isCanceled()) {
+                        consumer.consume(request);
+                    }
+                }));
             }
-        }
+        };
+
+        ProgressIndicator indicator = new BackgroundableProcessIndicator(task);
+        ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, indicator);
+
+        return indicator;
     }
 
     private class MyLookupCellRenderer extends SimpleColoredComponent implements ListCellRenderer {
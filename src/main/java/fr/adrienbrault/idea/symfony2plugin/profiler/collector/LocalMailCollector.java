@@ -1,15 +1,11 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler.collector;
 
+import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerDump;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.MailMessage;
-import org.intellij.lang.annotations.RegExp;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -17,54 +13,16 @@ import java.util.regex.Pattern;
 public class LocalMailCollector implements MailCollectorInterface {
 
     @NotNull
-    private final String contents;
+    private final LocalProfilerDump dump;
 
-    public LocalMailCollector(@NotNull String contents) {
-        this.contents = contents;
+    public LocalMailCollector(@NotNull LocalProfilerDump dump) {
+        this.dump = dump;
     }
 
     @NotNull
     public Collection<MailMessage> getMessages() {
-        String messages = this.findTwice(this.contents, "MessageDataCollector\":(\\d+):");
-        if(messages == null) {
-            return Collections.emptyList();
-        }
-
-        Matcher matcher = Pattern.compile("\"\\x00Swift_Mime_SimpleMimeEntity\\x00_body\";s:(\\d+):\"", Pattern.MULTILINE).matcher(messages);
-
-        Collection<MailMessage> mails = new ArrayList<>();
-        while(matcher.find()){
-            String domain = matcher.group(1);
-            //String array_strings = matcher.group(2);
-
-            int start = matcher.end();
-            int end = start + Integer.parseInt(domain);
-
-            //System.out.println(content.substring(start, end));
-            mails.add(new MailMessage(messages.substring(start, end), "aa", "aa"));
-
-            //Matcher match_strings = Pattern.compile("'(.*?)'\\s=>\\s'.*?'", Pattern.MULTILINE).matcher(array_strings);
-            //while(match_strings.find()){
-            // string_map.addString(domain, match_strings.group(1));
-            //}
-
-        }
-
-        return mails;
-    }
-
-    @Nullable
-    private String findTwice(@NotNull String content, @RegExp String regular) {
-        Matcher matcher = Pattern.compile(regular, Pattern.MULTILINE).matcher(content);
-        if(matcher.find()){
-            String domain = matcher.group(1);
-
-            int start = matcher.end();
-            int end = start + Integer.parseInt(domain);
-
-            return content.substring(start, end);
-        }
-
-        return null;
+        return this.dump.getMailBodies().stream()
+            .map(body -> new MailMessage(body, "aa", "aa"))
+            .collect(Collectors.toList());
     }
 }
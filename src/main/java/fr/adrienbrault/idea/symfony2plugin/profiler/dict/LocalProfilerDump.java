@@ -0,0 +1,57 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler.dict;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Extracted data of a local profiler file; we never hold the serialized file content itself
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class LocalProfilerDump {
+
+    @Nullable
+    private final String route;
+
+    @Nullable
+    private final String controller;
+
+    @Nullable
+    private final String template;
+
+    @NotNull
+    private final Collection<String> mailBodies;
+
+    public LocalProfilerDump(@Nullable String route, @Nullable String controller, @Nullable String template, @NotNull Collection<String> mailBodies) {
+        this.route = route;
+        this.controller = controller;
+        this.template = template;
+        this.mailBodies = Collections.unmodifiableCollection(mailBodies);
+    }
+
+    @Nullable
+    public String getRoute() {
+        return route;
+    }
+
+    @Nullable
+    public String getController() {
+        return controller;
+    }
+
+    /**
+     * "foo.html.twig"
+     */
+    @Nullable
+    public String getTemplate() {
+        return template;
+    }
+
+    @NotNull
+    public Collection<String> getMailBodies() {
+        return mailBodies;
+    }
+}
@@ -0,0 +1,329 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler.reader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerDump;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Single pass scanner for serialized PHP profiler files "var/cache/dev/profiler/ab/cd/abcdef"
+ *
+ * Profiles are megabytes in size, so we dont load them into memory. Content is read as "ISO-8859-1" so that
+ * every char is one byte, which is what the length prefix of a serialized string "s:5:"foo"" is counting.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class LocalProfilerDumpParser {
+
+    /**
+     * Max chars of a template name before we give up a "template.twig (...)" match
+     */
+    private static final int MAX_TEMPLATE_LENGTH = 1024;
+
+    /**
+     * Max chars of a route or controller name
+     */
+    private static final int MAX_NAME_LENGTH = 1024;
+
+    /**
+     * Max chars of a mail body; length prefixes are only file content, so never allocate what they claim blindly
+     */
+    private static final int MAX_MAIL_BODY_LENGTH = 10 * 1024 * 1024;
+
+    /**
+     * Cache for parsed profiles; file path with its last modified time
+     */
+    private static final Cache<String, CachedDump> DUMP_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(100)
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .build();
+
+    @NotNull
+    private final Reader reader;
+
+    private long position = 0;
+
+    @Nullable
+    private String route;
+
+    @Nullable
+    private String controller;
+
+    @Nullable
+    private String template;
+
+    @NotNull
+    private final Collection<String> mailBodies = new ArrayList<>();
+
+    private long mailCollectorEnd = -1;
+
+    private LocalProfilerDumpParser(@NotNull Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Parsed profile, which is reused as long as the file is not changed
+     */
+    @Nullable
+    public static LocalProfilerDump getDump(@NotNull File file) {
+        String path = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+
+        CachedDump cached = DUMP_CACHE.getIfPresent(path);
+        if(cached != null && cached.lastModified == lastModified) {
+            return cached.dump;
+        }
+
+        LocalProfilerDump dump;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            dump = parse(inputStream);
+        } catch (IOException e) {
+            return null;
+        }
+
+        DUMP_CACHE.put(path, new CachedDump(lastModified, dump));
+
+        return dump;
+    }
+
+    /**
+     * Gzip or zlib compressed content is detected by its header bytes
+     */
+    @NotNull
+    public static LocalProfilerDump parse(@NotNull InputStream inputStream) throws IOException {
+        InputStream stream = decompress(new BufferedInputStream(inputStream));
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.ISO_8859_1))) {
+            return new LocalProfilerDumpParser(reader).parse();
+        }
+    }
+
+    @NotNull
+    private static InputStream decompress(@NotNull BufferedInputStream inputStream) throws IOException {
+        inputStream.mark(2);
+        int first = inputStream.read();
+        int second = inputStream.read();
+        inputStream.reset();
+
+        if(first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(inputStream);
+        }
+
+        // zlib header: "gzcompress"
+        if(first == 0x78 && (second == 0x01 || second == 0x5e || second == 0x9c || second == 0xda)) {
+            return new InflaterInputStream(inputStream);
+        }
+
+        return inputStream;
+    }
+
+    @NotNull
+    private LocalProfilerDump parse() throws IOException {
+        Marker routeMarker = new Marker("_route\";s:");
+        Marker controllerMarker = new Marker("_controller\";s:");
+        Marker templateMarker = new Marker("\"template.twig (");
+        Marker mailCollectorMarker = new Marker("MessageDataCollector\":");
+        Marker mailBodyMarker = new Marker("\"\u0000Swift_Mime_SimpleMimeEntity\u0000_body\";s:");
+
+        int c;
+        while ((c = read()) != -1) {
+            char character = (char) c;
+
+            if(route == null && routeMarker.matches(character)) {
+                route = readString(MAX_NAME_LENGTH);
+            }
+
+            if(controller == null && controllerMarker.matches(character)) {
+                controller = readString(MAX_NAME_LENGTH);
+            }
+
+            if(template == null && templateMarker.matches(character)) {
+                template = readTemplateName();
+            }
+
+            if(mailCollectorEnd < 0 && mailCollectorMarker.matches(character)) {
+                // "MessageDataCollector":1234:{...}
+                long length = readNumber(':');
+                if(length > 0) {
+                    mailCollectorEnd = position + length;
+                }
+            }
+
+            if(mailCollectorEnd > position && mailBodyMarker.matches(character)) {
+                // body can not be larger than its collector
+                String body = readString(Math.min(mailCollectorEnd - position, MAX_MAIL_BODY_LENGTH));
+                if(body != null) {
+                    mailBodies.add(body);
+                }
+            }
+        }
+
+        return new LocalProfilerDump(route, controller, template, mailBodies);
+    }
+
+    /**
+     * Value of a serialized string after its "s:" prefix: 3:"foo"
+     *
+     * @param maxLength strings with a larger length prefix are skipped
+     */
+    @Nullable
+    private String readString(long maxLength) throws IOException {
+        long length = readNumber(':');
+        if(length < 0 || length > maxLength || read() != '"') {
+            return null;
+        }
+
+        char[] chars = new char[(int) length];
+        for (int i = 0; i < length; i++) {
+            int c = read();
+            if(c == -1) {
+                return null;
+            }
+
+            chars[i] = (char) c;
+        }
+
+        return decode(new String(chars));
+    }
+
+    /**
+     * "template.twig (foo.html.twig)"
+     */
+    @Nullable
+    private String readTemplateName() throws IOException {
+        StringBuilder builder = new StringBuilder();
+
+        int c;
+        while ((c = read()) != -1 && c != '"') {
+            if(builder.length() > MAX_TEMPLATE_LENGTH) {
+                return null;
+            }
+
+            builder.append((char) c);
+        }
+
+        // "foo.html.twig)"
+        if(c != '"' || builder.length() < 2 || builder.charAt(builder.length() - 1) != ')') {
+            return null;
+        }
+
+        String name = builder.substring(0, builder.length() - 1);
+
+        int extension = name.lastIndexOf(".html.");
+        if(extension < 0) {
+            return null;
+        }
+
+        String suffix = name.substring(extension + 6);
+        if(suffix.length() < 2 || suffix.length() > 4 || !suffix.chars().allMatch(Character::isLetterOrDigit)) {
+            return null;
+        }
+
+        return decode(name);
+    }
+
+    /**
+     * Digits terminated by the given char; "-1" for everything else
+     */
+    private long readNumber(char terminator) throws IOException {
+        long number = 0;
+        int digits = 0;
+
+        int c;
+        while ((c = read()) != -1 && c >= '0' && c <= '9') {
+            if(++digits > 12) {
+                return -1;
+            }
+
+            number = number * 10 + (c - '0');
+        }
+
+        if(digits == 0 || c != terminator) {
+            return -1;
+        }
+
+        return number;
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if(c != -1) {
+            position++;
+        }
+
+        return c;
+    }
+
+    @NotNull
+    private static String decode(@NotNull String bytes) {
+        return new String(bytes.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Incremental substring matcher without backtracking on the stream (Knuth-Morris-Pratt)
+     */
+    private static class Marker {
+        @NotNull
+        private final char[] pattern;
+
+        @NotNull
+        private final int[] failure;
+
+        private int matched = 0;
+
+        Marker(@NotNull String pattern) {
+            this.pattern = pattern.toCharArray();
+            this.failure = new int[this.pattern.length];
+
+            for (int i = 1, k = 0; i < this.pattern.length; i++) {
+                while (k > 0 && this.pattern[i] != this.pattern[k]) {
+                    k = failure[k - 1];
+                }
+
+                if(this.pattern[i] == this.pattern[k]) {
+                    k++;
+                }
+
+                failure[i] = k;
+            }
+        }
+
+        boolean matches(char c) {
+            while (matched > 0 && pattern[matched] != c) {
+                matched = failure[matched - 1];
+            }
+
+            if(pattern[matched] == c) {
+                matched++;
+            }
+
+            if(matched == pattern.length) {
+                matched = 0;
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private static class CachedDump {
+        private final long lastModified;
+
+        @NotNull
+        private final LocalProfilerDump dump;
+
+        CachedDump(long lastModified, @NotNull LocalProfilerDump dump) {
+            this.lastModified = lastModified;
+            this.dump = dump;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.intellij.lang.html.HTMLLanguage;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
 import com.intellij.psi.PsiFileFactory;
@@ -11,6 +13,8 @@ import com.intellij.psi.impl.source.html.HtmlFileImpl;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.psi.xml.XmlTagValue;
+import com.intellij.util.Consumer;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.HttpDefaultDataCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.HttpProfilerRequest;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
@@ -37,6 +41,11 @@ import java.util.stream.Collectors;
  */
 public class ProfilerUtil {
 
+    /**
+     * Shared for all profiler requests to not spawn a thread pool for every refresh
+     */
+    private static final ExecutorService PROFILER_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor("Symfony Profiler", 10);
+
     /**
      * Cache for url content
      */
@@ -160,11 +169,18 @@ public class ProfilerUtil {
 
     @NotNull
     public static Collection<ProfilerRequestInterface> collectHttpDataForRequest(@NotNull Project project, @NotNull Collection<ProfilerRequestInterface> requests) {
-        Collection<Callable<ProfilerRequestInterface>> callable = requests.stream().map(
+        return getProfilerRequestCollectorDecorated(createHttpDataCallables(project, requests));
+    }
+
+    public static void processHttpDataForRequest(@NotNull Project project, @NotNull Collection<ProfilerRequestInterface> requests, @NotNull ProgressIndicator indicator, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        processProfilerRequestCollectorDecorated(createHttpDataCallables(project, requests), indicator, consumer);
+    }
+
+    @NotNull
+    private static Collection<Callable<ProfilerRequestInterface>> createHttpDataCallables(@NotNull Project project, @NotNull Collection<ProfilerRequestInterface> requests) {
+        return requests.stream().map(
             request -> new MyProfilerRequestDecoratedCollectorCallable(project, request)).collect(Collectors.toCollection(ArrayList::new)
         );
-
-        return getProfilerRequestCollectorDecorated(callable, 10);
     }
 
     /**
@@ -384,30 +400,77 @@ public class ProfilerUtil {
 
     /**
      * Decorated request model with loaded collector data
-     * loads data on multiple thread to be as fast as possible
+     * loads data on multiple thread to be as fast as possible; result order is the order of given callables
      */
     @NotNull
-    public static List<ProfilerRequestInterface> getProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable, int threads) {
-        ExecutorService executor = Executors.newFixedThreadPool(threads);
+    public static List<ProfilerRequestInterface> getProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable) {
+        List<Future<ProfilerRequestInterface>> futures = callable.stream()
+            .map(PROFILER_EXECUTOR::submit)
+            .collect(Collectors.toList());
+
+        List<ProfilerRequestInterface> requests = new ArrayList<>();
 
-        List<Future<ProfilerRequestInterface>> futures;
         try {
-            futures = executor.invokeAll(callable);
+            for (Future<ProfilerRequestInterface> future : futures) {
+                try {
+                    requests.add(awaitWithCheckCanceled(future));
+                } catch (ExecutionException ignored) {
+                }
+            }
         } catch (InterruptedException e) {
-            return Collections.emptyList();
+            Thread.currentThread().interrupt();
+        } finally {
+            futures.forEach(future -> future.cancel(true));
         }
 
-        List<ProfilerRequestInterface> requests = new ArrayList<>();
-        for (Future<ProfilerRequestInterface> future : futures) {
+        return requests;
+    }
+
+    /**
+     * Waits for the future, but still reacts on a canceled progress indicator of the current thread
+     */
+    private static <T> T awaitWithCheckCanceled(@NotNull Future<T> future) throws InterruptedException, ExecutionException {
+        while (true) {
+            ProgressManager.checkCanceled();
+
             try {
-                requests.add(future.get());
-            } catch (ExecutionException | InterruptedException ignored) {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
             }
         }
+    }
 
-        executor.shutdown();
+    /**
+     * Streaming version of "getProfilerRequestCollectorDecorated": every request is given to the consumer as soon as
+     * its collectors are loaded. Canceling the indicator cancels all pending requests.
+     */
+    public static void processProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable, @NotNull ProgressIndicator indicator, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        CompletionService<ProfilerRequestInterface> completionService = new ExecutorCompletionService<>(PROFILER_EXECUTOR);
 
-        return requests;
+        List<Future<ProfilerRequestInterface>> futures = callable.stream()
+            .map(completionService::submit)
+            .collect(Collectors.toList());
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<ProfilerRequestInterface> future = null;
+                while (future == null) {
+                    indicator.checkCanceled();
+                    future = completionService.poll(100, TimeUnit.MILLISECONDS);
+                }
+
+                indicator.setFraction((double) (i + 1) / futures.size());
+
+                try {
+                    consumer.consume(future.get());
+                } catch (ExecutionException ignored) {
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
     }
 
     /**
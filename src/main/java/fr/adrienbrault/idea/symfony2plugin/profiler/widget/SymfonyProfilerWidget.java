@@ -5,8 +5,11 @@ import com.intellij.openapi.actionSystem.impl.SimpleDataContext;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.popup.ListPopup;
+import com.intellij.openapi.util.ThrowableComputable;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.IdeFocusManager;
 import com.intellij.openapi.wm.StatusBarWidget;
@@ -52,7 +55,18 @@ public class SymfonyProfilerWidget extends EditorBasedWidget implements StatusBa
             return actionGroup;
         }
 
-        List<ProfilerRequestInterface> requests = index.getRequests();
+        // popup is build inside ui thread; dont freeze it on slow profiler urls
+        List<ProfilerRequestInterface> requests;
+        try {
+            requests = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                (ThrowableComputable<List<ProfilerRequestInterface>, RuntimeException>) index::getRequests,
+                "Symfony: Loading Profiler Requests",
+                true,
+                getProject()
+            );
+        } catch (ProcessCanceledException e) {
+            return actionGroup;
+        }
 
         Collection<AnAction> templateActions = new ArrayList<>();
         Map<String, Integer> templateActionsMap = new HashMap<>();
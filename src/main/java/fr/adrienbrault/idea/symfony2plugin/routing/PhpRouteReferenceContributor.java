@@ -35,6 +35,8 @@ public class PhpRouteReferenceContributor extends PsiReferenceContributor {
 
     };
 
+    public static final MethodMatcher.CallToSignatureTable GENERATOR_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(GENERATOR_SIGNATURES);
+
     private static MethodMatcher.CallToSignature[] FORWARD_SIGNATURES = new MethodMatcher.CallToSignature[] {
         new MethodMatcher.CallToSignature("\\Symfony\\Bundle\\FrameworkBundle\\Controller\\Controller", "forward"),
 
@@ -45,6 +47,8 @@ public class PhpRouteReferenceContributor extends PsiReferenceContributor {
         new MethodMatcher.CallToSignature("\\Symfony\\Bundle\\FrameworkBundle\\Controller\\AbstractController", "forward"),
     };
 
+    private static final MethodMatcher.CallToSignatureTable FORWARD_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(FORWARD_SIGNATURES);
+
     @Override
     public void registerReferenceProviders(@NotNull PsiReferenceRegistrar psiReferenceRegistrar) {
         psiReferenceRegistrar.registerReferenceProvider(
@@ -54,7 +58,7 @@ public class PhpRouteReferenceContributor extends PsiReferenceContributor {
                 @Override
                 public PsiReference @NotNull [] getReferencesByElement(@NotNull PsiElement psiElement, @NotNull ProcessingContext processingContext) {
 
-                    MethodMatcher.MethodMatchParameter matchedSignatureWithDepth = MethodMatcher.getMatchedSignatureWithDepth(psiElement, GENERATOR_SIGNATURES);
+                    MethodMatcher.MethodMatchParameter matchedSignatureWithDepth = MethodMatcher.getMatchedSignatureWithDepth(psiElement, GENERATOR_SIGNATURE_TABLE);
                     if (matchedSignatureWithDepth == null) {
                         return new PsiReference[0];
                     }
@@ -78,7 +82,7 @@ public class PhpRouteReferenceContributor extends PsiReferenceContributor {
                 @Override
                 public PsiReference[] getReferencesByElement(@NotNull PsiElement psiElement, @NotNull ProcessingContext processingContext) {
 
-                    if (MethodMatcher.getMatchedSignatureWithDepth(psiElement, FORWARD_SIGNATURES) == null) {
+                    if (MethodMatcher.getMatchedSignatureWithDepth(psiElement, FORWARD_SIGNATURE_TABLE) == null) {
                         return new PsiReference[0];
                     }
 
@@ -101,7 +105,7 @@ public class PhpRouteReferenceContributor extends PsiReferenceContributor {
                     }
 
                     MethodMatcher.MethodMatchParameter methodMatchParameter = new MethodMatcher.ArrayParameterMatcher(psiElement, 1)
-                        .withSignature(GENERATOR_SIGNATURES)
+                        .withSignature(GENERATOR_SIGNATURE_TABLE)
                         .match();
 
                     if(methodMatchParameter == null) {
@@ -36,6 +36,8 @@ import fr.adrienbrault.idea.symfony2plugin.routing.dic.ControllerClassOnShortcut
 import fr.adrienbrault.idea.symfony2plugin.routing.dic.ServiceRouteContainer;
 import fr.adrienbrault.idea.symfony2plugin.routing.dict.RoutingFile;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.StubIndexedRoute;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.RoutesStubIndex;
@@ -287,7 +289,7 @@ public class RouteHelper {
             if (varCache != null) {
                 String path1 = varCache.getPath();
 
-                Collection<String> cachedValue = CachedValuesManager.getManager(project).getCachedValue(
+                Collection<String> cachedValue = CacheStatistics.getCachedValue(
                     project,
                     SYMFONY_COMPILED_GUESTED_FILES,
                     () -> {
@@ -319,8 +321,7 @@ public class RouteHelper {
                         }
 
                         return CachedValueProvider.Result.create(Collections.unmodifiableSet(files), new AbsoluteFileModificationTracker(List.of(path1)));
-                    },
-                    false
+                    }
                 );
 
                 allFiles.addAll(cachedValue);
@@ -335,7 +336,7 @@ public class RouteHelper {
 
     @NotNull
     private static synchronized Collection<String> getCompiledRouteFiles(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             SYMFONY_COMPILED_CACHE_ROUTES_FILES,
             () -> {
@@ -357,14 +358,13 @@ public class RouteHelper {
                     .collect(Collectors.toSet());
 
                 return CachedValueProvider.Result.create(Collections.unmodifiableSet(filesAbsolute), PsiModificationTracker.MODIFICATION_COUNT);
-            },
-            false
+            }
         );
     }
 
     @NotNull
     private static Map<String, Route> getCompiledRoutes(@NotNull Project project) {
-        Map<String, Route> routesCache = CachedValuesManager.getManager(project).getCachedValue(
+        Map<String, Route> routesCache = CacheStatistics.getCachedValue(
             project,
             SYMFONY_COMPILED_CACHE_ROUTES,
             () -> {
@@ -387,18 +387,13 @@ public class RouteHelper {
                     new CompiledRoutePathFilesModificationTracker(project),
                     new AbsoluteFileModificationTracker(compiledRouteFiles)
                 );
-            },
-            false
+            }
         );
 
         Map<String, Route> routes = new HashMap<>(routesCache);
-        RoutingLoaderParameter parameter = null;
+        RoutingLoaderParameter parameter = new RoutingLoaderParameter(project, routes);
         for (RoutingLoader routingLoader : ROUTING_LOADER.getExtensions()) {
-            if(parameter == null) {
-                parameter = new RoutingLoaderParameter(project, routes);
-            }
-
-            routingLoader.invoke(parameter);
+            ExtensionStatistics.invoke(project, "RouteHelper.getCompiledRoutes", routingLoader, loader -> loader.invoke(parameter));
         }
 
         return routes;
@@ -1172,7 +1167,7 @@ public class RouteHelper {
     public static boolean isRouteExistingForMethod(final @NotNull Method method) {
         Project project = method.getProject();
 
-        Set<String> cachedValue = CachedValuesManager.getManager(project).getCachedValue(
+        Set<String> cachedValue = CacheStatistics.getCachedValue(
             project,
             ROUTE_CONTROLLER_RESOLVED_CACHE,
             () -> {
@@ -1190,8 +1185,7 @@ public class RouteHelper {
                 }
 
                 return CachedValueProvider.Result.create(items, PsiModificationTracker.MODIFICATION_COUNT);
-            },
-            false
+            }
         );
 
         String fqn = method.getFQN();
@@ -1207,7 +1201,7 @@ public class RouteHelper {
 
     @NotNull
     public static Map<String, Route> getAllRoutes(final @NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             ROUTE_CACHE,
             () -> {
@@ -1231,8 +1225,7 @@ public class RouteHelper {
                     new CompiledRoutePathFilesModificationTracker(project), // compiled
                     new AbsoluteFileModificationTracker(getCompiledRouteFiles(project)) // compiled
                 );
-            },
-            false
+            }
         );
     }
 
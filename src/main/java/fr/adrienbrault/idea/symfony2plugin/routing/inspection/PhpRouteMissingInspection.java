@@ -44,7 +44,7 @@ public class PhpRouteMissingInspection extends LocalInspectionTool {
 
     private void invoke(@NotNull String routeName, @NotNull final PsiElement element, @NotNull ProblemsHolder holder) {
         MethodMatcher.MethodMatchParameter methodMatchParameter = new MethodMatcher.StringParameterMatcher(element, 0)
-            .withSignature(PhpRouteReferenceContributor.GENERATOR_SIGNATURES)
+            .withSignature(PhpRouteReferenceContributor.GENERATOR_SIGNATURE_TABLE)
             .match();
 
         if(methodMatchParameter == null) {
@@ -98,9 +98,7 @@ public class AnnotationExpressionGotoCompletionRegistrar implements GotoCompleti
             String substring = blockNamePrefix.replaceAll("^(.*(has_role|is_granted)\\s*\\(\\s*['|\"])", "");
             CompletionResultSet myResultSet = resultSet.withPrefixMatcher(substring);
 
-            VoterUtil.LookupElementPairConsumer consumer = new VoterUtil.LookupElementPairConsumer();
-            VoterUtil.visitAttribute(getProject(), consumer);
-            myResultSet.addAllElements(consumer.getLookupElements());
+            myResultSet.addAllElements(VoterUtil.getAttributeLookupElements(getProject()));
         }
 
         @NotNull
@@ -141,11 +139,9 @@ public class AnnotationExpressionGotoCompletionRegistrar implements GotoCompleti
 
             Collection<PsiElement> targets = new HashSet<>();
 
-            VoterUtil.visitAttribute(getProject(), pair -> {
-                if(roles.contains(pair.getFirst())) {
-                    targets.add(pair.getSecond());
-                }
-            });
+            for (String role : roles) {
+                targets.addAll(VoterUtil.getAttributeTargets(getProject(), role));
+            }
 
             return targets;
         }
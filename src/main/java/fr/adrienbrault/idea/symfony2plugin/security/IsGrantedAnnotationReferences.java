@@ -47,17 +47,13 @@ public class IsGrantedAnnotationReferences implements PhpAnnotationReferenceProv
         @NotNull
         @Override
         public Object[] getVariants() {
-            VoterUtil.LookupElementPairConsumer consumer = new VoterUtil.LookupElementPairConsumer();
-            VoterUtil.visitAttribute(this.myElement.getProject(), consumer);
-            return consumer.getLookupElements().toArray();
+            return VoterUtil.getAttributeLookupElements(this.myElement.getProject()).toArray();
         }
 
         @NotNull
         @Override
         public ResolveResult[] multiResolve(boolean incompleteCode) {
-            VoterUtil.TargetPairConsumer voterConsumer = new VoterUtil.TargetPairConsumer(element.getContents());
-            VoterUtil.visitAttribute(this.myElement.getProject(), voterConsumer);
-            return PsiElementResolveResult.createResults(voterConsumer.getValues());
+            return PsiElementResolveResult.createResults(VoterUtil.getAttributeTargets(this.myElement.getProject(), element.getContents()));
         }
     }
 }
@@ -3,32 +3,38 @@ package fr.adrienbrault.idea.symfony2plugin.security.utils;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.PsiTreeUtil;
-import com.jetbrains.php.PhpIndex;
-import com.jetbrains.php.lang.lexer.PhpTokenTypes;
-import com.jetbrains.php.lang.parser.PhpElementTypes;
-import com.jetbrains.php.lang.psi.elements.*;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.lang.psi.elements.ClassConstantReference;
+import com.jetbrains.php.lang.psi.elements.Field;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.VoterAttribute;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.VoterAttributeStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.yaml.YAMLFileType;
 import org.jetbrains.yaml.YAMLUtil;
 import org.jetbrains.yaml.psi.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Consumer;
 
 /**
@@ -36,26 +42,153 @@ import java.util.function.Consumer;
  */
 public class VoterUtil {
 
+    private static final Key<CachedValue<Map<String, Collection<Pair<VirtualFile, VoterAttribute>>>>> VOTER_ATTRIBUTES = new Key<>("SYMFONY_VOTER_ATTRIBUTES");
+
+    private static final String VOTER_INTERFACE = "\\Symfony\\Component\\Security\\Core\\Authorization\\Voter\\VoterInterface";
+
     public static void visitAttribute(@NotNull Project project, @NotNull Consumer<Pair<String, PsiElement>> consumer) {
-        for (PhpClass phpClass : PhpIndex.getInstance(project).getAllSubclasses("Symfony\\Component\\Security\\Core\\Authorization\\Voter\\Voter")) {
-            Method supports = phpClass.findMethodByName("supports");
-            if(supports != null) {
-                visitAttribute(supports, consumer);
+        for (Map.Entry<String, Collection<Pair<VirtualFile, VoterAttribute>>> entry : getVoterAttributes(project).entrySet()) {
+            for (PsiElement psiElement : getTargets(project, entry.getValue())) {
+                consumer.accept(Pair.create(entry.getKey(), psiElement));
             }
+        }
 
-            Method voteOnAttribute = phpClass.findMethodByName("voteOnAttribute");
-            if(voteOnAttribute != null) {
-                visitAttribute(voteOnAttribute, consumer);
+        visitSecurityYaml(project, consumer);
+    }
+
+    /**
+     * Completion of voter attributes and security roles; voter classes are not touched
+     */
+    @NotNull
+    public static Collection<LookupElement> getAttributeLookupElements(@NotNull Project project) {
+        LookupElementPairConsumer consumer = new LookupElementPairConsumer();
+
+        for (Map.Entry<String, Collection<Pair<VirtualFile, VoterAttribute>>> entry : getVoterAttributes(project).entrySet()) {
+            String typeText = null;
+
+            Pair<VirtualFile, VoterAttribute> first = ContainerUtil.getFirstItem(entry.getValue());
+            if (first != null && first.getSecond().getFqnClassName() != null) {
+                typeText = StringUtils.substringAfterLast("\\" + first.getSecond().getFqnClassName(), "\\");
             }
+
+            consumer.add(entry.getKey(), typeText);
         }
 
-        for (PhpClass phpClass : PhpIndex.getInstance(project).getAllSubclasses("Symfony\\Component\\Security\\Core\\Authorization\\Voter\\VoterInterface")) {
-            Method vote = phpClass.findMethodByName("vote");
-            if(vote != null) {
-                visitAttributeForeach(vote, consumer);
+        visitSecurityYaml(project, consumer);
+
+        return consumer.getLookupElements();
+    }
+
+    /**
+     * Case insensitive targets of voter attributes and security roles
+     */
+    @NotNull
+    public static Collection<PsiElement> getAttributeTargets(@NotNull Project project, @NotNull String attribute) {
+        Set<PsiElement> targets = new HashSet<>();
+
+        for (Map.Entry<String, Collection<Pair<VirtualFile, VoterAttribute>>> entry : getVoterAttributes(project).entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(attribute)) {
+                targets.addAll(getTargets(project, entry.getValue()));
             }
         }
 
+        TargetPairConsumer consumer = new TargetPairConsumer(attribute);
+        visitSecurityYaml(project, consumer);
+        targets.addAll(consumer.getValues());
+
+        return targets;
+    }
+
+    /**
+     * Attributes of the voter index; foreign class constants "\Foo\Voter::BAR" are resolved here
+     */
+    @NotNull
+    private static Map<String, Collection<Pair<VirtualFile, VoterAttribute>>> getVoterAttributes(@NotNull Project project) {
+        return CacheStatistics.getCachedValue(
+            project,
+            VOTER_ATTRIBUTES,
+            () -> {
+                Map<String, Collection<Pair<VirtualFile, VoterAttribute>>> attributes = new HashMap<>();
+                Map<String, Boolean> voters = new HashMap<>();
+
+                FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+                GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+
+                for (String key : fileBasedIndex.getAllKeys(VoterAttributeStubIndex.KEY, project)) {
+                    fileBasedIndex.processValues(VoterAttributeStubIndex.KEY, key, null, (virtualFile, voterAttributes) -> {
+                        for (VoterAttribute voterAttribute : voterAttributes) {
+                            String fqnClassName = voterAttribute.getFqnClassName();
+                            if (fqnClassName == null || !voters.computeIfAbsent(fqnClassName, fqn -> PhpElementsUtil.isInstanceOf(project, fqn, VOTER_INTERFACE))) {
+                                continue;
+                            }
+
+                            String attribute = voterAttribute.isConstant() ? getClassConstantValue(project, key) : key;
+                            if (StringUtils.isNotBlank(attribute)) {
+                                attributes.computeIfAbsent(attribute, s -> new ArrayList<>()).add(Pair.create(virtualFile, voterAttribute));
+                            }
+                        }
+
+                        return true;
+                    }, scope);
+                }
+
+                return CachedValueProvider.Result.create(
+                    attributes,
+                    FileIndexCaches.getModificationTrackerForIndexId(project, VoterAttributeStubIndex.KEY),
+                    FileIndexCaches.getStubModificationTracker(project)
+                );
+            }
+        );
+    }
+
+    /**
+     * "\Foo\Voter::BAR" => "BAR_VALUE"
+     */
+    @Nullable
+    private static String getClassConstantValue(@NotNull Project project, @NotNull String constant) {
+        int separator = constant.lastIndexOf("::");
+        if (separator < 0) {
+            return null;
+        }
+
+        PhpClass phpClass = PhpElementsUtil.getClassInterface(project, constant.substring(0, separator));
+        if (phpClass == null) {
+            return null;
+        }
+
+        Field field = phpClass.findFieldByName(constant.substring(separator + 2), true);
+        return field != null ? PhpElementsUtil.getStringValue(field) : null;
+    }
+
+    /**
+     * 'FOOBAR', self::FOOBAR
+     */
+    @NotNull
+    private static Collection<PsiElement> getTargets(@NotNull Project project, @NotNull Collection<Pair<VirtualFile, VoterAttribute>> attributes) {
+        Collection<PsiElement> targets = new ArrayList<>();
+
+        PsiManager psiManager = PsiManager.getInstance(project);
+        for (Pair<VirtualFile, VoterAttribute> pair : attributes) {
+            PsiFile psiFile = psiManager.findFile(pair.getFirst());
+            if (psiFile == null) {
+                continue;
+            }
+
+            for (int offset : pair.getSecond().getOffsets()) {
+                PsiElement leaf = psiFile.findElementAt(offset);
+                if (leaf == null) {
+                    continue;
+                }
+
+                PsiElement target = PsiTreeUtil.getParentOfType(leaf, StringLiteralExpression.class, ClassConstantReference.class);
+                targets.add(target != null ? target : leaf);
+            }
+        }
+
+        return targets;
+    }
+
+    private static void visitSecurityYaml(@NotNull Project project, @NotNull Consumer<Pair<String, PsiElement>> consumer) {
         for (String files : new String[]{"security.yml", "security.yaml"}) {
             for (PsiFile psiFile : FilenameIndex.getFilesByName(project, files, GlobalSearchScope.getScopeRestrictedByFileTypes(GlobalSearchScope.allScope(project), YAMLFileType.YML))) {
                 if(!(psiFile instanceof YAMLFile)) {
@@ -129,57 +262,6 @@ public class VoterUtil {
         }
     }
 
-    private static void visitAttributeForeach(@NotNull Method method, @NotNull Consumer<Pair<String, PsiElement>> consumer) {
-        Parameter[] parameters = method.getParameters();
-        if(parameters.length < 3) {
-            return;
-        }
-
-        for (Variable variable : PhpElementsUtil.getVariablesInScope(method, parameters[2])) {
-            // foreach ($attributes as $attribute)
-            PsiElement psiElement = PsiTreeUtil.nextVisibleLeaf(variable);
-            if(psiElement != null && psiElement.getNode().getElementType() == PhpTokenTypes.kwAS) {
-                PsiElement parent = variable.getParent();
-                if(!(parent instanceof ForeachStatement)) {
-                    continue;
-                }
-
-                PhpPsiElement variableDecl = variable.getNextPsiSibling();
-                if(variableDecl instanceof Variable) {
-                    for (Variable variable1 : PhpElementsUtil.getVariablesInScope(parent, (Variable) variableDecl)) {
-                        visitVariable(variable1, consumer);
-                    }
-                }
-            }
-
-            // in_array('foobar', $attributes)
-            PsiElement parameterList = variable.getParent();
-            if(parameterList instanceof ParameterList && PsiElementUtils.getParameterIndexValue(variable) == 1) {
-                PsiElement functionCall = parameterList.getParent();
-                if(functionCall instanceof FunctionReference && "in_array".equalsIgnoreCase(((FunctionReference) functionCall).getName())) {
-                    PsiElement[] functionParameter = ((ParameterList) parameterList).getParameters();
-                    if(functionParameter.length > 0) {
-                        String stringValue = PhpElementsUtil.getStringValue(functionParameter[0]);
-                        if(stringValue != null && StringUtils.isNotBlank(stringValue)) {
-                            consumer.accept(Pair.create(stringValue, functionParameter[0]));
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    private static void visitAttribute(@NotNull Method method, @NotNull Consumer<Pair<String, PsiElement>> consumer) {
-        Parameter[] parameters = method.getParameters();
-        if(parameters.length == 0) {
-            return;
-        }
-
-        for (Variable variable : PhpElementsUtil.getVariablesInScope(method, parameters[0])) {
-            visitVariable(variable, consumer);
-        }
-    }
-
     public static class StringPairConsumer implements Consumer<Pair<String, PsiElement>> {
         private Set<String> values = new HashSet<>();
 
@@ -229,13 +311,18 @@ public class VoterUtil {
 
         @Override
         public void accept(Pair<String, PsiElement> pair) {
-            String name = pair.getFirst();
+            if (!elements.contains(pair.getFirst())) {
+                PhpClass phpClass = PsiTreeUtil.getParentOfType(pair.getSecond(), PhpClass.class);
+                add(pair.getFirst(), phpClass != null ? phpClass.getName() : null);
+            }
+        }
+
+        void add(@NotNull String name, @Nullable String typeText) {
             if (!elements.contains(name)) {
                 LookupElementBuilder lookupElement = LookupElementBuilder.create(name).withIcon(Symfony2Icons.SYMFONY);
 
-                PhpClass phpClass = PsiTreeUtil.getParentOfType(pair.getSecond(), PhpClass.class);
-                if (phpClass != null) {
-                    lookupElement = lookupElement.withTypeText(phpClass.getName(), true);
+                if (typeText != null) {
+                    lookupElement = lookupElement.withTypeText(typeText, true);
                 }
 
                 lookupElements.add(lookupElement);
@@ -247,90 +334,4 @@ public class VoterUtil {
         @NotNull
         private final Collection<LookupElement> lookupElements = new ArrayList<>();
     }
-
-    /**
-     * Find security roles on Voter implementation and security roles in Yaml
-     */
-    private static void visitVariable(@NotNull Variable resolve, @NotNull Consumer<Pair<String, PsiElement>> consumer) {
-        PsiElement parent = resolve.getParent();
-        if(parent instanceof BinaryExpression) {
-            // 'VALUE' == $var
-            PsiElement rightElement = PsiTreeUtil.prevVisibleLeaf(resolve);
-            if(rightElement != null) {
-                IElementType node = rightElement.getNode().getElementType();
-                if(isIfOperand(node)) {
-                    PsiElement leftOperand = ((BinaryExpression) parent).getLeftOperand();
-                    String stringValue = PhpElementsUtil.getStringValue(leftOperand);
-                    if(StringUtils.isNotBlank(stringValue)) {
-                        consumer.accept(Pair.create(stringValue, leftOperand));
-                    }
-                }
-            }
-
-            // $var == 'VALUE'
-            PsiElement leftElement = PsiTreeUtil.nextVisibleLeaf(resolve);
-            if(leftElement != null) {
-                IElementType node = leftElement.getNode().getElementType();
-                if(isIfOperand(node)) {
-                    PsiElement rightOperand = ((BinaryExpression) parent).getRightOperand();
-                    String stringValue = PhpElementsUtil.getStringValue(rightOperand);
-                    if(StringUtils.isNotBlank(stringValue)) {
-                        consumer.accept(Pair.create(stringValue, rightOperand));
-                    }
-                }
-            }
-        } else if(parent instanceof ParameterList && PsiElementUtils.getParameterIndexValue(resolve) == 0) {
-            // in_array($caret, X)
-            PsiElement functionCall = parent.getParent();
-            if(functionCall instanceof FunctionReference && "in_array".equalsIgnoreCase(((FunctionReference) functionCall).getName())) {
-                PsiElement[] functionParameter = ((ParameterList) parent).getParameters();
-                if(functionParameter.length > 1) {
-                    if(functionParameter[1] instanceof ArrayCreationExpression) {
-                        // in_array($x, ['FOOBAR'])
-                        PsiElement[] psiElements = PsiTreeUtil.collectElements(functionParameter[1], psiElement -> psiElement.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE);
-                        for (PsiElement psiElement : psiElements) {
-                            PsiElement firstChild = psiElement.getFirstChild();
-                            String stringValue = PhpElementsUtil.getStringValue(firstChild);
-                            if(StringUtils.isNotBlank(stringValue)) {
-                                consumer.accept(Pair.create(stringValue, firstChild));
-                            }
-                        }
-                    } else if(functionParameter[1] instanceof MemberReference) {
-                        // in_array($attribute, self::FOO);
-                        // in_array($attribute, $this->foo);
-                        PsiElement PsiReference = ((PsiReference) functionParameter[1]).resolve();
-                        if(PsiReference instanceof Field) {
-                            PsiElement defaultValue = ((Field) PsiReference).getDefaultValue();
-                            if(defaultValue instanceof ArrayCreationExpression) {
-                                for (String s : PhpElementsUtil.getArrayValuesAsString((ArrayCreationExpression) defaultValue)) {
-                                    consumer.accept(Pair.create(s, defaultValue));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } else if(parent instanceof PhpSwitch) {
-            // case "foobar":
-            for (PhpCase phpCase : ((PhpSwitch) parent).getAllCases()) {
-                PhpPsiElement condition = phpCase.getCondition();
-                String stringValue = PhpElementsUtil.getStringValue(condition);
-                if(StringUtils.isNotBlank(stringValue)) {
-                    consumer.accept(Pair.create(stringValue, condition));
-                }
-            }
-        }
-    }
-
-    /**
-     * null == null, null != null, null === null
-     */
-    private static boolean isIfOperand(@NotNull IElementType node) {
-        return
-            node == PhpTokenTypes.opIDENTICAL ||
-                node == PhpTokenTypes.opEQUAL ||
-                node == PhpTokenTypes.opNOT_EQUAL ||
-                node == PhpTokenTypes.opNOT_IDENTICAL
-            ;
-    }
 }
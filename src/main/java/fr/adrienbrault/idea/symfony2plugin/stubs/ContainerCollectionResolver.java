@@ -6,9 +6,10 @@ import com.intellij.openapi.util.Key;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.PhpClassHierarchyUtils;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.config.component.parser.ParameterServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerParameter;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
@@ -19,10 +20,13 @@ import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ContainerBuilderCa
 import fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollectorParameter;
 import fr.adrienbrault.idea.symfony2plugin.extension.ServiceParameterCollector;
 import fr.adrienbrault.idea.symfony2plugin.extension.ServiceParameterCollectorParameter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerBuilderStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerParameterStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesDefinitionStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import org.apache.commons.lang.StringUtils;
@@ -157,6 +161,12 @@ public class ContainerCollectionResolver {
         @Nullable
         private Set<String> serviceNamesCache;
 
+        @Nullable
+        private Map<String, Set<String>> classNameToServicesCache;
+
+        @Nullable
+        private Map<String, Set<String>> supertypeToServicesCache;
+
         private ServiceCollector(@NotNull Project project) {
             this.project = project;
         }
@@ -204,14 +214,10 @@ public class ContainerCollectionResolver {
             Collection<ServiceInterface> decorated = new ArrayList<>();
 
             // Extension points
-            ServiceCollectorParameter.Service parameter = null;
             Collection<ServiceInterface> exps = new ArrayList<>();
+            ServiceCollectorParameter.Service parameter = new ServiceCollectorParameter.Service(project, exps);
             for (fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollector collectorEx : EXTENSIONS.getExtensions()) {
-                if(parameter == null) {
-                    parameter = new ServiceCollectorParameter.Service(project, exps);
-                }
-
-                collectorEx.collectServices(parameter);
+                ExtensionStatistics.invoke(project, SYMFONY_SERVICE_COLLECTOR_CACHE.toString(), collectorEx, ex -> ex.collectServices(parameter));
             }
 
             if(exps.size() > 0) {
@@ -333,23 +339,84 @@ public class ContainerCollectionResolver {
         }
 
         public Set<String> convertClassNameToServices(@NotNull String fqnClassName) {
+            Set<String> serviceNames = this.getClassNameToServices().get(StringUtils.stripStart(fqnClassName, "\\").toLowerCase());
+            return serviceNames != null ? new HashSet<>(serviceNames) : new HashSet<>();
+        }
 
-            Set<String> serviceNames = new HashSet<>();
+        /**
+         * Resolved class names in lowercase with their service ids; build once per collector
+         */
+        @NotNull
+        private Map<String, Set<String>> getClassNameToServices() {
+            if (this.classNameToServicesCache != null) {
+                return this.classNameToServicesCache;
+            }
 
-            fqnClassName = StringUtils.stripStart(fqnClassName, "\\");
+            Map<String, Set<String>> classNameToServices = new HashMap<>();
 
             for(Map.Entry<String, ContainerService> entry: this.getServices().entrySet()) {
                 for (String className : entry.getValue().getClassNames()) {
                     String indexedClassName = this.getParameterCollector().resolve(className);
                     if(indexedClassName != null) {
-                        if(StringUtils.stripStart(indexedClassName, "\\").equalsIgnoreCase(fqnClassName)) {
-                            serviceNames.add(entry.getKey());
-                        }
+                        classNameToServices
+                            .computeIfAbsent(StringUtils.stripStart(indexedClassName, "\\").toLowerCase(), s -> new HashSet<>())
+                            .add(entry.getKey());
                     }
                 }
             }
 
-            return serviceNames;
+            return this.classNameToServicesCache = classNameToServices;
+        }
+
+        /**
+         * Service ids which are an instance of the given class: its own class, all parents and interfaces
+         */
+        @NotNull
+        public Set<String> getServiceIdsForSupertype(@NotNull String fqnClassName) {
+            return this.getSupertypeToServices().getOrDefault(StringUtils.stripStart(fqnClassName, "\\").toLowerCase(), Collections.emptySet());
+        }
+
+        /**
+         * Every supertype in lowercase of each service class with its service ids; build once per collector
+         */
+        @NotNull
+        private Map<String, Set<String>> getSupertypeToServices() {
+            if (this.supertypeToServicesCache != null) {
+                return this.supertypeToServicesCache;
+            }
+
+            Map<String, Set<String>> supertypeToServices = new HashMap<>();
+
+            // services are often sharing one class; visit each hierarchy only once
+            Map<String, Set<String>> supertypesOfClass = new HashMap<>();
+
+            for(Map.Entry<String, ContainerService> entry: this.getServices().entrySet()) {
+                String className = entry.getValue().getClassName();
+                if(className == null) {
+                    continue;
+                }
+
+                Set<String> supertypes = supertypesOfClass.computeIfAbsent(StringUtils.stripStart(className, "\\").toLowerCase(), s -> {
+                    PhpClass phpClass = PhpElementsUtil.getClassInterface(project, className);
+                    if(phpClass == null) {
+                        return Collections.emptySet();
+                    }
+
+                    Set<String> fqns = new HashSet<>();
+                    PhpClassHierarchyUtils.processSupers(phpClass, true, true, superClass -> {
+                        fqns.add(StringUtils.stripStart(superClass.getFQN(), "\\").toLowerCase());
+                        return true;
+                    });
+
+                    return fqns;
+                });
+
+                for (String supertype : supertypes) {
+                    supertypeToServices.computeIfAbsent(supertype, s -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+
+            return this.supertypeToServicesCache = supertypeToServices;
         }
 
         private Set<String> getNames() {
@@ -365,13 +432,9 @@ public class ContainerCollectionResolver {
             );
 
             // Extension points
-            ServiceCollectorParameter.Id parameter = null;
+            ServiceCollectorParameter.Id parameter = new ServiceCollectorParameter.Id(project, serviceNames);
             for (fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollector collectorEx : EXTENSIONS.getExtensions()) {
-                if(parameter == null) {
-                    parameter = new ServiceCollectorParameter.Id(project, serviceNames);
-                }
-
-                collectorEx.collectIds(parameter);
+                ExtensionStatistics.invoke(project, SYMFONY_SERVICE_COLLECTOR_CACHE.toString(), collectorEx, ex -> ex.collectIds(parameter));
             }
 
             // index
@@ -388,11 +451,10 @@ public class ContainerCollectionResolver {
         }
 
         public static ServiceCollector create(@NotNull Project project) {
-            return CachedValuesManager.getManager(project).getCachedValue(
+            return CacheStatistics.getCachedValue(
                 project,
                 SYMFONY_SERVICE_COLLECTOR_CACHE,
-                () -> CachedValueProvider.Result.create(new ServiceCollector(project), PsiModificationTracker.MODIFICATION_COUNT),
-                false
+                () -> CachedValueProvider.Result.create(new ServiceCollector(project), PsiModificationTracker.MODIFICATION_COUNT)
             );
         }
     }
@@ -409,11 +471,10 @@ public class ContainerCollectionResolver {
         }
 
         public static ParameterCollector create(@NotNull Project project) {
-            return CachedValuesManager.getManager(project).getCachedValue(
+            return CacheStatistics.getCachedValue(
                 project,
                 SYMFONY_PARAMETER_COLLECTOR_CACHE,
-                () -> CachedValueProvider.Result.create(new ParameterCollector(project), PsiModificationTracker.MODIFICATION_COUNT),
-                false
+                () -> CachedValueProvider.Result.create(new ParameterCollector(project), PsiModificationTracker.MODIFICATION_COUNT)
             );
         }
 
@@ -506,14 +567,10 @@ public class ContainerCollectionResolver {
             }
 
             // Extension points
-            ServiceParameterCollectorParameter.Id parameter = null;
             Collection<ContainerParameter> exps = new ArrayList<>();
+            ServiceParameterCollectorParameter.Id parameter = new ServiceParameterCollectorParameter.Id(project, exps);
             for (ServiceParameterCollector parameterCollector : EXTENSIONS_PARAMETER.getExtensions()) {
-                if(parameter == null) {
-                    parameter = new ServiceParameterCollectorParameter.Id(project, exps);
-                }
-
-                parameterCollector.collectIds(parameter);
+                ExtensionStatistics.invoke(project, SYMFONY_PARAMETER_COLLECTOR_CACHE.toString(), parameterCollector, ex -> ex.collectIds(parameter));
             }
 
             for (ContainerParameter extParameter: exps) {
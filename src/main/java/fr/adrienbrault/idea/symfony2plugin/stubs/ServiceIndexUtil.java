@@ -13,7 +13,6 @@ import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.util.indexing.FileBasedIndex;
@@ -23,26 +22,21 @@ import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.config.xml.XmlHelper;
 import fr.adrienbrault.idea.symfony2plugin.dic.ClassServiceDefinitionTargetLazyValue;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
-import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceResourceTree;
 import fr.adrienbrault.idea.symfony2plugin.extension.ServiceDefinitionLocator;
 import fr.adrienbrault.idea.symfony2plugin.extension.ServiceDefinitionLocatorParameter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesDefinitionStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.util.resource.GlobPattern;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
-import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.yaml.YAMLFileType;
 import org.jetbrains.yaml.psi.YAMLFile;
 
-import java.nio.file.FileSystems;
-import java.nio.file.InvalidPathException;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.regex.PatternSyntaxException;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -171,39 +165,11 @@ public class ServiceIndexUtil {
      *
      */
     public static boolean matchesResourcesGlob(@NotNull VirtualFile serviceFileAsBase, @NotNull VirtualFile phpClassFile, @NotNull Collection<String> resources, @NotNull Collection<String> excludes) {
-        for (String resource : resources) {
-            String replace = resource.replace("\\\\", "/");
-
-            VirtualFile serviceFile = serviceFileAsBase.getParent();
-            String[] split = replace.split("/");
-            String[] replacePathParts = split;
-            for (String s : split) {
-                if (s.equals("..")) {
-                    replacePathParts = Arrays.copyOfRange(replacePathParts, 1, replacePathParts.length);
-                    serviceFile = serviceFile.getParent();
-                } else {
-                    break;
-                }
-            }
-
-            if (serviceFile == null) {
-                return false;
-            }
+        String phpClassPath = phpClassFile.getPath();
 
-            // ending one wildcard must be *
-            // "src/*" => "src/**"
-            String path = (serviceFile.getPath() + "/" + StringUtils.join(replacePathParts, "/"))
-                .replaceAll("[^*]([*])$", "**");
-
-            // force "**" at the end
-            if (!path.endsWith("*")) {
-                path += "**";
-            }
-
-            String phpClassPath = phpClassFile.getPath();
-
-            boolean matchingGlobResource = isMatchingGlobResource(path, phpClassPath);
-            if (!matchingGlobResource) {
+        for (String resource : resources) {
+            GlobPattern pattern = ServiceResourceTree.compile(serviceFileAsBase, resource);
+            if (pattern == null || !pattern.matches(phpClassPath)) {
                 continue;
             }
 
@@ -226,87 +192,22 @@ public class ServiceIndexUtil {
             return null;
         }
 
-        String fqn = StringUtils.stripStart(phpClass.getFQN(), "\\");
-
-        String[] namespaceParts = fqn.split("\\\\");
-
-        // search for namespaces - "Foo\\FooBar\\Bar":
-        //  - Foo\\
-        //  - Foo\\FooBar\\
-        Set<String> namespaces = IntStream.range(0, namespaceParts.length - 1)
-            .mapToObj(i -> StringUtils.join(Arrays.copyOf(namespaceParts, i + 1), "\\") + "\\")
-            .collect(Collectors.toSet());
-
-        ContainerCollectionResolver.ServiceCollector serviceCollector = ContainerCollectionResolver.ServiceCollector.create(phpClass.getProject());
-
-        // "Foo\\"
-        Set<String> serviceNames = namespaces.stream()
-            .filter(namespace -> serviceCollector.convertClassNameToServices(namespace).size() > 0)
-            .collect(Collectors.toSet());
-
-        Collection<ContainerService> namespaceServices = new HashSet<>();
-        Collection<String> namespaceTargets = new HashSet<>();
-        for (String s : serviceNames) {
-            ContainerService containerService = serviceCollector.getServices().get(s);
-            if (containerService == null) {
-                continue;
-            }
-
-            ServiceInterface service = containerService.getService();
-            if (service == null) {
-                continue;
-            }
-
-            Collection<String> resources = service.getResource();
-            if (resources.isEmpty()) {
-                continue;
-            }
-
-            VirtualFile[] serviceDefinitionFiles = ServiceIndexUtil.findServiceDefinitionFiles(phpClass.getProject(), s);
-            for (VirtualFile virtualFile : serviceDefinitionFiles) {
-                PsiFile containingFile = phpClass.getContainingFile();
-                if (containingFile == null) {
-                    continue;
-                }
-
-                VirtualFile phpClassFile = containingFile.getVirtualFile();
-                if (phpClassFile == null) {
-                    continue;
-                }
-
-                if (matchesResourcesGlob(virtualFile, phpClassFile, resources, service.getExclude())) {
-                    namespaceServices.add(containerService);
-                    namespaceTargets.add(s);
-                }
-            }
+        PsiFile containingFile = phpClass.getContainingFile();
+        if (containingFile == null) {
+            return null;
         }
 
-        if (!namespaceTargets.isEmpty()) {
-            return Pair.create(new ClassServiceDefinitionTargetLazyValue(phpClass.getProject(), namespaceTargets), namespaceServices);
+        VirtualFile phpClassFile = containingFile.getVirtualFile();
+        if (phpClassFile == null) {
+            return null;
         }
 
-        return null;
-    }
-
-    /**
-     * Glob matching of resource / exclude pattern: "src/{Entity,Tests,Kernel.php}"
-     *
-     * @param glob src/{Entity,Tests,Kernel.php}
-     * @param path src/Entity/Foo.php
-     */
-    private static boolean isMatchingGlobResource(@NotNull String glob, @NotNull String path) {
-        // "src/{Entity,Tests,Kernel.php}"
-        // We must match files also: "src/Entity/Foo.php"
-        if (!glob.endsWith("**")) {
-            glob += "**";
+        Map<String, ContainerService> services = ServiceResourceTree.getInstance(phpClass.getProject()).findServices(phpClassFile, phpClass.getFQN());
+        if (!services.isEmpty()) {
+            return Pair.create(new ClassServiceDefinitionTargetLazyValue(phpClass.getProject(), services.keySet()), new HashSet<>(services.values()));
         }
 
-        // nested types not support by java glob implementation so just catch the exception: "../src/{DependencyInjection,Entity,Migrations,Tests,Kernel.php,Service/{IspConfiguration,DataCollection}}"
-        try {
-            return FileSystems.getDefault().getPathMatcher("glob:" + glob).matches(Paths.get(path));
-        } catch (PatternSyntaxException | InvalidPathException e) {
-            return false;
-        }
+        return null;
     }
 
     /**
@@ -326,11 +227,10 @@ public class ServiceIndexUtil {
 
     @NotNull
     public static Map<String, Collection<ContainerService>> getDecoratedServices(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             SERVICE_DECORATION_CACHE,
-            () -> CachedValueProvider.Result.create(getDecoratedServicesInner(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(getDecoratedServicesInner(project), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
@@ -363,11 +263,10 @@ public class ServiceIndexUtil {
      */
     @NotNull
     public static Map<String, Collection<ContainerService>> getParentServices(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             SERVICE_PARENT,
-            () -> CachedValueProvider.Result.create(getParentServicesInner(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(getParentServicesInner(project), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
@@ -0,0 +1,234 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.google.gson.GsonBuilder;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups, rebuilds and rebuild times of the plugin caches per project, shown in the "Symfony Plugin Diagnostics" tool window
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class CacheStatistics {
+
+    /**
+     * Upper bounds in milliseconds of the rebuild time histogram; last bucket is everything above
+     */
+    public static final long[] HISTOGRAM_BUCKETS = {1, 10, 100, 1000};
+
+    @NotNull
+    private final Map<String, CacheMetric> metrics = new ConcurrentHashMap<>();
+
+    @NotNull
+    public static CacheStatistics getInstance(@NotNull Project project) {
+        return project.getService(CacheStatistics.class);
+    }
+
+    /**
+     * Drop-in for "CachedValuesManager.getManager(project).getCachedValue(project, key, provider, false)" which is recording the key
+     */
+    public static <T> T getCachedValue(@NotNull Project project, @NotNull Key<CachedValue<T>> key, @NotNull CachedValueProvider<T> provider) {
+        CacheStatistics statistics = getInstance(project);
+        statistics.recordLookup(key.toString());
+
+        return CachedValuesManager.getManager(project).getCachedValue(project, key, statistics.instrument(key.toString(), provider), false);
+    }
+
+    public void recordLookup(@NotNull String name) {
+        getMetric(name).lookups.increment();
+    }
+
+    /**
+     * Wraps the provider to record every rebuild with its time and the entries of the result
+     */
+    @NotNull
+    public <T> CachedValueProvider<T> instrument(@NotNull String name, @NotNull CachedValueProvider<T> provider) {
+        return () -> {
+            long start = System.nanoTime();
+            CachedValueProvider.Result<T> result = provider.compute();
+            recordRebuild(name, System.nanoTime() - start, CacheMetric.getEntries(result != null ? result.getValue() : null));
+
+            return result;
+        };
+    }
+
+    /**
+     * For caches which are not a "CachedValue"; every miss is a rebuild
+     *
+     * @param entries size of the cache after the rebuild; "-1" for values without a size
+     */
+    public void recordRebuild(@NotNull String name, long nanos, int entries) {
+        getMetric(name).recordRebuild(nanos, entries);
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    /**
+     * Most expensive caches first
+     */
+    @NotNull
+    public List<Snapshot> getSnapshots() {
+        return metrics.entrySet().stream()
+            .map(entry -> entry.getValue().createSnapshot(entry.getKey()))
+            .sorted(Comparator.comparingDouble((Snapshot snapshot) -> snapshot.rebuildTimeTotalMs).reversed())
+            .collect(Collectors.toList());
+    }
+
+    @NotNull
+    public String toJson() {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(getSnapshots());
+    }
+
+    @NotNull
+    private CacheMetric getMetric(@NotNull String name) {
+        return metrics.computeIfAbsent(name, s -> new CacheMetric());
+    }
+
+    private static class CacheMetric {
+        @NotNull
+        private final LongAdder lookups = new LongAdder();
+
+        @NotNull
+        private final AtomicLong rebuilds = new AtomicLong();
+
+        @NotNull
+        private final AtomicLong rebuildNanos = new AtomicLong();
+
+        @NotNull
+        private final AtomicLong maxRebuildNanos = new AtomicLong();
+
+        @NotNull
+        private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS.length + 1);
+
+        private volatile int entries = -1;
+
+        void recordRebuild(long nanos, int entries) {
+            rebuilds.incrementAndGet();
+            rebuildNanos.addAndGet(nanos);
+            maxRebuildNanos.accumulateAndGet(nanos, Math::max);
+
+            long ms = nanos / 1_000_000;
+
+            int bucket = 0;
+            while (bucket < HISTOGRAM_BUCKETS.length && ms >= HISTOGRAM_BUCKETS[bucket]) {
+                bucket++;
+            }
+
+            histogram.incrementAndGet(bucket);
+            this.entries = entries;
+        }
+
+        @NotNull
+        Snapshot createSnapshot(@NotNull String name) {
+            long[] buckets = new long[histogram.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.get(i);
+            }
+
+            return new Snapshot(name, lookups.sum(), rebuilds.get(), rebuildNanos.get() / 1_000_000d, maxRebuildNanos.get() / 1_000_000d, buckets, entries);
+        }
+
+        /**
+         * Approximate size of a cache value by its entries; walking the heap for the retained size is too expensive here
+         */
+        private static int getEntries(@Nullable Object value) {
+            if(value instanceof Map) {
+                return ((Map<?, ?>) value).size();
+            } else if(value instanceof Collection) {
+                return ((Collection<?>) value).size();
+            } else if(value instanceof Object[]) {
+                return ((Object[]) value).length;
+            }
+
+            return -1;
+        }
+    }
+
+    public static class Snapshot {
+        @NotNull
+        private final String name;
+
+        private final long lookups;
+        private final long hits;
+        private final long misses;
+        private final double rebuildTimeTotalMs;
+        private final double rebuildTimeMaxMs;
+
+        @NotNull
+        private final long[] rebuildTimeHistogram;
+
+        /**
+         * Entries of the last value; "-1" for values without a size
+         */
+        private final int entries;
+
+        Snapshot(@NotNull String name, long lookups, long rebuilds, double rebuildTimeTotalMs, double rebuildTimeMaxMs, @NotNull long[] rebuildTimeHistogram, int entries) {
+            this.name = name;
+            this.lookups = lookups;
+            this.misses = rebuilds;
+            this.hits = Math.max(0, lookups - rebuilds);
+            this.rebuildTimeTotalMs = rebuildTimeTotalMs;
+            this.rebuildTimeMaxMs = rebuildTimeMaxMs;
+            this.rebuildTimeHistogram = rebuildTimeHistogram;
+            this.entries = entries;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        public long getLookups() {
+            return lookups;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Every miss is a rebuild
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getRebuildTimeTotalMs() {
+            return rebuildTimeTotalMs;
+        }
+
+        public double getRebuildTimeAverageMs() {
+            return misses > 0 ? rebuildTimeTotalMs / misses : 0;
+        }
+
+        public double getRebuildTimeMaxMs() {
+            return rebuildTimeMaxMs;
+        }
+
+        /**
+         * Rebuild count for the buckets of {@link #HISTOGRAM_BUCKETS}
+         */
+        @NotNull
+        public long[] getRebuildTimeHistogram() {
+            return rebuildTimeHistogram;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.google.gson.GsonBuilder;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Invocation times of extension point implementations per calling cache, shown in the "Symfony Plugin Diagnostics" tool window
+ *
+ * Slow invocations are logged once per extension and caller in {@link #LOG_INTERVAL_MS} with the count of the suppressed ones.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ExtensionStatistics {
+
+    private static final Logger LOG = Logger.getInstance("Symfony-Plugin");
+
+    /**
+     * Threshold in milliseconds for logging a slow extension invocation
+     */
+    public static final String THRESHOLD_REGISTRY_KEY = "symfony.plugin.extension.slow.threshold.ms";
+
+    private static final long LOG_INTERVAL_MS = 60_000;
+
+    @NotNull
+    private final Map<String, ExtensionMetric> metrics = new ConcurrentHashMap<>();
+
+    @NotNull
+    public static ExtensionStatistics getInstance(@NotNull Project project) {
+        return project.getService(ExtensionStatistics.class);
+    }
+
+    /**
+     * @param caller cache or method name which is dispatching the extension point
+     */
+    public static <E> void invoke(@NotNull Project project, @NotNull String caller, @NotNull E extension, @NotNull Consumer<E> invocation) {
+        compute(project, caller, extension, e -> {
+            invocation.accept(e);
+            return null;
+        });
+    }
+
+    /**
+     * @param caller cache or method name which is dispatching the extension point
+     */
+    public static <E, R> R compute(@NotNull Project project, @NotNull String caller, @NotNull E extension, @NotNull Function<E, R> invocation) {
+        long start = System.nanoTime();
+
+        try {
+            return invocation.apply(extension);
+        } finally {
+            getInstance(project).record(caller, extension.getClass().getName(), System.nanoTime() - start);
+        }
+    }
+
+    public void record(@NotNull String caller, @NotNull String extension, long nanos) {
+        long ms = nanos / 1_000_000;
+        boolean slow = ms >= Registry.intValue(THRESHOLD_REGISTRY_KEY, 100);
+
+        ExtensionMetric metric = metrics.computeIfAbsent(extension + "\n" + caller, s -> new ExtensionMetric(extension, caller));
+        metric.record(nanos, slow);
+
+        if(!slow) {
+            return;
+        }
+
+        long suppressed = metric.slowSinceLog.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+        long lastLog = metric.lastLog.get();
+        if(now - lastLog < LOG_INTERVAL_MS || !metric.lastLog.compareAndSet(lastLog, now)) {
+            return;
+        }
+
+        metric.slowSinceLog.addAndGet(-suppressed);
+
+        LOG.warn(String.format(
+            "Slow extension '%s' in '%s': %d ms (%d slow invocations since last report)",
+            extension,
+            caller,
+            ms,
+            suppressed
+        ));
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    /**
+     * Most expensive extensions first
+     */
+    @NotNull
+    public List<Snapshot> getSnapshots() {
+        return metrics.values().stream()
+            .map(ExtensionMetric::createSnapshot)
+            .sorted(Comparator.comparingDouble((Snapshot snapshot) -> snapshot.timeTotalMs).reversed())
+            .collect(Collectors.toList());
+    }
+
+    @NotNull
+    public String toJson() {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(getSnapshots());
+    }
+
+    private static class ExtensionMetric {
+        @NotNull
+        private final String extension;
+
+        @NotNull
+        private final String caller;
+
+        @NotNull
+        private final LongAdder invocations = new LongAdder();
+
+        @NotNull
+        private final LongAdder nanos = new LongAdder();
+
+        @NotNull
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        @NotNull
+        private final LongAdder slowInvocations = new LongAdder();
+
+        @NotNull
+        private final AtomicLong slowSinceLog = new AtomicLong();
+
+        @NotNull
+        private final AtomicLong lastLog = new AtomicLong();
+
+        ExtensionMetric(@NotNull String extension, @NotNull String caller) {
+            this.extension = extension;
+            this.caller = caller;
+        }
+
+        void record(long nanos, boolean slow) {
+            invocations.increment();
+            this.nanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+
+            if(slow) {
+                slowInvocations.increment();
+            }
+        }
+
+        @NotNull
+        Snapshot createSnapshot() {
+            return new Snapshot(extension, caller, invocations.sum(), nanos.sum() / 1_000_000d, maxNanos.get() / 1_000_000d, slowInvocations.sum());
+        }
+    }
+
+    public static class Snapshot {
+        @NotNull
+        private final String extension;
+
+        @NotNull
+        private final String caller;
+
+        private final long invocations;
+        private final double timeTotalMs;
+        private final double timeMaxMs;
+        private final long slowInvocations;
+
+        Snapshot(@NotNull String extension, @NotNull String caller, long invocations, double timeTotalMs, double timeMaxMs, long slowInvocations) {
+            this.extension = extension;
+            this.caller = caller;
+            this.invocations = invocations;
+            this.timeTotalMs = timeTotalMs;
+            this.timeMaxMs = timeMaxMs;
+            this.slowInvocations = slowInvocations;
+        }
+
+        /**
+         * Class name of the extension implementation
+         */
+        @NotNull
+        public String getExtension() {
+            return extension;
+        }
+
+        @NotNull
+        public String getCaller() {
+            return caller;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public double getTimeTotalMs() {
+            return timeTotalMs;
+        }
+
+        public double getTimeAverageMs() {
+            return invocations > 0 ? timeTotalMs / invocations : 0;
+        }
+
+        public double getTimeMaxMs() {
+            return timeMaxMs;
+        }
+
+        /**
+         * Invocations above the {@link #THRESHOLD_REGISTRY_KEY} threshold
+         */
+        public long getSlowInvocations() {
+            return slowInvocations;
+        }
+    }
+}
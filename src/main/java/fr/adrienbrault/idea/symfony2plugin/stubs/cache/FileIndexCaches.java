@@ -4,9 +4,9 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubUpdatingIndex;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.ID;
@@ -31,7 +31,7 @@ public class FileIndexCaches {
      * @param dataHolderNames Cache extracted name Set
      */
     static public synchronized <T> Map<String, List<T>> getSetDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<T>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, T> ID, @NotNull final GlobalSearchScope scope) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             dataHolderKey,
             () -> {
@@ -44,8 +44,7 @@ public class FileIndexCaches {
                 );
 
                 return CachedValueProvider.Result.create(items, getModificationTrackerForIndexId(project, ID));
-            },
-            false
+            }
         );
     }
 
@@ -54,7 +53,7 @@ public class FileIndexCaches {
      * @param dataHolderNames Cache extracted name Set
      */
     static public synchronized Map<String, List<String>> getStringDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<String>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, String> ID, @NotNull final GlobalSearchScope scope) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             dataHolderKey,
             () -> {
@@ -71,8 +70,7 @@ public class FileIndexCaches {
                 });
 
                 return CachedValueProvider.Result.create(strings, getModificationTrackerForIndexId(project, ID));
-            },
-            false
+            }
         );
     }
 
@@ -80,11 +78,10 @@ public class FileIndexCaches {
      * There several methods that just need to check for names, as they also needed for value extraction, so cache them also
      */
     static public synchronized Set<String> getIndexKeysCache(@NotNull final Project project, @NotNull Key<CachedValue<Set<String>>> dataHolderKey, @NotNull final ID<String, ?> id) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             dataHolderKey,
-            () -> CachedValueProvider.Result.create(SymfonyProcessors.createResult(project, id), getModificationTrackerForIndexId(project, id)),
-            false
+            () -> CachedValueProvider.Result.create(SymfonyProcessors.createResult(project, id), getModificationTrackerForIndexId(project, id))
         );
     }
 
@@ -92,4 +89,12 @@ public class FileIndexCaches {
     public static ModificationTracker getModificationTrackerForIndexId(@NotNull Project project, @NotNull final ID<?, ?> id) {
         return () -> FileBasedIndex.getInstance().getIndexModificationStamp(id, project);
     }
+
+    /**
+     * Changes on structural changes like new classes or methods; but not on method body changes like typing inside an array
+     */
+    @NotNull
+    public static ModificationTracker getStubModificationTracker(@NotNull Project project) {
+        return getModificationTrackerForIndexId(project, StubUpdatingIndex.INDEX_ID);
+    }
 }
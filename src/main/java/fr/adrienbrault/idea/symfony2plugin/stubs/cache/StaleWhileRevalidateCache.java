@@ -0,0 +1,180 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Project cache which serves the last computed value while it is outdated and rebuilds it in background
+ *
+ * Only for values where a short living outdated result is fine, like completion. Everything which is highlighting
+ * or reporting errors must stay on "CachedValuesManager", as nothing triggers a new highlighting pass after
+ * the background rebuild. The first access and the unit test mode are computing synchronously.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class StaleWhileRevalidateCache<T> {
+
+    private static final Executor EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor("Symfony Plugin Cache Revalidation", 1);
+
+    @NotNull
+    private final Project project;
+
+    @NotNull
+    private final String name;
+
+    @NotNull
+    private final Supplier<CachedValueProvider.Result<T>> provider;
+
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * Unit tests are rebuilding synchronously, unless the stale path itself is under test
+     */
+    private final boolean revalidateInUnitTestMode;
+
+    @NotNull
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    @Nullable
+    private volatile Snapshot<T> snapshot;
+
+    private StaleWhileRevalidateCache(@NotNull Project project, @NotNull String name, @NotNull Supplier<CachedValueProvider.Result<T>> provider, @NotNull Executor executor, boolean revalidateInUnitTestMode) {
+        this.project = project;
+        this.name = name;
+        this.provider = provider;
+        this.executor = executor;
+        this.revalidateInUnitTestMode = revalidateInUnitTestMode;
+    }
+
+    /**
+     * @param provider dependencies of the result must be "ModificationTracker" or "PsiModificationTracker.MODIFICATION_COUNT"
+     */
+    public static <T> T getCachedValue(@NotNull Project project, @NotNull Key<StaleWhileRevalidateCache<T>> key, @NotNull Supplier<CachedValueProvider.Result<T>> provider) {
+        StaleWhileRevalidateCache<T> cache = project.getUserData(key);
+        if(cache == null) {
+            cache = ((UserDataHolderEx) project).putUserDataIfAbsent(key, new StaleWhileRevalidateCache<>(project, key.toString(), provider, EXECUTOR, false));
+        }
+
+        return cache.getValue();
+    }
+
+    /**
+     * Rebuilds in background on the given executor also inside unit tests, so a test can serve stale values
+     * and run the rebuild on its own
+     */
+    @TestOnly
+    @NotNull
+    public static <T> StaleWhileRevalidateCache<T> create(@NotNull Project project, @NotNull String name, @NotNull Supplier<CachedValueProvider.Result<T>> provider, @NotNull Executor executor) {
+        return new StaleWhileRevalidateCache<>(project, name, provider, executor, true);
+    }
+
+    public T getValue() {
+        CacheStatistics.getInstance(project).recordLookup(name);
+
+        Snapshot<T> snapshot = this.snapshot;
+
+        // nothing to serve yet
+        if(snapshot == null) {
+            return (this.snapshot = compute()).value;
+        }
+
+        if(snapshot.isUpToDate()) {
+            return snapshot.value;
+        }
+
+        if(!revalidateInUnitTestMode && ApplicationManager.getApplication().isUnitTestMode()) {
+            return (this.snapshot = compute()).value;
+        }
+
+        revalidate();
+
+        return snapshot.value;
+    }
+
+    /**
+     * Concurrent invalidations are coalesced into one running rebuild; a change while rebuilding is picked up by the next access.
+     * The snapshot is published by the rebuild itself, so it is visible as soon as the executor task is done.
+     */
+    private void revalidate() {
+        if(!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        ReadAction.nonBlocking(() -> this.snapshot = compute())
+            .inSmartMode(project)
+            .expireWith(project)
+            .coalesceBy(this)
+            .submit(executor)
+            .onProcessed(snapshot -> scheduled.set(false));
+    }
+
+    @NotNull
+    private Snapshot<T> compute() {
+        CachedValueProvider.Result<T> result = CacheStatistics.getInstance(project).instrument(name, provider::get).compute();
+        if(result == null) {
+            throw new IllegalStateException("Cache provider without result: " + name);
+        }
+
+        Object[] dependencyItems = result.getDependencyItems();
+
+        ModificationTracker[] trackers = new ModificationTracker[dependencyItems.length];
+        for (int i = 0; i < dependencyItems.length; i++) {
+            Object dependency = dependencyItems[i];
+
+            if(dependency == PsiModificationTracker.MODIFICATION_COUNT) {
+                trackers[i] = PsiModificationTracker.getInstance(project);
+            } else if(dependency instanceof ModificationTracker) {
+                trackers[i] = (ModificationTracker) dependency;
+            } else {
+                throw new IllegalArgumentException("Unsupported cache dependency: " + dependency);
+            }
+        }
+
+        return new Snapshot<>(result.getValue(), trackers);
+    }
+
+    private static class Snapshot<T> {
+        private final T value;
+
+        @NotNull
+        private final ModificationTracker[] trackers;
+
+        @NotNull
+        private final long[] stamps;
+
+        Snapshot(T value, @NotNull ModificationTracker[] trackers) {
+            this.value = value;
+            this.trackers = trackers;
+            this.stamps = new long[trackers.length];
+
+            for (int i = 0; i < trackers.length; i++) {
+                this.stamps[i] = trackers[i].getModificationCount();
+            }
+        }
+
+        boolean isUpToDate() {
+            for (int i = 0; i < trackers.length; i++) {
+                if(trackers[i].getModificationCount() != stamps[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
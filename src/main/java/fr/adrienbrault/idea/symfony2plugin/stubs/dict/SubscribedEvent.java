@@ -0,0 +1,80 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.dict;
+
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Event of "EventSubscriberInterface::getSubscribedEvents"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class SubscribedEvent implements Serializable {
+
+    @Nullable
+    private String fqnClassName;
+
+    @Nullable
+    private String methodName;
+
+    @Nullable
+    private Integer priority;
+
+    /**
+     * Index key is a class constant "\Foo\Events::BAR" and not the event name
+     */
+    private boolean constant;
+
+    public SubscribedEvent() {
+    }
+
+    public SubscribedEvent(@NotNull String fqnClassName, @Nullable String methodName, @Nullable Integer priority, boolean constant) {
+        this.fqnClassName = fqnClassName;
+        this.methodName = methodName;
+        this.priority = priority;
+        this.constant = constant;
+    }
+
+    @Nullable
+    public String getFqnClassName() {
+        return fqnClassName;
+    }
+
+    @Nullable
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Nullable
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public boolean isConstant() {
+        return constant;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+            .append(this.fqnClassName)
+            .append(this.methodName)
+            .append(this.priority)
+            .append(this.constant)
+            .toHashCode()
+        ;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SubscribedEvent &&
+            Objects.equals(((SubscribedEvent) obj).fqnClassName, this.fqnClassName) &&
+            Objects.equals(((SubscribedEvent) obj).methodName, this.methodName) &&
+            Objects.equals(((SubscribedEvent) obj).priority, this.priority) &&
+            ((SubscribedEvent) obj).constant == this.constant
+        ;
+    }
+}
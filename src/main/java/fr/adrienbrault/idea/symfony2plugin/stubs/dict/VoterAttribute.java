@@ -0,0 +1,79 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.dict;
+
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * Attribute of a security voter: "supports", "voteOnAttribute" or "vote"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class VoterAttribute implements Serializable {
+
+    @Nullable
+    private String fqnClassName;
+
+    @NotNull
+    private ArrayList<Integer> offsets = new ArrayList<>();
+
+    /**
+     * Index key is a class constant "\Foo\Voter::BAR" and not the attribute itself
+     */
+    private boolean constant;
+
+    public VoterAttribute() {
+    }
+
+    public VoterAttribute(@NotNull String fqnClassName, boolean constant) {
+        this.fqnClassName = fqnClassName;
+        this.constant = constant;
+    }
+
+    public VoterAttribute addOffset(int offset) {
+        this.offsets.add(offset);
+        return this;
+    }
+
+    @Nullable
+    public String getFqnClassName() {
+        return fqnClassName;
+    }
+
+    /**
+     * All usages inside the voter; eg "supports" and "voteOnAttribute"
+     */
+    @NotNull
+    public Collection<Integer> getOffsets() {
+        return Collections.unmodifiableList(offsets);
+    }
+
+    public boolean isConstant() {
+        return constant;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+            .append(this.fqnClassName)
+            .append(this.offsets)
+            .append(this.constant)
+            .toHashCode()
+        ;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof VoterAttribute &&
+            Objects.equals(((VoterAttribute) obj).fqnClassName, this.fqnClassName) &&
+            Objects.equals(((VoterAttribute) obj).offsets, this.offsets) &&
+            ((VoterAttribute) obj).constant == this.constant
+        ;
+    }
+}
@@ -0,0 +1,180 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlDocument;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCommandUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.psi.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Console command name with its class "\App\Command\FooCommand"; key is the name or for references to other values
+ * "\Foo::NAME" or "\Foo::$defaultName", which are resolved on query time
+ *
+ * PHP: "setName('app:foo')", "protected static $defaultName = 'app:foo'", "#[AsCommand(name: 'app:foo')]"
+ * XML / YAML: "- { name: 'console.command', command: 'app:foo' }"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ConsoleCommandStubIndex extends FileBasedIndexExtension<String, String> {
+
+    public static final ID<String, String> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.console_command");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+
+    @NotNull
+    @Override
+    public ID<String, String> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, String, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, String> map = new HashMap<>();
+
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
+                return map;
+            }
+
+            if(inputData.getFileType() == PhpFileType.INSTANCE) {
+                // "$defaultName", "#[AsCommand]" or "setName" inside "configure"
+                if(!FileContentFilter.containsAny(inputData, "defaultName", "AsCommand", "setName")) {
+                    return map;
+                }
+            } else if(!ServicesDefinitionStubIndex.isValidForIndex(inputData) || !FileContentFilter.containsAny(inputData, "console.command")) {
+                return map;
+            }
+
+            PsiFile psiFile = inputData.getPsiFile();
+            if(psiFile instanceof PhpFile) {
+                for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(psiFile, PhpClass.class)) {
+                    // command must extend something; the instance check itself is on query time
+                    // abstract classes are needed for subclasses inheriting their name
+                    if(phpClass.getSuperFQN() == null) {
+                        continue;
+                    }
+
+                    String commandName = SymfonyCommandUtil.getCommandNameDeclaration(phpClass);
+                    if(commandName != null) {
+                        map.putIfAbsent(commandName, phpClass.getFQN());
+                    }
+                }
+            } else if(psiFile instanceof YAMLFile) {
+                visitYamlFile((YAMLFile) psiFile, map);
+            } else if(psiFile instanceof XmlFile) {
+                visitXmlFile((XmlFile) psiFile, map);
+            }
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return FileInputFilter.XML_YAML_PHP;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    /**
+     * app.command.foo:
+     *   class: App\Command\FooCommand
+     *   tags:
+     *     - { name: 'console.command', command: 'app:foo' }
+     */
+    private static void visitYamlFile(@NotNull YAMLFile yamlFile, @NotNull Map<String, String> map) {
+        for (YAMLKeyValue service : YamlHelper.getQualifiedKeyValuesInFile(yamlFile, "services")) {
+            YAMLKeyValue tags = YamlHelper.getYamlKeyValue(service, "tags");
+            if(tags == null || !(tags.getValue() instanceof YAMLSequence)) {
+                continue;
+            }
+
+            for (YAMLSequenceItem item : ((YAMLSequence) tags.getValue()).getItems()) {
+                YAMLValue value = item.getValue();
+                if(!(value instanceof YAMLMapping) || !"console.command".equals(YamlHelper.getYamlKeyValueAsString((YAMLMapping) value, "name"))) {
+                    continue;
+                }
+
+                String command = YamlHelper.getYamlKeyValueAsString((YAMLMapping) value, "command");
+                String className = StringUtils.defaultIfBlank(YamlHelper.getYamlKeyValueAsString(service, "class"), service.getKeyText());
+
+                if(StringUtils.isNotBlank(command) && StringUtils.isNotBlank(className) && !className.startsWith("%")) {
+                    map.putIfAbsent(command, "\\" + StringUtils.stripStart(className, "\\"));
+                }
+            }
+        }
+    }
+
+    /**
+     * <service id="app.command.foo" class="App\Command\FooCommand">
+     *   <tag name="console.command" command="app:foo"/>
+     * </service>
+     */
+    private static void visitXmlFile(@NotNull XmlFile xmlFile, @NotNull Map<String, String> map) {
+        PsiElement firstChild = xmlFile.getFirstChild();
+        if(!(firstChild instanceof XmlDocument)) {
+            return;
+        }
+
+        XmlTag rootTag = ((XmlDocument) firstChild).getRootTag();
+        if(rootTag == null || !"container".equals(rootTag.getName())) {
+            return;
+        }
+
+        for (XmlTag servicesTag : rootTag.findSubTags("services")) {
+            for (XmlTag serviceTag : servicesTag.findSubTags("service")) {
+                String className = StringUtils.defaultIfBlank(serviceTag.getAttributeValue("class"), serviceTag.getAttributeValue("id"));
+                if(StringUtils.isBlank(className) || className.startsWith("%")) {
+                    continue;
+                }
+
+                for (XmlTag tag : serviceTag.findSubTags("tag")) {
+                    String command = tag.getAttributeValue("command");
+                    if("console.command".equals(tag.getAttributeValue("name")) && StringUtils.isNotBlank(command)) {
+                        map.putIfAbsent(command, "\\" + StringUtils.stripStart(className, "\\"));
+                    }
+                }
+            }
+        }
+    }
+}
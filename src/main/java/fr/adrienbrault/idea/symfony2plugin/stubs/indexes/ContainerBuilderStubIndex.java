@@ -19,6 +19,7 @@ import com.jetbrains.php.lang.psi.elements.Parameter;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ContainerBuilderCall;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
 import gnu.trove.THashMap;
@@ -65,15 +66,20 @@ public class ContainerBuilderStubIndex extends FileBasedIndexExtension<String, C
 
             Map<String, ContainerBuilderCall> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!(psiFile instanceof PhpFile) ||
-                !Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject()) ||
-                !isValidForIndex(inputData, psiFile)
+            // all supported container classes are named "*Container*"
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) ||
+                !isValidForIndex(inputData) ||
+                !FileContentFilter.containsAny(inputData, "Container")
                 ){
 
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!(psiFile instanceof PhpFile)) {
+                return map;
+            }
+
             StreamEx.of(PhpPsiUtil.findAllClasses((PhpFile) psiFile))
                 .flatMap(clazz -> StreamEx.of(clazz.getOwnMethods()))
                 .forEach(method -> processMethod(method, map));
@@ -115,9 +121,9 @@ public class ContainerBuilderStubIndex extends FileBasedIndexExtension<String, C
         return 2;
     }
 
-    private static boolean isValidForIndex(FileContent inputData, PsiFile psiFile) {
+    private static boolean isValidForIndex(@NotNull FileContent inputData) {
 
-        String fileName = psiFile.getName();
+        String fileName = inputData.getFileName();
         if(fileName.startsWith(".") || fileName.endsWith("Test")) {
             return false;
         }
@@ -11,6 +11,7 @@ import com.intellij.util.io.EnumeratorIntegerDescriptor;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
@@ -41,15 +42,16 @@ public class ContainerIdUsagesStubIndex extends FileBasedIndexExtension<String,
         return inputData -> {
             Map<String, Integer> map = new HashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
                 return map;
             }
 
-            if(!ServicesDefinitionStubIndex.isValidForIndex(inputData, psiFile)) {
+            if(!ServicesDefinitionStubIndex.isValidForIndex(inputData) || !FileContentFilter.containsAny(inputData, "services")) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             if(psiFile instanceof YAMLFile) {
                 map.putAll(getIdUsages((YAMLFile) psiFile));
             } else if(psiFile instanceof XmlFile) {
@@ -8,6 +8,7 @@ import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.config.xml.XmlHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.jetbrains.annotations.NotNull;
@@ -33,15 +34,16 @@ public class ContainerParameterStubIndex extends FileBasedIndexExtension<String,
         return inputData -> {
             Map<String, String> map = new HashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
                 return map;
             }
 
-            if(!ServicesDefinitionStubIndex.isValidForIndex(inputData, psiFile)) {
+            if(!ServicesDefinitionStubIndex.isValidForIndex(inputData) || !FileContentFilter.containsAny(inputData, "parameter")) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             if(psiFile instanceof YAMLFile) {
                 attachTHashMapNullable(YamlHelper.getLocalParameterMap(psiFile), map);
             } else if(psiFile instanceof XmlFile) {
@@ -36,11 +36,12 @@ public class DoctrineMetadataFileStubIndex extends FileBasedIndexExtension<Strin
 
             Map<String, DoctrineModelSerializable> map = new THashMap<>();
 
-            PsiFile psiFile = fileContent.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject()) || !isValidForIndex(fileContent, psiFile)) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(fileContent.getProject()) || !isValidForIndex(fileContent)) {
                 return map;
             }
 
+            PsiFile psiFile = fileContent.getPsiFile();
+
             Collection<Pair<String, String>> classRepositoryPair = DoctrineUtil.getClassRepositoryPair(psiFile);
             if(classRepositoryPair == null || classRepositoryPair.size() == 0) {
                 return map;
@@ -99,9 +100,17 @@ public class DoctrineMetadataFileStubIndex extends FileBasedIndexExtension<Strin
         return 2;
     }
 
+    /**
+     * @deprecated use {@link #isValidForIndex(FileContent)} which is not building the PSI file
+     */
+    @Deprecated
     public static boolean isValidForIndex(FileContent inputData, PsiFile psiFile) {
+        return isValidForIndex(inputData);
+    }
+
+    public static boolean isValidForIndex(@NotNull FileContent inputData) {
 
-        String fileName = psiFile.getName();
+        String fileName = inputData.getFileName();
 
         if(fileName.startsWith(".") || fileName.endsWith("Test")) {
             return false;
@@ -0,0 +1,289 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.YAMLUtil;
+import org.jetbrains.yaml.psi.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Environment variable name with its offset inside ".env*", "Dockerfile" and "docker-compose.yml" files
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class DotEnvIndex extends FileBasedIndexExtension<String, Integer> {
+
+    public static final ID<String, Integer> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.dot_env");
+
+    /**
+     * ENV DOCKERFILE_FOO /bar
+     */
+    private static final Pattern DOCKER_ENV = Pattern.compile("ENV\\s+([^\\s]*)\\s+");
+
+    /**
+     * ENV ADMIN_USER_DOCKERFILE="mark"
+     * ENV ADMIN_USER_DOCKERFILE ="mark"
+     */
+    private static final Pattern DOCKER_ENV_ASSIGN = Pattern.compile("ENV\\s+([\\w+]*)\\s*=");
+
+    @NotNull
+    @Override
+    public ID<String, Integer> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Integer> map = new HashMap<>();
+
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
+                return map;
+            }
+
+            String fileName = inputData.getFileName();
+
+            if(isDockerFile(fileName)) {
+                visitDockerFile(inputData.getContentAsText(), map);
+            } else if(isDockerComposeFile(fileName)) {
+                PsiFile psiFile = inputData.getPsiFile();
+                if(psiFile instanceof YAMLFile) {
+                    visitDockerCompose((YAMLFile) psiFile, map);
+                }
+            } else {
+                visitDotEnv(inputData.getContentAsText(), map);
+            }
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> {
+            String fileName = file.getName();
+            return fileName.startsWith(".env") || "env".equalsIgnoreCase(file.getExtension()) || isDockerFile(fileName) || isDockerComposeFile(fileName);
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    /**
+     * case insensitive filenames
+     */
+    public static boolean isDockerFile(@NotNull String fileName) {
+        return "Dockerfile".equals(fileName) || "dockerfile".equals(fileName);
+    }
+
+    /**
+     * "docker-compose.yml", "docker-compose.override.yaml"
+     */
+    public static boolean isDockerComposeFile(@NotNull String fileName) {
+        return fileName.startsWith("docker-compose") && (fileName.endsWith(".yml") || fileName.endsWith(".yaml"));
+    }
+
+    /**
+     * Line based parser with the key rules of "java.util.Properties": key ends on "=", ":" or whitespace
+     *
+     * FOO=bar
+     * export FOO=bar
+     * FOO="multi
+     * line"
+     */
+    public static void visitDotEnv(@NotNull CharSequence content, @NotNull Map<String, Integer> map) {
+        int length = content.length();
+        int lineStart = 0;
+
+        char openQuote = 0;
+
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && content.charAt(lineEnd) != '\n' && content.charAt(lineEnd) != '\r') {
+                lineEnd++;
+            }
+
+            // inside a multiline value: FOO="foo\nbar"
+            if(openQuote != 0) {
+                if(indexOfQuote(content, lineStart, lineEnd, openQuote) >= 0) {
+                    openQuote = 0;
+                }
+
+                lineStart = lineEnd + 1;
+                continue;
+            }
+
+            int i = skipWhitespace(content, lineStart, lineEnd);
+
+            if(i < lineEnd && content.charAt(i) != '#' && content.charAt(i) != '!') {
+                if(startsWith(content, i, lineEnd, "export ")) {
+                    i = skipWhitespace(content, i + 7, lineEnd);
+                }
+
+                int keyStart = i;
+                while (i < lineEnd && !isKeyTerminator(content.charAt(i))) {
+                    i++;
+                }
+
+                if(i > keyStart) {
+                    map.putIfAbsent(content.subSequence(keyStart, i).toString(), keyStart);
+                }
+
+                // value starting with a quote which is not closed on the same line
+                int valueStart = skipWhitespace(content, i + 1, lineEnd);
+                if(valueStart < lineEnd && i < lineEnd && content.charAt(i) == '=') {
+                    char c = content.charAt(valueStart);
+                    if((c == '"' || c == '\'') && indexOfQuote(content, valueStart + 1, lineEnd, c) < 0) {
+                        openQuote = c;
+                    }
+                }
+            }
+
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    public static void visitDockerFile(@NotNull CharSequence content, @NotNull Map<String, Integer> map) {
+        for (Pattern pattern : new Pattern[] {DOCKER_ENV, DOCKER_ENV_ASSIGN}) {
+            Matcher matcher = pattern.matcher(content);
+            while(matcher.find()) {
+                String name = matcher.group(1);
+                if(StringUtils.isNotBlank(name)) {
+                    map.putIfAbsent(name, matcher.start(1));
+                }
+            }
+        }
+    }
+
+    private static void visitDockerCompose(@NotNull YAMLFile yamlFile, @NotNull Map<String, Integer> map) {
+        for (YAMLKeyValue yamlKeyValue : YAMLUtil.getTopLevelKeys(yamlFile)) {
+            if ("services".equals(yamlKeyValue.getKeyText())) {
+                PsiElement yamlKeyValueLastChild = yamlKeyValue.getLastChild();
+                if (yamlKeyValueLastChild instanceof YAMLMapping) {
+                    for (YAMLKeyValue keyValue : ((YAMLMapping) yamlKeyValueLastChild).getKeyValues()) {
+                        visitEnvironmentSequenceItems(keyValue, map);
+                    }
+                }
+            }
+
+            visitEnvironmentSequenceItems(yamlKeyValue, map);
+        }
+    }
+
+    /**
+     * environment:
+     *   - FOOBAR=0
+     *
+     * environment:
+     *   FOOBAR: 0
+     */
+    private static void visitEnvironmentSequenceItems(@NotNull YAMLKeyValue yamlKeyValue, @NotNull Map<String, Integer> map) {
+        YAMLKeyValue environment = YamlHelper.getYamlKeyValue(yamlKeyValue, "environment");
+        if (environment == null) {
+            return;
+        }
+
+        // FOOBAR=0
+        for (YAMLSequenceItem yamlSequenceItem : YamlHelper.getSequenceItems(environment)) {
+            YAMLValue value = yamlSequenceItem.getValue();
+            if (value instanceof YAMLScalar) {
+                String textValue = ((YAMLScalar) value).getTextValue();
+                if (StringUtils.isNotBlank(textValue)) {
+                    String[] split = textValue.split("=");
+                    if (split.length > 1) {
+                        map.putIfAbsent(split[0], value.getTextRange().getStartOffset());
+                    }
+                }
+            }
+        }
+
+        // FOOBAR: 0
+        YAMLMapping childOfType = PsiTreeUtil.getChildOfType(environment, YAMLMapping.class);
+        if (childOfType != null) {
+            for (YAMLKeyValue keyValue : childOfType.getKeyValues()) {
+                String keyText = keyValue.getKeyText();
+                if (StringUtils.isBlank(keyText)) {
+                    continue;
+                }
+
+                YAMLValue value = keyValue.getValue();
+                map.putIfAbsent(keyText, (value != null ? value : keyValue).getTextRange().getStartOffset());
+            }
+        }
+    }
+
+    private static boolean isKeyTerminator(char c) {
+        return c == '=' || c == ':' || Character.isWhitespace(c);
+    }
+
+    private static int skipWhitespace(@NotNull CharSequence content, int start, int end) {
+        int i = start;
+        while (i < end && Character.isWhitespace(content.charAt(i))) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean startsWith(@NotNull CharSequence content, int start, int end, @NotNull String prefix) {
+        if(end - start < prefix.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if(content.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOfQuote(@NotNull CharSequence content, int start, int end, char quote) {
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            if(c == '\\') {
+                i++;
+            } else if(c == quote) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -21,6 +21,7 @@ import com.jetbrains.php.lang.psi.elements.impl.ClassConstImpl;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.DispatcherEvent;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.util.EventDispatcherUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import org.apache.commons.lang.StringUtils;
@@ -50,11 +51,13 @@ public class EventAnnotationStubIndex extends FileBasedIndexExtension<String, Di
         return inputData -> {
             Map<String, DispatcherEvent> map = new HashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            // "@Event" doc tag; its case-insensitive on visiting
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) || !FileContentFilter.containsAnyIgnoreCase(inputData, "@Event")) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             psiFile.accept(new MyPsiRecursiveElementWalkingVisitor(map));
 
             return map;
@@ -0,0 +1,251 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.SubscribedEvent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events of "EventSubscriberInterface::getSubscribedEvents"; key is the event name or for class constants "\Foo\Events::BAR"
+ * and the value every class of the file subscribing to it.
+ *
+ * Only classes declaring the method are indexed. Interface check, test classes and subclasses inheriting the method
+ * need other files, so they are resolved on query time.
+ *
+ * public static function getSubscribedEvents()
+ * {
+ *   return [
+ *     'pre.foo' => 'method',
+ *     Events::FOO => ['method', 10],
+ *   ];
+ * }
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class EventSubscriberStubIndex extends FileBasedIndexExtension<String, ArrayList<SubscribedEvent>> {
+
+    public static final ID<String, ArrayList<SubscribedEvent>> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.event_subscriber");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+    private static ObjectStreamDataExternalizer<ArrayList<SubscribedEvent>> EXTERNALIZER = new ObjectStreamDataExternalizer<>();
+
+    @NotNull
+    @Override
+    public ID<String, ArrayList<SubscribedEvent>> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, ArrayList<SubscribedEvent>, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, ArrayList<SubscribedEvent>> map = new HashMap<>();
+
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
+                return map;
+            }
+
+            // fast check before building any class tree
+            if(!FileContentFilter.containsAny(inputData, "getSubscribedEvents")) {
+                return map;
+            }
+
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!(psiFile instanceof PhpFile)) {
+                return map;
+            }
+
+            for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(psiFile, PhpClass.class)) {
+                Method method = phpClass.findOwnMethodByName("getSubscribedEvents");
+                if(method == null) {
+                    continue;
+                }
+
+                PhpReturn phpReturn = PsiTreeUtil.findChildOfType(method, PhpReturn.class);
+                if(phpReturn != null) {
+                    visitSubscribedEvents(phpClass, phpReturn, map);
+                }
+            }
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<ArrayList<SubscribedEvent>> getValueExternalizer() {
+        return EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    private static void visitSubscribedEvents(@NotNull PhpClass phpClass, @NotNull PhpReturn phpReturn, @NotNull Map<String, ArrayList<SubscribedEvent>> map) {
+        PhpPsiElement array = phpReturn.getFirstPsiChild();
+        if(!(array instanceof ArrayCreationExpression)) {
+            return;
+        }
+
+        String presentableFQN = phpClass.getPresentableFQN();
+
+        for(ArrayHashElement arrayHashElement: ((ArrayCreationExpression) array).getHashElements()) {
+            PsiElement arrayKey = arrayHashElement.getKey();
+
+            String key = null;
+            boolean constant = false;
+
+            if(arrayKey instanceof StringLiteralExpression) {
+                // ['doh' => 'method']
+                key = ((StringLiteralExpression) arrayKey).getContents();
+            } else if(arrayKey instanceof ClassConstantReference) {
+                if("class".equals(((ClassConstantReference) arrayKey).getName())) {
+                    // [Foo::class => 'method']
+                    key = PhpElementsUtil.getClassConstantPhpFqn((ClassConstantReference) arrayKey);
+                } else {
+                    // [FOO::BAR => 'method']; value is resolved on query time as we are not allowed to access other files
+                    key = getClassConstantKey(phpClass, (ClassConstantReference) arrayKey);
+                    constant = true;
+                }
+            }
+
+            if(StringUtils.isBlank(key)) {
+                continue;
+            }
+
+            // one file can hold multiple subscribers of the same event
+            map.computeIfAbsent(key, s -> new ArrayList<>())
+                .add(createSubscribedEvent(presentableFQN, arrayHashElement.getValue(), constant));
+        }
+    }
+
+    /**
+     * "\Foo\Events::BAR"; "self::BAR" is resolved to the class itself
+     */
+    @Nullable
+    private static String getClassConstantKey(@NotNull PhpClass phpClass, @NotNull ClassConstantReference constantReference) {
+        String name = constantReference.getName();
+        PhpExpression classReference = constantReference.getClassReference();
+        if(StringUtils.isBlank(name) || !(classReference instanceof PhpReference)) {
+            return null;
+        }
+
+        String classReferenceName = ((PhpReference) classReference).getName();
+
+        String fqn = "self".equalsIgnoreCase(classReferenceName) || "static".equalsIgnoreCase(classReferenceName)
+            ? phpClass.getFQN()
+            : ((PhpReference) classReference).getFQN();
+
+        if(StringUtils.isBlank(fqn)) {
+            return null;
+        }
+
+        return "\\" + StringUtils.stripStart(fqn, "\\") + "::" + name;
+    }
+
+    /**
+     * 'pre.foo1' => 'foo'
+     * 'pre.foo1' => ['onStoreOrder', 0]
+     * 'pre.foo2' => [['onStoreOrder', 0]]
+     */
+    @NotNull
+    private static SubscribedEvent createSubscribedEvent(@NotNull String fqnClassName, @Nullable PhpPsiElement value, boolean constant) {
+        // @TODO: support multiple method names, currently we only use method name if type hint, so first item helps for now
+        if(value instanceof StringLiteralExpression) {
+            return new SubscribedEvent(fqnClassName, StringUtils.defaultIfBlank(((StringLiteralExpression) value).getContents(), null), null, constant);
+        }
+
+        if(!(value instanceof ArrayCreationExpression)) {
+            return new SubscribedEvent(fqnClassName, null, null, constant);
+        }
+
+        // 'pre.foo' => [<caret>]
+        List<PsiElement> arrayValues = getArrayValues(value);
+        if(!arrayValues.isEmpty()) {
+            PhpPsiElement firstPsiChild = ((PhpPsiElement) arrayValues.get(0)).getFirstPsiChild();
+            if(firstPsiChild instanceof StringLiteralExpression) {
+                // 'pre.foo' => ['method', 10]
+                return new SubscribedEvent(fqnClassName, StringUtils.defaultIfBlank(((StringLiteralExpression) firstPsiChild).getContents(), null), getPriority(arrayValues), constant);
+            } else if(firstPsiChild instanceof ArrayCreationExpression) {
+                // 'pre.foo' => [['method', 10], ['method2', ...]]
+                List<PsiElement> nestedValues = getArrayValues(firstPsiChild);
+                if(!nestedValues.isEmpty()) {
+                    PhpPsiElement methodName = ((PhpPsiElement) nestedValues.get(0)).getFirstPsiChild();
+                    if(methodName instanceof StringLiteralExpression) {
+                        return new SubscribedEvent(fqnClassName, StringUtils.defaultIfBlank(((StringLiteralExpression) methodName).getContents(), null), getPriority(nestedValues), constant);
+                    }
+                }
+            }
+        }
+
+        return new SubscribedEvent(fqnClassName, null, null, constant);
+    }
+
+    @NotNull
+    private static List<PsiElement> getArrayValues(@NotNull PsiElement arrayCreationExpression) {
+        List<PsiElement> values = new ArrayList<>(PsiElementUtils.getChildrenOfTypeAsList(arrayCreationExpression, PlatformPatterns.psiElement().withElementType(PhpElementTypes.ARRAY_VALUE)));
+        values.removeIf(psiElement -> !(psiElement instanceof PhpPsiElement));
+        return values;
+    }
+
+    /**
+     * ['method', -10]
+     */
+    @Nullable
+    private static Integer getPriority(@NotNull List<PsiElement> arrayValues) {
+        if(arrayValues.size() < 2) {
+            return null;
+        }
+
+        PhpPsiElement priority = ((PhpPsiElement) arrayValues.get(1)).getFirstPsiChild();
+        if(priority == null) {
+            return null;
+        }
+
+        String text = StringUtils.deleteWhitespace(priority.getText());
+        if(!text.matches("-?\\d{1,9}")) {
+            return null;
+        }
+
+        return Integer.parseInt(text);
+    }
+}
@@ -8,6 +8,7 @@ import com.intellij.util.io.KeyDescriptor;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FileResource;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
 import fr.adrienbrault.idea.symfony2plugin.util.FileResourceVisitorUtil;
 import gnu.trove.THashMap;
@@ -37,11 +38,13 @@ public class FileResourcesIndex extends FileBasedIndexExtension<String, FileReso
     @Override
     public DataIndexer<String, FileResource, FileContent> getIndexer() {
         return inputData -> {
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject()) || !isValidForIndex(inputData, psiFile)) {
+            // "resource" key or attribute for all imports
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) || !isValidForIndex(inputData) || !FileContentFilter.containsAny(inputData, "resource")) {
                 return Collections.emptyMap();
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             final Map<String, FileResource> items = new THashMap<>();
 
             FileResourceVisitorUtil.visitFile(psiFile, consumer -> {
@@ -83,9 +86,17 @@ public class FileResourcesIndex extends FileBasedIndexExtension<String, FileReso
         return 3;
     }
 
+    /**
+     * @deprecated use {@link #isValidForIndex(FileContent)} which is not building the PSI file
+     */
+    @Deprecated
     public static boolean isValidForIndex(FileContent inputData, PsiFile psiFile) {
+        return isValidForIndex(inputData);
+    }
+
+    public static boolean isValidForIndex(@NotNull FileContent inputData) {
 
-        String fileName = psiFile.getName();
+        String fileName = inputData.getFileName();
 
         if(fileName.startsWith(".") || fileName.endsWith("Test")) {
             return false;
@@ -12,6 +12,7 @@ import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.php.lang.psi.PhpFile;
 import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringSetDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import gnu.trove.THashMap;
 import org.apache.commons.lang.StringUtils;
@@ -47,6 +48,11 @@ public class FormDataClassStubIndex extends FileBasedIndexExtension<String, Set<
         return inputData -> {
             Map<String, Set<String>> map = new THashMap<>();
 
+            // fast check before visiting every method reference
+            if(!FileContentFilter.containsAny(inputData, "data_class")) {
+                return map;
+            }
+
             PsiFile psiFile = inputData.getPsiFile();
             if(!(psiFile instanceof PhpFile)) {
                 return map;
@@ -36,12 +36,12 @@ public class PhpTwigTemplateUsageStubIndex extends FileBasedIndexExtension<Strin
     @Override
     public DataIndexer<String, TemplateUsage, FileContent> getIndexer() {
         return inputData -> {
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) || !isValidForIndex(inputData)) {
                 return Collections.emptyMap();
             }
 
-            if(!(inputData.getPsiFile() instanceof PhpFile) && isValidForIndex(inputData)) {
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!(psiFile instanceof PhpFile)) {
                 return Collections.emptyMap();
             }
 
@@ -97,7 +97,7 @@ public class PhpTwigTemplateUsageStubIndex extends FileBasedIndexExtension<Strin
 
     @Override
     public int getVersion() {
-        return 3;
+        return 4;
     }
 
     private static boolean isValidForIndex(FileContent inputData) {
@@ -9,11 +9,13 @@ import com.intellij.util.indexing.*;
 import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.php.lang.psi.PhpFile;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.StubIndexedRoute;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.visitor.AnnotationRouteElementWalkingVisitor;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
@@ -45,13 +47,18 @@ public class RoutesStubIndex extends FileBasedIndexExtension<String, StubIndexed
         return inputData -> {
             Map<String, StubIndexedRoute> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
+                return map;
+            }
+
+            // annotations or attributes: "@Route()", "#[Route()]"; class names are case-insensitive
+            if(inputData.getFileType() == PhpFileType.INSTANCE && (!isValidForIndex(inputData) || !FileContentFilter.containsAnyIgnoreCase(inputData, "Route"))) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
             if(psiFile instanceof YAMLFile) {
-                if(!isValidForIndex(inputData, psiFile)) {
+                if(!isValidForIndex(inputData)) {
                     return map;
                 }
 
@@ -77,10 +84,6 @@ public class RoutesStubIndex extends FileBasedIndexExtension<String, StubIndexed
                 }
             } else if(psiFile instanceof PhpFile) {
                 // annotations: @Route()
-                if(!isValidForIndex(inputData, psiFile)) {
-                    return map;
-                }
-
                 psiFile.accept(new AnnotationRouteElementWalkingVisitor(map));
             }
 
@@ -117,9 +120,9 @@ public class RoutesStubIndex extends FileBasedIndexExtension<String, StubIndexed
         return 4;
     }
 
-    private static boolean isValidForIndex(FileContent inputData, PsiFile psiFile) {
+    private static boolean isValidForIndex(@NotNull FileContent inputData) {
 
-        String fileName = psiFile.getName();
+        String fileName = inputData.getFileName();
         if(fileName.startsWith(".") || fileName.endsWith("Test")) {
             return false;
         }
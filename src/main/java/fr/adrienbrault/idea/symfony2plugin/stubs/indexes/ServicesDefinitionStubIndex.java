@@ -6,10 +6,12 @@ import com.intellij.util.indexing.*;
 import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
 import gnu.trove.THashMap;
@@ -38,11 +40,16 @@ public class ServicesDefinitionStubIndex extends FileBasedIndexExtension<String,
 
             Map<String, ServiceSerializable> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject()) || !isValidForIndex(inputData, psiFile)) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) || !isValidForIndex(inputData)) {
+                return map;
+            }
+
+            // php services are only inside "namespace Symfony\Component\DependencyInjection\Loader\Configurator"
+            if(inputData.getFileType() == PhpFileType.INSTANCE && !FileContentFilter.containsAny(inputData, "Loader\\Configurator")) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
             for (ServiceSerializable service : ServiceContainerUtil.getServicesInFile(psiFile)) {
                 map.put(service.getId().toLowerCase(), service);
             }
@@ -85,9 +92,19 @@ public class ServicesDefinitionStubIndex extends FileBasedIndexExtension<String,
         return 7;
     }
 
+    /**
+     * @deprecated use {@link #isValidForIndex(FileContent)} which is not building the PSI file
+     */
+    @Deprecated
     public static boolean isValidForIndex(FileContent inputData, PsiFile psiFile) {
+        return isValidForIndex(inputData);
+    }
 
-        String fileName = psiFile.getName();
+    /**
+     * Path and size checks only; so its safe to call before building the PSI file
+     */
+    public static boolean isValidForIndex(@NotNull FileContent inputData) {
+        String fileName = inputData.getFileName();
         if(fileName.startsWith(".") || fileName.endsWith("Test")) {
             return false;
         }
@@ -106,7 +123,7 @@ public class ServicesDefinitionStubIndex extends FileBasedIndexExtension<String,
         }
 
         // dont add configured service paths
-        Collection<File> settingsServiceFiles = Symfony2ProjectComponent.getContainerFiles(psiFile.getProject());
+        Collection<File> settingsServiceFiles = Symfony2ProjectComponent.getContainerFiles(inputData.getProject());
         for(File file: settingsServiceFiles) {
             if(VfsUtil.isAncestor(VfsUtil.virtualToIoFile(inputData.getFile()), file, false)) {
                 return false;
@@ -9,6 +9,7 @@ import com.intellij.util.io.KeyDescriptor;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.form.util.FormUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringSetDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileInputFilter;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
@@ -33,15 +34,16 @@ public class ServicesTagStubIndex extends FileBasedIndexExtension<String, Set<St
 
             Map<String, Set<String>> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
                 return map;
             }
 
-            if (!ServicesDefinitionStubIndex.isValidForIndex(inputData, psiFile)) {
+            if(!ServicesDefinitionStubIndex.isValidForIndex(inputData) || !FileContentFilter.containsAny(inputData, "tag")) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             if(psiFile instanceof YAMLFile) {
                 map.putAll(FormUtil.getTags((YAMLFile) psiFile));
             }
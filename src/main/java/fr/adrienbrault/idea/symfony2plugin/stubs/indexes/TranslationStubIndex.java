@@ -58,8 +58,6 @@ public class TranslationStubIndex extends FileBasedIndexExtension<String, Set<St
                     return getXlfStringMap(inputData);
                 }
 
-                PsiFile psiFile = inputData.getPsiFile();
-
                 // check physical file position
                 if (!isValidTranslationFile(inputData)) {
                     return Collections.emptyMap();
@@ -70,6 +68,8 @@ public class TranslationStubIndex extends FileBasedIndexExtension<String, Set<St
                     return Collections.emptyMap();
                 }
 
+                PsiFile psiFile = inputData.getPsiFile();
+
                 if (psiFile instanceof PhpFile) {
                     Set<String> translationKeySet = new HashSet<>();
                     psiFile.acceptChildren(new ArrayReturnPsiRecursiveVisitor(pair -> translationKeySet.add(pair.getFirst())));
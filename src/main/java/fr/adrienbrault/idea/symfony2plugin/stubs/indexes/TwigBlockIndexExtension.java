@@ -14,6 +14,7 @@ import com.jetbrains.twig.elements.TwigCompositeElement;
 import com.jetbrains.twig.elements.TwigElementTypes;
 import com.jetbrains.twig.elements.TwigExtendsTag;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringSetDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.templating.TwigPattern;
 import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigBlock;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
@@ -42,6 +43,11 @@ public class TwigBlockIndexExtension extends FileBasedIndexExtension<String, Set
         return fileContent -> {
             Map<String, Set<String>> blocks = new HashMap<>();
 
+            // "{% block %}", "{{ block() }}" or "{% use %}"
+            if(!FileContentFilter.containsAny(fileContent, "block", "use")) {
+                return blocks;
+            }
+
             PsiFile psiFile = fileContent.getPsiFile();
             if(psiFile instanceof TwigFile) {
                 for (TwigBlock twigBlock : TwigUtil.getBlocksInFile((TwigFile) psiFile)) {
@@ -12,6 +12,7 @@ import com.intellij.util.io.VoidDataExternalizer;
 import com.jetbrains.twig.TwigFile;
 import com.jetbrains.twig.TwigFileType;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
@@ -39,8 +40,13 @@ public class TwigControllerStubIndex extends FileBasedIndexExtension<String, Voi
     @Override
     public DataIndexer<String, Void, FileContent> getIndexer() {
         return inputData -> {
+            // function names are matched case-insensitive: "{{ controller('...') }}"
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) || !FileContentFilter.containsAnyIgnoreCase(inputData, "controller")) {
+                return Collections.emptyMap();
+            }
+
             PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject()) || !(psiFile instanceof TwigFile)) {
+            if(!(psiFile instanceof TwigFile)) {
                 return Collections.emptyMap();
             }
 
@@ -35,11 +35,12 @@ public class TwigExtendsStubIndex extends FileBasedIndexExtension<String, Void>
         return inputData -> {
             Map<String, Void> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             if(!(psiFile instanceof TwigFile)) {
                 return map;
             }
@@ -37,11 +37,12 @@ public class TwigIncludeStubIndex extends FileBasedIndexExtension<String, Templa
         return inputData -> {
             final Map<String, TemplateInclude> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             if(!(psiFile instanceof TwigFile)) {
                 return map;
             }
@@ -13,6 +13,7 @@ import com.jetbrains.twig.TwigFileType;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.TwigMacroTagIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
 import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigMacroTag;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
 import gnu.trove.THashMap;
@@ -41,11 +42,12 @@ public class TwigMacroFunctionStubIndex extends FileBasedIndexExtension<String,
         return inputData -> {
             final Map<String, TwigMacroTagIndex> map = new THashMap<>();
 
-            PsiFile psiFile = inputData.getPsiFile();
-            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject()) || !FileContentFilter.containsAny(inputData, "macro")) {
                 return map;
             }
 
+            PsiFile psiFile = inputData.getPsiFile();
+
             if(!(psiFile instanceof TwigFile)) {
                 return map;
             }
@@ -0,0 +1,337 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.lexer.PhpTokenTypes;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.VoterAttribute;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ObjectStreamDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter.FileContentFilter;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attributes of security voters with their offsets, one value per voter class; key is the attribute or for class constants
+ * without a string value "\Foo\Voter::BAR"
+ *
+ * protected function supports($attribute, $subject)
+ * {
+ *   return in_array($attribute, [self::EDIT, 'VIEW']);
+ * }
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class VoterAttributeStubIndex extends FileBasedIndexExtension<String, ArrayList<VoterAttribute>> {
+
+    public static final ID<String, ArrayList<VoterAttribute>> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.voter_attribute");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+    private static ObjectStreamDataExternalizer<ArrayList<VoterAttribute>> EXTERNALIZER = new ObjectStreamDataExternalizer<>();
+
+    @NotNull
+    @Override
+    public ID<String, ArrayList<VoterAttribute>> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, ArrayList<VoterAttribute>, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, ArrayList<VoterAttribute>> map = new HashMap<>();
+
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
+                return map;
+            }
+
+            // voters can extend an app base voter, so only the visited method names are always present
+            if(!FileContentFilter.containsAny(inputData, "supports", "vote")) {
+                return map;
+            }
+
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!(psiFile instanceof PhpFile)) {
+                return map;
+            }
+
+            for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(psiFile, PhpClass.class)) {
+                if(phpClass.isInterface() || (phpClass.getSuperFQN() == null && phpClass.getInterfaceNames().length == 0)) {
+                    continue;
+                }
+
+                AttributeCollector collector = new AttributeCollector(phpClass, map);
+
+                for (String methodName : new String[] {"supports", "voteOnAttribute"}) {
+                    Method method = phpClass.findOwnMethodByName(methodName);
+                    if(method != null) {
+                        collector.visitAttribute(method);
+                    }
+                }
+
+                Method vote = phpClass.findOwnMethodByName("vote");
+                if(vote != null) {
+                    collector.visitAttributeForeach(vote);
+                }
+            }
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<ArrayList<VoterAttribute>> getValueExternalizer() {
+        return EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    /**
+     * Visitor of "VoterUtil" but only with values resolved inside the class itself
+     */
+    private static class AttributeCollector {
+        @NotNull
+        private final PhpClass phpClass;
+
+        @NotNull
+        private final String fqn;
+
+        @NotNull
+        private final Map<String, ArrayList<VoterAttribute>> map;
+
+        AttributeCollector(@NotNull PhpClass phpClass, @NotNull Map<String, ArrayList<VoterAttribute>> map) {
+            this.phpClass = phpClass;
+            this.fqn = phpClass.getFQN();
+            this.map = map;
+        }
+
+        void visitAttribute(@NotNull Method method) {
+            Parameter[] parameters = method.getParameters();
+            if(parameters.length == 0) {
+                return;
+            }
+
+            for (Variable variable : PhpElementsUtil.getVariablesInScope(method, parameters[0])) {
+                visitVariable(variable);
+            }
+        }
+
+        void visitAttributeForeach(@NotNull Method method) {
+            Parameter[] parameters = method.getParameters();
+            if(parameters.length < 3) {
+                return;
+            }
+
+            for (Variable variable : PhpElementsUtil.getVariablesInScope(method, parameters[2])) {
+                // foreach ($attributes as $attribute)
+                PsiElement psiElement = PsiTreeUtil.nextVisibleLeaf(variable);
+                if(psiElement != null && psiElement.getNode().getElementType() == PhpTokenTypes.kwAS) {
+                    PsiElement parent = variable.getParent();
+                    if(!(parent instanceof ForeachStatement)) {
+                        continue;
+                    }
+
+                    PhpPsiElement variableDecl = variable.getNextPsiSibling();
+                    if(variableDecl instanceof Variable) {
+                        for (Variable variable1 : PhpElementsUtil.getVariablesInScope(parent, (Variable) variableDecl)) {
+                            visitVariable(variable1);
+                        }
+                    }
+                }
+
+                // in_array('foobar', $attributes)
+                PsiElement parameterList = variable.getParent();
+                if(parameterList instanceof ParameterList && PsiElementUtils.getParameterIndexValue(variable) == 1) {
+                    PsiElement functionCall = parameterList.getParent();
+                    if(functionCall instanceof FunctionReference && "in_array".equalsIgnoreCase(((FunctionReference) functionCall).getName())) {
+                        PsiElement[] functionParameter = ((ParameterList) parameterList).getParameters();
+                        if(functionParameter.length > 0) {
+                            add(functionParameter[0]);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void visitVariable(@NotNull Variable resolve) {
+            PsiElement parent = resolve.getParent();
+            if(parent instanceof BinaryExpression) {
+                // 'VALUE' == $var
+                PsiElement rightElement = PsiTreeUtil.prevVisibleLeaf(resolve);
+                if(rightElement != null && isIfOperand(rightElement.getNode().getElementType())) {
+                    add(((BinaryExpression) parent).getLeftOperand());
+                }
+
+                // $var == 'VALUE'
+                PsiElement leftElement = PsiTreeUtil.nextVisibleLeaf(resolve);
+                if(leftElement != null && isIfOperand(leftElement.getNode().getElementType())) {
+                    add(((BinaryExpression) parent).getRightOperand());
+                }
+            } else if(parent instanceof ParameterList && PsiElementUtils.getParameterIndexValue(resolve) == 0) {
+                // in_array($caret, X)
+                PsiElement functionCall = parent.getParent();
+                if(functionCall instanceof FunctionReference && "in_array".equalsIgnoreCase(((FunctionReference) functionCall).getName())) {
+                    PsiElement[] functionParameter = ((ParameterList) parent).getParameters();
+                    if(functionParameter.length > 1) {
+                        if(functionParameter[1] instanceof ArrayCreationExpression) {
+                            // in_array($x, ['FOOBAR'])
+                            addArrayValues((ArrayCreationExpression) functionParameter[1]);
+                        } else if(functionParameter[1] instanceof MemberReference) {
+                            // in_array($attribute, self::FOO);
+                            // in_array($attribute, $this->foo);
+                            Field field = findOwnField((MemberReference) functionParameter[1]);
+                            if(field != null && field.getDefaultValue() instanceof ArrayCreationExpression) {
+                                addArrayValues((ArrayCreationExpression) field.getDefaultValue());
+                            }
+                        }
+                    }
+                }
+            } else if(parent instanceof PhpSwitch) {
+                // case "foobar":
+                for (PhpCase phpCase : ((PhpSwitch) parent).getAllCases()) {
+                    add(phpCase.getCondition());
+                }
+            }
+        }
+
+        private void addArrayValues(@NotNull ArrayCreationExpression arrayCreationExpression) {
+            for (PsiElement child = arrayCreationExpression.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if(child.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE) {
+                    add(child.getFirstChild());
+                }
+            }
+        }
+
+        /**
+         * 'FOO', self::FOO, Foo::FOO
+         */
+        private void add(@Nullable PsiElement psiElement) {
+            if(psiElement instanceof StringLiteralExpression) {
+                addAttribute(((StringLiteralExpression) psiElement).getContents(), psiElement, false);
+            } else if(psiElement instanceof ClassConstantReference && !"class".equals(((ClassConstantReference) psiElement).getName())) {
+                String name = ((ClassConstantReference) psiElement).getName();
+                if(StringUtils.isBlank(name)) {
+                    return;
+                }
+
+                String classFqn = null;
+
+                Field field = findOwnField((ClassConstantReference) psiElement);
+                if(field != null) {
+                    if(field.getDefaultValue() instanceof StringLiteralExpression) {
+                        addAttribute(((StringLiteralExpression) field.getDefaultValue()).getContents(), psiElement, false);
+                        return;
+                    }
+
+                    // const VIEW = Foo::VIEW
+                    classFqn = fqn;
+                } else {
+                    PhpExpression classReference = ((ClassConstantReference) psiElement).getClassReference();
+                    if(classReference instanceof ClassReference) {
+                        classFqn = ((ClassReference) classReference).getFQN();
+                    }
+                }
+
+                // resolved on query time
+                if(StringUtils.isNotBlank(classFqn)) {
+                    addAttribute("\\" + StringUtils.stripStart(classFqn, "\\") + "::" + name, psiElement, true);
+                }
+            }
+        }
+
+        /**
+         * Attribute can be used in "supports" and "voteOnAttribute"; so every usage is a target.
+         * Multiple voters of a file can share an attribute, so there is one value per class
+         */
+        private void addAttribute(@Nullable String attribute, @NotNull PsiElement psiElement, boolean constant) {
+            if(StringUtils.isBlank(attribute)) {
+                return;
+            }
+
+            ArrayList<VoterAttribute> voterAttributes = map.computeIfAbsent(attribute, s -> new ArrayList<>());
+
+            VoterAttribute voterAttribute = voterAttributes.stream()
+                .filter(value -> fqn.equals(value.getFqnClassName()))
+                .findFirst()
+                .orElse(null);
+
+            if(voterAttribute == null) {
+                voterAttribute = new VoterAttribute(fqn, constant);
+                voterAttributes.add(voterAttribute);
+            }
+
+            voterAttribute.addOffset(psiElement.getTextRange().getStartOffset());
+        }
+
+        /**
+         * "self::FOO", "static::FOO", "$this->foo"
+         */
+        @Nullable
+        private Field findOwnField(@NotNull MemberReference memberReference) {
+            String name = memberReference.getName();
+            PhpExpression classReference = memberReference.getClassReference();
+            if(StringUtils.isBlank(name) || classReference == null) {
+                return null;
+            }
+
+            if(memberReference instanceof ClassConstantReference && classReference instanceof ClassReference) {
+                String className = ((ClassReference) classReference).getName();
+                if("self".equalsIgnoreCase(className) || "static".equalsIgnoreCase(className) || fqn.equals(((ClassReference) classReference).getFQN())) {
+                    return phpClass.findOwnFieldByName(name, true);
+                }
+            } else if(memberReference instanceof FieldReference && classReference instanceof Variable && "this".equals(((Variable) classReference).getName())) {
+                return phpClass.findOwnFieldByName(name, false);
+            }
+
+            return null;
+        }
+
+        /**
+         * null == null, null != null, null === null
+         */
+        private static boolean isIfOperand(@NotNull IElementType node) {
+            return
+                node == PhpTokenTypes.opIDENTICAL ||
+                    node == PhpTokenTypes.opEQUAL ||
+                    node == PhpTokenTypes.opNOT_EQUAL ||
+                    node == PhpTokenTypes.opNOT_IDENTICAL
+                ;
+        }
+    }
+}
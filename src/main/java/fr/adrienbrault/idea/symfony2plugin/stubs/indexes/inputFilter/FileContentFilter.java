@@ -0,0 +1,42 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.inputFilter;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.indexing.FileContent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Cheap checks on the raw file text before building any PSI inside an indexer
+ *
+ * Only use words which must be present for the indexer to produce an entry; every file
+ * rejected here is not indexed at all.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class FileContentFilter {
+    public static boolean containsAny(@NotNull FileContent inputData, @NotNull String... words) {
+        CharSequence content = inputData.getContentAsText();
+
+        for (String word : words) {
+            if (StringUtil.contains(content, word)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * For names which are resolved case-insensitive, like PHP classes or Twig functions
+     */
+    public static boolean containsAnyIgnoreCase(@NotNull FileContent inputData, @NotNull String... words) {
+        CharSequence content = inputData.getContentAsText();
+
+        for (String word : words) {
+            if (StringUtil.indexOfIgnoreCase(content, word, 0) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
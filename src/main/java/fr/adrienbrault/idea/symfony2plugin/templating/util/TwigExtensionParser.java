@@ -12,6 +12,7 @@ import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.parser.PhpElementTypes;
 import com.jetbrains.php.lang.psi.PhpPsiUtil;
 import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.StaleWhileRevalidateCache;
 import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigExtension;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
@@ -30,10 +31,10 @@ import java.util.Map;
  */
 public class TwigExtensionParser  {
 
-    private static final Key<CachedValue<Map<String, TwigExtension>>> FUNCTION_CACHE = new Key<>("TWIG_EXTENSIONS_FUNCTION");
-    private static final Key<CachedValue<Map<String, TwigExtension>>> TEST_CACHE = new Key<>("TWIG_EXTENSIONS_TEST");
-    private static final Key<CachedValue<Map<String, TwigExtension>>> FILTERS_CACHE = new Key<>("TWIG_EXTENSIONS_FILTERS");
-    private static final Key<CachedValue<Map<String, TwigExtension>>> OPERATORS_CACHE = new Key<>("TWIG_EXTENSIONS_OPERATORS");
+    private static final Key<StaleWhileRevalidateCache<Map<String, TwigExtension>>> FUNCTION_CACHE = new Key<>("TWIG_EXTENSIONS_FUNCTION");
+    private static final Key<StaleWhileRevalidateCache<Map<String, TwigExtension>>> TEST_CACHE = new Key<>("TWIG_EXTENSIONS_TEST");
+    private static final Key<StaleWhileRevalidateCache<Map<String, TwigExtension>>> FILTERS_CACHE = new Key<>("TWIG_EXTENSIONS_FILTERS");
+    private static final Key<StaleWhileRevalidateCache<Map<String, TwigExtension>>> OPERATORS_CACHE = new Key<>("TWIG_EXTENSIONS_OPERATORS");
 
     public enum TwigExtensionType {
         FUNCTION_METHOD, FUNCTION_NODE, SIMPLE_FUNCTION, FILTER, SIMPLE_TEST, OPERATOR
@@ -41,41 +42,37 @@ public class TwigExtensionParser  {
 
     @NotNull
     public static Map<String, TwigExtension> getFunctions(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return StaleWhileRevalidateCache.getCachedValue(
             project,
             FUNCTION_CACHE,
-            () -> CachedValueProvider.Result.create(parseFunctions(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(parseFunctions(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
     @NotNull
     public static Map<String, TwigExtension> getFilters(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return StaleWhileRevalidateCache.getCachedValue(
             project,
             FILTERS_CACHE,
-            () -> CachedValueProvider.Result.create(parseFilters(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(parseFilters(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
     @NotNull
     public static Map<String, TwigExtension> getSimpleTest(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return StaleWhileRevalidateCache.getCachedValue(
             project,
             TEST_CACHE,
-            () -> CachedValueProvider.Result.create(parseTests(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(parseTests(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
     @NotNull
     public static Map<String, TwigExtension> getOperators(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return StaleWhileRevalidateCache.getCachedValue(
             project,
             OPERATORS_CACHE,
-            () -> CachedValueProvider.Result.create(parseOperators(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(parseOperators(TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
@@ -2,13 +2,15 @@ package fr.adrienbrault.idea.symfony2plugin.templating.util;
 
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiWhiteSpace;
 import com.intellij.psi.tree.IElementType;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.*;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.Field;
 import com.jetbrains.php.lang.psi.elements.Method;
@@ -20,6 +22,7 @@ import com.jetbrains.twig.TwigTokenTypes;
 import com.jetbrains.twig.elements.TwigCompositeElement;
 import com.jetbrains.twig.elements.TwigElementTypes;
 import com.jetbrains.twig.elements.TwigVariableReference;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import fr.adrienbrault.idea.symfony2plugin.templating.TwigPattern;
 import fr.adrienbrault.idea.symfony2plugin.templating.variable.TwigFileVariableCollector;
 import fr.adrienbrault.idea.symfony2plugin.templating.variable.TwigFileVariableCollectorParameter;
@@ -83,6 +86,8 @@ public class TwigTypeResolveUtil {
         "fr.adrienbrault.idea.symfony2plugin.extension.TwigVariableCollector"
     );
 
+    private static final Key<CachedValue<Map<String, PsiVariable>>> SYMFONY_TWIG_FILE_VARIABLES = new Key<>("SYMFONY_TWIG_FILE_VARIABLES");
+
     private static TwigTypeResolver[] TWIG_TYPE_RESOLVERS = new TwigTypeResolver[] {
         new FormVarsResolver(),
         new FormFieldResolver(),
@@ -234,41 +239,26 @@ public class TwigTypeResolveUtil {
 
     @NotNull
     public static Map<String, PsiVariable> collectScopeVariables(@NotNull PsiElement psiElement, @NotNull Set<VirtualFile> visitedFiles) {
-        VirtualFile virtualFile = psiElement.getContainingFile().getVirtualFile();
+        PsiFile psiFile = psiElement.getContainingFile();
+        VirtualFile virtualFile = psiFile.getVirtualFile();
         if(visitedFiles.contains(virtualFile)) {
             return Collections.emptyMap();
         }
 
-        visitedFiles.add(virtualFile);
-
         Map<String, PsiVariable> controllerVars = new HashMap<>();
 
-        TwigFileVariableCollectorParameter collectorParameter = new TwigFileVariableCollectorParameter(psiElement, visitedFiles);
-        for(TwigFileVariableCollector collector: TWIG_FILE_VARIABLE_COLLECTORS.getExtensions()) {
-            Map<String, Set<String>> globalVarsScope = new HashMap<>();
-            collector.collect(collectorParameter, globalVarsScope);
-
-            // @TODO: resolve this in change extension point, so that its only possible to provide data and dont give full scope to break / overwrite other variables
-            globalVarsScope.forEach((s, strings) -> {
-                controllerVars.putIfAbsent(s, new PsiVariable());
-                controllerVars.get(s).addTypes(strings);
-            });
-
-            // merging elements
-            Map<String, PsiVariable> controllerVars1 = new HashMap<>();
-            collector.collectPsiVariables(collectorParameter, controllerVars1);
-
-            controllerVars1.forEach((s, psiVariable) -> {
-                controllerVars.putIfAbsent(s, new PsiVariable());
-                controllerVars.get(s).addTypes(psiVariable.getTypes());
-
-                PsiElement context = psiVariable.getElement();
-                if (context != null) {
-                    controllerVars.get(s).addElements(context);
-                }
-            });
+        if(visitedFiles.isEmpty() && psiFile instanceof TwigFile) {
+            // file level: controller, includes, globals, ...; nested calls of includes are part of this cache
+            visitedFiles.add(virtualFile);
+            getFileVariables((TwigFile) psiFile).forEach((s, psiVariable) -> controllerVars.put(s, new PsiVariable(psiVariable)));
+        } else {
+            visitedFiles.add(virtualFile);
+            collectVariables(new TwigFileVariableCollectorParameter(psiElement, visitedFiles), controllerVars, false);
         }
 
+        // scope level: layered on top for each element
+        collectVariables(new TwigFileVariableCollectorParameter(psiElement, visitedFiles), controllerVars, true);
+
         // globals first
         Collection<Map<String, String>> vars = Arrays.asList(
             findInlineStatementVariableDocBlock(psiElement, TwigElementTypes.BLOCK_STATEMENT, true),
@@ -295,6 +285,58 @@ public class TwigTypeResolveUtil {
         return controllerVars;
     }
 
+    /**
+     * Variables of all collectors which are not depending on the scope; cached for the Twig file
+     */
+    @NotNull
+    private static Map<String, PsiVariable> getFileVariables(@NotNull TwigFile twigFile) {
+        return CachedValuesManager.getCachedValue(twigFile, SYMFONY_TWIG_FILE_VARIABLES, () -> {
+            Map<String, PsiVariable> variables = new HashMap<>();
+
+            Set<VirtualFile> visitedFiles = new HashSet<>();
+            visitedFiles.add(twigFile.getVirtualFile());
+
+            collectVariables(new TwigFileVariableCollectorParameter(twigFile, visitedFiles), variables, false);
+
+            // controller and include variables are resolved via indexes and other files; so any PSI change invalidates
+            return CachedValueProvider.Result.create(Collections.unmodifiableMap(variables), PsiModificationTracker.MODIFICATION_COUNT);
+        });
+    }
+
+    private static void collectVariables(@NotNull TwigFileVariableCollectorParameter collectorParameter, @NotNull Map<String, PsiVariable> controllerVars, boolean scopeDependent) {
+        Project project = collectorParameter.getProject();
+        String caller = scopeDependent ? "TwigTypeResolveUtil.collectScopeVariables" : SYMFONY_TWIG_FILE_VARIABLES.toString();
+
+        for(TwigFileVariableCollector collector: TWIG_FILE_VARIABLE_COLLECTORS.getExtensions()) {
+            if(collector.isScopeDependent() != scopeDependent) {
+                continue;
+            }
+
+            Map<String, Set<String>> globalVarsScope = new HashMap<>();
+            ExtensionStatistics.invoke(project, caller, collector, c -> c.collect(collectorParameter, globalVarsScope));
+
+            // @TODO: resolve this in change extension point, so that its only possible to provide data and dont give full scope to break / overwrite other variables
+            globalVarsScope.forEach((s, strings) -> {
+                controllerVars.putIfAbsent(s, new PsiVariable());
+                controllerVars.get(s).addTypes(strings);
+            });
+
+            // merging elements
+            Map<String, PsiVariable> controllerVars1 = new HashMap<>();
+            ExtensionStatistics.invoke(project, caller, collector, c -> c.collectPsiVariables(collectorParameter, controllerVars1));
+
+            controllerVars1.forEach((s, psiVariable) -> {
+                controllerVars.putIfAbsent(s, new PsiVariable());
+                controllerVars.get(s).addTypes(psiVariable.getTypes());
+
+                PsiElement context = psiVariable.getElement();
+                if (context != null) {
+                    controllerVars.get(s).addElements(context);
+                }
+            });
+        }
+    }
+
     /**
      * Extract magic iterator implementation like "getIterator" or "__iterator"
      *
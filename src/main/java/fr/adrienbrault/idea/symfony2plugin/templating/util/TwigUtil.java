@@ -42,6 +42,8 @@ import fr.adrienbrault.idea.symfony2plugin.extension.TwigFileUsage;
 import fr.adrienbrault.idea.symfony2plugin.extension.TwigNamespaceExtension;
 import fr.adrienbrault.idea.symfony2plugin.extension.TwigNamespaceExtensionParameter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.TemplateUsage;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.*;
@@ -978,19 +980,17 @@ public class TwigUtil {
         // cache twig and all files,
         // only PHP files we dont need to cache
         if(!usePhp) {
-            templateMapProxy = CachedValuesManager.getManager(project).getCachedValue(
+            templateMapProxy = CacheStatistics.getCachedValue(
                 project,
                 TEMPLATE_CACHE_TWIG,
-                new MyAllTemplateFileMapCachedValueProvider(project),
-                false
+                new MyAllTemplateFileMapCachedValueProvider(project)
             );
         } else {
             // cache all files
-            templateMapProxy = CachedValuesManager.getManager(project).getCachedValue(
+            templateMapProxy = CacheStatistics.getCachedValue(
                 project,
                 TEMPLATE_CACHE_ALL,
-                new MyAllTemplateFileMapCachedValueProvider(project, true),
-                false
+                new MyAllTemplateFileMapCachedValueProvider(project, true)
             );
         }
 
@@ -1405,7 +1405,7 @@ public class TwigUtil {
         // load extension
         TwigNamespaceExtensionParameter parameter = new TwigNamespaceExtensionParameter(project);
         for (TwigNamespaceExtension namespaceExtension : TWIG_NAMESPACE_EXTENSIONS.getExtensions()) {
-            twigPaths.addAll(namespaceExtension.getNamespaces(parameter));
+            twigPaths.addAll(ExtensionStatistics.compute(project, "TwigUtil.getTwigNamespaces", namespaceExtension, extension -> extension.getNamespaces(parameter)));
         }
 
         // disable namespace explicitly disabled by user
@@ -2849,7 +2849,7 @@ public class TwigUtil {
     }
 
     public static List<String> getIncludeTemplateUsageAsOrderedList(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(project, SYMFONY_TEMPLATE_INCLUDE_LIST, () -> {
+        return CacheStatistics.getCachedValue(project, SYMFONY_TEMPLATE_INCLUDE_LIST, () -> {
             Set<String> allKeys = FileBasedIndex.getInstance().getAllKeys(TwigIncludeStubIndex.KEY, project)
                 .stream()
                 .filter(s -> !s.toLowerCase().contains("@webprofiler") && !s.toLowerCase().contains("/profiler/") && !s.toLowerCase().contains("@twig") && !s.equalsIgnoreCase("form_div_layout.html.twig"))
@@ -2874,11 +2874,11 @@ public class TwigUtil {
                 .collect(Collectors.toList());
 
             return CachedValueProvider.Result.create(collect, FileIndexCaches.getModificationTrackerForIndexId(project, TwigIncludeStubIndex.KEY));
-        }, false);
+        });
     }
 
     public static List<String> getEmbedTemplateUsageAsOrderedList(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(project, SYMFONY_TEMPLATE_EMBED_LIST, () -> {
+        return CacheStatistics.getCachedValue(project, SYMFONY_TEMPLATE_EMBED_LIST, () -> {
             Set<String> allKeys = FileBasedIndex.getInstance().getAllKeys(TwigIncludeStubIndex.KEY, project)
                 .stream()
                 .filter(s -> !s.toLowerCase().contains("@webprofiler") && !s.toLowerCase().contains("/profiler/") && !s.toLowerCase().contains("@twig") && !s.equalsIgnoreCase("form_div_layout.html.twig"))
@@ -2903,11 +2903,11 @@ public class TwigUtil {
                 .collect(Collectors.toList());
 
             return CachedValueProvider.Result.create(collect, FileIndexCaches.getModificationTrackerForIndexId(project, TwigIncludeStubIndex.KEY));
-        }, false);
+        });
     }
 
     public static List<String> getExtendsTemplateUsageAsOrderedList(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(project, SYMFONY_TEMPLATE_EXTENDS_LIST, () -> {
+        return CacheStatistics.getCachedValue(project, SYMFONY_TEMPLATE_EXTENDS_LIST, () -> {
             Set<String> allKeys = FileBasedIndex.getInstance().getAllKeys(TwigExtendsStubIndex.KEY, project)
                 .stream()
                 .filter(s -> !s.toLowerCase().contains("@webprofiler") && !s.toLowerCase().contains("/profiler/") && !s.toLowerCase().contains("@twig") && !s.equalsIgnoreCase("form_div_layout.html.twig"))
@@ -2927,7 +2927,7 @@ public class TwigUtil {
                 .collect(Collectors.toList());
 
             return CachedValueProvider.Result.create(collect, FileIndexCaches.getModificationTrackerForIndexId(project, TwigExtendsStubIndex.KEY));
-        }, false);
+        });
     }
 
     /**
@@ -14,4 +14,12 @@ public interface TwigFileVariableCollector {
     default void collect(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, Set<String>> variables) {}
 
     default void collectPsiVariables(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, PsiVariable> variables) {}
+
+    /**
+     * Variables depend on the position inside the file, eg macro arguments; collected for every element.
+     * Implementations only providing file level variables return false, so their result is cached for the whole file
+     */
+    default boolean isScopeDependent() {
+        return true;
+    }
 }
@@ -12,6 +12,11 @@ import java.util.*;
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class FileDocVariableCollector implements TwigFileVariableCollector {
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collect(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, Set<String>> variables) {
         if(!(parameter.getElement().getContainingFile() instanceof TwigFile)) {
@@ -17,6 +17,11 @@ import java.util.Map;
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class GlobalExtensionVariableCollector implements TwigFileVariableCollector {
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collectPsiVariables(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, PsiVariable> variables) {
         for(PhpClass phpClass : TwigUtil.getTwigExtensionClasses(parameter.getProject())) {
@@ -36,6 +36,11 @@ import java.util.regex.Pattern;
  */
 public class IncludeVariableCollector implements TwigFileVariableCollector {
 
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collectPsiVariables(@NotNull final TwigFileVariableCollectorParameter parameter, @NotNull final Map<String, PsiVariable> variables) {
         PsiFile psiFile = parameter.getElement().getContainingFile();
@@ -24,6 +24,11 @@ public class StaticVariableCollector implements TwigFileVariableCollector {
         "\\Symfony\\Bridge\\Twig\\AppVariable"
     ));
 
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collect(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, Set<String>> variables) {
         variables.put("app", new HashSet<>(APP_CLASSES)); // const must be a copy
@@ -34,6 +34,14 @@ public class PsiVariable {
     public PsiVariable() {
     }
 
+    /**
+     * Copy for cached variables, as callers are allowed to add types
+     */
+    public PsiVariable(@NotNull PsiVariable psiVariable) {
+        this.types.addAll(psiVariable.types);
+        this.psiElements.addAll(psiVariable.psiElements);
+    }
+
     @NotNull
     public Set<String> getTypes() {
         return types;
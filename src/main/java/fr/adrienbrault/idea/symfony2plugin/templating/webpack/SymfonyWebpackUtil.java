@@ -5,6 +5,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.io.StreamUtil;
 import com.intellij.openapi.vfs.VfsUtil;
@@ -16,6 +17,8 @@ import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
@@ -26,6 +29,8 @@ import java.util.regex.Pattern;
  */
 public class SymfonyWebpackUtil {
 
+    private static final Key<Pair<Long, Map<String, String>>> MANIFEST_JSON_ENTRIES = new Key<>("SYMFONY_MANIFEST_JSON_ENTRIES");
+
     /**
      * - webpack.config.js
      * - entrypoints.json
@@ -51,7 +56,28 @@ public class SymfonyWebpackUtil {
      * }
      */
     public static void visitManifestJsonEntries(@NotNull VirtualFile virtualFile, @NotNull Consumer<Pair<String, String>> consumer) {
-        visitManifestJson(virtualFile, consumer);
+        getManifestJsonEntries(virtualFile).forEach((key, value) -> consumer.accept(Pair.create(key, value)));
+    }
+
+    /**
+     * Parsed "manifest.json" entries; cached until the file is modified
+     */
+    @NotNull
+    public static Map<String, String> getManifestJsonEntries(@NotNull VirtualFile virtualFile) {
+        long modificationStamp = virtualFile.getModificationStamp();
+
+        Pair<Long, Map<String, String>> cache = virtualFile.getUserData(MANIFEST_JSON_ENTRIES);
+        if (cache != null && cache.getFirst() == modificationStamp) {
+            return cache.getSecond();
+        }
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        visitManifestJson(virtualFile, pair -> entries.put(pair.getFirst(), pair.getSecond()));
+
+        Map<String, String> unmodifiableEntries = Collections.unmodifiableMap(entries);
+        virtualFile.putUserData(MANIFEST_JSON_ENTRIES, Pair.create(modificationStamp, unmodifiableEntries));
+
+        return unmodifiableEntries;
     }
 
     /**
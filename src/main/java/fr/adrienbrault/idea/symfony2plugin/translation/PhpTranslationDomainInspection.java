@@ -48,7 +48,7 @@ public class PhpTranslationDomainInspection extends LocalInspectionTool {
 
         int domainParameter = -1;
         PsiElement methodReference = parameterList.getContext();
-        if (methodReference instanceof MethodReference && PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) methodReference, TranslationUtil.PHP_TRANSLATION_SIGNATURES)) {
+        if (methodReference instanceof MethodReference && PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) methodReference, TranslationUtil.PHP_TRANSLATION_SIGNATURE_TABLE)) {
             domainParameter = 2;
             if("transChoice".equals(((MethodReference) methodReference).getName())) {
                 domainParameter = 3;
@@ -14,6 +14,7 @@ import com.intellij.psi.util.PsiModificationTracker;
 import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.translation.parser.TranslationStringMap;
 import fr.adrienbrault.idea.symfony2plugin.util.AbsoluteFileModificationTracker;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
@@ -42,7 +43,7 @@ public class TranslationIndex {
     private static final Key<CachedValue<TranslationStringMap>> SYMFONY_TRANSLATION_MAP_COMPILED = new Key<>("SYMFONY_TRANSLATION_MAP_COMPILED");
 
     synchronized static public TranslationStringMap getTranslationMap(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             SYMFONY_TRANSLATION_MAP_COMPILED,
             () -> {
@@ -58,8 +59,7 @@ public class TranslationIndex {
                 Symfony2ProjectComponent.getLogger().info("translations changed: " + StringUtils.join(translationDirectories.stream().map(File::toString).collect(Collectors.toSet()), ","));
 
                 return CachedValueProvider.Result.create(translationStringMap, new FileModificationModificationTracker(project));
-            },
-            false
+            }
         );
     }
 
@@ -76,11 +76,10 @@ public class TranslationIndex {
 
     @NotNull
     private static Collection<File> getTranslationRootInnerTime(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             SYMFONY_TRANSLATION_COMPILED_TIMED_WATCHER,
-            () -> CachedValueProvider.Result.create(getTranslationRootInner(project), TimeSecondModificationTracker.TIMED_MODIFICATION_TRACKER_60),
-            false
+            () -> CachedValueProvider.Result.create(getTranslationRootInner(project), TimeSecondModificationTracker.TIMED_MODIFICATION_TRACKER_60)
         );
     }
 
@@ -116,7 +115,7 @@ public class TranslationIndex {
 
         VirtualFile projectDir = ProjectUtil.getProjectDir(project);
         if (projectDir != null) {
-            Collection<String> cachedValue = CachedValuesManager.getManager(project).getCachedValue(
+            Collection<String> cachedValue = CacheStatistics.getCachedValue(
                 project,
                 SYMFONY_GUESTED_TRANSLATION_DIRECTORIES,
                 () -> {
@@ -166,8 +165,7 @@ public class TranslationIndex {
                         new TranslationSettingsModificationTracker(project),
                         new AbsoluteFileModificationTracker(caches)
                     );
-                },
-                false
+                }
             );
 
             files.addAll(cachedValue.stream().map(File::new).collect(Collectors.toSet()));
@@ -36,7 +36,7 @@ public class TranslationReferenceContributor extends PsiReferenceContributor {
                     PsiElement methodReference = parameterList.getContext();
 
                     int domainParameter = -1;
-                    if (methodReference instanceof MethodReference && PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) methodReference, TranslationUtil.PHP_TRANSLATION_SIGNATURES)) {
+                    if (methodReference instanceof MethodReference && PhpElementsUtil.isMethodReferenceInstanceOf((MethodReference) methodReference, TranslationUtil.PHP_TRANSLATION_SIGNATURE_TABLE)) {
                         domainParameter = 2;
                         if("transChoice".equals(((MethodReference) methodReference).getName())) {
                             domainParameter = 3;
@@ -18,6 +18,7 @@ import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
 import fr.adrienbrault.idea.symfony2plugin.extension.TranslatorProvider;
 import fr.adrienbrault.idea.symfony2plugin.extension.TranslatorProviderDict;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TranslationStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.visitor.ArrayReturnPsiRecursiveVisitor;
 import fr.adrienbrault.idea.symfony2plugin.translation.TranslatorLookupElement;
@@ -73,6 +74,8 @@ public class TranslationUtil {
         new MethodMatcher.CallToSignature("\\Symfony\\Bundle\\FrameworkBundle\\Templating\\Helper\\TranslatorHelper", "transChoice")
     };
 
+    public static final MethodMatcher.CallToSignatureTable PHP_TRANSLATION_SIGNATURE_TABLE = MethodMatcher.CallToSignatureTable.create(PHP_TRANSLATION_SIGNATURES);
+
     public static final String PHP_TRANSLATION_TRANSLATABLE_MESSAGE = "\\Symfony\\Component\\Translation\\TranslatableMessage";
 
     private static final String[] XLIFF_XPATH = {
@@ -178,7 +181,7 @@ public class TranslationUtil {
         Collection<PsiElement> targets = new HashSet<>();
 
         Arrays.stream(getTranslationProviders())
-            .map(translationProvider -> translationProvider.getTranslationTargets(project, translationKey, domain))
+            .map(translationProvider -> ExtensionStatistics.compute(project, "TranslationUtil.getTranslationPsiElements", translationProvider, provider -> provider.getTranslationTargets(project, translationKey, domain)))
             .forEach(targets::addAll);
 
         return targets.toArray(new PsiElement[0]);
@@ -247,7 +250,7 @@ public class TranslationUtil {
 
     public static boolean hasDomain(@NotNull Project project, @NotNull String domainName) {
         return Arrays.stream(getTranslationProviders())
-            .anyMatch(translatorProvider -> translatorProvider.hasDomain(project, domainName));
+            .anyMatch(translatorProvider -> ExtensionStatistics.compute(project, "TranslationUtil.hasDomain", translatorProvider, provider -> provider.hasDomain(project, domainName)));
     }
 
     public static boolean hasTranslationKey(@NotNull Project project, String keyName, String domainName) {
@@ -256,7 +259,7 @@ public class TranslationUtil {
         }
 
         return Arrays.stream(getTranslationProviders())
-            .anyMatch(translatorProvider -> translatorProvider.hasTranslationKey(project, keyName, domainName));
+            .anyMatch(translatorProvider -> ExtensionStatistics.compute(project, "TranslationUtil.hasTranslationKey", translatorProvider, provider -> provider.hasTranslationKey(project, keyName, domainName)));
     }
 
     @NotNull
@@ -266,7 +269,7 @@ public class TranslationUtil {
         Map<String, Boolean> keys = new HashMap<>();
 
         for (TranslatorProvider translationProvider : getTranslationProviders()) {
-            for (TranslatorProviderDict.TranslationKey translationKey : translationProvider.getTranslationsForDomain(project, domainName)) {
+            for (TranslatorProviderDict.TranslationKey translationKey : ExtensionStatistics.compute(project, "TranslationUtil.getTranslationLookupElementsOnDomain", translationProvider, provider -> provider.getTranslationsForDomain(project, domainName))) {
                 String domain = translationKey.getDomain();
                 if (keys.containsKey(domain)) {
                     // weak to full
@@ -292,7 +295,7 @@ public class TranslationUtil {
         Map<String, Boolean> domains = new HashMap<>();
 
         for (TranslatorProvider translationProvider : getTranslationProviders()) {
-            for (TranslatorProviderDict.TranslationDomain translationDomain : translationProvider.getTranslationDomains(project)) {
+            for (TranslatorProviderDict.TranslationDomain translationDomain : ExtensionStatistics.compute(project, "TranslationUtil.getTranslationDomainLookupElements", translationProvider, provider -> provider.getTranslationDomains(project))) {
                 String domain = translationDomain.getDomain();
                 if (domains.containsKey(domain)) {
                     // weak to full
@@ -315,7 +318,7 @@ public class TranslationUtil {
         Set<VirtualFile> files = new HashSet<>();
 
         for (TranslatorProvider translationProvider : getTranslationProviders()) {
-            files.addAll(translationProvider.getDomainPsiFiles(project, domainName));
+            files.addAll(ExtensionStatistics.compute(project, "TranslationUtil.getDomainPsiFiles", translationProvider, provider -> provider.getDomainPsiFiles(project, domainName)));
         }
 
         return new ArrayList<>(PsiElementUtils.convertVirtualFilesToPsiFiles(project, files));
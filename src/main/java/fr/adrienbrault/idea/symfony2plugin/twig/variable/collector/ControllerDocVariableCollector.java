@@ -25,6 +25,11 @@ public class ControllerDocVariableCollector implements TwigFileVariableCollector
     public static String DOC_PATTERN  = "\\{#[\\s]+@[C|c]ontroller[\\s]+([\\w\\\\\\[\\]:]+)[\\s]+#}";
     public static String DOC_PATTERN_COMPLETION  = "\\{#[\\s]+@[C|c]ontroller[\\s]+.*#}";
 
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collectPsiVariables(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, PsiVariable> variables) {
 
@@ -14,6 +14,11 @@ import java.util.Map;
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class ControllerVariableCollector implements TwigFileVariableCollector {
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collectPsiVariables(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, PsiVariable> variables) {
         PsiFile psiFile = parameter.getElement().getContainingFile();
@@ -18,6 +18,11 @@ import java.util.*;
  */
 public class ServiceContainerGlobalVariableCollector implements TwigFileVariableCollector {
 
+    @Override
+    public boolean isScopeDependent() {
+        return false;
+    }
+
     @Override
     public void collect(@NotNull TwigFileVariableCollectorParameter parameter, @NotNull Map<String, Set<String>> variables) {
         Map<String, Set<String>> map = new HashMap<>();
@@ -0,0 +1,151 @@
+package fr.adrienbrault.idea.symfony2plugin.ui;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.MessageType;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.ui.popup.Balloon;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.awt.RelativePoint;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.datatransfer.StringSelection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * "Symfony Plugin Diagnostics": cache lookups, rebuilds and extension point invocation times of the current project
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class SymfonyDiagnosticsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        ListTableModel<CacheStatistics.Snapshot> cacheModel = new ListTableModel<>(
+            new SnapshotColumn<>("Cache", CacheStatistics.Snapshot::getName),
+            new SnapshotColumn<>("Lookups", CacheStatistics.Snapshot::getLookups),
+            new SnapshotColumn<>("Hits", CacheStatistics.Snapshot::getHits),
+            new SnapshotColumn<>("Misses", CacheStatistics.Snapshot::getMisses),
+            new SnapshotColumn<>("Total ms", (CacheStatistics.Snapshot snapshot) -> formatMs(snapshot.getRebuildTimeTotalMs())),
+            new SnapshotColumn<>("Avg ms", (CacheStatistics.Snapshot snapshot) -> formatMs(snapshot.getRebuildTimeAverageMs())),
+            new SnapshotColumn<>("Max ms", (CacheStatistics.Snapshot snapshot) -> formatMs(snapshot.getRebuildTimeMaxMs())),
+            new SnapshotColumn<>(getHistogramTitle(), (CacheStatistics.Snapshot snapshot) -> Arrays.stream(snapshot.getRebuildTimeHistogram()).mapToObj(String::valueOf).collect(Collectors.joining(" / "))),
+            new SnapshotColumn<>("Entries", (CacheStatistics.Snapshot snapshot) -> snapshot.getEntries() < 0 ? "" : String.valueOf(snapshot.getEntries()))
+        );
+
+        CacheStatistics cacheStatistics = CacheStatistics.getInstance(project);
+        addContent(toolWindow, "Caches", cacheModel, cacheStatistics::getSnapshots, cacheStatistics::reset, cacheStatistics::toJson);
+
+        ListTableModel<ExtensionStatistics.Snapshot> extensionModel = new ListTableModel<>(
+            new SnapshotColumn<>("Extension", ExtensionStatistics.Snapshot::getExtension),
+            new SnapshotColumn<>("Caller", ExtensionStatistics.Snapshot::getCaller),
+            new SnapshotColumn<>("Invocations", ExtensionStatistics.Snapshot::getInvocations),
+            new SnapshotColumn<>("Slow", ExtensionStatistics.Snapshot::getSlowInvocations),
+            new SnapshotColumn<>("Total ms", (ExtensionStatistics.Snapshot snapshot) -> formatMs(snapshot.getTimeTotalMs())),
+            new SnapshotColumn<>("Avg ms", (ExtensionStatistics.Snapshot snapshot) -> formatMs(snapshot.getTimeAverageMs())),
+            new SnapshotColumn<>("Max ms", (ExtensionStatistics.Snapshot snapshot) -> formatMs(snapshot.getTimeMaxMs()))
+        );
+
+        ExtensionStatistics extensionStatistics = ExtensionStatistics.getInstance(project);
+        addContent(toolWindow, "Extensions", extensionModel, extensionStatistics::getSnapshots, extensionStatistics::reset, extensionStatistics::toJson);
+
+        toolWindow.setIcon(Symfony2Icons.SYMFONY_TOOL_WINDOW);
+    }
+
+    private static <T> void addContent(@NotNull ToolWindow toolWindow, @NotNull String title, @NotNull ListTableModel<T> model, @NotNull Supplier<List<T>> snapshots, @NotNull Runnable reset, @NotNull Supplier<String> json) {
+        TableView<T> tableView = new TableView<>(model);
+
+        Runnable refresh = () -> model.setItems(snapshots.get());
+        refresh.run();
+
+        DefaultActionGroup group = new DefaultActionGroup();
+
+        group.add(new DumbAwareAction("Refresh", "Reload statistics", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refresh.run();
+            }
+        });
+
+        group.add(new DumbAwareAction("Reset", "Clear all recorded statistics", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                reset.run();
+                refresh.run();
+            }
+        });
+
+        group.add(new DumbAwareAction("Copy as JSON", "Copy a JSON snapshot of the statistics", AllIcons.Actions.Copy) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                CopyPasteManager.getInstance().setContents(new StringSelection(json.get()));
+
+                JBPopupFactory.getInstance()
+                    .createHtmlTextBalloonBuilder(title + " statistics copied to clipboard", MessageType.INFO, null)
+                    .createBalloon()
+                    .show(RelativePoint.getCenterOf(tableView), Balloon.Position.above);
+            }
+        });
+
+        SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+        panel.setToolbar(ActionManager.getInstance().createActionToolbar("SymfonyDiagnostics", group, true).getComponent());
+        panel.setContent(ScrollPaneFactory.createScrollPane(tableView));
+
+        Content content = ContentFactory.SERVICE.getInstance().createContent(panel, title, false);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    @Override
+    public boolean shouldBeAvailable(@NotNull Project project) {
+        return Symfony2ProjectComponent.isEnabled(project);
+    }
+
+    @NotNull
+    private static String getHistogramTitle() {
+        return "Rebuilds " + Arrays.stream(CacheStatistics.HISTOGRAM_BUCKETS).mapToObj(value -> "<" + value).collect(Collectors.joining(" / ")) + " / more ms";
+    }
+
+    @NotNull
+    private static String formatMs(double ms) {
+        return String.format("%.1f", ms);
+    }
+
+    private static class SnapshotColumn<S, T> extends ColumnInfo<S, T> {
+        @NotNull
+        private final Function<S, T> value;
+
+        SnapshotColumn(@NotNull String name, @NotNull Function<S, T> value) {
+            super(name);
+            this.value = value;
+        }
+
+        @Nullable
+        @Override
+        public T valueOf(S snapshot) {
+            return value.apply(snapshot);
+        }
+    }
+}
@@ -10,10 +10,7 @@ import fr.adrienbrault.idea.symfony2plugin.dic.MethodReferenceBag;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -32,20 +29,70 @@ public class MethodMatcher {
             return null;
         }
 
-        MethodMatcher.MethodMatchParameter methodMatchParameter = new MethodMatcher.StringParameterMatcher(psiElement, defaultParameterIndex)
+        // direct call is matched first; then we try on resolved method
+        return new MethodMatcher.StringParameterRecursiveMatcher(psiElement, defaultParameterIndex)
             .withSignature(callToSignatures)
             .match();
+    }
+
+    @Nullable
+    public static MethodMatcher.MethodMatchParameter getMatchedSignatureWithDepth(@NotNull PsiElement psiElement, @NotNull CallToSignatureTable signatureTable) {
+        return getMatchedSignatureWithDepth(psiElement, signatureTable, 0);
+    }
 
-        if(methodMatchParameter != null) {
-            return methodMatchParameter;
+    @Nullable
+    public static MethodMatcher.MethodMatchParameter getMatchedSignatureWithDepth(@NotNull PsiElement psiElement, @NotNull CallToSignatureTable signatureTable, int defaultParameterIndex) {
+        if (!Symfony2ProjectComponent.isEnabled(psiElement)) {
+            return null;
         }
 
-        // try on resolved method
         return new MethodMatcher.StringParameterRecursiveMatcher(psiElement, defaultParameterIndex)
-            .withSignature(callToSignatures)
+            .withSignature(signatureTable)
             .match();
     }
 
+    /**
+     * Immutable method name => signatures lookup; build it once as a constant next to its signatures
+     */
+    public static class CallToSignatureTable {
+        @NotNull
+        private final Map<String, List<CallToSignature>> signaturesByMethod;
+
+        private CallToSignatureTable(@NotNull Map<String, List<CallToSignature>> signaturesByMethod) {
+            this.signaturesByMethod = signaturesByMethod;
+        }
+
+        @NotNull
+        public static CallToSignatureTable create(@NotNull CallToSignature... signatures) {
+            return create(Arrays.asList(signatures));
+        }
+
+        @NotNull
+        public static CallToSignatureTable create(@NotNull Collection<CallToSignature> signatures) {
+            Map<String, List<CallToSignature>> signaturesByMethod = new HashMap<>();
+
+            for (CallToSignature signature : signatures) {
+                signaturesByMethod.computeIfAbsent(signature.getMethod(), s -> new ArrayList<>()).add(signature);
+            }
+
+            signaturesByMethod.replaceAll((s, callToSignatures) -> Collections.unmodifiableList(callToSignatures));
+
+            return new CallToSignatureTable(Collections.unmodifiableMap(signaturesByMethod));
+        }
+
+        /**
+         * Signatures in their given order; empty for an unknown method name
+         */
+        @NotNull
+        public List<CallToSignature> getSignatures(@Nullable String method) {
+            if(method == null) {
+                return Collections.emptyList();
+            }
+
+            return signaturesByMethod.getOrDefault(method, Collections.emptyList());
+        }
+    }
+
     public static class CallToSignature {
         @NotNull
         private final String instance;
@@ -67,12 +114,28 @@ public class MethodMatcher {
         public String getMethod() {
             return method;
         }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(instance, method);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CallToSignature &&
+                ((CallToSignature) obj).instance.equals(this.instance) &&
+                ((CallToSignature) obj).method.equals(this.method)
+            ;
+        }
     }
 
     public static class MethodMatchParameter {
         @NotNull
         final private CallToSignature signature;
 
+        @NotNull
+        final private List<CallToSignature> signatures;
+
         @NotNull
         final private ParameterBag parameterBag;
 
@@ -83,7 +146,15 @@ public class MethodMatcher {
         final private MethodReference methodReference;
 
         public MethodMatchParameter(@NotNull CallToSignature signature, @NotNull ParameterBag parameterBag, @NotNull PsiElement[] parameters, @NotNull MethodReference methodReference) {
-            this.signature = signature;
+            this(Collections.singletonList(signature), parameterBag, parameters, methodReference);
+        }
+
+        /**
+         * @param signatures all matched signatures, first one is the primary
+         */
+        public MethodMatchParameter(@NotNull List<CallToSignature> signatures, @NotNull ParameterBag parameterBag, @NotNull PsiElement[] parameters, @NotNull MethodReference methodReference) {
+            this.signature = signatures.get(0);
+            this.signatures = signatures;
             this.parameterBag = parameterBag;
             this.parameters = parameters;
             this.methodReference = methodReference;
@@ -94,6 +165,14 @@ public class MethodMatcher {
             return signature;
         }
 
+        /**
+         * All signatures the method reference was matched on; eg "OptionsResolver" and "OptionsResolverInterface"
+         */
+        @NotNull
+        public List<CallToSignature> getSignatures() {
+            return signatures;
+        }
+
         @NotNull
         public ParameterBag getParameterBag() {
             return this.parameterBag;
@@ -129,12 +208,12 @@ public class MethodMatcher {
                 return null;
             }
 
-            CallToSignature matchedMethodSignature = this.isCallTo(bag.getMethodReference());
-            if(matchedMethodSignature == null) {
+            List<CallToSignature> matchedMethodSignatures = this.getCallTo(bag.getMethodReference());
+            if(matchedMethodSignatures.isEmpty()) {
                 return null;
             }
 
-            return new MethodMatchParameter(matchedMethodSignature, bag.getParameterBag(), bag.getParameterList().getParameters(), bag.getMethodReference());
+            return new MethodMatchParameter(matchedMethodSignatures, bag.getParameterBag(), bag.getParameterList().getParameters(), bag.getMethodReference());
         }
 
     }
@@ -158,12 +237,12 @@ public class MethodMatcher {
                 return null;
             }
 
-            CallToSignature matchedMethodSignature = this.isCallTo(bag.getMethodReference());
-            if(matchedMethodSignature == null) {
+            List<CallToSignature> matchedMethodSignatures = this.getCallTo(bag.getMethodReference());
+            if(matchedMethodSignatures.isEmpty()) {
                 return null;
             }
 
-            return new MethodMatchParameter(matchedMethodSignature, bag.getParameterBag(), bag.getParameterList().getParameters(), bag.getMethodReference());
+            return new MethodMatchParameter(matchedMethodSignatures, bag.getParameterBag(), bag.getParameterList().getParameters(), bag.getMethodReference());
         }
 
     }
@@ -186,8 +265,7 @@ public class MethodMatcher {
             }
 
             // try on current method
-            MethodMatcher.MethodMatchParameter methodMatchParameter = new StringParameterMatcher(psiElement, parameterIndex)
-                .withSignature(this.signatures)
+            MethodMatcher.MethodMatchParameter methodMatchParameter = withSignatures(new StringParameterMatcher(psiElement, parameterIndex))
                 .match();
 
             if(methodMatchParameter != null) {
@@ -199,8 +277,7 @@ public class MethodMatcher {
             for (Method method : PhpElementsUtil.getMultiResolvedMethod(methodReference)) {
                 for(PsiElement var: PhpElementsUtil.getMethodParameterReferences(method, bag.getParameterBag().getIndex())) {
 
-                    MethodMatcher.MethodMatchParameter methodMatchParameterRef = new MethodMatcher.StringParameterMatcher(var, parameterIndex)
-                        .withSignature(this.signatures)
+                    MethodMatcher.MethodMatchParameter methodMatchParameterRef = withSignatures(new MethodMatcher.StringParameterMatcher(var, parameterIndex))
                         .match();
 
                     if(methodMatchParameterRef != null) {
@@ -251,12 +328,12 @@ public class MethodMatcher {
                 return null;
             }
 
-            CallToSignature matchedMethodSignature = this.isCallTo(methodReference);
-            if(matchedMethodSignature == null) {
+            List<CallToSignature> matchedMethodSignatures = this.getCallTo(methodReference);
+            if(matchedMethodSignatures.isEmpty()) {
                 return null;
             }
 
-            return new MethodMatchParameter(matchedMethodSignature, currentIndex, methodParameters, methodReference);
+            return new MethodMatchParameter(matchedMethodSignatures, currentIndex, methodParameters, methodReference);
         }
 
     }
@@ -272,6 +349,11 @@ public class MethodMatcher {
         final protected int parameterIndex;
         final protected PsiElement psiElement;
 
+        /**
+         * Precomputed signature constants; shared and never copied
+         */
+        final protected List<CallToSignatureTable> signatureTables = new ArrayList<>();
+
         public AbstractMethodParameterMatcher(PsiElement psiElement, int parameterIndex) {
             this.signatures = new ArrayList<>();
             this.parameterIndex = parameterIndex;
@@ -293,15 +375,53 @@ public class MethodMatcher {
             return this;
         }
 
+        public AbstractMethodParameterMatcher withSignature(@NotNull CallToSignatureTable signatureTable) {
+            this.signatureTables.add(signatureTable);
+            return this;
+        }
+
+        /**
+         * Pass all signatures of this matcher to a nested one
+         */
+        @NotNull
+        protected <T extends AbstractMethodParameterMatcher> T withSignatures(@NotNull T matcher) {
+            matcher.signatures.addAll(this.signatures);
+            matcher.signatureTables.addAll(this.signatureTables);
+            return matcher;
+        }
+
         @Nullable
         protected CallToSignature isCallTo(MethodReference methodReference) {
-            for(CallToSignature signature: this.signatures) {
-                if(PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, signature)) {
-                    return signature;
+            List<CallToSignature> matched = getCallTo(methodReference);
+            return matched.isEmpty() ? null : matched.get(0);
+        }
+
+        /**
+         * Signatures are filtered by method name, so the method reference is only resolved once and only with a candidate
+         */
+        @NotNull
+        protected List<CallToSignature> getCallTo(@NotNull MethodReference methodReference) {
+            String name = methodReference.getName();
+            if(name == null) {
+                return Collections.emptyList();
+            }
+
+            List<CallToSignature> candidates = new ArrayList<>();
+            for (CallToSignatureTable signatureTable : this.signatureTables) {
+                candidates.addAll(signatureTable.getSignatures(name));
+            }
+
+            for (CallToSignature signature : this.signatures) {
+                if(name.equals(signature.getMethod())) {
+                    candidates.add(signature);
                 }
             }
 
-            return null;
+            if(candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            return PhpElementsUtil.getMethodReferenceInstanceOf(methodReference, candidates);
         }
     }
 }
@@ -2,13 +2,18 @@ package fr.adrienbrault.idea.symfony2plugin.util;
 
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.jetbrains.php.lang.psi.elements.ParameterList;
 import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.assistant.AssistantReferenceContributor;
 import fr.adrienbrault.idea.symfony2plugin.assistant.reference.AssistantReferenceUtil;
@@ -17,12 +22,11 @@ import fr.adrienbrault.idea.symfony2plugin.assistant.reference.DefaultReferenceP
 import fr.adrienbrault.idea.symfony2plugin.assistant.reference.MethodParameterSetting;
 import fr.adrienbrault.idea.symfony2plugin.extension.MethodParameterReferenceContributorExtension;
 import fr.adrienbrault.idea.symfony2plugin.extension.MethodParameterReferenceContributorParameter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -31,6 +35,8 @@ public class MethodParameterReferenceContributor extends PsiReferenceContributor
 
     private static final ExtensionPointName<MethodParameterReferenceContributorExtension> EXTENSIONS = new ExtensionPointName<>("fr.adrienbrault.idea.symfony2plugin.extension.MethodParameterReferenceContributorExtension");
 
+    private static final Key<CachedValue<Map<Integer, ParameterSignatures>>> SIGNATURE_TABLE = new Key<>("SYMFONY_METHOD_PARAMETER_SIGNATURE_TABLE");
+
     @Override
     public void registerReferenceProviders(PsiReferenceRegistrar psiReferenceRegistrar) {
 
@@ -46,12 +52,6 @@ public class MethodParameterReferenceContributor extends PsiReferenceContributor
                         return new PsiReference[0];
                     }
 
-                    List<MethodParameterSetting> configs = new ArrayList<>();
-
-                    configs.addAll(AssistantReferenceUtil.getMethodsParameterSettings(psiElement.getProject()));
-                    configs.addAll(getInternalMethodParameterSetting());
-                    configs.addAll(getExtensionMethodParameterSetting(psiElement.getProject()));
-
                     ParameterList parameterList = PsiTreeUtil.getParentOfType(psiElement, ParameterList.class);
                     if (parameterList == null) {
                         return new PsiReference[0];
@@ -63,34 +63,84 @@ public class MethodParameterReferenceContributor extends PsiReferenceContributor
 
                     MethodReference method = (MethodReference) parameterList.getContext();
 
+                    // we need nearest parameter value
+                    PsiElement psiNearestParameter = PsiElementUtils.getParentOfTypeFirstChild(psiElement, ParameterList.class);
+                    if(psiNearestParameter == null) {
+                        return new PsiReference[0];
+                    }
+
                     List<PsiReference> psiReferences = new ArrayList<>();
 
                     // get config in method scope; so we can pipe them
                     ArrayList<MethodParameterSetting> methodScopeConfigs = new ArrayList<>();
-                    for (MethodParameterSetting config: configs) {
 
+                    // one match for all signatures of a parameter index, instead of resolving the method for each config
+                    for (Map.Entry<Integer, ParameterSignatures> entry : getSignatureTable(psiElement.getProject()).entrySet()) {
+                        ParameterSignatures signatures = entry.getValue();
 
-                        // @TODO: fake MethodMatcher call; replace this :)
-                        // we need nearest parameter value
-                        PsiElement psiNearestParameter = PsiElementUtils.getParentOfTypeFirstChild(psiElement, ParameterList.class);
-                        if(psiNearestParameter == null) {
+                        MethodMatcher.MethodMatchParameter matchParameter = MethodMatcher.getMatchedSignatureWithDepth(psiNearestParameter, signatures.table, entry.getKey());
+                        if(matchParameter == null) {
                             continue;
                         }
 
-                        MethodMatcher.MethodMatchParameter matchParameter = MethodMatcher.getMatchedSignatureWithDepth(psiNearestParameter, new MethodMatcher.CallToSignature[]{new MethodMatcher.CallToSignature(config.getCallTo(), config.getMethodName())}, config.getIndexParameter());
-                        if(matchParameter != null) {
-                            AssistantReferenceContributor referenceContributor = AssistantReferenceUtil.getContributor(config);
-                            if(referenceContributor != null && referenceContributor.isContributedElement(psiElement, config)) {
-                                Collections.addAll(psiReferences, AssistantReferenceUtil.getPsiReference(config, (StringLiteralExpression) psiElement, methodScopeConfigs, method));
+                        // all configs of the matched call; eg "OptionsResolver" and "OptionsResolverInterface"
+                        for (MethodMatcher.CallToSignature signature : matchParameter.getSignatures()) {
+                            for (MethodParameterSetting config : signatures.configs.getOrDefault(signature, Collections.emptyList())) {
+                                AssistantReferenceContributor referenceContributor = AssistantReferenceUtil.getContributor(config);
+                                if(referenceContributor != null && referenceContributor.isContributedElement(psiElement, config)) {
+                                    Collections.addAll(psiReferences, AssistantReferenceUtil.getPsiReference(config, (StringLiteralExpression) psiElement, methodScopeConfigs, method));
+                                }
                             }
                         }
-
                     }
 
                     return psiReferences.toArray(new PsiReference[psiReferences.size()]);
                 }
 
 
+                /**
+                 * Configs only change with the settings; extensions are free to look into the project, so also any psi change
+                 */
+                @NotNull
+                private Map<Integer, ParameterSignatures> getSignatureTable(@NotNull Project project) {
+                    return CacheStatistics.getCachedValue(project, SIGNATURE_TABLE, () -> {
+                        List<MethodParameterSetting> configs = new ArrayList<>();
+
+                        configs.addAll(AssistantReferenceUtil.getMethodsParameterSettings(project));
+                        configs.addAll(getInternalMethodParameterSetting());
+                        configs.addAll(getExtensionMethodParameterSetting(project));
+
+                        return CachedValueProvider.Result.create(
+                            createSignatureTable(configs),
+                            Settings.getInstance(project).getModificationTracker(),
+                            PsiModificationTracker.MODIFICATION_COUNT
+                        );
+                    });
+                }
+
+                /**
+                 * Parameter index => signature => configs; user settings and internal ones share the same table
+                 */
+                @NotNull
+                private Map<Integer, ParameterSignatures> createSignatureTable(@NotNull Collection<MethodParameterSetting> configs) {
+                    Map<Integer, Map<MethodMatcher.CallToSignature, List<MethodParameterSetting>>> configsByIndex = new LinkedHashMap<>();
+
+                    for (MethodParameterSetting config : configs) {
+                        if(StringUtils.isBlank(config.getCallTo()) || StringUtils.isBlank(config.getMethodName())) {
+                            continue;
+                        }
+
+                        configsByIndex.computeIfAbsent(config.getIndexParameter(), integer -> new LinkedHashMap<>())
+                            .computeIfAbsent(new MethodMatcher.CallToSignature(config.getCallTo(), config.getMethodName()), signature -> new ArrayList<>())
+                            .add(config);
+                    }
+
+                    Map<Integer, ParameterSignatures> table = new LinkedHashMap<>();
+                    configsByIndex.forEach((index, signatures) -> table.put(index, new ParameterSignatures(signatures)));
+
+                    return table;
+                }
+
                 private Collection<MethodParameterSetting> getInternalMethodParameterSetting() {
                     Collection<MethodParameterSetting> methodParameterSettings = new ArrayList<>();
 
@@ -174,5 +224,19 @@ public class MethodParameterReferenceContributor extends PsiReferenceContributor
 
     }
 
+    /**
+     * Signatures of one parameter index with their configs; matcher table is built once per cache computation
+     */
+    private static class ParameterSignatures {
+        @NotNull
+        private final MethodMatcher.CallToSignatureTable table;
 
+        @NotNull
+        private final Map<MethodMatcher.CallToSignature, List<MethodParameterSetting>> configs;
+
+        private ParameterSignatures(@NotNull Map<MethodMatcher.CallToSignature, List<MethodParameterSetting>> configs) {
+            this.table = MethodMatcher.CallToSignatureTable.create(configs.keySet());
+            this.configs = configs;
+        }
+    }
 }
@@ -1325,13 +1325,66 @@ public class PhpElementsUtil {
      * Try to find method matching on any "className::method" giving
      */
     public static boolean isMethodReferenceInstanceOf(@NotNull MethodReference methodReference, @NotNull MethodMatcher.CallToSignature... signatures) {
-        for (MethodMatcher.CallToSignature method : signatures) {
-            if (isMethodReferenceInstanceOf(methodReference, method.getInstance(), method.getMethod())) {
-                return true;
+        return !getMethodReferenceInstanceOf(methodReference, Arrays.asList(signatures)).isEmpty();
+    }
+
+    /**
+     * Try to find method matching on any signature of a prebuilt table; an unknown method name is rejected without resolving
+     */
+    public static boolean isMethodReferenceInstanceOf(@NotNull MethodReference methodReference, @NotNull MethodMatcher.CallToSignatureTable signatureTable) {
+        List<MethodMatcher.CallToSignature> candidates = signatureTable.getSignatures(methodReference.getName());
+        return !candidates.isEmpty() && !getMethodReferenceInstanceOf(methodReference, candidates).isEmpty();
+    }
+
+    /**
+     * All signatures matching the MethodReference in given order. Signatures are filtered by method name first,
+     * so the class type is only resolved once and only if there is any method name candidate
+     */
+    @NotNull
+    public static List<MethodMatcher.CallToSignature> getMethodReferenceInstanceOf(@NotNull MethodReference methodReference, @NotNull Collection<MethodMatcher.CallToSignature> signatures) {
+        String methodName = methodReference.getName();
+        if(methodName == null) {
+            return Collections.emptyList();
+        }
+
+        List<MethodMatcher.CallToSignature> candidates = signatures.stream()
+            .filter(signature -> methodName.equals(signature.getMethod()))
+            .collect(Collectors.toList());
+
+        if(candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        PhpIndex instance = PhpIndex.getInstance(methodReference.getProject());
+        PhpType classType = (new PhpType()).add(methodReference.getClassReference()).global(methodReference.getProject());
+
+        Collection<PhpClass> containingClasses = classType.getTypes()
+            .stream()
+            .flatMap((fqn) -> instance.getAnyByFQN(fqn).stream())
+            .distinct()
+            .map(phpClass -> phpClass.findMethodByName(methodName))
+            .filter(Objects::nonNull)
+            .map(Method::getContainingClass)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+
+        if(containingClasses.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<MethodMatcher.CallToSignature> matched = new ArrayList<>();
+
+        for (MethodMatcher.CallToSignature candidate : candidates) {
+            for (PhpClass containingClass : containingClasses) {
+                if(PhpElementsUtil.isInstanceOf(containingClass, candidate.getInstance())) {
+                    matched.add(candidate);
+                    break;
+                }
             }
         }
 
-        return false;
+        return matched;
     }
 
     public static boolean isMethodInstanceOf(@NotNull Method method, @NotNull String clazz, @NotNull String methodName) {
@@ -0,0 +1,288 @@
+package fr.adrienbrault.idea.symfony2plugin.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.Method;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
+import com.jetbrains.php.lang.psi.resolve.types.PhpType;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DoctrineMetadataFileStubIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Type providers are called thousands of times for the same signature while PhpStorm infers types of a file,
+ * eg a service class with many "getRepository('App:User')->find()" calls. Results of a signature are only depending
+ * on the project class structure, Doctrine metadata, the compiled container, "DoctrineModelProvider" extensions and
+ * the plugin settings, so we can memorize them per "generation" of all of them.
+ *
+ * Resolved elements are stored as signatures ("#C\Foo", "#M#C\Foo.bar") and not as PsiElements. Resolving them
+ * can depend on method bodies, eg a "getRepository" return, which are not part of the stubs; so these entries
+ * are additionally bound to the PSI modification count.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class PhpTypeProviderCache {
+
+    private static final Key<PhpTypeProviderCache> TYPE_PROVIDER_CACHE = new Key<>("SYMFONY_PHP_TYPE_PROVIDER_CACHE");
+
+    private static final int MAX_SIZE = 5000;
+
+    @NotNull
+    private final Project project;
+
+    @NotNull
+    private final ModificationTracker[] trackers;
+
+    @NotNull
+    private final ModificationTracker settingsTracker;
+
+    @NotNull
+    private final ModificationTracker psiTracker;
+
+    @NotNull
+    private final SimpleModificationTracker extensionTracker = new SimpleModificationTracker();
+
+    @NotNull
+    private final Map<String, Entry> cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_SIZE;
+        }
+    });
+
+    /**
+     * Compiled container files are part of the settings, so its tracker is recreated on every settings change
+     */
+    @Nullable
+    private volatile Pair<Long, ModificationTracker> containerTracker;
+
+    @NotNull
+    private volatile Generation generation = new Generation(new long[0], 0);
+
+    private PhpTypeProviderCache(@NotNull Project project) {
+        this.project = project;
+        this.settingsTracker = Settings.getInstance(project).getModificationTracker();
+        this.psiTracker = PsiModificationTracker.getInstance(project);
+        this.trackers = new ModificationTracker[] {
+            FileIndexCaches.getStubModificationTracker(project),
+            FileIndexCaches.getModificationTrackerForIndexId(project, DoctrineMetadataFileStubIndex.KEY),
+            extensionTracker,
+        };
+
+        EntityHelper.MODEL_POINT_NAME.addChangeListener(extensionTracker::incModificationCount, project);
+    }
+
+    @NotNull
+    public static PhpTypeProviderCache getInstance(@NotNull Project project) {
+        PhpTypeProviderCache cache = project.getUserData(TYPE_PROVIDER_CACHE);
+        if (cache != null) {
+            return cache;
+        }
+
+        return ((UserDataHolderEx) project).putUserDataIfAbsent(TYPE_PROVIDER_CACHE, new PhpTypeProviderCache(project));
+    }
+
+    /**
+     * Memorized "PhpTypeProvider4::getBySignature"; elements which can not be represented as signature are not cached
+     */
+    @NotNull
+    public Collection<? extends PhpNamedElement> getBySignature(@NotNull Project project, char key, @NotNull String expression, @NotNull Supplier<Collection<? extends PhpNamedElement>> resolver) {
+        String cacheKey = key + expression;
+        long generation = getGeneration();
+        long psiCount = psiTracker.getModificationCount();
+
+        Collection<String> signatures = get(cacheKey, generation, psiCount);
+        if (signatures != null) {
+            PhpIndex phpIndex = PhpIndex.getInstance(project);
+
+            Collection<PhpNamedElement> elements = new ArrayList<>();
+            for (String signature : signatures) {
+                elements.addAll(phpIndex.getBySignature(signature));
+            }
+
+            return elements;
+        }
+
+        long start = System.nanoTime();
+        Collection<? extends PhpNamedElement> elements = resolver.get();
+
+        Collection<String> items = new ArrayList<>();
+        for (PhpNamedElement element : elements) {
+            String signature = getSignature(element);
+            if (signature == null) {
+                // not cacheable, but still a miss for the statistics
+                CacheStatistics.getInstance(project).recordRebuild(TYPE_PROVIDER_CACHE.toString(), System.nanoTime() - start, cache.size());
+                return elements;
+            }
+
+            items.add(signature);
+        }
+
+        put(cacheKey, generation, psiCount, items, System.nanoTime() - start);
+
+        return elements;
+    }
+
+    /**
+     * Memorized "PhpTypeProvider4::complete"
+     */
+    @Nullable
+    public PhpType complete(char key, @NotNull String expression, @NotNull Supplier<PhpType> resolver) {
+        String cacheKey = key + expression;
+        long generation = getGeneration();
+
+        Collection<String> types = get(cacheKey, generation, -1);
+        if (types == null) {
+            long start = System.nanoTime();
+            PhpType phpType = resolver.get();
+            types = phpType != null ? new ArrayList<>(phpType.getTypes()) : Collections.emptyList();
+            put(cacheKey, generation, -1, types, System.nanoTime() - start);
+        }
+
+        if (types.isEmpty()) {
+            return null;
+        }
+
+        PhpType phpType = new PhpType();
+        types.forEach(phpType::add);
+
+        return phpType;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Entries of an older generation or PSI modification count are dropped; a resolver which was started before a change
+     * can still write its result. "-1" entries are not depending on the PSI modification count
+     */
+    @Nullable
+    private Collection<String> get(@NotNull String cacheKey, long generation, long psiCount) {
+        CacheStatistics.getInstance(project).recordLookup(TYPE_PROVIDER_CACHE.toString());
+
+        Entry entry = cache.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.generation != generation || entry.psiCount != psiCount) {
+            cache.remove(cacheKey, entry);
+            return null;
+        }
+
+        return entry.values;
+    }
+
+    private void put(@NotNull String cacheKey, long generation, long psiCount, @NotNull Collection<String> values, long nanos) {
+        cache.put(cacheKey, new Entry(generation, psiCount, Collections.unmodifiableCollection(values)));
+        CacheStatistics.getInstance(project).recordRebuild(TYPE_PROVIDER_CACHE.toString(), nanos, cache.size());
+    }
+
+    /**
+     * Own counter which is increased on any tracker change, as a recreated tracker is starting its count again.
+     * The common unchanged case needs no lock
+     */
+    private long getGeneration() {
+        long[] counts = getModificationCounts();
+
+        Generation current = this.generation;
+        if (Arrays.equals(counts, current.counts)) {
+            return current.value;
+        }
+
+        synchronized (this) {
+            current = this.generation;
+            if (!Arrays.equals(counts, current.counts)) {
+                current = new Generation(counts, current.value + 1);
+                this.generation = current;
+                cache.clear();
+            }
+
+            return current.value;
+        }
+    }
+
+    @NotNull
+    private long[] getModificationCounts() {
+        long[] counts = new long[trackers.length + 2];
+        for (int i = 0; i < trackers.length; i++) {
+            counts[i] = trackers[i].getModificationCount();
+        }
+
+        long settingsCount = settingsTracker.getModificationCount();
+        counts[trackers.length] = settingsCount;
+        counts[trackers.length + 1] = getContainerTracker(settingsCount).getModificationCount();
+
+        return counts;
+    }
+
+    @NotNull
+    private ModificationTracker getContainerTracker(long settingsCount) {
+        Pair<Long, ModificationTracker> tracker = this.containerTracker;
+        if (tracker == null || tracker.getFirst() != settingsCount) {
+            tracker = Pair.create(settingsCount, ServiceContainerUtil.getCompiledContainerModificationTracker(project));
+            this.containerTracker = tracker;
+        }
+
+        return tracker.getSecond();
+    }
+
+    @Nullable
+    private static String getSignature(@NotNull PhpNamedElement element) {
+        if (element instanceof PhpClass) {
+            return "#C" + element.getFQN();
+        }
+
+        if (element instanceof Method) {
+            PhpClass containingClass = ((Method) element).getContainingClass();
+            if (containingClass != null) {
+                return "#M#C" + containingClass.getFQN() + "." + element.getName();
+            }
+        }
+
+        return null;
+    }
+
+    private static class Generation {
+        @NotNull
+        private final long[] counts;
+
+        private final long value;
+
+        Generation(@NotNull long[] counts, long value) {
+            this.counts = counts;
+            this.value = value;
+        }
+    }
+
+    private static class Entry {
+        private final long generation;
+
+        private final long psiCount;
+
+        @NotNull
+        private final Collection<String> values;
+
+        Entry(long generation, long psiCount, @NotNull Collection<String> values) {
+            this.generation = generation;
+            this.psiCount = psiCount;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package fr.adrienbrault.idea.symfony2plugin.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDirectory;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * All "Symfony\Component\HttpKernel\Bundle\Bundle" classes of the project with name, namespace and directory lookups
+ *
+ * Rebuild on structural PHP changes, so that "new SymfonyBundleUtil(project)" is cheap on every call.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class SymfonyBundleRegistry {
+
+    @NotNull
+    private final Project project;
+
+    @Nullable
+    private volatile Bundles bundles;
+
+    public SymfonyBundleRegistry(@NotNull Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    public static SymfonyBundleRegistry getInstance(@NotNull Project project) {
+        return project.getService(SymfonyBundleRegistry.class);
+    }
+
+    @NotNull
+    public Collection<SymfonyBundle> getBundles() {
+        return getBundlesModel().bundles;
+    }
+
+    @NotNull
+    public Collection<SymfonyBundle> getBundle(@NotNull String bundleName) {
+        return getBundlesModel().nameToBundles.getOrDefault(bundleName, Collections.emptyList());
+    }
+
+    /**
+     * Innermost bundle which namespace is a prefix of the class namespace
+     */
+    @Nullable
+    public SymfonyBundle getContainingBundle(@NotNull PhpClass phpClass) {
+        Map<String, SymfonyBundle> namespaceToBundle = getBundlesModel().namespaceToBundle;
+
+        String namespace = phpClass.getNamespaceName();
+        while (true) {
+            SymfonyBundle bundle = namespaceToBundle.get(namespace);
+            if(bundle != null) {
+                return bundle;
+            }
+
+            // "\Foo\Bar\" => "\Foo\"
+            int i = namespace.lastIndexOf('\\', namespace.length() - 2);
+            if(i < 0) {
+                return namespaceToBundle.get("");
+            }
+
+            namespace = namespace.substring(0, i + 1);
+        }
+    }
+
+    /**
+     * Innermost bundle which directory is an ancestor of the file
+     */
+    @Nullable
+    public SymfonyBundle getContainingBundle(@NotNull VirtualFile virtualFile) {
+        Map<String, SymfonyBundle> directoryToBundle = getBundlesModel().directoryToBundle;
+
+        for (VirtualFile parent = virtualFile; parent != null; parent = parent.getParent()) {
+            SymfonyBundle bundle = directoryToBundle.get(parent.getPath());
+            if(bundle != null) {
+                return bundle;
+            }
+        }
+
+        return null;
+    }
+
+    @NotNull
+    private Bundles getBundlesModel() {
+        Bundles bundles = this.bundles;
+
+        long stubModificationCount = FileIndexCaches.getStubModificationTracker(project).getModificationCount();
+        if(bundles == null || bundles.stubModificationCount != stubModificationCount || !bundles.isValid()) {
+            this.bundles = bundles = createBundles(stubModificationCount);
+        }
+
+        return bundles;
+    }
+
+    @NotNull
+    private Bundles createBundles(long stubModificationCount) {
+        List<SymfonyBundle> bundles = new ArrayList<>();
+        Map<String, List<SymfonyBundle>> nameToBundles = new HashMap<>();
+        Map<String, SymfonyBundle> namespaceToBundle = new HashMap<>();
+        Map<String, SymfonyBundle> directoryToBundle = new HashMap<>();
+
+        for (PhpClass phpClass : PhpIndex.getInstance(project).getAllSubclasses("\\Symfony\\Component\\HttpKernel\\Bundle\\Bundle")) {
+            SymfonyBundle bundle = new SymfonyBundle(phpClass);
+            bundles.add(bundle);
+
+            nameToBundles.computeIfAbsent(bundle.getName(), s -> new ArrayList<>()).add(bundle);
+            namespaceToBundle.putIfAbsent(bundle.getNamespaceName(), bundle);
+
+            PsiDirectory directory = bundle.getDirectory();
+            if(directory != null) {
+                directoryToBundle.putIfAbsent(directory.getVirtualFile().getPath(), bundle);
+            }
+        }
+
+        nameToBundles.replaceAll((s, symfonyBundles) -> Collections.unmodifiableList(symfonyBundles));
+
+        return new Bundles(
+            stubModificationCount,
+            Collections.unmodifiableList(bundles),
+            Collections.unmodifiableMap(nameToBundles),
+            Collections.unmodifiableMap(namespaceToBundle),
+            Collections.unmodifiableMap(directoryToBundle)
+        );
+    }
+
+    private static class Bundles {
+        private final long stubModificationCount;
+
+        @NotNull
+        private final Collection<SymfonyBundle> bundles;
+
+        @NotNull
+        private final Map<String, List<SymfonyBundle>> nameToBundles;
+
+        @NotNull
+        private final Map<String, SymfonyBundle> namespaceToBundle;
+
+        @NotNull
+        private final Map<String, SymfonyBundle> directoryToBundle;
+
+        Bundles(long stubModificationCount, @NotNull Collection<SymfonyBundle> bundles, @NotNull Map<String, List<SymfonyBundle>> nameToBundles, @NotNull Map<String, SymfonyBundle> namespaceToBundle, @NotNull Map<String, SymfonyBundle> directoryToBundle) {
+            this.stubModificationCount = stubModificationCount;
+            this.bundles = bundles;
+            this.nameToBundles = nameToBundles;
+            this.namespaceToBundle = namespaceToBundle;
+            this.directoryToBundle = directoryToBundle;
+        }
+
+        /**
+         * Class elements can get invalid on reparse without any structural change
+         */
+        boolean isValid() {
+            return bundles.stream().allMatch(bundle -> bundle.getPhpClass().isValid());
+        }
+    }
+}
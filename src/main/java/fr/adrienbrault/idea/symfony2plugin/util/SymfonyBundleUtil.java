@@ -4,47 +4,31 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
+ * Lookups are delegated to the project wide cached {@link SymfonyBundleRegistry}
+ *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class SymfonyBundleUtil {
     @NotNull
-    private final Project project;
-
-    @Nullable
-    private Collection<SymfonyBundle> symfonyBundles;
+    private final SymfonyBundleRegistry registry;
 
     public SymfonyBundleUtil(@NotNull Project project) {
-        this.project = project;
+        this.registry = SymfonyBundleRegistry.getInstance(project);
     }
 
     @NotNull
     public Collection<SymfonyBundle> getBundles() {
-        if(symfonyBundles != null) {
-            return symfonyBundles;
-        }
-
-        symfonyBundles = new ArrayList<>();
-
-        Collection<PhpClass> phpClasses = PhpIndex.getInstance(project).getAllSubclasses("\\Symfony\\Component\\HttpKernel\\Bundle\\Bundle");
-
-        for (PhpClass phpClass : phpClasses) {
-            symfonyBundles.add(new SymfonyBundle(phpClass));
-        }
-
-        return symfonyBundles;
+        return registry.getBundles();
     }
 
     @NotNull
@@ -62,55 +46,27 @@ public class SymfonyBundleUtil {
 
     @NotNull
     public Collection<SymfonyBundle> getBundle(@NotNull String bundleName) {
-        return getBundles()
-            .stream()
-            .filter(
-                symfonyBundle -> bundleName.equals(symfonyBundle.getName())
-            )
-            .collect(Collectors.toSet());
+        return registry.getBundle(bundleName);
     }
 
     @Nullable
     public SymfonyBundle getContainingBundle(@NotNull PhpClass phpClass) {
-        for(SymfonyBundle bundle : getBundles()) {
-            if(bundle.isInBundle(phpClass)) {
-                return bundle;
-            }
-        }
-
-        return null;
+        return registry.getContainingBundle(phpClass);
     }
 
     @Nullable
     public SymfonyBundle getContainingBundle(@NotNull PsiFile psiFile) {
-        for(SymfonyBundle bundle : getBundles()) {
-            if(bundle.isInBundle(psiFile)) {
-                return bundle;
-            }
-        }
-
-        return null;
+        VirtualFile virtualFile = psiFile.getVirtualFile();
+        return virtualFile != null ? registry.getContainingBundle(virtualFile) : null;
     }
 
     @Nullable
     public SymfonyBundle getContainingBundle(@NotNull VirtualFile virtualFile) {
-        for(SymfonyBundle bundle : getBundles()) {
-            if(bundle.isInBundle(virtualFile)) {
-                return bundle;
-            }
-        }
-
-        return null;
+        return registry.getContainingBundle(virtualFile);
     }
 
     @Nullable
     public SymfonyBundle getContainingBundle(@NotNull PsiDirectory directory) {
-        for(SymfonyBundle bundle : getBundles()) {
-            if(bundle.isInBundle(directory.getVirtualFile())) {
-                return bundle;
-            }
-        }
-
-        return null;
+        return registry.getContainingBundle(directory.getVirtualFile());
     }
 }
@@ -2,20 +2,23 @@ package fr.adrienbrault.idea.symfony2plugin.util;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
-import com.jetbrains.php.lang.psi.elements.PhpClass;
-import fr.adrienbrault.idea.symfony2plugin.dic.command.SymfonyCommandTestRunLineMarkerProvider;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ConsoleCommandStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyCommand;
+import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -23,28 +26,19 @@ import java.util.Map;
 public class SymfonyCommandUtil {
     private static final Key<CachedValue<Map<String, String>>> SYMFONY_COMMAND_NAME_MAP = new Key<>("SYMFONY_COMMAND_NAME_MAP");
 
+    private static final String COMMAND_CLASS = "\\Symfony\\Component\\Console\\Command\\Command";
+    private static final String AS_COMMAND_CLASS = "\\Symfony\\Component\\Console\\Attribute\\AsCommand";
+
     @NotNull
     public static Collection<SymfonyCommand> getCommands(@NotNull Project project) {
-        Map<String, String> cachedValue = CachedValuesManager.getManager(project).getCachedValue(
+        Map<String, String> cachedValue = CacheStatistics.getCachedValue(
             project,
             SYMFONY_COMMAND_NAME_MAP,
-            () -> {
-                Map<String, String> symfonyCommands = new HashMap<>();
-
-                for (PhpClass phpClass : PhpIndex.getInstance(project).getAllSubclasses("\\Symfony\\Component\\Console\\Command\\Command")) {
-                    if (PhpElementsUtil.isTestClass(phpClass)) {
-                        continue;
-                    }
-
-                    String commandName = SymfonyCommandTestRunLineMarkerProvider.getCommandNameFromClass(phpClass);
-                    if (commandName != null) {
-                        symfonyCommands.put(commandName, phpClass.getFQN());
-                    }
-                }
-
-                return CachedValueProvider.Result.create(symfonyCommands, PsiModificationTracker.MODIFICATION_COUNT);
-            },
-            false
+            () -> CachedValueProvider.Result.create(
+                getCommandNameMap(project),
+                FileIndexCaches.getModificationTrackerForIndexId(project, ConsoleCommandStubIndex.KEY),
+                FileIndexCaches.getStubModificationTracker(project)
+            )
         );
 
         Collection<SymfonyCommand> symfonyCommands = new ArrayList<>();
@@ -59,4 +53,183 @@ public class SymfonyCommandUtil {
 
         return symfonyCommands;
     }
+
+    /**
+     * Command names of the index; references and the classes are resolved here, which only needs the PhpStorm stubs.
+     * Subclasses without an own name inherit the name of indexed parent classes
+     */
+    @NotNull
+    private static Map<String, String> getCommandNameMap(@NotNull Project project) {
+        Map<String, String> symfonyCommands = new HashMap<>();
+
+        FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+
+        Set<String> indexedClasses = new HashSet<>();
+
+        for (String key : fileBasedIndex.getAllKeys(ConsoleCommandStubIndex.KEY, project)) {
+            for (String fqn : fileBasedIndex.getValues(ConsoleCommandStubIndex.KEY, key, scope)) {
+                PhpClass phpClass = PhpElementsUtil.getClassInterface(project, fqn);
+                if (phpClass == null) {
+                    continue;
+                }
+
+                indexedClasses.add(phpClass.getFQN());
+
+                if (!isCommandClass(phpClass)) {
+                    continue;
+                }
+
+                String commandName = resolveCommandNameDeclaration(project, key);
+                if (commandName != null) {
+                    symfonyCommands.putIfAbsent(commandName, phpClass.getFQN());
+                }
+            }
+        }
+
+        // protected static $defaultName = 'app:foo' of a parent class
+        PhpIndex phpIndex = PhpIndex.getInstance(project);
+        for (String fqn : new ArrayList<>(indexedClasses)) {
+            for (PhpClass phpClass : phpIndex.getAllSubclasses(fqn)) {
+                if (!indexedClasses.add(phpClass.getFQN()) || phpClass.isAbstract() || PhpElementsUtil.isTestClass(phpClass)) {
+                    continue;
+                }
+
+                String commandName = getCommandName(phpClass);
+                if (commandName != null) {
+                    symfonyCommands.putIfAbsent(commandName, phpClass.getFQN());
+                }
+            }
+        }
+
+        return symfonyCommands;
+    }
+
+    private static boolean isCommandClass(@NotNull PhpClass phpClass) {
+        return !phpClass.isAbstract() && !PhpElementsUtil.isTestClass(phpClass) && PhpElementsUtil.isInstanceOf(phpClass, COMMAND_CLASS);
+    }
+
+    /**
+     * Resolved command name of the class, including "$defaultName" of parent classes
+     */
+    @Nullable
+    public static String getCommandName(@NotNull PhpClass phpClass) {
+        if (!PhpElementsUtil.isInstanceOf(phpClass, COMMAND_CLASS)) {
+            return null;
+        }
+
+        String declaration = getCommandNameDeclaration(phpClass);
+        if (declaration == null) {
+            Field defaultName = phpClass.findFieldByName("defaultName", false);
+            if (defaultName != null && defaultName.getContainingClass() != null) {
+                declaration = getCommandNameValue(defaultName.getContainingClass(), defaultName.getDefaultValue());
+            }
+        }
+
+        return declaration != null ? resolveCommandNameDeclaration(phpClass.getProject(), declaration) : null;
+    }
+
+    /**
+     * Command name declared by the class itself, without accessing other files so its also usable inside an indexer.
+     * Values not being a string are returned as reference "\Foo::NAME" or "\Foo::$defaultName"
+     */
+    @Nullable
+    public static String getCommandNameDeclaration(@NotNull PhpClass phpClass) {
+        // lazy naming:
+        // protected static $defaultName = 'app:create-user'
+        Field defaultName = phpClass.findOwnFieldByName("defaultName", false);
+        if (defaultName != null) {
+            String value = getCommandNameValue(phpClass, defaultName.getDefaultValue());
+            if (value != null) {
+                return value;
+            }
+        }
+
+        // php attributes:
+        // #[AsCommand('app:create-user')]
+        // #[AsCommand(name: 'app:create-user')]
+        for (PhpAttribute attribute : phpClass.getAttributes(AS_COMMAND_CLASS)) {
+            String name = PhpPsiAttributesUtil.getAttributeValueByNameAsStringWithDefaultParameterFallback(attribute, "name");
+            if (StringUtils.isNotBlank(name)) {
+                return name;
+            }
+        }
+
+        // old style
+        Method method = phpClass.findOwnMethodByName("configure");
+        if (method != null) {
+            for (MethodReference methodReference : PsiTreeUtil.findChildrenOfType(method, MethodReference.class)) {
+                if (!"setName".equals(methodReference.getName())) {
+                    continue;
+                }
+
+                String value = getCommandNameValue(phpClass, PsiElementUtils.getMethodParameterPsiElementAt(methodReference, 0));
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * "app:foo" or "\Foo::NAME" => "app:foo"
+     */
+    @Nullable
+    public static String resolveCommandNameDeclaration(@NotNull Project project, @NotNull String declaration) {
+        int separator = declaration.lastIndexOf("::");
+        if (!declaration.startsWith("\\") || separator < 0) {
+            return declaration;
+        }
+
+        PhpClass phpClass = PhpElementsUtil.getClassInterface(project, declaration.substring(0, separator));
+        if (phpClass == null) {
+            return null;
+        }
+
+        String name = declaration.substring(separator + 2);
+        Field field = name.startsWith("$")
+            ? phpClass.findFieldByName(name.substring(1), false)
+            : phpClass.findFieldByName(name, true);
+
+        return field != null ? PhpElementsUtil.getStringValue(field) : null;
+    }
+
+    /**
+     * 'foo', self::FOO, Foo::FOO, $this->name, static::$defaultName
+     */
+    @Nullable
+    private static String getCommandNameValue(@NotNull PhpClass phpClass, @Nullable PsiElement psiElement) {
+        if (psiElement instanceof StringLiteralExpression) {
+            return StringUtils.defaultIfBlank(((StringLiteralExpression) psiElement).getContents(), null);
+        }
+
+        if (!(psiElement instanceof MemberReference) || psiElement instanceof MethodReference) {
+            return null;
+        }
+
+        String name = ((MemberReference) psiElement).getName();
+        if (StringUtils.isBlank(name) || (psiElement instanceof ClassConstantReference && "class".equals(name))) {
+            return null;
+        }
+
+        String fqn = null;
+
+        PhpExpression classReference = ((MemberReference) psiElement).getClassReference();
+        if (classReference instanceof Variable && "this".equals(((Variable) classReference).getName())) {
+            fqn = phpClass.getFQN();
+        } else if (classReference instanceof ClassReference) {
+            String className = ((ClassReference) classReference).getName();
+            fqn = "self".equalsIgnoreCase(className) || "static".equalsIgnoreCase(className)
+                ? phpClass.getFQN()
+                : ((ClassReference) classReference).getFQN();
+        }
+
+        if (StringUtils.isBlank(fqn)) {
+            return null;
+        }
+
+        return "\\" + StringUtils.stripStart(fqn, "\\") + "::" + (psiElement instanceof FieldReference ? "$" : "") + name;
+    }
 }
@@ -5,7 +5,6 @@ import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.text.VersionComparatorUtil;
 import com.jetbrains.php.lang.psi.elements.Field;
@@ -17,6 +16,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -26,11 +26,10 @@ public class SymfonyUtil {
     private static final Key<CachedValue<Set<String>>> CACHE = new Key<>("SYMFONY_VERSION_CACHE");
 
     private static boolean compare(@NotNull Project project, @NotNull String version, @NotNull Comparator comparator) {
-        Set<String> cache = CachedValuesManager.getManager(project).getCachedValue(
+        Set<String> cache = CacheStatistics.getCachedValue(
             project,
             CACHE,
-            () -> CachedValueProvider.Result.create(getVersions(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(getVersions(project), PsiModificationTracker.MODIFICATION_COUNT)
         );
 
         for (String s : cache) {
@@ -33,6 +33,7 @@ import fr.adrienbrault.idea.symfony2plugin.form.util.FormUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceIndexUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerParameterStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesTagStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
@@ -471,6 +472,11 @@ public class ServiceUtil {
 
         String fqn = StringUtils.stripStart(phpClass.getFQN(), "\\");
 
+        // supertype index of the project services; build once per service map
+        ContainerCollectionResolver.ServiceCollector collector = ContainerCollectionResolver.ServiceCollector.create(phpClass.getProject());
+        Map<String, ContainerService> projectServices = collector.getServices();
+        Set<String> instanceServiceIds = collector.getServiceIdsForSupertype(fqn);
+
         Collection<ContainerService> instances = new ArrayList<>();
 
         for(ContainerService service: serviceMap) {
@@ -482,6 +488,15 @@ public class ServiceUtil {
                 continue;
             }
 
+            if(projectServices.get(service.getName()) == service) {
+                if(instanceServiceIds.contains(service.getName())) {
+                    instances.add(service);
+                }
+
+                continue;
+            }
+
+            // foreign service, not part of the project service map
             if(service.getClassName() == null) {
                 continue;
             }
@@ -600,11 +615,10 @@ public class ServiceUtil {
      */
     @NotNull
     public static Collection<String> getParameterParameters(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return CacheStatistics.getCachedValue(
             project,
             KERNEL_PARAMETER_CACHE,
-            () -> CachedValueProvider.Result.create(getParameterParametersInner(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
+            () -> CachedValueProvider.Result.create(getParameterParametersInner(project), PsiModificationTracker.MODIFICATION_COUNT)
         );
     }
 
@@ -4,18 +4,21 @@ import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo;
 import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.NotNullLazyValue;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIcons;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FileResource;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FileResourceContextTypeEnum;
@@ -44,6 +47,8 @@ import java.util.stream.Stream;
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class FileResourceUtil {
+    private static final Key<CachedValue<FileResourceTargets>> SYMFONY_FILE_RESOURCE_TARGETS = new Key<>("SYMFONY_FILE_RESOURCE_TARGETS");
+
     /**
      * chars that trigger a glob resolving on symfony
      * extracted from: \Symfony\Component\Config\Loader\FileLoader::import
@@ -51,27 +56,22 @@ public class FileResourceUtil {
     public static final String[] GLOB_DETECTION_CHARS = {"*", "?", "{", "["};
 
     /**
-     * Search for files refers to given file
+     * Search for files refers to given file; a lookup on the shared reverse index, so no own cache for the file
      */
     public static boolean hasFileResources(@NotNull Project project, @NotNull PsiFile psiFile) {
-        return CachedValuesManager.getCachedValue(
-            psiFile,
-            () -> {
-                VirtualFile virtualFile = psiFile.getVirtualFile();
-                if (virtualFile == null) {
-                    return CachedValueProvider.Result.create(Boolean.FALSE, FileIndexCaches.getModificationTrackerForIndexId(project, FileResourcesIndex.KEY));
-                }
+        VirtualFile virtualFile = psiFile.getVirtualFile();
+        if (virtualFile == null) {
+            return false;
+        }
 
-                final Boolean[] aFalse = {Boolean.FALSE};
+        final boolean[] hasFileResources = {false};
 
-                visitFileResources(project, virtualFile, pair -> {
-                    aFalse[0] = Boolean.TRUE;
-                    return true;
-                });
+        visitFileResources(project, virtualFile, pair -> {
+            hasFileResources[0] = true;
+            return true;
+        });
 
-                return CachedValueProvider.Result.create(aFalse[0], FileIndexCaches.getModificationTrackerForIndexId(project, FileResourcesIndex.KEY));
-            }
-        );
+        return hasFileResources[0];
     }
 
     /**
@@ -93,6 +93,30 @@ public class FileResourceUtil {
      * Search for files refers to given file
      */
     public static void visitFileResources(@NotNull Project project, @NotNull VirtualFile virtualFile, @NotNull Function<Pair<VirtualFile, String>, Boolean> consumer) {
+        getFileResourceTargets(project).visit(virtualFile, consumer);
+    }
+
+    /**
+     * Reverse index of all resources with their resolved target path, so that "who includes this file" is a lookup
+     * along the parent paths of the file and not a scan over all index keys with its bundle and glob resolving
+     */
+    @NotNull
+    private static FileResourceTargets getFileResourceTargets(@NotNull Project project) {
+        return CacheStatistics.getCachedValue(
+            project,
+            SYMFONY_FILE_RESOURCE_TARGETS,
+            () -> CachedValueProvider.Result.create(
+                createFileResourceTargets(project),
+                FileIndexCaches.getModificationTrackerForIndexId(project, FileResourcesIndex.KEY),
+                FileIndexCaches.getStubModificationTracker(project)
+            )
+        );
+    }
+
+    @NotNull
+    private static FileResourceTargets createFileResourceTargets(@NotNull Project project) {
+        FileResourceTargets targets = new FileResourceTargets();
+
         Set<VirtualFile> files = new HashSet<>();
         for (String resource : FileBasedIndex.getInstance().getAllKeys(FileResourcesIndex.KEY, project)) {
             files.addAll(FileBasedIndex.getInstance().getContainingFiles(FileResourcesIndex.KEY, resource, GlobalSearchScope.allScope(project)));
@@ -146,51 +170,34 @@ public class FileResourceUtil {
                     }
                 }
 
+                FileResourceTarget target = new FileResourceTarget(containingFile, resource);
+
                 // '../src/{Entity}'
                 // '../src/*Controller.php'
                 if (Arrays.stream(GLOB_DETECTION_CHARS).anyMatch(resource::contains)) {
-                    String path = directory.getPath();
-
                     // nested types not support by java glob implementation so just catch the exception: "../src/{DependencyInjection,Entity,Migrations,Tests,Kernel.php,Service/{IspConfiguration,DataCollection}}"
                     try {
-                        String s1 = Paths.get(path + File.separatorChar + StringUtils.stripStart(resourceResolved, "\\/")).normalize().toString();
-                        String syntaxAndPattern = "glob:" + s1;
-                        if (FileSystems.getDefault().getPathMatcher(syntaxAndPattern).matches(Paths.get(virtualFile.getPath()))) {
-                            if (consumer.apply(new Pair<>(containingFile, resource))) {
-                                return;
-                            }
-                        }
+                        String s1 = Paths.get(directory.getPath() + File.separatorChar + StringUtils.stripStart(resourceResolved, "\\/")).normalize().toString();
+                        targets.addGlob(FileSystems.getDefault().getPathMatcher("glob:" + s1), getGlobalPatternDirectory(FileUtil.toSystemIndependentName(s1)).getFirst(), target);
                     } catch (PatternSyntaxException | InvalidPathException ignored) {
                     }
 
                     continue;
                 }
 
-                // '../src/FooController.php'
-                VirtualFile relativeFile = VfsUtil.findRelativeFile(directory, resourceResolved.replace("\\", "/").split("/"));
-                if (relativeFile != null && relativeFile.equals(virtualFile)) {
-                    if (consumer.apply(new Pair<>(containingFile, resource))) {
-                        return;
-                    }
-                }
+                String path = FileUtil.toCanonicalPath(directory.getPath() + "/" + resourceResolved.replace("\\", "/"));
 
-                // '..src/Controller'
                 if (fileResourceContext.getContextType() == FileResourceContextTypeEnum.ROUTE) {
-                    if (StringUtils.isNotBlank(resourceResolved)) {
-                        directory = VfsUtil.findRelativeFile(directory, resourceResolved.replace("\\", "/").split("/"));
-                        if (directory == null) {
-                            continue;
-                        }
-                    }
-
-                    if (VfsUtil.isAncestor(directory, virtualFile, false)) {
-                        if (consumer.apply(new Pair<>(containingFile, resource))) {
-                            return;
-                        }
-                    }
+                    // '..src/Controller' and '../src/FooController.php'
+                    targets.addDirectory(path, target);
+                } else {
+                    // '../src/FooController.php'
+                    targets.addFile(path, target);
                 }
             }
         }
+
+        return targets;
     }
 
     @Nullable
@@ -332,6 +339,100 @@ public class FileResourceUtil {
         return psiFiles;
     }
 
+    private static class FileResourceTarget {
+        @NotNull
+        private final VirtualFile containingFile;
+
+        @NotNull
+        private final String resource;
+
+        FileResourceTarget(@NotNull VirtualFile containingFile, @NotNull String resource) {
+            this.containingFile = containingFile;
+            this.resource = resource;
+        }
+    }
+
+    /**
+     * Resources keyed by their resolved path; globs are keyed by their directory in front of the first pattern
+     */
+    private static class FileResourceTargets {
+        @NotNull
+        private final Map<String, List<FileResourceTarget>> files = new HashMap<>();
+
+        @NotNull
+        private final Map<String, List<FileResourceTarget>> directories = new HashMap<>();
+
+        @NotNull
+        private final Map<String, List<Pair<PathMatcher, FileResourceTarget>>> globs = new HashMap<>();
+
+        void addFile(@NotNull String path, @NotNull FileResourceTarget target) {
+            files.computeIfAbsent(StringUtils.stripEnd(path, "/"), s -> new ArrayList<>()).add(target);
+        }
+
+        void addDirectory(@NotNull String path, @NotNull FileResourceTarget target) {
+            directories.computeIfAbsent(StringUtils.stripEnd(path, "/"), s -> new ArrayList<>()).add(target);
+        }
+
+        void addGlob(@NotNull PathMatcher pathMatcher, @NotNull String directory, @NotNull FileResourceTarget target) {
+            globs.computeIfAbsent(StringUtils.stripEnd(directory, "/"), s -> new ArrayList<>()).add(Pair.create(pathMatcher, target));
+        }
+
+        void visit(@NotNull VirtualFile virtualFile, @NotNull Function<Pair<VirtualFile, String>, Boolean> consumer) {
+            for (FileResourceTarget target : files.getOrDefault(virtualFile.getPath(), Collections.emptyList())) {
+                if (consumer.apply(new Pair<>(target.containingFile, target.resource))) {
+                    return;
+                }
+            }
+
+            Path path = null;
+
+            for (String parentPath : getPaths(virtualFile)) {
+                for (FileResourceTarget target : directories.getOrDefault(parentPath, Collections.emptyList())) {
+                    if (consumer.apply(new Pair<>(target.containingFile, target.resource))) {
+                        return;
+                    }
+                }
+
+                List<Pair<PathMatcher, FileResourceTarget>> pairs = globs.get(parentPath);
+                if (pairs == null) {
+                    continue;
+                }
+
+                if (path == null) {
+                    try {
+                        path = Paths.get(virtualFile.getPath());
+                    } catch (InvalidPathException e) {
+                        return;
+                    }
+                }
+
+                for (Pair<PathMatcher, FileResourceTarget> pair : pairs) {
+                    if (pair.getFirst().matches(path) && consumer.apply(new Pair<>(pair.getSecond().containingFile, pair.getSecond().resource))) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * The file itself and all its parent directories; ending with "" for root globs like "/*.php"
+         */
+        @NotNull
+        private static List<String> getPaths(@NotNull VirtualFile virtualFile) {
+            List<String> paths = new ArrayList<>();
+
+            for (VirtualFile parent = virtualFile; parent != null; parent = parent.getParent()) {
+                paths.add(StringUtils.stripEnd(parent.getPath(), "/"));
+            }
+
+            if (paths.isEmpty() || !paths.get(paths.size() - 1).isEmpty()) {
+                paths.add("");
+            }
+
+            return paths;
+        }
+    }
+
     private static class FileResourceNotNullLazyValue implements Supplier<Collection<? extends PsiElement>> {
         private final Project project;
         private final VirtualFile virtualFile;
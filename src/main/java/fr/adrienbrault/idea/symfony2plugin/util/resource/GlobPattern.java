@@ -0,0 +1,151 @@
+package fr.adrienbrault.idea.symfony2plugin.util.resource;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled glob pattern for absolute paths with the "glob:" syntax of "java.nio.file.PathMatcher",
+ * but with support for nested groups which are common in Symfony resources:
+ *
+ * "src/{Entity,Tests,Kernel.php,Service/{Foo,Bar}}"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class GlobPattern {
+
+    @NotNull
+    private final String glob;
+
+    @NotNull
+    private final String literalPrefix;
+
+    @NotNull
+    private final Pattern pattern;
+
+    private GlobPattern(@NotNull String glob, @NotNull String literalPrefix, @NotNull Pattern pattern) {
+        this.glob = glob;
+        this.literalPrefix = literalPrefix;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @return null for invalid pattern; eg unclosed groups
+     */
+    @Nullable
+    public static GlobPattern compile(@NotNull String glob) {
+        String regex = toRegex(glob);
+        if (regex == null) {
+            return null;
+        }
+
+        try {
+            return new GlobPattern(glob, getLiteralPrefix(glob), Pattern.compile(regex));
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    public boolean matches(@NotNull String path) {
+        return path.startsWith(literalPrefix) && pattern.matcher(path).matches();
+    }
+
+    @NotNull
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Directory part without any glob char: "/foo/src/{Foo,Bar}/*" => "/foo/src"
+     */
+    @NotNull
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    @NotNull
+    private static String getLiteralPrefix(@NotNull String glob) {
+        int end = glob.length();
+        for (int i = 0; i < glob.length(); i++) {
+            if ("*?[{\\".indexOf(glob.charAt(i)) >= 0) {
+                end = i;
+                break;
+            }
+        }
+
+        int lastSlash = glob.lastIndexOf('/', end - 1);
+
+        return lastSlash > 0 ? glob.substring(0, lastSlash) : "";
+    }
+
+    @Nullable
+    private static String toRegex(@NotNull String glob) {
+        StringBuilder regex = new StringBuilder();
+
+        int groups = 0;
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+
+            switch (c) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        regex.append(".*");
+                        i++;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '{':
+                    groups++;
+                    regex.append("(?:");
+                    break;
+                case '}':
+                    if (groups == 0) {
+                        return null;
+                    }
+
+                    groups--;
+                    regex.append(')');
+                    break;
+                case ',':
+                    regex.append(groups > 0 ? "|" : ",");
+                    break;
+                case '[':
+                    int close = glob.indexOf(']', i + 2);
+                    if (close < 0) {
+                        return null;
+                    }
+
+                    String chars = glob.substring(i + 1, close);
+                    if (chars.startsWith("!")) {
+                        chars = "^" + chars.substring(1);
+                    }
+
+                    regex.append('[').append(chars.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = close;
+                    break;
+                case '\\':
+                    if (i + 1 >= glob.length()) {
+                        return null;
+                    }
+
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    break;
+                default:
+                    if (".^$+()|".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+
+                    regex.append(c);
+            }
+        }
+
+        return groups == 0 ? regex.toString() : null;
+    }
+}
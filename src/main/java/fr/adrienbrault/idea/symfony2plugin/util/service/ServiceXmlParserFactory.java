@@ -5,6 +5,7 @@ import com.intellij.openapi.project.Project;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.extension.CompiledServiceBuilderArguments;
 import fr.adrienbrault.idea.symfony2plugin.extension.CompiledServiceBuilderFactory;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
@@ -54,7 +55,7 @@ public class ServiceXmlParserFactory {
 
         if(this.extensions.size() > 0) {
             for (CompiledServiceBuilderFactory.Builder builder : this.extensions) {
-                if(builder.isModified(project)) {
+                if(ExtensionStatistics.compute(project, "ServiceXmlParserFactory.isModified", builder, b -> b.isModified(project))) {
                     return true;
                 }
             }
@@ -83,7 +84,7 @@ public class ServiceXmlParserFactory {
             if(this.extensions.size() > 0) {
                 CompiledServiceBuilderArguments args = new CompiledServiceBuilderArguments(project);
                 for (CompiledServiceBuilderFactory.Builder builder : this.extensions) {
-                    builder.build(args);
+                    ExtensionStatistics.invoke(project, "ServiceXmlParserFactory.parser", builder, b -> b.build(args));
                 }
 
                 for (InputStream inputStream : args.getStreams()) {
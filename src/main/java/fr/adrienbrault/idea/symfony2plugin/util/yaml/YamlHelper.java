@@ -26,10 +26,7 @@ import fr.adrienbrault.idea.symfony2plugin.config.yaml.YamlElementPatternHelper;
 import fr.adrienbrault.idea.symfony2plugin.dic.ParameterResolverConsumer;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.dic.tags.yaml.StaticAttributeResolver;
-import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
-import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
-import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.visitor.ParameterVisitor;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.visitor.YamlServiceTag;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.visitor.YamlTagVisitor;
@@ -1269,39 +1266,6 @@ public class YamlHelper {
         }
     }
 
-    @NotNull
-    public static Collection<PhpClass> getPhpClassesInYamlFile(@NotNull YAMLFile yamlFile, @NotNull ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector) {
-        Collection<PhpClass> phpClasses = new HashSet<>(); //TODO
-
-        for (YAMLKeyValue keyValue : YamlHelper.getQualifiedKeyValuesInFile(yamlFile, "services")) {
-            YAMLValue value = keyValue.getValue();
-            if (value instanceof YAMLMapping) {
-                // foo.bar:
-                //    classes: ...
-                String serviceId = ServiceContainerUtil.getServiceClassFromServiceMapping((YAMLMapping) value);
-                if (StringUtils.isNotBlank(serviceId)) {
-                    PhpClass serviceClass = ServiceUtil.getResolvedClassDefinition(yamlFile.getProject(), serviceId, lazyServiceCollector);
-                    if (serviceClass != null) {
-                        phpClasses.add(serviceClass);
-                    }
-                }
-
-                // My<caret>Class\:
-                //    resource: ...
-                phpClasses.addAll(YamlHelper.getNamespaceResourcesClasses(keyValue));
-            } else if(value instanceof YAMLPlainTextImpl) {
-                // Foo\Bar: ~
-                String text = keyValue.getKeyText();
-
-                if (StringUtils.isNotBlank(text) && YamlHelper.isClassServiceId(text)) {
-                    phpClasses.addAll(PhpElementsUtil.getClassesInterface(yamlFile.getProject(), text));
-                }
-            }
-        }
-
-        return phpClasses;
-    }
-
     /**
      * My<caret>Class\:
      *  resource: '....'
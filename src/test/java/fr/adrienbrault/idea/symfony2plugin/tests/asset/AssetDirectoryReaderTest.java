@@ -1,7 +1,16 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.asset;
 
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VirtualFile;
 import fr.adrienbrault.idea.symfony2plugin.asset.AssetDirectoryReader;
+import fr.adrienbrault.idea.symfony2plugin.asset.AssetFile;
+import fr.adrienbrault.idea.symfony2plugin.asset.AssetRegistry;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyTempCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.stream.Collectors;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -39,4 +48,60 @@ public class AssetDirectoryReaderTest extends SymfonyTempCodeInsightFixtureTestC
             .orElseGet(null)
         );
     }
+
+    public void testAssetFilesAreSyncedWithFileEvents() throws IOException {
+        createFile("public/app.js");
+        VirtualFile css = createFile("public/css/app.css");
+
+        assertContainsElements(getAssetNames(new AssetDirectoryReader()), "app.js", "css/app.css");
+        assertDoesntContain(getAssetNames(new AssetDirectoryReader(new String[] {"js"}, false)), "css/app.css");
+
+        createFile("public/build/foo.js");
+        assertContainsElements(getAssetNames(new AssetDirectoryReader(new String[] {"js"}, false)), "app.js", "build/foo.js");
+
+        WriteAction.runAndWait(() -> css.getParent().delete(this));
+        assertDoesntContain(getAssetNames(new AssetDirectoryReader()), "css/app.css");
+    }
+
+    public void testAssetFilesAreSyncedWithMoveEvents() throws IOException {
+        createFile("public/app.js");
+        VirtualFile outside = createFile("assets/moved.js");
+        VirtualFile inside = createFile("public/old/leaving.js");
+
+        assertContainsElements(getAssetNames(new AssetDirectoryReader()), "app.js", "old/leaving.js");
+
+        VirtualFile assets = outside.getParent();
+        WriteAction.runAndWait(() -> {
+            outside.move(this, inside.getParent().getParent());
+            inside.move(this, assets);
+        });
+
+        Collection<String> assetNames = getAssetNames(new AssetDirectoryReader());
+        assertContainsElements(assetNames, "app.js", "moved.js");
+        assertDoesntContain(assetNames, "old/leaving.js");
+    }
+
+    public void testAssetFilesByPrefix() {
+        createFile("public/app.js");
+        createFile("public/build/app.js");
+        createFile("public/build/vendor/lib.js");
+
+        Collection<String> assetNames = new AssetDirectoryReader().getAssetFiles(getProject(), "build/").stream()
+            .map(AssetFile::toString)
+            .collect(Collectors.toList());
+
+        assertContainsElements(assetNames, "build/app.js", "build/vendor/lib.js");
+        assertDoesntContain(assetNames, "app.js");
+
+        assertContainsElements(AssetRegistry.getInstance(getProject()).resolve("build/vendor/lib.js").stream().map(VirtualFile::getName).collect(Collectors.toList()), "lib.js");
+        assertEmpty(AssetRegistry.getInstance(getProject()).resolve("build/vendor"));
+        assertContainsElements(AssetRegistry.getInstance(getProject()).resolveDirectory("build/vendor").stream().map(VirtualFile::getName).collect(Collectors.toList()), "vendor");
+    }
+
+    @NotNull
+    private Collection<String> getAssetNames(@NotNull AssetDirectoryReader reader) {
+        return reader.getAssetFiles(getProject()).stream()
+            .map(AssetFile::toString)
+            .collect(Collectors.toList());
+    }
 }
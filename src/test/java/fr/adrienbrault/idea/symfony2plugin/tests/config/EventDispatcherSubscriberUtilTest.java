@@ -33,7 +33,7 @@ public class EventDispatcherSubscriberUtilTest extends SymfonyLightCodeInsightFi
 
     /**
      * @see EventDispatcherSubscriberUtil#getSubscribedEvents
-     * @see EventDispatcherSubscriberUtil#attachSubscriberEventNames
+     * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex
      */
     public void testGetSubscribedEvent() {
         EventDispatcherSubscribedEvent event1 = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo").iterator().next();
@@ -51,10 +51,12 @@ public class EventDispatcherSubscriberUtilTest extends SymfonyLightCodeInsightFi
         EventDispatcherSubscribedEvent event3 = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo1").iterator().next();
         assertEquals("pre.foo1", event3.getStringValue());
         assertEquals("onStoreOrder", event3.getMethodName());
+        assertEquals(Integer.valueOf(0), event3.getPriority());
 
         EventDispatcherSubscribedEvent event4 = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo2").iterator().next();
         assertEquals("pre.foo2", event4.getStringValue());
         assertEquals("onKernelResponseMid", event4.getMethodName());
+        assertEquals(Integer.valueOf(10), event4.getPriority());
 
         EventDispatcherSubscribedEvent event5 = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo3").iterator().next();
         assertEquals("pre.foo3", event5.getStringValue());
@@ -65,6 +67,24 @@ public class EventDispatcherSubscriberUtilTest extends SymfonyLightCodeInsightFi
         assertNull( event6.getMethodName());
     }
 
+    /**
+     * @see EventDispatcherSubscriberUtil#getSubscribedEvent
+     */
+    public void testGetSubscribedEventIncludesSubclassesInheritingSubscribedEvents() {
+        Collection<EventDispatcherSubscribedEvent> events = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo");
+
+        assertNotNull(ContainerUtil.find(events, event -> "TestEventSubscriber".equals(event.getFqnClassName())));
+        assertNotNull(ContainerUtil.find(events, event -> "TestInheritedEventSubscriber".equals(event.getFqnClassName()) && "preFoo".equals(event.getMethodName())));
+    }
+
+    /**
+     * @see EventDispatcherSubscriberUtil#getSubscribedEvent
+     */
+    public void testGetSubscribedEventSkipsNonSubscriberAndTestClasses() {
+        assertEmpty(EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.no_subscriber"));
+        assertEmpty(EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.test_subscriber"));
+    }
+
     /**
      * @see EventDispatcherSubscriberUtil#getEventNameLookupElements
      */
@@ -49,4 +49,26 @@ namespace {
         public function preFoo() {}
         public function postFoo() {}
     }
+
+    class TestInheritedEventSubscriber extends TestEventSubscriber
+    {
+    }
+
+    class TestNoEventSubscriber
+    {
+        public static function getSubscribedEvents()
+        {
+            return ['pre.no_subscriber' => 'foo'];
+        }
+    }
+}
+
+namespace Foo\Tests {
+    class TestSubscriberTest implements \Symfony\Component\EventDispatcher\EventSubscriberInterface
+    {
+        public static function getSubscribedEvents()
+        {
+            return ['pre.test_subscriber' => 'foo'];
+        }
+    }
 }
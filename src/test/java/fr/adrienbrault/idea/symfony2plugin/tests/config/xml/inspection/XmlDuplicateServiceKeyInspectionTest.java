@@ -0,0 +1,33 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.config.xml.inspection;
+
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ *
+ * @see fr.adrienbrault.idea.symfony2plugin.config.xml.inspection.XmlDuplicateServiceKeyInspection
+ */
+public class XmlDuplicateServiceKeyInspectionTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void testDuplicateServiceKeyProvidesWarning() {
+        assertLocalInspectionContains("services.xml", "" +
+                "<container>\n" +
+                "  <services>\n" +
+                "    <service id=\"f<caret>oo\" class=\"Foo\"/>\n" +
+                "    <service id=\"foo\" class=\"Foo\"/>\n" +
+                "  </services>\n" +
+                "</container>\n",
+            "Duplicate Key"
+        );
+
+        assertLocalInspectionNotContains("services.xml", "" +
+                "<container>\n" +
+                "  <services>\n" +
+                "    <service id=\"f<caret>oo\" class=\"Foo\"/>\n" +
+                "    <service id=\"bar\" class=\"Foo\"/>\n" +
+                "  </services>\n" +
+                "</container>\n",
+            "Duplicate Key"
+        );
+    }
+}
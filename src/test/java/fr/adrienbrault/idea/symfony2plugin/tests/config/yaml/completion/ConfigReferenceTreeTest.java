@@ -0,0 +1,40 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.config.yaml.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.util.containers.ContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.config.yaml.completion.ConfigReferenceTree;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ConfigReferenceTree
+ */
+public class ConfigReferenceTreeTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testRootLookupElements() {
+        List<String> lookupStrings = ContainerUtil.map(ConfigReferenceTree.getInstance(getProject()).getRootLookupElements(), LookupElement::getLookupString);
+        assertContainsElements(lookupStrings, "framework", "doctrine", "web_profiler");
+    }
+
+    public void testLookupElementsForPrototypeAndShortcut() {
+        ConfigReferenceTree tree = ConfigReferenceTree.getInstance(getProject());
+
+        List<String> dbal = ContainerUtil.map(tree.getLookupElements(Arrays.asList("doctrine", "dbal")), LookupElement::getLookupString);
+        assertContainsElements(dbal, "default_connection", "connections", "types", "dbname", "host");
+
+        List<String> connection = ContainerUtil.map(tree.getLookupElements(Arrays.asList("doctrine", "dbal", "connections", "default")), LookupElement::getLookupString);
+        assertContainsElements(connection, "dbname", "host", "slaves");
+
+        assertEmpty(tree.getLookupElements(Arrays.asList("doctrine", "unknown")));
+    }
+
+    public void testLookupElementsAreBuiltOnce() {
+        ConfigReferenceTree tree = ConfigReferenceTree.getInstance(getProject());
+        assertSame(tree, ConfigReferenceTree.getInstance(getProject()));
+
+        List<String> items = Arrays.asList("framework", "templating");
+        assertSame(tree.getLookupElements(items), tree.getLookupElements(items));
+    }
+}
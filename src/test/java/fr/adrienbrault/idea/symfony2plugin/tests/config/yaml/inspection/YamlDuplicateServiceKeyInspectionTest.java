@@ -29,4 +29,16 @@ public class YamlDuplicateServiceKeyInspectionTest extends SymfonyLightCodeInsig
         );
     }
 
+    public void testDuplicateDefaultsKeyProvidesWarning() {
+        assertLocalInspectionContains("services.yml", "" +
+                "services:\n" +
+                "  _def<caret>aults: \n" +
+                "    autowire: true\n" +
+                "  foo: ~\n" +
+                "  _defaults: \n" +
+                "    public: false\n",
+            "Duplicate key"
+        );
+    }
+
 }
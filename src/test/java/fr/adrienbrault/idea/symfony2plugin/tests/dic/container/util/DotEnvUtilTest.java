@@ -3,6 +3,7 @@ package fr.adrienbrault.idea.symfony2plugin.tests.dic.container.util;
 import com.intellij.psi.PsiFile;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.DotEnvUtil;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import org.jetbrains.yaml.psi.YAMLValue;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -51,4 +52,18 @@ public class DotEnvUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
             .count()
         );
     }
+
+    public void testGetEnvironmentVariableTargetsForDockerComposeAreYamlValues() {
+        assertEquals(1, DotEnvUtil.getEnvironmentVariableTargets(getProject(), "DEBUG_SERVICES")
+            .stream()
+            .filter(psiElement -> psiElement instanceof YAMLValue && "DEBUG_SERVICES=1".equals(psiElement.getText()))
+            .count()
+        );
+
+        assertEquals(1, DotEnvUtil.getEnvironmentVariableTargets(getProject(), "DEBUG_SERVICES_2")
+            .stream()
+            .filter(psiElement -> psiElement instanceof YAMLValue && "1".equals(psiElement.getText()))
+            .count()
+        );
+    }
 }
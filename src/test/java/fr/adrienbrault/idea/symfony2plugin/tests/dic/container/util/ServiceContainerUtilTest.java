@@ -9,6 +9,7 @@ import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.php.lang.psi.elements.Parameter;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileModel;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceTypeHint;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
@@ -155,6 +156,110 @@ public class ServiceContainerUtilTest extends SymfonyLightCodeInsightFixtureTest
         assertNull(ContainerUtil.find(ServiceContainerUtil.getServicesInFile(ymlFile), MyStringServiceInterfaceCondition.create("alias.inline_4")).getAlias());
     }
 
+    public void testServiceFileModelIsCachedAndContainsDuplicateServiceIdOffsets() {
+        PsiFile psiFile = myFixture.configureByText("services_model.yml", "" +
+            "services:\n" +
+            "  foo: \n" +
+            "    class: Foo\n" +
+            "  bar: '@foo'\n" +
+            "  foo: ~\n"
+        );
+
+        ServiceFileModel model = ServiceContainerUtil.getServiceFileModel(psiFile);
+        assertSame(model, ServiceContainerUtil.getServiceFileModel(psiFile));
+
+        assertNotNull(ContainerUtil.find(model.getServices(), MyStringServiceInterfaceCondition.create("foo")));
+        assertEquals("foo", ContainerUtil.find(model.getServices(), MyStringServiceInterfaceCondition.create("bar")).getAlias());
+
+        assertEquals(2, model.getDuplicateServiceIdOffsets().size());
+        assertContainsElements(model.getDuplicateServiceIdOffsets(), psiFile.getText().indexOf("foo:"), psiFile.getText().lastIndexOf("foo:"));
+        assertDoesntContain(model.getDuplicateServiceIdOffsets(), psiFile.getText().indexOf("bar:"));
+    }
+
+    public void testServiceFileModelContainsDefinitionsWithArguments() {
+        PsiFile psiFile = myFixture.configureByText("services_model.yml", "" +
+            "services:\n" +
+            "  foo:\n" +
+            "    class: Foo\n" +
+            "    factory: ['@bar', 'create']\n" +
+            "    arguments: ['@bar', '%foo%']\n" +
+            "    calls:\n" +
+            "      - [setBar, ['@bar']]\n" +
+            "  App\\Bar:\n" +
+            "    arguments:\n" +
+            "      $bar: '@bar'\n" +
+            "  App\\Car: ~\n"
+        );
+
+        String text = psiFile.getText();
+        ServiceFileModel model = ServiceContainerUtil.getServiceFileModel(psiFile);
+
+        ServiceFileModel.Definition foo = model.getDefinition(text.indexOf("foo:"));
+        assertNotNull(foo);
+        assertEquals("Foo", foo.getClassName());
+        assertTrue(foo.hasFactory());
+        assertEquals(3, foo.getArguments().size());
+
+        ServiceFileModel.Argument argument = foo.getArguments().get(1);
+        assertNull(argument.getMethod());
+        assertEquals(1, argument.getIndex());
+        assertEquals("%foo%", argument.getValue());
+        assertEquals(text.indexOf("'%foo%'"), argument.getOffset());
+
+        ServiceFileModel.Argument callArgument = foo.getArguments().get(2);
+        assertEquals("setBar", callArgument.getMethod());
+        assertEquals(0, callArgument.getIndex());
+        assertEquals("@bar", callArgument.getValue());
+
+        ServiceFileModel.Definition bar = model.getDefinition(text.indexOf("App\\Bar:"));
+        assertNotNull(bar);
+        assertEquals("App\\Bar", bar.getClassName());
+        assertFalse(bar.hasFactory());
+
+        ServiceFileModel.Argument namedArgument = bar.getArguments().get(0);
+        assertEquals("bar", namedArgument.getName());
+        assertEquals(-1, namedArgument.getIndex());
+        assertEquals(text.indexOf("$bar"), namedArgument.getNameOffset());
+
+        ServiceFileModel.Definition car = model.getDefinition(text.indexOf("App\\Car:"));
+        assertNotNull(car);
+        assertEquals("App\\Car", car.getClassName());
+        assertEmpty(car.getArguments());
+    }
+
+    public void testServiceFileModelForYamlContainsDuplicateDefaultsOffsets() {
+        PsiFile psiFile = myFixture.configureByText("services_model.yml", "" +
+            "services:\n" +
+            "  _defaults:\n" +
+            "    autowire: true\n" +
+            "  foo: ~\n" +
+            "  _defaults:\n" +
+            "    public: false\n"
+        );
+
+        ServiceFileModel model = ServiceContainerUtil.getServiceFileModel(psiFile);
+
+        assertEquals(2, model.getDuplicateServiceIdOffsets().size());
+        assertContainsElements(model.getDuplicateServiceIdOffsets(), psiFile.getText().indexOf("_defaults:"), psiFile.getText().lastIndexOf("_defaults:"));
+        assertNull(model.getDefinition(psiFile.getText().indexOf("_defaults:")));
+    }
+
+    public void testServiceFileModelForXmlDoesNotTreatPrototypeNamespacesAsDuplicates() {
+        PsiFile psiFile = myFixture.configureByText("services_model.xml", "" +
+            "<container>\n" +
+            "  <services>\n" +
+            "    <service id=\"foo\" class=\"Foo\"/>\n" +
+            "    <prototype namespace=\"App\\\" resource=\"../src/*\"/>\n" +
+            "    <prototype namespace=\"App\\\" resource=\"../lib/*\"/>\n" +
+            "  </services>\n" +
+            "</container>\n"
+        );
+
+        ServiceFileModel model = ServiceContainerUtil.getServiceFileModel(psiFile);
+        assertNotNull(ContainerUtil.find(model.getServices(), MyStringServiceInterfaceCondition.create("foo")));
+        assertEmpty(model.getDuplicateServiceIdOffsets());
+    }
+
     public void testServiceWithoutClassMustUseIdAsClass() {
         for (PsiFile psiFile : new PsiFile[]{xmlFile, ymlFile}) {
             ServiceInterface bar = ContainerUtil.find(ServiceContainerUtil.getServicesInFile(psiFile), MyStringServiceInterfaceCondition.create("My\\Class\\Id\\First"));
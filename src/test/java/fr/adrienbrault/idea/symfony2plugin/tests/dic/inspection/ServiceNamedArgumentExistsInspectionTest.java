@@ -19,14 +19,26 @@ public class ServiceNamedArgumentExistsInspectionTest extends SymfonyLightCodeIn
 
     public void testMissingArgumentForYaml() {
         assertLocalInspectionContains("foo.yml",
-            "Foobar\\NamedArgument:\n" +
+            "services:\n" +
+                "    Foobar\\NamedArgument:\n" +
                 "        arguments:\n" +
                 "            $foo<caret>bar1: ~",
             ServiceNamedArgumentExistsInspection.INSPECTION_MESSAGE
         );
 
         assertLocalInspectionNotContains("foo.yml",
-            "Foobar\\UnknownClassNamedArgument:\n" +
+            "services:\n" +
+                "    Foobar\\UnknownClassNamedArgument:\n" +
+                "        arguments:\n" +
+                "            $foo<caret>bar: ~",
+            ServiceNamedArgumentExistsInspection.INSPECTION_MESSAGE
+        );
+    }
+
+    public void testExistingArgumentForYamlIsNotTriggered() {
+        assertLocalInspectionNotContains("foo.yml",
+            "services:\n" +
+                "    Foobar\\NamedArgument:\n" +
                 "        arguments:\n" +
                 "            $foo<caret>bar: ~",
             ServiceNamedArgumentExistsInspection.INSPECTION_MESSAGE
@@ -35,7 +47,8 @@ public class ServiceNamedArgumentExistsInspectionTest extends SymfonyLightCodeIn
 
     public void testMissingArgumentForFactoryServiceIsNotTriggeredYaml() {
         assertLocalInspectionNotContains("foo.yml",
-            "Foobar\\NamedArgument:\n" +
+            "services:\n" +
+                "    Foobar\\NamedArgument:\n" +
                 "        factory: ~\n" +
                 "        arguments:\n" +
                 "            $foo<caret>bar1: ~",
@@ -4,6 +4,7 @@ import com.intellij.openapi.util.Condition;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.containers.ContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelRegistry;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
@@ -12,6 +13,7 @@ import org.jetbrains.yaml.psi.YAMLKeyValue;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -110,6 +112,29 @@ public class EntityHelperTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertFalse(map.values().contains("FooBundle:BarInterface"));
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper#getModelRegistry
+     */
+    public void testGetModelRegistry() {
+        DoctrineModelRegistry modelRegistry = EntityHelper.getModelRegistry(getProject());
+
+        assertEquals("\\FooBundle\\Entity", modelRegistry.getEntityNamespaces().get("FooBundle"));
+        assertEquals("\\FooBundle\\Document", modelRegistry.getDocumentNamespaces().get("FooBundle"));
+        assertEquals("\\FooBundle\\CouchDocument\\Couch", modelRegistry.getClassForShortcut("FooBundle:Couch"));
+
+        assertSame(modelRegistry, EntityHelper.getModelRegistry(getProject()));
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper#getModelsForClass
+     */
+    public void testGetModelsForClass() {
+        Collection<DoctrineModel> models = EntityHelper.getModelsForClass(PhpElementsUtil.getClass(getProject(), "\\FooBundle\\CouchDocument\\Couch"));
+        assertContainsElements(models.stream().map(DoctrineModel::getRepositoryName).collect(Collectors.toList()), "FooBundle:Couch");
+
+        assertSize(0, EntityHelper.getModelsForClass(PhpElementsUtil.getClass(getProject(), "\\FooBundle\\Entity\\BarRepository")));
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper#getModelFieldTargets
      */
@@ -3,8 +3,16 @@ package fr.adrienbrault.idea.symfony2plugin.tests.doctrine;
 import com.intellij.patterns.PlatformPatterns;
 import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.php.lang.psi.elements.Method;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.ObjectRepositoryTypeProvider;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 
+import java.util.Collection;
+import java.util.HashSet;
+
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
@@ -46,6 +54,63 @@ public class ObjectRepositoryTypeProviderTest extends SymfonyLightCodeInsightFix
 
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderCache
+     */
+    public void testGetRepositoryResolveIsMemorizedBySignature() {
+        String signature = "#M#C\\Doctrine\\Common\\Persistence\\ObjectManager.getRepository" + '\u0185' + "\\Foo\\Bar";
+
+        ObjectRepositoryTypeProvider typeProvider = new ObjectRepositoryTypeProvider();
+
+        Collection<? extends PhpNamedElement> elements = typeProvider.getBySignature(signature, new HashSet<>(), 0, getProject());
+        long hits = getTypeProviderCacheHits();
+
+        Collection<? extends PhpNamedElement> cached = typeProvider.getBySignature(signature, new HashSet<>(), 0, getProject());
+
+        assertEquals(hits + 1, getTypeProviderCacheHits());
+        assertEquals(elements.size(), cached.size());
+        assertTrue(cached.stream().anyMatch(element -> element instanceof PhpClass && "\\Foo\\BarRepository".equals(element.getFQN())));
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderCache
+     */
+    public void testGetRepositoryResolveIsInvalidatedOnSettingsChange() {
+        String signature = "#M#C\\Doctrine\\Common\\Persistence\\ObjectManager.getRepository" + '\u0185' + "\\Foo\\Bar";
+
+        ObjectRepositoryTypeProvider typeProvider = new ObjectRepositoryTypeProvider();
+        typeProvider.getBySignature(signature, new HashSet<>(), 0, getProject());
+        long hits = getTypeProviderCacheHits();
+
+        Settings settings = Settings.getInstance(getProject());
+        String directoryToApp = settings.directoryToApp;
+
+        try {
+            settings.directoryToApp = "foobar";
+            typeProvider.getBySignature(signature, new HashSet<>(), 0, getProject());
+        } finally {
+            settings.directoryToApp = directoryToApp;
+        }
+
+        assertEquals(hits, getTypeProviderCacheHits());
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.PhpTypeProviderCache
+     */
+    public void testGetRepositoryResolveIsInvalidatedOnPsiChange() {
+        String signature = "#M#C\\Doctrine\\Common\\Persistence\\ObjectManager.getRepository" + '\u0185' + "\\Foo\\Bar";
+
+        ObjectRepositoryTypeProvider typeProvider = new ObjectRepositoryTypeProvider();
+        typeProvider.getBySignature(signature, new HashSet<>(), 0, getProject());
+        long hits = getTypeProviderCacheHits();
+
+        myFixture.configureByText("PsiChange.php", "<?php\nfunction foo() { return 'foo'; }");
+        typeProvider.getBySignature(signature, new HashSet<>(), 0, getProject());
+
+        assertEquals(hits, getTypeProviderCacheHits());
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.doctrine.ObjectRepositoryTypeProvider
      */
@@ -77,4 +142,11 @@ public class ObjectRepositoryTypeProviderTest extends SymfonyLightCodeInsightFix
             PlatformPatterns.psiElement(Method.class).withName("find")
         );
     }
+
+    private long getTypeProviderCacheHits() {
+        return CacheStatistics.getInstance(getProject()).getSnapshots().stream()
+            .filter(snapshot -> "SYMFONY_PHP_TYPE_PROVIDER_CACHE".equals(snapshot.getName()))
+            .mapToLong(CacheStatistics.Snapshot::getHits)
+            .sum();
+    }
 }
@@ -141,12 +141,24 @@ public class DoctrineMetadataUtilTest extends SymfonyLightCodeInsightFixtureTest
         assertNotNull(items.get("foo_table"));
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.util.DoctrineMetadataUtil#getTableDeclarations
+     */
+    public void testGetTableDeclarations() {
+        Map<String, Pair<String, VirtualFile>> tables = DoctrineMetadataUtil.getTableDeclarations(getProject());
+
+        assertEquals("Doctrine\\Tests\\ORM\\Mapping\\YamlUser", tables.get("foo_table").getFirst());
+        assertTrue(tables.containsKey("cms_users"));
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.util.DoctrineMetadataUtil#getMetadataByTable
      */
     public void testGetMetadataByTable() {
         assertNotNull(DoctrineMetadataUtil.getMetadataByTable(getProject(), "cms_users").getField("id"));
         assertNotNull(DoctrineMetadataUtil.getMetadataByTable(getProject(), "cms_users").getField("name"));
+        assertEquals("foo_table", DoctrineMetadataUtil.getMetadataByTable(getProject(), "foo_table").getTable());
+        assertNull(DoctrineMetadataUtil.getMetadataByTable(getProject(), "unknown_table"));
     }
 
     /**
@@ -76,6 +76,15 @@ public class FormOptionsUtilTest extends SymfonyLightCodeInsightFixtureTestCase
         }
     }
 
+    /**
+     * @see FormOptionsUtil#getExtendedTypeClasses
+     */
+    public void testGetExtendedTypeClassesContainsExtensionOnlyOnce() {
+        Collection<FormClass> formClasses = FormOptionsUtil.getExtendedTypeClasses(getProject(), "Foo\\Bar\\MyType", "\\Foo\\Bar\\MyType");
+
+        assertEquals(1, formClasses.stream().filter(formClass -> "\\Foo\\Bar\\BarType".equals(formClass.getPhpClass().getFQN())).count());
+    }
+
     public void testClassOptionsVisitorWithExtensionAndParents() {
 
         final Set<String> options = new HashSet<String>();
@@ -101,6 +110,28 @@ public class FormOptionsUtilTest extends SymfonyLightCodeInsightFixtureTestCase
         assertContainsElements(optionsClass, "BarType");
     }
 
+    /**
+     * @see FormOptionsUtil#visitFormOptions
+     */
+    public void testClassOptionsVisitorCacheIsInvalidatedOnNewExtension() {
+        final Set<String> options = new HashSet<>();
+        FormOptionsUtil.visitFormOptions(getProject(), "foo", (psiElement, option, formClass, optionEnum) -> options.add(option));
+        assertFalse(options.contains("MyCachedTypeExtension"));
+
+        myFixture.addFileToProject("MyCachedTypeExtension.php", "<?php\n" +
+            "namespace Options\\Cached;\n" +
+            "use Symfony\\Component\\Form\\FormTypeExtensionInterface;\n" +
+            "class MyCachedTypeExtension implements FormTypeExtensionInterface {\n" +
+            "  public function configureOptions(OptionsResolver $resolver) { $resolver->setDefaults(['MyCachedTypeExtension' => null]); }\n" +
+            "  public function getExtendedType() { return 'foo'; }\n" +
+            "}\n"
+        );
+
+        options.clear();
+        FormOptionsUtil.visitFormOptions(getProject(), "foo", (psiElement, option, formClass, optionEnum) -> options.add(option));
+        assertContainsElements(options, "MyType", "BarTypeParent", "MyCachedTypeExtension");
+    }
+
     /**
      * @see FormOptionsUtil#getFormExtensionKeys
      */
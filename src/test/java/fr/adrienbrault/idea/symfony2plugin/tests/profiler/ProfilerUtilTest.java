@@ -1,13 +1,14 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.profiler;
 
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.psi.PsiFile;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerRequest;
 import fr.adrienbrault.idea.symfony2plugin.profiler.utils.ProfilerUtil;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 
-import java.util.Collection;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.Callable;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -132,4 +133,25 @@ public class ProfilerUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
             ProfilerUtil.formatProfilerRow(new LocalProfilerRequest("18e6b8,127.0.0.1,GET,asdss127.0.0.1:8000/app_test.php/foobar/foobar/,1474185112,76c8ab,404".split(",")))
         );
     }
+
+    /**
+     * @see ProfilerUtil#getProfilerRequestCollectorDecorated
+     * @see ProfilerUtil#processProfilerRequestCollectorDecorated
+     */
+    public void testProfilerRequestCollectorDecoratedOnSharedExecutor() {
+        Collection<Callable<ProfilerRequestInterface>> callable = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            String line = i + ",127.0.0.1,GET,http://127.0.0.1:8000/foobar,1474185112,,200";
+            callable.add(() -> new LocalProfilerRequest(line.split(",")));
+        }
+
+        List<ProfilerRequestInterface> requests = ProfilerUtil.getProfilerRequestCollectorDecorated(callable);
+        assertEquals(25, requests.size());
+        assertEquals("0", requests.get(0).getHash());
+        assertEquals("24", requests.get(24).getHash());
+
+        Collection<String> hashes = new HashSet<>();
+        ProfilerUtil.processProfilerRequestCollectorDecorated(callable, new EmptyProgressIndicator(), request -> hashes.add(request.getHash()));
+        assertEquals(25, hashes.size());
+    }
 }
@@ -0,0 +1,68 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.profiler.reader;
+
+import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerDump;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.LocalProfilerDumpParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see LocalProfilerDumpParser
+ */
+public class LocalProfilerDumpParserTest extends Assert {
+
+    private static final String MAIL = "O:13:\"Swift_Message\":1:{s:36:\"\u0000Swift_Mime_SimpleMimeEntity\u0000_body\";s:6:\"Hällo\";}";
+
+    private static final String CONTENT = "a:2:{s:6:\"_route\";s:9:\"foo_route\";s:11:\"_controller\";s:14:\"Foo::barAction\";}" +
+        "s:32:\"template.twig (foo/bar.html.twig)\";" +
+        "C:54:\"Symfony\\Bundle\\SwiftmailerBundle\\MessageDataCollector\":" + MAIL.getBytes(StandardCharsets.UTF_8).length + ":{" + MAIL + "}";
+
+    @Test
+    public void testParseExtractsRequestData() throws IOException {
+        assertDump(LocalProfilerDumpParser.parse(new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testParseGzipCompressedProfile() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(outputStream)) {
+            gzip.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertDump(LocalProfilerDumpParser.parse(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
+    @Test
+    public void testParseWithoutMatches() throws IOException {
+        LocalProfilerDump dump = LocalProfilerDumpParser.parse(new ByteArrayInputStream("a:1:{s:6:\"_route\";s:99:\"foo\";}".getBytes(StandardCharsets.UTF_8)));
+
+        assertNull(dump.getRoute());
+        assertNull(dump.getController());
+        assertNull(dump.getTemplate());
+        assertTrue(dump.getMailBodies().isEmpty());
+    }
+
+    @Test
+    public void testParseSkipsStringsWithOversizedLengthPrefix() throws IOException {
+        String content = "a:2:{s:6:\"_route\";s:999999999999:\"foo\";}" +
+            "C:54:\"Symfony\\Bundle\\SwiftmailerBundle\\MessageDataCollector\":60:{s:36:\"\u0000Swift_Mime_SimpleMimeEntity\u0000_body\";s:2000000000:\"foo\";}";
+
+        LocalProfilerDump dump = LocalProfilerDumpParser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+
+        assertNull(dump.getRoute());
+        assertTrue(dump.getMailBodies().isEmpty());
+    }
+
+    private static void assertDump(LocalProfilerDump dump) {
+        assertEquals("foo_route", dump.getRoute());
+        assertEquals("Foo::barAction", dump.getController());
+        assertEquals("foo/bar.html.twig", dump.getTemplate());
+        assertEquals("Hällo", dump.getMailBodies().iterator().next());
+    }
+}
@@ -0,0 +1,287 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.scaling;
+
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Synthetic Symfony project with a configurable amount of services, routes, templates, translations and entities
+ *
+ * Every element "i" has predictable names, so that tests can refer to them on every size:
+ * "app.service_i" / "App\Service\Service_i", "app_route_i", "pages/page_i.html.twig", "app.key_i", "App\Entity\Entity_i"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class SymfonyProjectGenerator {
+
+    /**
+     * Elements per generated config or class file
+     */
+    private static final int CHUNK = 50;
+
+    private int services = 30;
+    private int routes = 15;
+    private int templates = 10;
+    private int translations = 30;
+    private int entities = 3;
+
+    @NotNull
+    public static SymfonyProjectGenerator create() {
+        return new SymfonyProjectGenerator();
+    }
+
+    /**
+     * Multiplies all element counts
+     */
+    @NotNull
+    public SymfonyProjectGenerator scale(int factor) {
+        services *= factor;
+        routes *= factor;
+        templates *= factor;
+        translations *= factor;
+        entities *= factor;
+
+        return this;
+    }
+
+    @NotNull
+    public SymfonyProjectGenerator services(int services) {
+        this.services = services;
+        return this;
+    }
+
+    @NotNull
+    public SymfonyProjectGenerator routes(int routes) {
+        this.routes = routes;
+        return this;
+    }
+
+    @NotNull
+    public SymfonyProjectGenerator templates(int templates) {
+        this.templates = templates;
+        return this;
+    }
+
+    @NotNull
+    public SymfonyProjectGenerator translations(int translations) {
+        this.translations = translations;
+        return this;
+    }
+
+    @NotNull
+    public SymfonyProjectGenerator entities(int entities) {
+        this.entities = entities;
+        return this;
+    }
+
+    /**
+     * @return relative file path with its content
+     */
+    @NotNull
+    public Map<String, String> generate() {
+        Map<String, String> files = new LinkedHashMap<>();
+
+        generateServices(files);
+        generateRoutes(files);
+        generateTemplates(files);
+        generateTranslations(files);
+        generateEntities(files);
+
+        return files;
+    }
+
+    public void writeTo(@NotNull Path directory) throws IOException {
+        for (Map.Entry<String, String> entry : generate().entrySet()) {
+            Path file = directory.resolve(entry.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Needs a write action
+     */
+    public void writeTo(@NotNull VirtualFile directory) throws IOException {
+        for (Map.Entry<String, String> entry : generate().entrySet()) {
+            String path = entry.getKey();
+            int i = path.lastIndexOf('/');
+
+            VirtualFile parent = i > 0 ? VfsUtil.createDirectoryIfMissing(directory, path.substring(0, i)) : directory;
+            VirtualFile file = parent.findOrCreateChildData(this, path.substring(i + 1));
+            file.setBinaryContent(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Services are spread over yaml, xml and php; all of them are also inside the compiled container
+     */
+    private void generateServices(@NotNull Map<String, String> files) {
+        chunks(files, services, chunk -> "src/Service/Services" + chunk + ".php", (content, i) -> {
+            if(content.length() == 0) {
+                content.append("<?php\n\nnamespace App\\Service;\n");
+            }
+
+            content.append(String.format("\nclass Service_%d\n{\n    public function __construct(?Service_%d $service = null)\n    {\n    }\n}\n", i, Math.max(0, i - 1)));
+        });
+
+        chunks(files, services, chunk -> "config/services/services_" + chunk + ".yaml", (content, i) -> {
+            if(content.length() == 0) {
+                content.append("services:\n");
+            }
+
+            if(i % 3 == 0) {
+                content.append(String.format("    app.service_%d:\n        class: App\\Service\\Service_%d\n        arguments: ['@app.service_%d']\n", i, i, Math.max(0, i - 1)));
+            }
+        });
+
+        chunks(files, services, chunk -> "config/services/services_" + chunk + ".xml", (content, i) -> {
+            if(content.length() == 0) {
+                content.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<container xmlns=\"http://symfony.com/schema/dic/services\">\n    <services>\n");
+            }
+
+            if(i % 3 == 1) {
+                content.append(String.format("        <service id=\"app.service_%d\" class=\"App\\Service\\Service_%d\">\n            <argument type=\"service\" id=\"app.service_%d\"/>\n        </service>\n", i, i, i - 1));
+            }
+        }, "    </services>\n</container>\n");
+
+        chunks(files, services, chunk -> "config/services/services_" + chunk + ".php", (content, i) -> {
+            if(content.length() == 0) {
+                content.append("<?php\n\nuse Symfony\\Component\\DependencyInjection\\Loader\\Configurator\\ContainerConfigurator;\n\nreturn static function (ContainerConfigurator $container) {\n    $services = $container->services();\n");
+            }
+
+            if(i % 3 == 2) {
+                content.append(String.format("    $services->set('app.service_%d', \\App\\Service\\Service_%d::class);\n", i, i));
+            }
+        }, "};\n");
+
+        StringBuilder container = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<container xmlns=\"http://symfony.com/schema/dic/services\">\n  <services>\n");
+        for (int i = 0; i < services; i++) {
+            container.append(String.format("    <service id=\"app.service_%d\" class=\"App\\Service\\Service_%d\" public=\"true\"/>\n", i, i));
+        }
+        container.append("  </services>\n</container>\n");
+
+        files.put("var/cache/dev/App_KernelDevDebugContainer.xml", container.toString());
+    }
+
+    /**
+     * Routes are spread over annotations, attributes and yaml; all of them are also inside the compiled url generator
+     */
+    private void generateRoutes(@NotNull Map<String, String> files) {
+        chunks(files, routes, chunk -> "src/Controller/Controller_" + chunk + ".php", (content, i) -> {
+            if(content.length() == 0) {
+                content.append(String.format("<?php\n\nnamespace App\\Controller;\n\nuse Symfony\\Component\\Routing\\Annotation\\Route;\n\nclass Controller_%d\n{\n", i / CHUNK));
+            }
+
+            if(i % 3 == 0) {
+                content.append(String.format("    /**\n     * @Route(\"/annotation/%d\", name=\"app_route_%d\")\n     */\n", i, i));
+            } else if(i % 3 == 1) {
+                content.append(String.format("    #[Route('/attribute/%d', name: 'app_route_%d')]\n", i, i));
+            }
+
+            content.append(String.format("    public function action%d()\n    {\n        return $this->render('pages/page_%d.html.twig');\n    }\n\n", i, templates > 0 ? i % templates : 0));
+        }, "}\n");
+
+        chunks(files, routes, chunk -> "config/routes/routes_" + chunk + ".yaml", (content, i) -> {
+            if(i % 3 == 2) {
+                content.append(String.format("app_route_%d:\n    path: /yaml/%d/{id}\n    controller: App\\Controller\\Controller_%d::action%d\n\n", i, i, i / CHUNK, i));
+            }
+        });
+
+        StringBuilder generator = new StringBuilder("<?php\n\n// This file has been auto-generated by the Symfony Routing Component.\n\nreturn [\n");
+        for (int i = 0; i < routes; i++) {
+            generator.append(String.format("    'app_route_%d' => [[], ['_controller' => 'App\\\\Controller\\\\Controller_%d::action%d'], [], [['text', '/route/%d']], [], []],\n", i, i / CHUNK, i, i));
+        }
+        generator.append("];\n");
+
+        files.put("var/cache/dev/url_generating_routes.php", generator.toString());
+    }
+
+    /**
+     * Every fifth page starts a new "extends" chain on the base layout
+     */
+    private void generateTemplates(@NotNull Map<String, String> files) {
+        files.put("templates/base.html.twig", "<html>\n<body>\n{% block body %}{% endblock %}\n</body>\n</html>\n");
+
+        for (int i = 0; i < templates; i++) {
+            String parent = i % 5 == 0 ? "base.html.twig" : String.format("pages/page_%d.html.twig", i - 1);
+
+            files.put(String.format("templates/pages/page_%d.html.twig", i), String.format(
+                "{%% extends '%s' %%}\n\n{%% block body %%}\n    {{ parent() }}\n    <a href=\"{{ path('app_route_%d') }}\">{{ 'app.key_%d'|trans }}</a>\n    {%% include 'partials/partial_%d.html.twig' %%}\n{%% endblock %%}\n",
+                parent,
+                routes > 0 ? i % routes : 0,
+                translations > 0 ? i % translations : 0,
+                i
+            ));
+
+            files.put(String.format("templates/partials/partial_%d.html.twig", i), String.format("<div class=\"partial_%d\">{{ foo|default('bar') }}</div>\n", i));
+        }
+    }
+
+    /**
+     * Translation keys are spread over yaml, xliff and the compiled catalogue
+     */
+    private void generateTranslations(@NotNull Map<String, String> files) {
+        StringBuilder yaml = new StringBuilder();
+        StringBuilder xliff = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<xliff xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" version=\"1.2\">\n  <file source-language=\"en\" datatype=\"plaintext\" original=\"file.ext\">\n    <body>\n");
+        StringBuilder catalogue = new StringBuilder("<?php\n\nuse Symfony\\Component\\Translation\\MessageCatalogue;\n\n$catalogue = new MessageCatalogue('en', array (\n  'catalogue' => array (\n");
+
+        for (int i = 0; i < translations; i++) {
+            if(i % 3 == 0) {
+                yaml.append(String.format("app.key_%d: 'Hello %%name%% number %d'\n", i, i));
+            } else if(i % 3 == 1) {
+                xliff.append(String.format("      <trans-unit id=\"%d\" resname=\"app.key_%d\">\n        <source>app.key_%d</source>\n        <target>{{ limit }} number %d</target>\n      </trans-unit>\n", i, i, i, i));
+            } else {
+                catalogue.append(String.format("    'app.key_%d' => 'Catalogue %d',\n", i, i));
+            }
+        }
+
+        xliff.append("    </body>\n  </file>\n</xliff>\n");
+        catalogue.append("  ),\n));\n\nreturn $catalogue;\n");
+
+        files.put("translations/messages.en.yaml", yaml.toString());
+        files.put("translations/validators.en.xlf", xliff.toString());
+        files.put("var/cache/dev/translations/catalogue.en.php", catalogue.toString());
+    }
+
+    private void generateEntities(@NotNull Map<String, String> files) {
+        for (int i = 0; i < entities; i++) {
+            files.put(String.format("src/Entity/Entity_%d.php", i), String.format(
+                "<?php\n\nnamespace App\\Entity;\n\nuse Doctrine\\ORM\\Mapping as ORM;\n\n/**\n * @ORM\\Entity(repositoryClass=\"App\\Repository\\Entity_%dRepository\")\n */\nclass Entity_%d\n{\n    /**\n     * @ORM\\Id\n     * @ORM\\Column(type=\"integer\")\n     */\n    private $id;\n\n    /**\n     * @ORM\\Column(type=\"string\")\n     */\n    private $name;\n\n    /**\n     * @ORM\\ManyToOne(targetEntity=\"App\\Entity\\Entity_%d\")\n     */\n    private $parent;\n}\n",
+                i, i, Math.max(0, i - 1)
+            ));
+        }
+    }
+
+    private interface ChunkVisitor {
+        void visit(@NotNull StringBuilder content, int i);
+    }
+
+    private static void chunks(@NotNull Map<String, String> files, int count, @NotNull IntFunction<String> path, @NotNull ChunkVisitor visitor) {
+        chunks(files, count, path, visitor, "");
+    }
+
+    /**
+     * Splits "count" elements into files of {@link #CHUNK} elements; files without content are skipped
+     */
+    private static void chunks(@NotNull Map<String, String> files, int count, @NotNull IntFunction<String> path, @NotNull ChunkVisitor visitor, @NotNull String footer) {
+        for (int chunk = 0; chunk * CHUNK < count; chunk++) {
+            StringBuilder content = new StringBuilder();
+
+            for (int i = chunk * CHUNK; i < Math.min(count, (chunk + 1) * CHUNK); i++) {
+                visitor.visit(content, i);
+            }
+
+            if(content.length() > 0) {
+                files.put(path.apply(chunk), content + footer);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.scaling;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.codeInsight.daemon.LineMarkerProviders;
+import com.intellij.codeInsight.navigation.actions.GotoDeclarationHandler;
+import com.intellij.codeInspection.*;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementVisitor;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.twig.TwigFileType;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.YAMLFileType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Runs completion, navigation, line markers, inspections and Doctrine lookups on a generated project in 1x, 10x and
+ * 100x size to catch operations which are growing faster than the project.
+ *
+ * Generating and indexing the 100x project takes a while, so the scaling run is opt-in:
+ * "./gradlew test -Dsymfony.scaling.tests=true --tests '*SymfonyProjectScalingTest'"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyProjectGenerator
+ */
+public class SymfonyProjectScalingTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    private static final int[] SCALES = {1, 10, 100};
+
+    /**
+     * Budget of a single warm operation on the largest project
+     */
+    private static final long BUDGET_MS = 1000;
+
+    /**
+     * Times below are only noise and not compared for growth
+     */
+    private static final long NOISE_FLOOR_MS = 5;
+
+    /**
+     * Headroom for timer and gc noise on top of the allowed sqrt growth
+     */
+    private static final double SLACK = 2;
+
+    private static final int RUNS = 3;
+
+    public void testGeneratorWritesProjectIntoTempDir() throws Exception {
+        Path directory = FileUtil.createTempDirectory("symfony-project", null).toPath();
+
+        SymfonyProjectGenerator.create().writeTo(directory);
+
+        String services = new String(Files.readAllBytes(directory.resolve("config/services/services_0.yaml")));
+        assertTrue(services.contains("app.service_0:"));
+
+        assertTrue(Files.exists(directory.resolve("config/services/services_0.xml")));
+        assertTrue(Files.exists(directory.resolve("var/cache/dev/App_KernelDevDebugContainer.xml")));
+        assertTrue(Files.exists(directory.resolve("var/cache/dev/url_generating_routes.php")));
+        assertTrue(Files.exists(directory.resolve("templates/pages/page_9.html.twig")));
+        assertTrue(Files.exists(directory.resolve("translations/validators.en.xlf")));
+        assertTrue(Files.exists(directory.resolve("src/Entity/Entity_2.php")));
+
+        Map<String, String> scaled = SymfonyProjectGenerator.create().scale(10).generate();
+        assertTrue(scaled.get("var/cache/dev/App_KernelDevDebugContainer.xml").contains("app.service_299"));
+        assertTrue(scaled.containsKey("templates/pages/page_99.html.twig"));
+
+        FileUtil.delete(directory.toFile());
+    }
+
+    public void testOperationsGrowSubLinearWithProjectSize() throws Exception {
+        if(!Boolean.getBoolean("symfony.scaling.tests")) {
+            return;
+        }
+
+        Map<String, long[]> timings = new LinkedHashMap<>();
+
+        for (int s = 0; s < SCALES.length; s++) {
+            generateProject(SCALES[s]);
+
+            measure(timings, s, "service completion", () -> {
+                myFixture.configureByText(YAMLFileType.YML, "services:\n    foo:\n        arguments: ['@<caret>']\n");
+                myFixture.completeBasic();
+                assertContainsElements(Objects.requireNonNull(myFixture.getLookupElementStrings()), "app.service_0");
+            });
+
+            measure(timings, s, "route completion", () -> {
+                myFixture.configureByText(TwigFileType.INSTANCE, "{{ path('<caret>') }}");
+                myFixture.completeBasic();
+                assertContainsElements(Objects.requireNonNull(myFixture.getLookupElementStrings()), "app_route_2");
+            });
+
+            measure(timings, s, "translation completion", () -> {
+                myFixture.configureByText(TwigFileType.INSTANCE, "{{ '<caret>'|trans({}, 'messages') }}");
+                myFixture.completeBasic();
+                assertContainsElements(Objects.requireNonNull(myFixture.getLookupElementStrings()), "app.key_0");
+            });
+
+            measure(timings, s, "route navigation", () -> {
+                myFixture.configureByText(TwigFileType.INSTANCE, "{{ path('app_route_<caret>2') }}");
+                getGotoDeclarationTargets(myFixture.getFile().findElementAt(myFixture.getCaretOffset()));
+            });
+
+            measure(timings, s, "template completion", () -> {
+                myFixture.configureByText(TwigFileType.INSTANCE, "{% include '<caret>' %}");
+                myFixture.completeBasic();
+                assertContainsElements(Objects.requireNonNull(myFixture.getLookupElementStrings()), "pages/page_0.html.twig");
+            });
+
+            measure(timings, s, "doctrine models", () -> assertTrue(
+                EntityHelper.getModelClasses(getProject()).stream().anyMatch(model -> model.getClassName().endsWith("App\\Entity\\Entity_0"))
+            ));
+
+            measure(timings, s, "doctrine fields", () -> {
+                PhpClass entity = Objects.requireNonNull(PhpElementsUtil.getClassInterface(getProject(), "\\App\\Entity\\Entity_2"));
+                assertTrue(EntityHelper.getModelFields(entity).stream().anyMatch(field -> "name".equals(field.getName())));
+            });
+
+            PsiFile template = myFixture.configureFromTempProjectFile("templates/pages/page_1.html.twig");
+            measure(timings, s, "template line markers", () -> collectLineMarkers(template));
+
+            PsiFile controller = myFixture.configureFromTempProjectFile("src/Controller/Controller_0.php");
+            measure(timings, s, "controller line markers", () -> collectLineMarkers(controller));
+
+            PsiFile services = myFixture.configureFromTempProjectFile("config/services/services_0.yaml");
+            measure(timings, s, "service inspections", () -> runLocalInspections(services));
+        }
+
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : timings.entrySet()) {
+            report.append(String.format("%-25s %s ms%n", entry.getKey(), Arrays.toString(entry.getValue())));
+        }
+
+        writeReport(report.toString());
+
+        for (Map.Entry<String, long[]> entry : timings.entrySet()) {
+            assertScaling(entry.getKey(), entry.getValue(), report.toString());
+        }
+    }
+
+    /**
+     * Largest size must stay within the budget and every size must grow sub-linear: "sqrt(scale)" with some slack
+     */
+    private static void assertScaling(@NotNull String operation, @NotNull long[] timings, @NotNull String report) {
+        long base = Math.max(timings[0], NOISE_FLOOR_MS);
+
+        for (int s = 1; s < SCALES.length; s++) {
+            assertTrue(
+                String.format("'%s' grows with project size %dx: %d ms to %d ms%n%s", operation, SCALES[s], timings[0], timings[s], report),
+                timings[s] < base * Math.sqrt(SCALES[s]) * SLACK
+            );
+        }
+
+        long largest = timings[SCALES.length - 1];
+        assertTrue(String.format("'%s' exceeds budget: %d ms%n%s", operation, largest, report), largest < BUDGET_MS);
+    }
+
+    /**
+     * Keep the default test output clean; the table is inspected via "build/reports/project-scaling.txt"
+     */
+    private static void writeReport(@NotNull String report) throws IOException {
+        Path path = Paths.get("build", "reports", "project-scaling.txt");
+
+        Files.createDirectories(path.getParent());
+        Files.write(path, report.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * First run is building all caches; the best of the following warm runs is taken
+     */
+    private static void measure(@NotNull Map<String, long[]> timings, int scale, @NotNull String operation, @NotNull Runnable runnable) {
+        runnable.run();
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            runnable.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        timings.computeIfAbsent(operation, s -> new long[SCALES.length])[scale] = best / 1_000_000;
+    }
+
+    private void generateProject(int scale) throws Exception {
+        WriteAction.runAndWait(() -> {
+            VirtualFile root = Objects.requireNonNull(myFixture.getTempDirFixture().getFile(""));
+
+            // replace the previous size
+            for (VirtualFile child : root.getChildren()) {
+                child.delete(this);
+            }
+
+            SymfonyProjectGenerator.create().scale(scale).writeTo(root);
+        });
+    }
+
+    @NotNull
+    private Collection<PsiElement> getGotoDeclarationTargets(@NotNull PsiElement psiElement) {
+        Collection<PsiElement> targets = new ArrayList<>();
+
+        for (GotoDeclarationHandler handler : GotoDeclarationHandler.EP_NAME.getExtensionList()) {
+            PsiElement[] elements = handler.getGotoDeclarationTargets(psiElement, 0, myFixture.getEditor());
+            if(elements != null) {
+                targets.addAll(Arrays.asList(elements));
+            }
+        }
+
+        return targets;
+    }
+
+    @NotNull
+    private static Collection<LineMarkerInfo<?>> collectLineMarkers(@NotNull PsiFile psiFile) {
+        List<PsiElement> elements = new ArrayList<>(PsiTreeUtil.findChildrenOfType(psiFile, PsiElement.class));
+
+        Collection<LineMarkerInfo<?>> lineMarkerInfos = new ArrayList<>();
+        for (LineMarkerProvider provider : LineMarkerProviders.getInstance().allForLanguage(psiFile.getLanguage())) {
+            provider.collectSlowLineMarkers(elements, lineMarkerInfos);
+        }
+
+        return lineMarkerInfos;
+    }
+
+    @NotNull
+    private List<ProblemDescriptor> runLocalInspections(@NotNull PsiFile psiFile) {
+        ProblemsHolder problemsHolder = new ProblemsHolder(InspectionManager.getInstance(getProject()), psiFile, false);
+
+        for (LocalInspectionEP localInspectionEP : LocalInspectionEP.LOCAL_INSPECTION.getExtensions()) {
+            if(!localInspectionEP.implementationClass.startsWith("fr.adrienbrault.idea.symfony2plugin")) {
+                continue;
+            }
+
+            Object object = localInspectionEP.getInstance();
+            if(!(object instanceof LocalInspectionTool)) {
+                continue;
+            }
+
+            PsiElementVisitor visitor = ((LocalInspectionTool) object).buildVisitor(problemsHolder, false);
+
+            psiFile.acceptChildren(new PsiRecursiveElementVisitor() {
+                @Override
+                public void visitElement(@NotNull PsiElement element) {
+                    element.accept(visitor);
+                    super.visitElement(element);
+                }
+            });
+
+            psiFile.accept(visitor);
+        }
+
+        return problemsHolder.getResults();
+    }
+}
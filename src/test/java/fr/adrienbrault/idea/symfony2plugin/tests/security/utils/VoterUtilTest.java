@@ -2,6 +2,7 @@ package fr.adrienbrault.idea.symfony2plugin.tests.security.utils;
 
 import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.php.lang.psi.elements.ClassConstantReference;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
 import fr.adrienbrault.idea.symfony2plugin.security.utils.VoterUtil;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 
@@ -72,4 +73,47 @@ public class VoterUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertContainsElements(values, "YAML_ROLE_USER_FOOBAR", "YAML_ROLE_USER_FOOBAR_1");
         assertContainsElements(values, "YAML_ROLE_FOOBAR_ARRAY_1", "YAML_ROLE_FOOBAR_ARRAY_2");
     }
+
+    /**
+     * @see VoterUtil#getAttributeLookupElements
+     */
+    public void testAttributeLookupElements() {
+        assertTrue(VoterUtil.getAttributeLookupElements(getProject()).stream().anyMatch(lookupElement -> "FOOBAR_IF_1".equals(lookupElement.getLookupString())));
+        assertTrue(VoterUtil.getAttributeLookupElements(getProject()).stream().anyMatch(lookupElement -> "YAML_ROLE_ADMIN".equals(lookupElement.getLookupString())));
+    }
+
+    /**
+     * @see VoterUtil#getAttributeTargets
+     */
+    public void testAttributeTargets() {
+        assertTrue(VoterUtil.getAttributeTargets(getProject(), "foobar_if_1").stream().anyMatch(psiElement -> psiElement instanceof ClassConstantReference));
+        assertTrue(VoterUtil.getAttributeTargets(getProject(), "FOOBAR_ARRAY_4").stream().anyMatch(psiElement -> psiElement instanceof StringLiteralExpression));
+    }
+
+    /**
+     * @see VoterUtil#getAttributeTargets
+     */
+    public void testAttributeTargetsOfMultipleVotersInsideOneFile() {
+        myFixture.configureByText("SharedVoters.php", "<?php\n" +
+            "use Symfony\\Component\\Security\\Core\\Authorization\\Voter\\Voter;\n" +
+            "\n" +
+            "class SharedFooVoter extends Voter\n" +
+            "{\n" +
+            "    protected function supports($attribute, $subject)\n" +
+            "    {\n" +
+            "        return $attribute === 'SHARED_VOTER_ATTRIBUTE';\n" +
+            "    }\n" +
+            "}\n" +
+            "\n" +
+            "class SharedBarVoter extends Voter\n" +
+            "{\n" +
+            "    protected function supports($attribute, $subject)\n" +
+            "    {\n" +
+            "        return $attribute === 'SHARED_VOTER_ATTRIBUTE';\n" +
+            "    }\n" +
+            "}\n"
+        );
+
+        assertEquals(2, VoterUtil.getAttributeTargets(getProject(), "SHARED_VOTER_ATTRIBUTE").size());
+    }
 }
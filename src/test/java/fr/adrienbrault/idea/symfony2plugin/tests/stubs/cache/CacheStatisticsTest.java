@@ -0,0 +1,48 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.cache;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.util.containers.ContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.CacheStatistics;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see CacheStatistics
+ */
+public class CacheStatisticsTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testLookupsAndRebuildsAreRecordedPerKey() {
+        CacheStatistics statistics = CacheStatistics.getInstance(getProject());
+        statistics.reset();
+
+        Key<CachedValue<List<String>>> key = new Key<>("SYMFONY_TEST_STATISTICS");
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+
+        for (int i = 0; i < 3; i++) {
+            CacheStatistics.getCachedValue(getProject(), key, () -> CachedValueProvider.Result.create(Arrays.asList("foo", "bar"), tracker));
+        }
+
+        tracker.incModificationCount();
+        CacheStatistics.getCachedValue(getProject(), key, () -> CachedValueProvider.Result.create(Arrays.asList("foo", "bar"), tracker));
+
+        CacheStatistics.Snapshot snapshot = ContainerUtil.find(statistics.getSnapshots(), s -> "SYMFONY_TEST_STATISTICS".equals(s.getName()));
+        assertNotNull(snapshot);
+
+        assertEquals(4, snapshot.getLookups());
+        assertEquals(2, snapshot.getEntries());
+
+        // idempotence checks of the platform can trigger additional rebuilds in tests
+        assertTrue(snapshot.getMisses() >= 2);
+        assertEquals(snapshot.getMisses(), Arrays.stream(snapshot.getRebuildTimeHistogram()).sum());
+
+        assertTrue(statistics.toJson().contains("\"name\": \"SYMFONY_TEST_STATISTICS\""));
+
+        statistics.reset();
+        assertNull(ContainerUtil.find(statistics.getSnapshots(), s -> "SYMFONY_TEST_STATISTICS".equals(s.getName())));
+    }
+}
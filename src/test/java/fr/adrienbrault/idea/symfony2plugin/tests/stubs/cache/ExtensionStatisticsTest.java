@@ -0,0 +1,35 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.cache;
+
+import com.intellij.util.containers.ContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.ExtensionStatistics;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ExtensionStatistics
+ */
+public class ExtensionStatisticsTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testInvocationsAreRecordedPerExtensionAndCaller() {
+        ExtensionStatistics statistics = ExtensionStatistics.getInstance(getProject());
+        statistics.reset();
+
+        List<String> items = new ArrayList<>();
+        ExtensionStatistics.invoke(getProject(), "SYMFONY_TEST_CALLER", items, list -> list.add("foo"));
+        assertEquals(1, (int) ExtensionStatistics.compute(getProject(), "SYMFONY_TEST_CALLER", items, List::size));
+
+        statistics.record("SYMFONY_TEST_CALLER", items.getClass().getName(), 5_000_000_000L);
+
+        ExtensionStatistics.Snapshot snapshot = ContainerUtil.find(statistics.getSnapshots(), s -> "SYMFONY_TEST_CALLER".equals(s.getCaller()));
+        assertNotNull(snapshot);
+
+        assertEquals(ArrayList.class.getName(), snapshot.getExtension());
+        assertEquals(3, snapshot.getInvocations());
+        assertEquals(1, snapshot.getSlowInvocations());
+        assertTrue(snapshot.getTimeMaxMs() >= 5000);
+
+        assertTrue(statistics.toJson().contains("SYMFONY_TEST_CALLER"));
+    }
+}
@@ -0,0 +1,88 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.cache;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.util.CachedValueProvider;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.StaleWhileRevalidateCache;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see StaleWhileRevalidateCache
+ */
+public class StaleWhileRevalidateCacheTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testValueIsOnlyRebuildOnDependencyChange() {
+        Key<StaleWhileRevalidateCache<Integer>> key = new Key<>("SYMFONY_TEST_STALE_CACHE");
+
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+        AtomicInteger counter = new AtomicInteger();
+
+        assertEquals(1, (int) StaleWhileRevalidateCache.getCachedValue(getProject(), key, () -> CachedValueProvider.Result.create(counter.incrementAndGet(), tracker)));
+        assertEquals(1, (int) StaleWhileRevalidateCache.getCachedValue(getProject(), key, () -> CachedValueProvider.Result.create(counter.incrementAndGet(), tracker)));
+
+        tracker.incModificationCount();
+
+        // unit test mode is rebuilding synchronously
+        assertEquals(2, (int) StaleWhileRevalidateCache.getCachedValue(getProject(), key, () -> CachedValueProvider.Result.create(counter.incrementAndGet(), tracker)));
+        assertEquals(2, counter.get());
+    }
+
+    public void testStaleValueIsServedUntilBackgroundRebuildIsDone() throws Exception {
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+        AtomicInteger counter = new AtomicInteger();
+        List<Runnable> tasks = Collections.synchronizedList(new ArrayList<>());
+
+        StaleWhileRevalidateCache<Integer> cache = StaleWhileRevalidateCache.create(
+            getProject(),
+            "SYMFONY_TEST_STALE_CACHE_BACKGROUND",
+            () -> CachedValueProvider.Result.create(counter.incrementAndGet(), tracker),
+            tasks::add
+        );
+
+        // first access has nothing to serve
+        assertEquals(1, (int) cache.getValue());
+        assertEmpty(tasks);
+
+        tracker.incModificationCount();
+
+        // outdated value is served and the rebuild is only scheduled
+        assertEquals(1, (int) cache.getValue());
+        assertEquals(1, (int) cache.getValue());
+        assertEquals(1, counter.get());
+        assertNotEmpty(tasks);
+
+        runTasks(tasks);
+
+        assertEquals(2, counter.get());
+        assertEquals(2, (int) cache.getValue());
+        assertEquals(2, counter.get());
+    }
+
+    public void testUnsupportedDependencyIsRejected() {
+        Key<StaleWhileRevalidateCache<String>> key = new Key<>("SYMFONY_TEST_STALE_CACHE_INVALID");
+
+        try {
+            StaleWhileRevalidateCache.getCachedValue(getProject(), key, () -> CachedValueProvider.Result.create("foo", new Object()));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    /**
+     * Background rebuild is a non-blocking read action, which must not run on the event dispatch thread
+     */
+    private static void runTasks(@NotNull List<Runnable> tasks) throws Exception {
+        while (!tasks.isEmpty()) {
+            ApplicationManager.getApplication().executeOnPooledThread(tasks.remove(0)).get(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ConsoleCommandStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ConsoleCommandStubIndex
+ */
+public class ConsoleCommandStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("FooCommand.php", "<?php\n" +
+            "namespace App\\Command;\n" +
+            "\n" +
+            "use Symfony\\Component\\Console\\Attribute\\AsCommand;\n" +
+            "use Symfony\\Component\\Console\\Command\\Command;\n" +
+            "\n" +
+            "class SetNameCommand extends Command\n" +
+            "{\n" +
+            "    const NAME = 'app:const';\n" +
+            "    public function configure() { $this->setName(self::NAME); }\n" +
+            "}\n" +
+            "\n" +
+            "class DefaultNameCommand extends Command\n" +
+            "{\n" +
+            "    protected static $defaultName = 'app:default-name';\n" +
+            "}\n" +
+            "\n" +
+            "#[AsCommand(name: 'app:attribute')]\n" +
+            "class AttributeCommand extends Command {}\n" +
+            "\n" +
+            "class OtherConstCommand extends Command\n" +
+            "{\n" +
+            "    public function configure() { $this->setName(\\App\\CommandNames::NAME); }\n" +
+            "}\n" +
+            "\n" +
+            "class PropertyCommand extends Command\n" +
+            "{\n" +
+            "    private $name = 'app:property';\n" +
+            "    public function configure() { $this->setName($this->name); }\n" +
+            "}\n" +
+            "\n" +
+            "abstract class AbstractCommand extends Command\n" +
+            "{\n" +
+            "    protected static $defaultName = 'app:abstract';\n" +
+            "}\n"
+        );
+
+        myFixture.configureByText("services.yml", "" +
+            "services:\n" +
+            "  app.command.yaml:\n" +
+            "    class: App\\Command\\YamlCommand\n" +
+            "    tags:\n" +
+            "      - { name: 'console.command', command: 'app:yaml' }\n"
+        );
+
+        myFixture.configureByText("services.xml", "" +
+            "<container>\n" +
+            "  <services>\n" +
+            "    <service id=\"App\\Command\\XmlCommand\">\n" +
+            "      <tag name=\"console.command\" command=\"app:xml\"/>\n" +
+            "    </service>\n" +
+            "  </services>\n" +
+            "</container>\n"
+        );
+    }
+
+    public void testThatCommandNamesAreIndexed() {
+        assertIndexContains(ConsoleCommandStubIndex.KEY, "app:default-name", "app:attribute", "app:abstract");
+
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "app:default-name", "\\App\\Command\\DefaultNameCommand");
+    }
+
+    public void testThatReferencesAreIndexedForQueryTimeResolving() {
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "\\App\\Command\\SetNameCommand::NAME", "\\App\\Command\\SetNameCommand");
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "\\App\\CommandNames::NAME", "\\App\\Command\\OtherConstCommand");
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "\\App\\Command\\PropertyCommand::$name", "\\App\\Command\\PropertyCommand");
+    }
+
+    public void testThatCommandNamesOfServiceTagsAreIndexed() {
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "app:yaml", "\\App\\Command\\YamlCommand");
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "app:xml", "\\App\\Command\\XmlCommand");
+    }
+}
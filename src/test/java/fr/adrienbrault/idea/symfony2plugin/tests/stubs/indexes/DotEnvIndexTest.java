@@ -0,0 +1,55 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DotEnvIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see DotEnvIndex
+ */
+public class DotEnvIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.addFileToProject(".env.local", "" +
+            "# COMMENT_ENV=1\n" +
+            "FOOBAR_ENV=foo\n" +
+            "export EXPORT_ENV=foo\n" +
+            "MULTILINE_ENV=\"foo\n" +
+            "MULTILINE_INNER_ENV=bar\"\n" +
+            "AFTER_MULTILINE_ENV=foo\n"
+        );
+
+        myFixture.addFileToProject("Dockerfile", "" +
+            "FROM busybox\n" +
+            "ENV DOCKERFILE_ENV /bar\n" +
+            "ENV DOCKERFILE_ASSIGN_ENV=\"mark\"\n"
+        );
+
+        myFixture.addFileToProject("docker-compose.override.yml", "" +
+            "services:\n" +
+            "  foobar:\n" +
+            "    environment:\n" +
+            "      - COMPOSE_SEQUENCE_ENV=1\n" +
+            "  foobar2:\n" +
+            "    environment:\n" +
+            "      COMPOSE_MAPPING_ENV: 1\n"
+        );
+    }
+
+    public void testThatDotEnvVariablesAreIndexed() {
+        assertIndexContains(DotEnvIndex.KEY, "FOOBAR_ENV", "EXPORT_ENV", "MULTILINE_ENV", "AFTER_MULTILINE_ENV");
+        assertIndexNotContains(DotEnvIndex.KEY, "COMMENT_ENV", "MULTILINE_INNER_ENV", "export");
+
+        assertIndexContainsKeyWithValue(DotEnvIndex.KEY, "FOOBAR_ENV", value -> value == 16);
+    }
+
+    public void testThatDockerfileVariablesAreIndexed() {
+        assertIndexContains(DotEnvIndex.KEY, "DOCKERFILE_ENV", "DOCKERFILE_ASSIGN_ENV");
+        assertIndexContainsKeyWithValue(DotEnvIndex.KEY, "DOCKERFILE_ENV", value -> value == 17);
+    }
+
+    public void testThatDockerComposeVariablesAreIndexed() {
+        assertIndexContains(DotEnvIndex.KEY, "COMPOSE_SEQUENCE_ENV", "COMPOSE_MAPPING_ENV");
+    }
+}
@@ -0,0 +1,61 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see EventSubscriberStubIndex
+ */
+public class EventSubscriberStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("EventSubscriber.php", "<?php\n" +
+            "namespace App\\EventSubscriber;\n" +
+            "\n" +
+            "use Foo\\Events;\n" +
+            "\n" +
+            "class FooSubscriber implements \\Symfony\\Component\\EventDispatcher\\EventSubscriberInterface\n" +
+            "{\n" +
+            "    const FOO = 'foo.self';\n" +
+            "    public static function getSubscribedEvents()\n" +
+            "    {\n" +
+            "        return [\n" +
+            "            'foo.pre' => 'onPre',\n" +
+            "            Events::BAR => ['onBar', -10],\n" +
+            "            self::FOO => [['onSelf', 5], ['onSelf2']],\n" +
+            "            \\App\\Event\\FooEvent::class => 'onFooEvent',\n" +
+            "        ];\n" +
+            "    }\n" +
+            "}\n" +
+            "\n" +
+            "class BarSubscriber implements \\Symfony\\Component\\EventDispatcher\\EventSubscriberInterface\n" +
+            "{\n" +
+            "    public static function getSubscribedEvents()\n" +
+            "    {\n" +
+            "        return ['foo.pre' => 'onBarPre'];\n" +
+            "    }\n" +
+            "}\n"
+        );
+    }
+
+    public void testThatSubscribedEventsAreIndexed() {
+        assertIndexContains(EventSubscriberStubIndex.KEY, "foo.pre", "\\Foo\\Events::BAR", "\\App\\EventSubscriber\\FooSubscriber::FOO", "App\\Event\\FooEvent");
+
+        assertIndexContainsKeyWithValue(EventSubscriberStubIndex.KEY, "\\Foo\\Events::BAR", value -> value.stream().anyMatch(event ->
+            "onBar".equals(event.getMethodName()) && Integer.valueOf(-10).equals(event.getPriority()) && event.isConstant()
+        ));
+
+        assertIndexContainsKeyWithValue(EventSubscriberStubIndex.KEY, "\\App\\EventSubscriber\\FooSubscriber::FOO", value -> value.stream().anyMatch(event ->
+            "onSelf".equals(event.getMethodName()) && Integer.valueOf(5).equals(event.getPriority())
+        ));
+    }
+
+    public void testThatEverySubscriberOfAnEventInsideOneFileIsIndexed() {
+        assertIndexContainsKeyWithValue(EventSubscriberStubIndex.KEY, "foo.pre", value ->
+            value.stream().anyMatch(event -> "App\\EventSubscriber\\FooSubscriber".equals(event.getFqnClassName()) && "onPre".equals(event.getMethodName()) && !event.isConstant()) &&
+            value.stream().anyMatch(event -> "App\\EventSubscriber\\BarSubscriber".equals(event.getFqnClassName()) && "onBarPre".equals(event.getMethodName()))
+        );
+    }
+}
@@ -0,0 +1,229 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.FileContentImpl;
+import com.intellij.util.indexing.ID;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.*;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.tests.scaling.SymfonyProjectGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes a generated project with every plugin "FileBasedIndexExtension" in isolation and reports
+ * hit ratio of the input filter, PSI builds, files with entries, serialized bytes and files/sec.
+ *
+ * Larger project: "./gradlew test -Dsymfony.index.throughput.scale=100 --tests '*IndexThroughputTest'"
+ * The report is written to "build/reports/index-throughput.txt"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyProjectGenerator
+ */
+public class IndexThroughputTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    private static final String PLUGIN_PACKAGE = "fr.adrienbrault.idea.symfony2plugin";
+
+    /**
+     * Indexes with a content check; none of their words are inside a generated entity
+     */
+    private static final Collection<ID<?, ?>> CONTENT_FILTERED_PHP_INDEXES = Arrays.asList(
+        ConsoleCommandStubIndex.KEY,
+        ContainerBuilderStubIndex.KEY,
+        EventAnnotationStubIndex.KEY,
+        EventSubscriberStubIndex.KEY,
+        FormDataClassStubIndex.KEY,
+        RoutesStubIndex.KEY,
+        ServicesDefinitionStubIndex.KEY,
+        VoterAttributeStubIndex.KEY
+    );
+
+    public void testIndexThroughputOnGeneratedProject() throws Exception {
+        List<VirtualFile> files = generateProject(Integer.getInteger("symfony.index.throughput.scale", 1));
+
+        List<IndexThroughput> results = new ArrayList<>();
+        for (FileBasedIndexExtension<?, ?> extension : getPluginIndexes()) {
+            results.add(measure(extension, files));
+        }
+
+        String report = createReport(files.size(), results);
+        for (IndexThroughput result : results) {
+            assertTrue(report.contains(result.name));
+        }
+
+        writeReport(report);
+
+        for (IndexThroughput result : results) {
+            if(!CONTENT_FILTERED_PHP_INDEXES.contains(result.id)) {
+                continue;
+            }
+
+            for (VirtualFile psiFile : result.psiFiles) {
+                assertFalse(
+                    String.format("'%s' builds PSI for '%s'%n%s", result.name, psiFile.getPath(), report),
+                    psiFile.getPath().contains("/src/Entity/")
+                );
+            }
+        }
+
+        IndexThroughput routes = results.stream().filter(result -> result.id == RoutesStubIndex.KEY).findFirst().orElseThrow();
+        assertTrue(routes.withEntries > 0);
+        assertTrue(routes.bytes > 0);
+    }
+
+    @NotNull
+    private <K, V> IndexThroughput measure(@NotNull FileBasedIndexExtension<K, V> extension, @NotNull List<VirtualFile> files) throws IOException {
+        IndexThroughput result = new IndexThroughput(extension.getName());
+
+        for (VirtualFile file : files) {
+            if(!extension.getInputFilter().acceptInput(file)) {
+                continue;
+            }
+
+            result.accepted++;
+
+            boolean[] psi = new boolean[1];
+            FileContent fileContent = createPsiTrackingContent(FileContentImpl.createByFile(file, getProject()), psi);
+
+            long start = System.nanoTime();
+            Map<K, V> map = extension.getIndexer().map(fileContent);
+            result.nanos += System.nanoTime() - start;
+
+            if(psi[0]) {
+                result.psiFiles.add(file);
+            }
+
+            if(map.isEmpty()) {
+                continue;
+            }
+
+            result.withEntries++;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                for (Map.Entry<K, V> entry : map.entrySet()) {
+                    extension.getKeyDescriptor().save(out, entry.getKey());
+
+                    if(entry.getValue() != null) {
+                        extension.getValueExternalizer().save(out, entry.getValue());
+                    }
+                }
+            }
+
+            result.bytes += bytes.size();
+        }
+
+        result.files = files.size();
+
+        return result;
+    }
+
+    /**
+     * Every "getPsiFile" call on the content is a PSI build, as each file content is only used once
+     */
+    @NotNull
+    private static FileContent createPsiTrackingContent(@NotNull FileContent fileContent, @NotNull boolean[] psi) {
+        return (FileContent) Proxy.newProxyInstance(
+            IndexThroughputTest.class.getClassLoader(),
+            new Class[] {FileContent.class},
+            (proxy, method, args) -> {
+                if("getPsiFile".equals(method.getName())) {
+                    psi[0] = true;
+                }
+
+                try {
+                    return method.invoke(fileContent, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        );
+    }
+
+    @NotNull
+    private static String createReport(int files, @NotNull List<IndexThroughput> results) {
+        StringBuilder report = new StringBuilder(String.format(
+            "%d files%n%-55s %15s %8s %8s %10s %12s%n", files, "index", "input filter", "psi", "entries", "bytes", "files/sec"
+        ));
+
+        for (IndexThroughput result : results) {
+            report.append(String.format(
+                "%-55s %6d (%5.1f%%) %8d %8d %10d %12.0f%n",
+                result.name,
+                result.accepted,
+                result.files > 0 ? result.accepted * 100d / result.files : 0,
+                result.psiFiles.size(),
+                result.withEntries,
+                result.bytes,
+                result.nanos > 0 ? result.accepted / (result.nanos / 1_000_000_000d) : 0
+            ));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Keep the default test output clean; the table is inspected via "build/reports/index-throughput.txt"
+     */
+    private static void writeReport(@NotNull String report) throws IOException {
+        Path path = Paths.get("build", "reports", "index-throughput.txt");
+
+        Files.createDirectories(path.getParent());
+        Files.write(path, report.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NotNull
+    private static List<FileBasedIndexExtension<?, ?>> getPluginIndexes() {
+        return FileBasedIndexExtension.EXTENSION_POINT_NAME.getExtensionList().stream()
+            .filter(extension -> extension.getClass().getName().startsWith(PLUGIN_PACKAGE))
+            .sorted(Comparator.comparing(extension -> extension.getName().getName()))
+            .collect(Collectors.toList());
+    }
+
+    @NotNull
+    private List<VirtualFile> generateProject(int scale) throws Exception {
+        VirtualFile root = Objects.requireNonNull(myFixture.getTempDirFixture().getFile(""));
+
+        WriteAction.runAndWait(() -> SymfonyProjectGenerator.create().scale(scale).writeTo(root));
+
+        return VfsUtil.collectChildrenRecursively(root).stream()
+            .filter(file -> !file.isDirectory())
+            .collect(Collectors.toList());
+    }
+
+    private static class IndexThroughput {
+        @NotNull
+        private final ID<?, ?> id;
+
+        @NotNull
+        private final String name;
+
+        @NotNull
+        private final Set<VirtualFile> psiFiles = new HashSet<>();
+
+        private int files;
+        private int accepted;
+        private int withEntries;
+        private long bytes;
+        private long nanos;
+
+        IndexThroughput(@NotNull ID<?, ?> id) {
+            this.id = id;
+            this.name = id.getName();
+        }
+    }
+}
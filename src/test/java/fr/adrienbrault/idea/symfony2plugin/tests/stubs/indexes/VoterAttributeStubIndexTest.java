@@ -0,0 +1,105 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.VoterAttributeStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see VoterAttributeStubIndex
+ */
+public class VoterAttributeStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("PostVoter.php", "<?php\n" +
+            "namespace App\\Security;\n" +
+            "\n" +
+            "use Symfony\\Component\\Security\\Core\\Authorization\\Voter\\Voter;\n" +
+            "\n" +
+            "class PostVoter extends Voter\n" +
+            "{\n" +
+            "    const EDIT = 'POST_EDIT';\n" +
+            "    protected function supports($attribute, $subject)\n" +
+            "    {\n" +
+            "        return in_array($attribute, [self::EDIT, 'POST_VIEW', \\App\\Security\\Roles::DELETE, self::SHARE]);\n" +
+            "    }\n" +
+            "    const SHARE = \\App\\Security\\Roles::SHARE;\n" +
+            "    protected function voteOnAttribute($attribute, $subject, $token)\n" +
+            "    {\n" +
+            "        if ($attribute === 'POST_VIEW') return true;\n" +
+            "    }\n" +
+            "}\n"
+        );
+
+        myFixture.configureByText("CommentAccess.php", "<?php\n" +
+            "namespace App\\Security;\n" +
+            "\n" +
+            "class CommentAccess extends AppBase\n" +
+            "{\n" +
+            "    protected function supports($attribute, $subject)\n" +
+            "    {\n" +
+            "        return $attribute === 'COMMENT_EDIT';\n" +
+            "    }\n" +
+            "}\n"
+        );
+    }
+
+    public void testThatVoterAttributesAreIndexed() {
+        assertIndexContains(VoterAttributeStubIndex.KEY, "POST_EDIT", "POST_VIEW");
+        assertIndexNotContains(VoterAttributeStubIndex.KEY, "EDIT");
+
+        assertIndexContainsKeyWithValue(VoterAttributeStubIndex.KEY, "POST_VIEW", value -> value.stream().anyMatch(attribute ->
+            "\\App\\Security\\PostVoter".equals(attribute.getFqnClassName()) && !attribute.isConstant()
+        ));
+
+        assertIndexContainsKeyWithValue(VoterAttributeStubIndex.KEY, "\\App\\Security\\Roles::DELETE", value -> value.stream().anyMatch(attribute ->
+            attribute.isConstant()
+        ));
+    }
+
+    public void testThatAttributeUsagesOfAllMethodsAreIndexed() {
+        assertIndexContainsKeyWithValue(VoterAttributeStubIndex.KEY, "POST_VIEW", value ->
+            value.size() == 1 && value.get(0).getOffsets().size() == 2
+        );
+    }
+
+    public void testThatOwnConstantsWithoutStringValueAreIndexedForQueryTimeResolving() {
+        assertIndexContainsKeyWithValue(VoterAttributeStubIndex.KEY, "\\App\\Security\\PostVoter::SHARE", value -> value.stream().anyMatch(attribute ->
+            attribute.isConstant() && "\\App\\Security\\PostVoter".equals(attribute.getFqnClassName())
+        ));
+    }
+
+    public void testThatVotersWithoutVoterNameInsideFileAreIndexed() {
+        assertIndexContainsKeyWithValue(VoterAttributeStubIndex.KEY, "COMMENT_EDIT", value -> value.stream().anyMatch(attribute ->
+            "\\App\\Security\\CommentAccess".equals(attribute.getFqnClassName())
+        ));
+    }
+
+    public void testThatSharedAttributesOfMultipleVotersInsideOneFileAreIndexedForEachClass() {
+        myFixture.configureByText("SharedVoters.php", "<?php\n" +
+            "namespace App\\Security;\n" +
+            "\n" +
+            "class FooVoter extends Voter\n" +
+            "{\n" +
+            "    protected function supports($attribute, $subject)\n" +
+            "    {\n" +
+            "        return $attribute === 'SHARED_EDIT';\n" +
+            "    }\n" +
+            "}\n" +
+            "\n" +
+            "class BarVoter extends Voter\n" +
+            "{\n" +
+            "    protected function supports($attribute, $subject)\n" +
+            "    {\n" +
+            "        return $attribute === 'SHARED_EDIT';\n" +
+            "    }\n" +
+            "}\n"
+        );
+
+        assertIndexContainsKeyWithValue(VoterAttributeStubIndex.KEY, "SHARED_EDIT", value ->
+            value.size() == 2 &&
+            value.stream().anyMatch(attribute -> "\\App\\Security\\FooVoter".equals(attribute.getFqnClassName())) &&
+            value.stream().anyMatch(attribute -> "\\App\\Security\\BarVoter".equals(attribute.getFqnClassName()))
+        );
+    }
+}
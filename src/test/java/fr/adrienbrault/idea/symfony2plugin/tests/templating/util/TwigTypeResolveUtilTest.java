@@ -84,6 +84,33 @@ public class TwigTypeResolveUtilTest extends SymfonyLightCodeInsightFixtureTestC
         assertContainsElements(stringPsiVariableMap.get("b").getTypes(), "\\Foo\\Bar");
     }
 
+    /**
+     * @see TwigTypeResolveUtil#collectScopeVariables
+     */
+    public void testCollectScopeVariablesLayersMacroScopeOnCachedFileVariables() {
+        myFixture.configureByText(TwigFileType.INSTANCE,
+            "{# @var b \\Foo\\Bar #}\n" +
+                "{% macro foo(bar) %}\n" +
+                "    {{ <caret> }}\n" +
+                "{% endmacro %}\n" +
+                "{{ outside }}"
+        );
+
+        PsiElement macroElement = myFixture.getFile().findElementAt(myFixture.getCaretOffset());
+        PsiElement outsideElement = myFixture.getFile().findElementAt(myFixture.getFile().getText().indexOf("outside"));
+
+        Map<String, PsiVariable> macroScope = TwigTypeResolveUtil.collectScopeVariables(macroElement);
+        assertContainsElements(macroScope.keySet(), "b", "bar");
+
+        // scope variables must not leak into the file cache
+        macroScope.get("b").addType("\\Foo\\Car");
+
+        Map<String, PsiVariable> outsideScope = TwigTypeResolveUtil.collectScopeVariables(outsideElement);
+        assertContainsElements(outsideScope.keySet(), "b");
+        assertDoesntContain(outsideScope.keySet(), "bar");
+        assertDoesntContain(outsideScope.get("b").getTypes(), "\\Foo\\Car");
+    }
+
     private void assertMatches(@NotNull String content, @NotNull String... regularExpressions) {
         for (String regularExpression : regularExpressions) {
             if(content.matches(regularExpression)) {
@@ -324,4 +324,52 @@ public class PhpElementsUtilTest extends SymfonyLightCodeInsightFixtureTestCase
         assertEquals(secondClass.findOwnMethodByName("method"), actualResult[0]);
         assertEquals(firstClass.findOwnMethodByName("method"), actualResult[1]);
     }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil#getMethodReferenceInstanceOf
+     */
+    public void testGetMethodReferenceInstanceOfReturnsAllMatchingSignaturesInOrder() {
+        myFixture.addFileToProject("OptionsResolver.php", "<?php\n" +
+            "interface OptionsResolverInterface { public function setDefaults(array $d); }\n" +
+            "class OptionsResolver implements OptionsResolverInterface { public function setDefaults(array $d) {} }\n"
+        );
+
+        MethodReference methodReference = PhpPsiElementFactory.createPhpPsiFromText(getProject(), MethodReference.class, "<?php /** @var OptionsResolver $r */ $r->setDefaults([]);");
+
+        MethodMatcher.CallToSignature resolver = new MethodMatcher.CallToSignature("\\OptionsResolver", "setDefaults");
+        MethodMatcher.CallToSignature resolverInterface = new MethodMatcher.CallToSignature("\\OptionsResolverInterface", "setDefaults");
+        MethodMatcher.CallToSignature otherMethod = new MethodMatcher.CallToSignature("\\OptionsResolver", "setRequired");
+
+        assertEquals(
+            Arrays.asList(resolverInterface, resolver),
+            PhpElementsUtil.getMethodReferenceInstanceOf(methodReference, Arrays.asList(otherMethod, resolverInterface, resolver))
+        );
+
+        assertEmpty(PhpElementsUtil.getMethodReferenceInstanceOf(methodReference, Collections.singletonList(otherMethod)));
+        assertTrue(PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, otherMethod, resolver));
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil#isMethodReferenceInstanceOf(MethodReference, MethodMatcher.CallToSignatureTable)
+     */
+    public void testIsMethodReferenceInstanceOfSignatureTable() {
+        myFixture.addFileToProject("OptionsResolver.php", "<?php\n" +
+            "class OptionsResolver { public function setDefaults(array $d) {} }\n"
+        );
+
+        MethodReference methodReference = PhpPsiElementFactory.createPhpPsiFromText(getProject(), MethodReference.class, "<?php /** @var OptionsResolver $r */ $r->setDefaults([]);");
+
+        MethodMatcher.CallToSignatureTable table = MethodMatcher.CallToSignatureTable.create(
+            new MethodMatcher.CallToSignature("\\OptionsResolver", "setRequired"),
+            new MethodMatcher.CallToSignature("\\OptionsResolver", "setDefaults")
+        );
+
+        assertEquals(1, table.getSignatures("setDefaults").size());
+        assertEmpty(table.getSignatures("unknown"));
+
+        assertTrue(PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, table));
+        assertFalse(PhpElementsUtil.isMethodReferenceInstanceOf(methodReference, MethodMatcher.CallToSignatureTable.create(
+            new MethodMatcher.CallToSignature("\\OptionsResolver", "setRequired")
+        )));
+    }
 }
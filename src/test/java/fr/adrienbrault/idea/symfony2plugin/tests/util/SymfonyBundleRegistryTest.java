@@ -0,0 +1,71 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util;
+
+import com.intellij.psi.PsiFile;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyBundleRegistry;
+import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyBundleRegistry
+ */
+public class SymfonyBundleRegistryTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.addFileToProject("vendor/Bundle.php", "<?php\n" +
+            "namespace Symfony\\Component\\HttpKernel\\Bundle { class Bundle {} }"
+        );
+
+        myFixture.addFileToProject("src/Foo/FooBundle.php", "<?php\n" +
+            "namespace Foo { class FooBundle extends \\Symfony\\Component\\HttpKernel\\Bundle\\Bundle {} }"
+        );
+
+        myFixture.addFileToProject("src/Foo/Bar/BarBundle.php", "<?php\n" +
+            "namespace Foo\\Bar { class BarBundle extends \\Symfony\\Component\\HttpKernel\\Bundle\\Bundle {} }"
+        );
+    }
+
+    public void testGetBundleByName() {
+        SymfonyBundleRegistry registry = SymfonyBundleRegistry.getInstance(getProject());
+
+        assertEquals("FooBundle", registry.getBundle("FooBundle").iterator().next().getName());
+        assertEmpty(registry.getBundle("UnknownBundle"));
+        assertSame(registry.getBundles(), registry.getBundles());
+    }
+
+    public void testGetContainingBundleForPhpClassUsesInnermostNamespace() {
+        myFixture.addFileToProject("src/Foo/Bar/Controller/BarController.php", "<?php\n" +
+            "namespace Foo\\Bar\\Controller { class BarController {} }"
+        );
+
+        myFixture.addFileToProject("src/Foo/Controller/FooController.php", "<?php\n" +
+            "namespace Foo\\Controller { class FooController {} }"
+        );
+
+        SymfonyBundleRegistry registry = SymfonyBundleRegistry.getInstance(getProject());
+
+        PhpClass barController = PhpElementsUtil.getClass(getProject(), "\\Foo\\Bar\\Controller\\BarController");
+        SymfonyBundle bundle = registry.getContainingBundle(barController);
+        assertNotNull(bundle);
+        assertEquals("BarBundle", bundle.getName());
+
+        bundle = registry.getContainingBundle(PhpElementsUtil.getClass(getProject(), "\\Foo\\Controller\\FooController"));
+        assertNotNull(bundle);
+        assertEquals("FooBundle", bundle.getName());
+    }
+
+    public void testGetContainingBundleForFileUsesInnermostDirectory() {
+        PsiFile barFile = myFixture.addFileToProject("src/Foo/Bar/Resources/views/index.html.twig", "");
+        PsiFile fooFile = myFixture.addFileToProject("src/Foo/Resources/views/index.html.twig", "");
+        PsiFile otherFile = myFixture.addFileToProject("templates/index.html.twig", "");
+
+        SymfonyBundleRegistry registry = SymfonyBundleRegistry.getInstance(getProject());
+
+        assertEquals("BarBundle", registry.getContainingBundle(barFile.getVirtualFile()).getName());
+        assertEquals("FooBundle", registry.getContainingBundle(fooFile.getVirtualFile()).getName());
+        assertNull(registry.getContainingBundle(otherFile.getVirtualFile()));
+    }
+}
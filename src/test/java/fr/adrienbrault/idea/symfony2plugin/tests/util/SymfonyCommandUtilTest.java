@@ -26,7 +26,7 @@ public class SymfonyCommandUtilTest extends SymfonyLightCodeInsightFixtureTestCa
     public void testGetCommands() {
         Collection<SymfonyCommand> commands = SymfonyCommandUtil.getCommands(getProject());
 
-        for (String s : new String[]{"foo", "property", "const", "app:create-user-1", "app:create-user-2", "app:create-user-3"}) {
+        for (String s : new String[]{"foo", "property", "const", "app:create-user-1", "app:create-user-2", "app:create-user-3", "app:other-const", "app:default-name-const", "app:inherited"}) {
             SymfonyCommand command = commands.stream()
                 .filter(symfonyCommand -> s.equals(symfonyCommand.getName())).findFirst()
                 .orElseThrow();
@@ -35,4 +35,15 @@ public class SymfonyCommandUtilTest extends SymfonyLightCodeInsightFixtureTestCa
             assertNotNull(command.getPhpClass());
         }
     }
+
+    /**
+     * @see SymfonyCommandUtil#getCommands
+     */
+    public void testGetCommandsInheritsDefaultNameOfParentClass() {
+        SymfonyCommand command = SymfonyCommandUtil.getCommands(getProject()).stream()
+            .filter(symfonyCommand -> "app:inherited".equals(symfonyCommand.getName())).findFirst()
+            .orElseThrow();
+
+        assertEquals("\\Foo\\InheritedNameCommand", command.getPhpClass().getFQN());
+    }
 }
@@ -1,10 +1,15 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.util.dict;
 
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
+import fr.adrienbrault.idea.symfony2plugin.dic.ClassServiceDefinitionTargetLazyValue;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceIndexUtil;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyTempCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 
 /**
@@ -38,8 +43,13 @@ public class ServiceUtilTempProjectTest extends SymfonyTempCodeInsightFixtureTes
         assertFalse(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/*"), Collections.singleton("../src/{Foobar,Kernel.php}")));
         assertTrue(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/*"), Collections.singleton("../src/{Migrations,Kernel.php}")));
 
-        // nested: not supported and must not break in exception
+        // nested
         assertFalse(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/{DependencyInjection,Entity,Migrations,Tests,Kernel.php,Service/{IspConfiguration,DataCollection}}"), Collections.emptyList()));
+        assertTrue(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/{Entity,Foobar/{Foo,Bar.php}}"), Collections.emptyList()));
+        assertFalse(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/*"), Collections.singleton("../src/{Entity,Foobar/{Foo,Bar.php}}")));
+
+        // invalid pattern must not break in exception
+        assertFalse(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/{Foobar"), Collections.emptyList()));
     }
 
     public void testServiceResourcesWithDepth() {
@@ -107,4 +117,37 @@ public class ServiceUtilTempProjectTest extends SymfonyTempCodeInsightFixtureTes
         assertFalse(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/*"), Arrays.asList("../src/{Bar,Kernel.php}", "../src/{Foobar,Kernel.php}")));
         assertTrue(ServiceIndexUtil.matchesResourcesGlob(file, file2, Collections.singleton("../src/*"), Arrays.asList("../src/{Migrations,Kernel.php}", "../src/{Migrations2,Kernel.php}")));
    }
+
+    public void testFindServiceDefinitionsOfResourceLazy() {
+        createFile(
+            "config/services.yml",
+            "services:\n" +
+                "    App\\:\n" +
+                "        resource: '../src/*'\n" +
+                "        exclude: '../src/{Entity,Foobar/{Foo,Kernel.php}}'"
+        );
+
+        createFile(
+            "src/Foobar/Bar.php",
+            "<?php\n" +
+                "namespace App\\Foobar;\n" +
+                "class Bar {}\n"
+        );
+
+        createFile(
+            "src/Entity/Car.php",
+            "<?php\n" +
+                "namespace App\\Entity;\n" +
+                "class Car {}\n"
+        );
+
+        Pair<ClassServiceDefinitionTargetLazyValue, Collection<ContainerService>> services = ServiceIndexUtil.findServiceDefinitionsOfResourceLazy(
+            PhpElementsUtil.getClass(getProject(), "\\App\\Foobar\\Bar")
+        );
+
+        assertNotNull(services);
+        assertTrue(services.getSecond().stream().anyMatch(service -> "App\\".equals(service.getName())));
+
+        assertNull(ServiceIndexUtil.findServiceDefinitionsOfResourceLazy(PhpElementsUtil.getClass(getProject(), "\\App\\Entity\\Car")));
+    }
 }
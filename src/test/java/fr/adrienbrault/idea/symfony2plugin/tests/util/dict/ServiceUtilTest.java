@@ -11,6 +11,8 @@ import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -70,6 +72,41 @@ public class ServiceUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         ));
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver.ServiceCollector#getServiceIdsForSupertype
+     */
+    public void testGetServiceSuggestionForPhpClassUsesSupertypeIndexAndForeignServices() {
+        myFixture.configureByText(XmlFileType.INSTANCE, "" +
+            "<container>\n" +
+            "    <services>\n" +
+            "        <service id=\"my_bar_instance\" class=\"MyBarInstance\"/>\n" +
+            "    </services>\n" +
+            "</container>\n"
+        );
+
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php\n" +
+            "interface MyBarInstanceInterface{};\n" +
+            "class MyBarParent implements MyBarInstanceInterface{};\n" +
+            "class MyBarInstance extends MyBarParent {};\n" +
+            "class MyBarOther {};"
+        );
+
+        ContainerCollectionResolver.ServiceCollector collector = ContainerCollectionResolver.ServiceCollector.create(getProject());
+        assertContainsElements(collector.getServiceIdsForSupertype("\\MyBarInstanceInterface"), "my_bar_instance");
+        assertContainsElements(collector.getServiceIdsForSupertype("MyBarParent"), "my_bar_instance");
+        assertDoesntContain(collector.getServiceIdsForSupertype("MyBarOther"), "my_bar_instance");
+
+        // services which are not part of the project map are still checked
+        Collection<ContainerService> services = Arrays.asList(
+            new ContainerService("foreign_bar", "MyBarInstance"),
+            new ContainerService("foreign_other", "MyBarOther")
+        );
+
+        Collection<ContainerService> suggestions = ServiceUtil.getServiceSuggestionForPhpClass(PhpElementsUtil.getClassInterface(getProject(), "MyBarInstanceInterface"), services);
+        assertNotNull(ContainerUtil.find(suggestions, new MyNameContainerServiceCondition("foreign_bar")));
+        assertNull(ContainerUtil.find(suggestions, new MyNameContainerServiceCondition("foreign_other")));
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil#getParameterParameters
      */
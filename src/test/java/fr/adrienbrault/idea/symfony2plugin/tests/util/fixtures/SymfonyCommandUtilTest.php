@@ -51,4 +51,30 @@ namespace Foo
     {
         protected static $defaultName = 'app:create-user-3';
     }
-}
\ No newline at end of file
+
+    class CommandNames
+    {
+        const OTHER = 'app:other-const';
+        const DEFAULT_NAME = 'app:default-name-const';
+    }
+
+    class OtherConstCommand extends Command
+    {
+        public function configure()
+        {
+            $this->setName(CommandNames::OTHER);
+        }
+    }
+
+    class DefaultNameConstCommand extends Command
+    {
+        protected static $defaultName = CommandNames::DEFAULT_NAME;
+    }
+
+    abstract class AbstractNameCommand extends Command
+    {
+        protected static $defaultName = 'app:inherited';
+    }
+
+    class InheritedNameCommand extends AbstractNameCommand {}
+}
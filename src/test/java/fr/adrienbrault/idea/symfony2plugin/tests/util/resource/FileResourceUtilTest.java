@@ -103,6 +103,20 @@ public class FileResourceUtilTest extends SymfonyLightCodeInsightFixtureTestCase
         assertFalse(fileResources.stream().anyMatch(pair -> pair.getFirst().getPath().equals(psiFile.getVirtualFile().getPath())));
     }
 
+    public void testFileResourcesForRouteDirectory() {
+        myFixture.addFileToProject("config/routes.yaml", "" +
+            "controllers:\n" +
+            "    resource: ../src/Controller/\n" +
+            "    type: annotation\n"
+        );
+
+        VirtualFile nested = myFixture.addFileToProject("src/Controller/Admin/FooController.php", "<?php").getVirtualFile();
+        VirtualFile outside = myFixture.addFileToProject("src/Service/FooService.php", "<?php").getVirtualFile();
+
+        assertTrue(FileResourceUtil.getFileResources(getProject(), nested).stream().anyMatch(pair -> pair.getSecond().equals("../src/Controller")));
+        assertTrue(FileResourceUtil.getFileResources(getProject(), outside).isEmpty());
+    }
+
     public void testGetFileImplementsLineMarker() {
         myFixture.copyFileToProject("services.xml", "config/services.xml");
         VirtualFile virtualFile = myFixture.copyFileToProject("classes.php", "src/Test.php");